@@ -0,0 +1,86 @@
+package ui.toolkit.benchmark;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ui.toolkit.constraint.FormConstraint;
+import ui.toolkit.constraint.IntProperty;
+import ui.toolkit.graphics.object.OutlineRect;
+
+/**
+ * Out-of-date propagation (Dependency.markOutOfDate() through setX()) and
+ * lazy evaluation (Dependency.evaluate() through getX()) over rectangles
+ * whose x is constrained by the x of another one
+ *
+ * chain: each rectangle follows the previous one; fan-out: all follow the
+ * first. A change of the first x is propagated to all, and only the last
+ * one is read, or all of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+// evaluating a long chain recurses once per link
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+public class ConstraintBenchmarks {
+    @Param({ "chain", "fan-out" })
+    public String shape;
+
+    @Param({ "1000", "10000" })
+    public int size;
+
+    private OutlineRect[] rects;
+    private int x = 0;
+
+    @Setup
+    public void setUp() {
+        rects = new OutlineRect[size];
+        for (int i = 0; i < size; ++i) {
+            rects[i] = new OutlineRect(0, 0, 10, 10, Color.BLACK, 1);
+            if (i > 0) {
+                OutlineRect source = shape.equals("chain") ? rects[i - 1] : rects[0];
+                rects[i].setX(FormConstraint.offset(IntProperty.of(source, "x"), 1));
+            }
+        }
+        // bring everything up to date once
+        readAll();
+    }
+
+    @Benchmark
+    public int propagate() {
+        rects[0].setX(++x);
+        return rects[size - 1].getX();
+    }
+
+    @Benchmark
+    public long propagateAndReadAll() {
+        rects[0].setX(++x);
+        return readAll();
+    }
+
+    @Benchmark
+    public int readUpToDate() {
+        return rects[size - 1].getX();
+    }
+
+    private long readAll() {
+        long sum = 0;
+        for (OutlineRect rect : rects) {
+            sum += rect.getX();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package ui.toolkit.benchmark;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ui.toolkit.graphics.group.Group;
+import ui.toolkit.graphics.group.LayoutGroup;
+import ui.toolkit.graphics.group.ScaledGroup;
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.FilledRect;
+import ui.toolkit.graphics.object.OutlineRect;
+
+/**
+ * Drawing a group of rectangles into an offscreen BufferedImage, as
+ * InteractiveWindowGroup.redraw() does, for each kind of group
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class DrawBenchmarks {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    @Param({ "simple", "layout", "scaled" })
+    public String group;
+
+    @Param({ "100", "1000" })
+    public int children;
+
+    private Group root;
+    private BufferedImage buffer;
+    private Graphics2D graphics;
+    private BoundaryRectangle clip;
+
+    @Setup
+    public void setUp() {
+        switch (group) {
+        case "layout":
+            root = new LayoutGroup(0, 0, WIDTH, HEIGHT, LayoutGroup.HORIZONTAL, 2);
+            break;
+        case "scaled":
+            root = new ScaledGroup(0, 0, WIDTH, HEIGHT, 0.5, 0.5);
+            break;
+        default:
+            root = new SimpleGroup(0, 0, WIDTH, HEIGHT);
+            break;
+        }
+        for (int i = 0; i < children; ++i) {
+            int x = (i * 13) % WIDTH, y = (i * 7) % HEIGHT;
+            root.addChild((i % 2 == 0) ? new FilledRect(x, y, 12, 8, Color.BLUE)
+                    : new OutlineRect(x, y, 12, 8, Color.RED, 1));
+        }
+        buffer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = buffer.createGraphics();
+        clip = new BoundaryRectangle(0, 0, WIDTH, HEIGHT);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage draw() {
+        graphics.setColor(Color.WHITE);
+        graphics.fill(clip);
+        root.draw(graphics, clip);
+        return buffer;
+    }
+}
@@ -0,0 +1,49 @@
+package ui.toolkit.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.speech.util.Complex;
+import com.speech.util.FFT;
+
+/**
+ * FFT.fft() of a random signal, at the window sizes of the speech input
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FFTBenchmarks {
+    @Param({ "512", "4096" })
+    public int size;
+
+    private Complex[] signal;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        signal = new Complex[size];
+        for (int i = 0; i < size; ++i) {
+            signal[i] = new Complex(random.nextGaussian(), 0.0);
+        }
+    }
+
+    @Benchmark
+    public Complex[] fft() {
+        return FFT.fft(signal);
+    }
+}
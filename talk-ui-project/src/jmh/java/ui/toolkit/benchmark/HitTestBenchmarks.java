@@ -0,0 +1,74 @@
+package ui.toolkit.benchmark;
+
+import java.awt.Color;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ui.toolkit.behavior.BehaviorEvent;
+import ui.toolkit.behavior.ChoiceBehavior;
+import ui.toolkit.behavior.MoveBehavior;
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.selectable.SelectableFilledRect;
+
+/**
+ * Hit testing when a behavior starts: the press lands on the back-most of
+ * a grid of non-overlapping children, so start() tests every child front
+ * to back before it finds it, unless the group has a SpatialIndex
+ *
+ * A behavior only starts when idle, so each invocation uses a new one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmarks {
+    private static final int COLUMNS = 100;
+
+    @Param({ "100", "10000", "50000" })
+    public int children;
+
+    @Param({ "false", "true" })
+    public boolean indexed;
+
+    private SimpleGroup group;
+    private BehaviorEvent press;
+
+    @Setup
+    public void setUp() {
+        int rows = (children + COLUMNS - 1) / COLUMNS;
+        group = new SimpleGroup(0, 0, COLUMNS * 10, rows * 10);
+        for (int i = 0; i < children; ++i) {
+            group.addChild(new SelectableFilledRect((i % COLUMNS) * 10, (i / COLUMNS) * 10, 8, 8, Color.BLUE));
+        }
+        group.setSpatialIndex(indexed);
+        press = new BehaviorEvent(BehaviorEvent.NO_MODIFIER, BehaviorEvent.LEFT_MOUSE_KEY,
+                BehaviorEvent.MOUSE_DOWN_ID, 4, 4);
+    }
+
+    @Benchmark
+    public boolean choiceStart() {
+        ChoiceBehavior behavior = new ChoiceBehavior();
+        behavior.setGroup(group);
+        return behavior.start(press);
+    }
+
+    @Benchmark
+    public boolean moveStart() {
+        MoveBehavior behavior = new MoveBehavior();
+        behavior.setGroup(group);
+        return behavior.start(press);
+    }
+}
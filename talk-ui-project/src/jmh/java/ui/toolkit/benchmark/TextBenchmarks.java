@@ -0,0 +1,48 @@
+package ui.toolkit.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.Text;
+
+/**
+ * Text.getBoundingBox(), measured with the font on every call
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TextBenchmarks {
+    @Param({ "1", "10" })
+    public int lines;
+
+    private Text text;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines; ++i) {
+            builder.append((i > 0) ? "\n" : "").append("The quick brown fox jumps over the lazy dog ").append(i);
+        }
+        text = new Text(builder.toString(), 10, 20);
+    }
+
+    @Benchmark
+    public BoundaryRectangle boundingBox() {
+        return text.getBoundingBox();
+    }
+}
@@ -4,7 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 
-import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.graphics.object.FilledRect;
 import ui.toolkit.graphics.object.Text;
 import ui.toolkit.graphics.object.selectable.SelectableOutlineRect;
@@ -27,27 +27,27 @@ public class Box extends SelectableOutlineRect {
         this.type = type;
 
         // constraints for fill position
-        fill.setX(new Constraint<Integer>(this.useX()) {
-            public Integer getValue() {
+        fill.setX(new IntConstraint(this.useX()) {
+            public int getIntValue() {
                 return getX();
             }
         });
 
-        fill.setY(new Constraint<Integer>(this.useY()) {
-            public Integer getValue() {
+        fill.setY(new IntConstraint(this.useY()) {
+            public int getIntValue() {
                 return getY();
             }
         });
 
         // constraints for label position
-        label.setX(new Constraint<Integer>(this.useX(), this.useWidth()) {
-            public Integer getValue() {
+        label.setX(new IntConstraint(this.useX(), this.useWidth(), label.useText(), label.useFont()) {
+            public int getIntValue() {
                 return getX() + (getWidth() - label.getWidth()) / 2;
             }
         });
 
-        label.setY(new Constraint<Integer>(this.useY()) {
-            public Integer getValue() {
+        label.setY(new IntConstraint(this.useY(), label.useFont()) {
+            public int getIntValue() {
                 return getY() + label.getHeight();
             }
         });
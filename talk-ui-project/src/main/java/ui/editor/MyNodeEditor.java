@@ -7,6 +7,7 @@ import ui.toolkit.behavior.ChoiceBehavior;
 import ui.toolkit.behavior.InteractiveWindowGroup;
 import ui.toolkit.behavior.MoveBehavior;
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.group.Group;
 import ui.toolkit.graphics.group.LayoutGroup;
@@ -101,18 +102,28 @@ public class MyNodeEditor extends InteractiveWindowGroup {
                             NewBoxBehavior.OUTLINE_RECT, Color.BLACK, 1,
                             selectionConstraint
                         )
-                        .setLineThickness(new Constraint<Integer>(lineThicknessSlider.useValue()) {
-                            public Integer getValue() {
+                        .setLineThickness(new IntConstraint(lineThicknessSlider.useValue()) {
+                            public int getIntValue() {
                                 return lineThicknessSlider.getValue();
                             }
                         })
                         .setColor(new Constraint<Color>(lineColors.useValue()) {
+                            {
+                                // reads the label of whichever button is selected
+                                setSideEffects(true);
+                            }
+
                             public Color getValue() {
                                 return ((Line) lineColors.getValue().getLabel()).getColor();
                             }
                         })
-                        .setType(new Constraint<Integer>(boxStyles.useValue()) {
-                            public Integer getValue() {
+                        .setType(new IntConstraint(boxStyles.useValue()) {
+                            {
+                                // reads the check boxes themselves
+                                setSideEffects(true);
+                            }
+
+                            public int getIntValue() {
                                 int outline = ((CheckBox) boxStyles.getChildren().get(0)).isSelected() ? Box.OUTLINE : 0;
                                 int filled = ((CheckBox) boxStyles.getChildren().get(1)).isSelected() ? Box.FILLED : 0;
                                 return outline + filled;
@@ -128,7 +139,7 @@ public class MyNodeEditor extends InteractiveWindowGroup {
                 .setCallback(o -> {
                     for (GraphicalObject child : drawingPanel.getChildren()) {
                         if (((Box) child).isSelected()) {
-                            drawingPanel.removeChild(child);
+                            drawingPanel.deleteChild(child);
                         }
                     }
                 });
@@ -1,5 +1,6 @@
 package ui.talk;
 
+import ui.toolkit.constraint.ConstraintTransaction;
 import ui.toolkit.graphics.object.GraphicalObject;
 import ui.toolkit.graphics.object.Rect;
 
@@ -18,7 +19,11 @@ public class InteractionOutcome {
     }
 
     public void apply() {
+        // apply all property changes of the outcome in one propagation pass
+        ConstraintTransaction.run(this::applyChanges);
+    }
 
+    private void applyChanges() {
         // apply the outcome for setting the color property for a variety of objects
         switch (property.toLowerCase()) {
             case "color": {
@@ -58,8 +58,9 @@ public class TalkUI extends InteractiveWindowGroup {
     private String sessionId;
     private String projectId;
 
-    Integer placeX = null;
-    Integer placeY = null;
+    // set on the event dispatch thread, polled by the voice thread
+    volatile Integer placeX = null;
+    volatile Integer placeY = null;
 
     public PropertySheet propertySheet;
 
@@ -200,24 +201,29 @@ public class TalkUI extends InteractiveWindowGroup {
         }
 
         if (queryResult != null) {
-            GraphicalObject object = handler.handle(queryResult, drawingPanel);
-
-            Text detectedText = new Text(queryResult.getQueryText());
-            Text responseText = new Text(queryResult.getFulfillmentText());
-            detectedText.setColor(Color.BLUE);
-            responseText.setColor(new Color(192, 0, 255)); // purple
-            voiceControlPlane.addChildToTop(detectedText);
-            voiceControlPlane.addChildToTop(responseText);
-
-            placeX = placeY = null;
-
-            if (object != null) {
-                drawingPanel.addChild(object);
-                followCursor(object);
-            }
-            redraw();
+            // this runs on the voice thread: the scene is changed on the event
+            // dispatch thread, and redrawn after the batch
+            QueryResult result = queryResult;
+            GraphicalObject object = getCommandQueue().submit(() -> {
+                GraphicalObject created = handler.handle(result, drawingPanel);
+
+                Text detectedText = new Text(result.getQueryText());
+                Text responseText = new Text(result.getFulfillmentText());
+                detectedText.setColor(Color.BLUE);
+                responseText.setColor(new Color(192, 0, 255)); // purple
+                voiceControlPlane.addChildToTop(detectedText);
+                voiceControlPlane.addChildToTop(responseText);
+
+                placeX = placeY = null;
+
+                if (created != null) {
+                    drawingPanel.addChild(created);
+                    moveToCursor(created);
+                }
+                return created;
+            }).join();
 
-            tts.speak(responseText.getText());
+            tts.speak(queryResult.getFulfillmentText());
             System.out.println(placeX + " " + placeY);
 
             if (object != null) {
@@ -231,54 +237,68 @@ public class TalkUI extends InteractiveWindowGroup {
             if (needsSelection) {
 
                 System.out.println("Needs selection to continue...");
-                while (ChoiceBehavior.lastSelectedGlobalObject == null) {
-                    // take the specified interaction outcome
-                    // set it to the global map of object to outcome
-                    System.out.println("Waiting for selection...");
-                }
-                System.out.println("Selection made: " + ChoiceBehavior.lastSelectedGlobalObject);
+                // take the specified interaction outcome
+                // set it to the global map of object to outcome
+                SelectableGraphicalObject selection = ChoiceBehavior.selection().join();
+                System.out.println("Selection made: " + selection);
+                getCommandQueue().submit(() -> {
+                    registerOutcome();
+                    return null;
+                }).join();
+            }
 
-                List<Behavior> behaviors = ChoiceBehavior.lastSelectedGlobalObject.getGroup().getBehaviors();
-                Widget<?> root = null;
-                for (Behavior b: behaviors) {
-                    if (b instanceof ChoiceBehavior) {
-                        root = ((ChoiceBehavior) b).getRoot();
-                    }
-                }
+            placeX = placeY = null;
+
+        } else {
+            System.out.println("Didn't hear anything or get a response.");
+        }
+    }
 
-                // reset the parent group's callback to trigger the outcome lookup
-                if (root != null) {
-                    root.setCallback(v -> {
-                        System.out.println(v + " was selected, looking for outcome.");
+    // attach the pending interaction outcome to the selected object's group
+    private void registerOutcome() {
+        List<Behavior> behaviors = ChoiceBehavior.lastSelectedGlobalObject.getGroup().getBehaviors();
+        Widget<?> root = null;
+        for (Behavior b: behaviors) {
+            if (b instanceof ChoiceBehavior) {
+                root = ((ChoiceBehavior) b).getRoot();
+            }
+        }
 
-                        InteractionOutcome outcome = outcomes.get(v);
-                        if (outcome != null) {
-                            outcome.apply();
-                        }
-                    });
-                }
+        // reset the parent group's callback to trigger the outcome lookup
+        if (root != null) {
+            root.setCallback(v -> {
+                System.out.println(v + " was selected, looking for outcome.");
 
-                // add the interaction outcome to the lookup list
-                if (interactionTarget == null) {
-                    interactionTarget = ChoiceBehavior.lastSelectedGlobalObject;
+                InteractionOutcome outcome = outcomes.get(v);
+                if (outcome != null) {
+                    outcome.apply();
                 }
-                interactionOutcome.target = interactionTarget;
-
-                outcomes.put(ChoiceBehavior.lastSelectedGlobalObject, interactionOutcome);
+            });
+        }
 
-                needsSelection = false;
-                interactionTarget = null;
-                interactionOutcome = null;
-            }
+        // add the interaction outcome to the lookup list
+        if (interactionTarget == null) {
+            interactionTarget = ChoiceBehavior.lastSelectedGlobalObject;
+        }
+        interactionOutcome.target = interactionTarget;
 
-            placeX = placeY = null;
+        outcomes.put(ChoiceBehavior.lastSelectedGlobalObject, interactionOutcome);
 
-        } else {
-            System.out.println("Didn't hear anything or get a response.");
-        }
+        needsSelection = false;
+        interactionTarget = null;
+        interactionOutcome = null;
     }
 
+    // called from the voice thread: wait for the move, which also paces the
+    // polling loop to the redraws
     private void followCursor(GraphicalObject object) {
+        getCommandQueue().submit(() -> {
+            moveToCursor(object);
+            return null;
+        }).join();
+    }
+
+    private void moveToCursor(GraphicalObject object) {
         Point cursor = getMousePosition();
 
         if (cursor != null) {
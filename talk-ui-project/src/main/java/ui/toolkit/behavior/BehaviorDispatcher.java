@@ -0,0 +1,62 @@
+package ui.toolkit.behavior;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BehaviorDispatcher {
+    /**
+     * BehaviorDispatcher class: deliver input events to the behaviors of a
+     * window in priority order
+     *
+     * Every behavior checks the event until one consumes it; behaviors of
+     * lower priority than the first one are then skipped. The dispatcher
+     * needs no window: InteractiveWindowGroup feeds it the events of its
+     * canvas, and benchmarks or tests can replay a scripted event stream
+     * through the same logic without a display.
+     */
+    private final List<Behavior> behaviors = new ArrayList<>();
+    private boolean sorted = false;
+
+    public BehaviorDispatcher add(Behavior behavior) {
+        behaviors.add(behavior);
+        sorted = false;
+        return this;
+    }
+
+    public BehaviorDispatcher remove(Behavior behavior) {
+        behaviors.remove(behavior);
+        return this;
+    }
+
+    public List<Behavior> getBehaviors() {
+        return new ArrayList<Behavior>(behaviors);
+    }
+
+    public boolean isEmpty() {
+        return behaviors.isEmpty();
+    }
+
+    /**
+     * @return whether any behavior consumed the event
+     */
+    public boolean dispatch(BehaviorEvent behaviorEvent) {
+        if (behaviors.isEmpty()) {
+            return false;
+        }
+        if (!sorted) {
+            Collections.sort(behaviors);
+            sorted = true;
+        }
+
+        Behavior lastBehavior = behaviors.get(0);
+        boolean eventConsumed = false;
+        for (Behavior behavior : behaviors) {
+            if (eventConsumed && behavior.compareTo(lastBehavior) > 0) {
+                break;
+            }
+            eventConsumed = behavior.check(behaviorEvent) || eventConsumed;
+        }
+        return eventConsumed;
+    }
+}
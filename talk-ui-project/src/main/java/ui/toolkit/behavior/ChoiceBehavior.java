@@ -3,6 +3,8 @@ package ui.toolkit.behavior;
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 import ui.talk.TalkUI;
 import ui.toolkit.graphics.group.Group;
@@ -22,6 +24,10 @@ public class ChoiceBehavior implements Behavior {
     private boolean firstOnly; // control interimSelected in running
     private boolean startInGroup;
     private SelectableGraphicalObject firstObject;
+    // the object shown as interim selected while running
+    private SelectableGraphicalObject interimObject;
+
+    private static final Predicate<GraphicalObject> SELECTABLE = child -> child instanceof SelectableGraphicalObject;
 
     // Static constants for selection type
     public static final int SINGLE = 0;
@@ -33,7 +39,9 @@ public class ChoiceBehavior implements Behavior {
 
     private Widget<?> root;
 
-    public static SelectableGraphicalObject lastSelectedGlobalObject = null;
+    public static volatile SelectableGraphicalObject lastSelectedGlobalObject = null;
+    // completed by the first selection in any group
+    private static final CompletableFuture<SelectableGraphicalObject> firstSelection = new CompletableFuture<>();
 
     /**
      * ChoiceBehavior constructor
@@ -183,16 +191,13 @@ public class ChoiceBehavior implements Behavior {
             }
             // find the object on which the event occurs
             this.startInGroup = true;
-            List<GraphicalObject> children = group.getChildren();
-            for (int idx = children.size() - 1; idx >= 0; --idx) { // front to back
-                GraphicalObject child = children.get(idx);
-                if (child.contains(eventInGroup) && child instanceof SelectableGraphicalObject) {
-                    SelectableGraphicalObject selectableChild = (SelectableGraphicalObject) child;
-                    selectableChild.setInterimSelected(true);
-                    this.firstObject = selectableChild;
-                    this.state = RUNNING_INSIDE;
-                    return true;
-                }
+            GraphicalObject child = group.childAt(eventInGroup, SELECTABLE);
+            if (child != null) {
+                SelectableGraphicalObject selectableChild = (SelectableGraphicalObject) child;
+                selectableChild.setInterimSelected(true);
+                this.firstObject = this.interimObject = selectableChild;
+                this.state = RUNNING_INSIDE;
+                return true;
             }
         }
         return false;
@@ -223,19 +228,15 @@ public class ChoiceBehavior implements Behavior {
             }
 
             // case 2: target object can change as mouse moves
-            List<GraphicalObject> children = group.getChildren();
-            boolean interimSelectionOccupied = false;
-            for (int idx = children.size() - 1; idx >= 0; --idx) { // front to back
-                GraphicalObject child = children.get(idx);
-                if (child instanceof SelectableGraphicalObject) {
-                    SelectableGraphicalObject selectableChild = (SelectableGraphicalObject) child;
-                    if (!interimSelectionOccupied && selectableChild.contains(eventInGroup)) {
-                        selectableChild.setInterimSelected(true);
-                        interimSelectionOccupied = true;
-                    } else {
-                        selectableChild.setInterimSelected(false);
-                    }
+            SelectableGraphicalObject target = (SelectableGraphicalObject) group.childAt(eventInGroup, SELECTABLE);
+            if (target != interimObject) {
+                if (interimObject != null) {
+                    interimObject.setInterimSelected(false);
                 }
+                if (target != null) {
+                    target.setInterimSelected(true);
+                }
+                interimObject = target;
             }
             return true;
         }
@@ -273,17 +274,11 @@ public class ChoiceBehavior implements Behavior {
             if (this.firstOnly) {
                 targetObject = firstObject;
             } else {
-                List<GraphicalObject> children = group.getChildren();
-                for (int idx = children.size() - 1; idx >= 0; --idx) { // front to back
-                    GraphicalObject child = children.get(idx);
-                    if (child instanceof SelectableGraphicalObject) {
-                        SelectableGraphicalObject selectableChild = (SelectableGraphicalObject) child;
-                        if (selectableChild.contains(eventInGroup)) {
-                            targetObject = selectableChild;
-                            break;
-                        }
-                    }
+                targetObject = (SelectableGraphicalObject) group.childAt(eventInGroup, SELECTABLE);
+                if (interimObject != null && interimObject != targetObject) {
+                    interimObject.setInterimSelected(false);
                 }
+                interimObject = null;
                 if (targetObject == null) { // not end on a child
                     this.state = IDLE;
                     return false;
@@ -298,22 +293,44 @@ public class ChoiceBehavior implements Behavior {
                         clearSelection();
                     }
                     targetObject.setSelected(true);
-                    lastSelectedGlobalObject = targetObject;
-                    TalkUI.Instance.propertySheet.updatePropertySheet(lastSelectedGlobalObject);
+                    selected(targetObject);
                 } else { // if selected for a second time
                     if (this.type == MULTIPLE) {
                         targetObject.setSelected(false);
-                        lastSelectedGlobalObject = targetObject;
-                        TalkUI.Instance.propertySheet.updatePropertySheet(lastSelectedGlobalObject);
+                        selected(targetObject);
                     }
                 }
             }
+            this.interimObject = null;
             this.state = IDLE;
             return true;
         }
         return false;
     }
 
+    private static void selected(SelectableGraphicalObject object) {
+        lastSelectedGlobalObject = object;
+        firstSelection.complete(object);
+        showProperties(object);
+    }
+
+    /**
+     * The last selected object, once any object has been selected; other
+     * threads wait for it with join() instead of polling
+     * lastSelectedGlobalObject
+     */
+    public static CompletableFuture<SelectableGraphicalObject> selection() {
+        return firstSelection.thenApply(first -> lastSelectedGlobalObject);
+    }
+
+    // in the property sheet of the running TalkUI, if any (none when headless)
+    private static void showProperties(SelectableGraphicalObject object) {
+        TalkUI ui = TalkUI.Instance;
+        if (ui != null && ui.propertySheet != null) {
+            ui.propertySheet.updatePropertySheet(object);
+        }
+    }
+
     /**
      * cancel
      */
@@ -324,6 +341,7 @@ public class ChoiceBehavior implements Behavior {
                     ((SelectableGraphicalObject) child).setInterimSelected(false);
                 }
             }
+            this.interimObject = null;
             this.startInGroup = false;
             this.state = IDLE;
             return true;
@@ -0,0 +1,75 @@
+package ui.toolkit.behavior;
+
+public class FrameStats {
+    /**
+     * FrameStats class: how often a window was asked to redraw, how often it
+     * actually did, and how long drawing took
+     *
+     * Requests made between two frames are coalesced into one, so the
+     * difference between getRequestCount() and getFrameCount() is the work
+     * saved by the frame scheduler of InteractiveWindowGroup.
+     */
+    private long requests = 0;
+    private long frames = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+    private long lastNanos = 0;
+    private long since = System.nanoTime();
+
+    void requested() {
+        requests++;
+    }
+
+    void drawn(long nanos) {
+        frames++;
+        totalNanos += nanos;
+        lastNanos = nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    public long getRequestCount() {
+        return requests;
+    }
+
+    public long getFrameCount() {
+        return frames;
+    }
+
+    // requests served by a frame drawn for an earlier one
+    public long getCoalescedCount() {
+        return Math.max(0, requests - frames);
+    }
+
+    public double getLastFrameMillis() {
+        return lastNanos / 1e6;
+    }
+
+    public double getAverageFrameMillis() {
+        return (frames == 0) ? 0.0 : totalNanos / 1e6 / frames;
+    }
+
+    public double getMaxFrameMillis() {
+        return maxNanos / 1e6;
+    }
+
+    // frames drawn per second since the last reset
+    public double getFramesPerSecond() {
+        double seconds = (System.nanoTime() - since) / 1e9;
+        return (seconds > 0) ? frames / seconds : 0.0;
+    }
+
+    public void reset() {
+        requests = 0;
+        frames = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+        lastNanos = 0;
+        since = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d frames for %d requests, %.1f fps, %.2f ms average, %.2f ms max", frames, requests,
+                getFramesPerSecond(), getAverageFrameMillis(), getMaxFrameMillis());
+    }
+}
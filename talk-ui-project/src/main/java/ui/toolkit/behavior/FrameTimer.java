@@ -0,0 +1,63 @@
+package ui.toolkit.behavior;
+
+import java.util.function.BooleanSupplier;
+
+import javax.swing.Timer;
+
+class FrameTimer {
+    /**
+     * FrameTimer class: runs the frames of a window every delay ms while
+     * they are requested
+     *
+     * The frame returns whether it drew anything. The timer keeps running
+     * until a whole tick passes without drawing, so a request made right
+     * after a frame waits for the next tick; only a request made while
+     * idle, at least delay ms after the last frame, is drawn at once.
+     * Requests made until the frame calls drawn() are served by that frame.
+     */
+    private final Timer timer;
+    private final BooleanSupplier frame;
+    private boolean requested = false;
+
+    FrameTimer(int delay, BooleanSupplier frame) {
+        this.frame = frame;
+        this.timer = new Timer(delay, event -> tick());
+        this.timer.setInitialDelay(0);
+    }
+
+    // a frame is needed; does nothing if the timer is already running
+    void start() {
+        timer.start();
+    }
+
+    // a redraw is needed; does nothing until the requested one is drawn
+    void request() {
+        if (!requested) {
+            requested = true;
+            timer.start();
+        }
+    }
+
+    boolean isRequested() {
+        return requested;
+    }
+
+    // whatever was requested so far is drawn now
+    void drawn() {
+        requested = false;
+    }
+
+    void stop() {
+        timer.stop();
+    }
+
+    boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    private void tick() {
+        if (!frame.getAsBoolean()) {
+            timer.stop();
+        }
+    }
+}
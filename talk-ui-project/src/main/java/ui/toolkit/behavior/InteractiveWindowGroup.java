@@ -6,6 +6,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Insets;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.event.InputEvent;
 import java.awt.event.KeyAdapter;
@@ -15,15 +16,28 @@ import java.awt.event.MouseEvent;
 import java.awt.event.MouseWheelEvent;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import javax.swing.JComponent;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
+import ui.toolkit.constraint.CommandQueue;
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.ConstraintScheduler;
+import ui.toolkit.constraint.ParallelSolver;
+import ui.toolkit.constraint.animation.FrameClock;
+import ui.toolkit.graphics.group.ChildAggregates;
+import ui.toolkit.graphics.group.Culling;
+import ui.toolkit.graphics.group.DamageTracker;
 import ui.toolkit.graphics.group.Group;
+import ui.toolkit.graphics.group.SpatialIndex;
 import ui.toolkit.graphics.object.AlreadyHasGroupRunTimeException;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -36,8 +50,27 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     private Insets insets;
 
     private List<GraphicalObject> children = new ArrayList<>();
-    private List<Behavior> behaviors = new ArrayList<>();
-    private boolean behaviorsSorted = false;
+    private final ChildAggregates aggregates = new ChildAggregates();
+    private final BehaviorDispatcher dispatcher = new BehaviorDispatcher();
+    private ParallelSolver solver = null;
+    private ConstraintScheduler scheduler = null;
+    private Timer idleTimer;
+    // draws requested frames and ticks the frame clock while animations run
+    private FrameTimer frameTimer;
+    private final FrameStats frameStats = new FrameStats();
+    private FrameClock frameClock = null;
+    // only redraw what changed, if set
+    private DamageTracker damage = null;
+    // the children by bounds, if set
+    private SpatialIndex index = null;
+    // scene changes posted by other threads, drained on the event dispatch thread
+    private final CommandQueue commands;
+
+    // idle time before deferred constraints are evaluated, and between slices
+    private static final int IDLE_DELAY = 50;
+    private static final int SLICE_DELAY = 10;
+    // about 60 frames per second
+    private static final int FRAME_DELAY = 16;
 
     /**
      * InteractiveWindowGroup constructor Make a top-level window with specified
@@ -70,6 +103,14 @@ public class InteractiveWindowGroup extends JFrame implements Group {
         canvas.setBackground(Color.white);
         canvas.setPreferredSize(new Dimension(width, height));
 
+        // before anything can request a frame: input once visible, and the
+        // wake-up of the first posted command
+        this.idleTimer = new Timer(SLICE_DELAY, event -> runIdleSlice());
+        this.idleTimer.setInitialDelay(IDLE_DELAY);
+        this.frameTimer = new FrameTimer(FRAME_DELAY, this::runFrame);
+        this.commands = new CommandQueue(SwingUtilities::isEventDispatchThread,
+                () -> SwingUtilities.invokeLater(this::requestFrame));
+
         this.add(canvas);
         this.pack();
         this.setVisible(true);
@@ -79,23 +120,11 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     }
 
     private void handleBehaviorEvent(BehaviorEvent behaviorEvent) {
-        if (behaviors.isEmpty()) {
+        if (dispatcher.isEmpty()) {
             return;
         }
-        if (!behaviorsSorted) {
-            Collections.sort(behaviors);
-            behaviorsSorted = true;
-        }
-
-        Behavior lastBehavior = behaviors.get(0);
-        boolean eventConsumed = false;
-        for (Behavior behavior : behaviors) {
-            if (eventConsumed && behavior.compareTo(lastBehavior) > 0) {
-                break;
-            }
-            eventConsumed = behavior.check(behaviorEvent) || eventConsumed;
-        }
-        this.redraw();
+        dispatcher.dispatch(behaviorEvent);
+        requestFrame();
     }
 
     // Mouse listener
@@ -204,18 +233,199 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     }
 
     /**
-     * Redraw: automatically called after adding children
+     * Redraw now; input events, addChild() and posted commands call
+     * requestFrame() instead
      */
     public void redraw() {
+        long start = System.nanoTime();
+        if (commands.isOwnerThread()) {
+            commands.drain();
+        }
+        if (solver != null) {
+            solver.solve();
+        }
         Graphics2D graphics = buffer.createGraphics();
         BoundaryRectangle r = new BoundaryRectangle(0, 0, getWidth(), getHeight());
-        graphics.setColor(canvas.getBackground());
-        graphics.fill(r);
-        for (GraphicalObject child : children) {
-            child.draw(graphics, r);
+        if (damage != null) {
+            // only the areas that changed, which leaves off-screen children alone too
+            for (Rectangle area : damage.redraw(graphics, r, canvas.getBackground(), children)) {
+                canvas.repaint(area);
+            }
+        } else {
+            graphics.setColor(canvas.getBackground());
+            graphics.fill(r);
+            // off-screen children are not drawn, and groups cull theirs in
+            // turn; their constraints are left to the scheduler, if set
+            Rectangle area = Culling.area(r);
+            if (index != null) {
+                for (GraphicalObject child : index.query(area)) {
+                    child.draw(graphics, r);
+                }
+            } else {
+                for (GraphicalObject child : children) {
+                    if (Culling.isVisible(child, area)) {
+                        child.draw(graphics, r);
+                    }
+                }
+            }
+            canvas.repaint();
         }
         graphics.dispose();
-        canvas.repaint();
+        frameTimer.drawn();
+        frameStats.drawn(System.nanoTime() - start);
+        if (scheduler != null && scheduler.hasDeferredWork()) {
+            idleTimer.restart();
+        }
+    }
+
+    /**
+     * Redraw at the next frame, at most every FRAME_DELAY ms however many
+     * requests come in between; may be called from any thread
+     */
+    public void requestFrame() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(this::requestFrame);
+            return;
+        }
+        frameStats.requested();
+        frameTimer.request();
+    }
+
+    public boolean isFrameRequested() {
+        return frameTimer.isRequested();
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    private void runIdleSlice() {
+        if (scheduler == null || !scheduler.runSlice()) {
+            idleTimer.stop();
+        }
+    }
+
+    // whether a frame was drawn; the frame timer stops otherwise
+    private boolean runFrame() {
+        // the last tick of an animation still moves it, so it is drawn too
+        boolean ticked = frameClock != null && frameClock.isRunning();
+        if (ticked) {
+            frameClock.tick();
+        }
+        if (!ticked && !frameTimer.isRequested()) {
+            // idle until the next request or animation
+            return false;
+        }
+        redraw();
+        return true;
+    }
+
+    /**
+     * Clock of the animations in this window, ticked and redrawn with the
+     * requested frames every FRAME_DELAY ms while any of them runs
+     */
+    public FrameClock getFrameClock() {
+        if (frameClock == null) {
+            frameClock = new FrameClock(() -> frameTimer.start());
+        }
+        return frameClock;
+    }
+
+    /**
+     * Queue of changes to the scene from threads other than the event
+     * dispatch thread, run before the next redraw
+     */
+    public CommandQueue getCommandQueue() {
+        return commands;
+    }
+
+    /**
+     * Evaluate out-of-date constraints in parallel before each redraw, or go
+     * back to lazy evaluation during drawing if the solver is null
+     */
+    public InteractiveWindowGroup setParallelSolver(ParallelSolver solver) {
+        if (this.solver != null) {
+            this.solver.detach();
+        }
+        this.solver = (solver != null) ? solver.attach() : null;
+        return this;
+    }
+
+    public ParallelSolver getParallelSolver() {
+        return solver;
+    }
+
+    /**
+     * Evaluate the constraints drawing did not need, e.g. those of objects
+     * outside the window, in time slices once the window is idle; also keeps
+     * the children in a spatial index, so a frame does not measure every
+     * child to cull it. A null scheduler leaves them until they are drawn.
+     */
+    public InteractiveWindowGroup setConstraintScheduler(ConstraintScheduler scheduler) {
+        if (this.scheduler != null) {
+            this.scheduler.detach();
+            idleTimer.stop();
+        }
+        this.scheduler = (scheduler != null) ? scheduler.attach() : null;
+        if (scheduler != null) {
+            setSpatialIndex(true);
+        }
+        return this;
+    }
+
+    public ConstraintScheduler getConstraintScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Only redraw the areas of the window that changed since the last
+     * redraw, or the whole window each time if off (the default)
+     */
+    public InteractiveWindowGroup setDamageTracking(boolean on) {
+        if (on && damage == null) {
+            damage = new DamageTracker();
+            for (GraphicalObject child : children) {
+                damage.track(child);
+            }
+        } else if (!on && damage != null) {
+            damage.dispose();
+            damage = null;
+            redraw();
+        }
+        return this;
+    }
+
+    public boolean isDamageTracking() {
+        return damage != null;
+    }
+
+    /**
+     * Keep the children in a SpatialIndex, so culling and hit tests cost
+     * O(log n) instead of a scan of the children
+     */
+    public InteractiveWindowGroup setSpatialIndex(boolean on) {
+        if (on && index == null) {
+            index = new SpatialIndex(children);
+        } else if (!on && index != null) {
+            index.dispose();
+            index = null;
+        }
+        return this;
+    }
+
+    // null unless setSpatialIndex(true) or a constraint scheduler
+    public SpatialIndex getSpatialIndex() {
+        return index;
+    }
+
+    /**
+     * Redraw an area at the next redraw, e.g. after changing an object
+     * without its properties; nothing to do without damage tracking
+     */
+    public void damage(Rectangle area) {
+        if (damage != null) {
+            damage.damage(area);
+        }
     }
 
     public BufferedImage getBufferedImage() {
@@ -232,13 +442,20 @@ public class InteractiveWindowGroup extends JFrame implements Group {
         } else {
             children.add(child);
             child.setGroup(this);
+            aggregates.childAdded(child);
+            if (index != null) {
+                index.add(child);
+            }
+            if (damage != null) {
+                damage.track(child);
+            }
             if (child instanceof Group) {
                 Group groupChild = (Group) child;
                 addBehaviors(groupChild.getBehaviorsToAdd());
                 removeBehaviors(groupChild.getBehaviorsToRemove());
                 groupChild.clearBehaviorsToAdd().clearBehaviorsToRemove();
             }
-            this.redraw();
+            requestFrame();
         }
         return this;
     }
@@ -251,6 +468,12 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     }
 
     public Group removeChild(GraphicalObject child) {
+        if (damage != null) {
+            damage.untrack(child);
+        }
+        if (index != null) {
+            index.remove(child);
+        }
         children.remove(child);
         child.setGroup(null);
         if (child instanceof Group) {
@@ -258,6 +481,8 @@ public class InteractiveWindowGroup extends JFrame implements Group {
                 removeBehavior(behavior);
             }
         }
+        aggregates.childRemoved(child);
+        requestFrame();
         return this;
     }
 
@@ -277,9 +502,23 @@ public class InteractiveWindowGroup extends JFrame implements Group {
         return new ArrayList<GraphicalObject>(children);
     }
 
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        if (index != null) {
+            return index.childAt(pt, filter);
+        }
+        return SpatialIndex.scan(children, pt, filter);
+    }
+
+    public AggregateConstraint aggregate(Operation operation, ToIntFunction<GraphicalObject> measure) {
+        return aggregates.create(operation, measure, children);
+    }
+
+    public Constraint<Integer> childCount() {
+        return aggregates.count(children);
+    }
+
     public InteractiveWindowGroup addBehavior(Behavior behavior) {
-        behaviors.add(behavior);
-        behaviorsSorted = false;
+        dispatcher.add(behavior);
         return this;
     }
 
@@ -291,7 +530,7 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     }
 
     public InteractiveWindowGroup removeBehavior(Behavior behavior) {
-        behaviors.remove(behavior);
+        dispatcher.remove(behavior);
         return this;
     }
 
@@ -303,7 +542,7 @@ public class InteractiveWindowGroup extends JFrame implements Group {
     }
 
     public List<Behavior> getBehaviors() {
-        return new ArrayList<Behavior>(behaviors);
+        return dispatcher.getBehaviors();
     }
 
     /* The following are useless methods */
@@ -343,6 +582,21 @@ public class InteractiveWindowGroup extends JFrame implements Group {
         redraw();
     }
 
+    // releases the scene; the JFrame itself is closed by dispose()
+    public void release() {
+        frameTimer.stop();
+        idleTimer.stop();
+        if (damage != null) {
+            damage.dispose();
+        }
+        if (index != null) {
+            index.dispose();
+        }
+        for (GraphicalObject child : children) {
+            child.release();
+        }
+    }
+
     public BoundaryRectangle getBoundingBox() {
         return new BoundaryRectangle(canvas.getBounds());
     }
@@ -1,8 +1,8 @@
 package ui.toolkit.behavior;
 
 import java.awt.Point;
-import java.util.List;
 
+import ui.toolkit.constraint.ConstraintTransaction;
 import ui.toolkit.graphics.group.Group;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -129,16 +129,13 @@ public class MoveBehavior implements Behavior {
             }
 
             // find the object to be moved
-            List<GraphicalObject> children = group.getChildren();
-            for (int idx = children.size() - 1; idx >= 0; --idx) { // front to back
-                GraphicalObject child = children.get(idx);
-                if (child.contains(eventInGroup)) {
-                    this.startX = this.prevX = eventX;
-                    this.startY = this.prevY = eventY;
-                    this.movingObject = child;
-                    this.state = RUNNING_INSIDE;
-                    return true;
-                }
+            GraphicalObject child = group.childAt(eventInGroup, object -> true);
+            if (child != null) {
+                this.startX = this.prevX = eventX;
+                this.startY = this.prevY = eventY;
+                this.movingObject = child;
+                this.state = RUNNING_INSIDE;
+                return true;
             }
         }
         return false;
@@ -170,7 +167,7 @@ public class MoveBehavior implements Behavior {
             if (fixedNewX != r.x || fixedNewY != r.y) {
                 prevX += fixedNewX - r.x;
                 prevY += fixedNewY - r.y;
-                movingObject.moveTo(fixedNewX, fixedNewY);
+                ConstraintTransaction.run(() -> movingObject.moveTo(fixedNewX, fixedNewY));
             }
             return true;
         }
@@ -196,7 +193,7 @@ public class MoveBehavior implements Behavior {
             BoundaryRectangle r = movingObject.getBoundingBox();
             int originalX = r.x - prevX + startX;
             int originalY = r.y - prevY + startY;
-            movingObject.moveTo(originalX, originalY);
+            ConstraintTransaction.run(() -> movingObject.moveTo(originalX, originalY));
             this.state = IDLE;
             return true;
         }
@@ -164,7 +164,7 @@ public abstract class NewBehavior implements Behavior {
     public boolean stop(BehaviorEvent event) {
         if (event.matches(this.stopEvent) && this.state != IDLE) {
             if (isTrivial(newObject)) { // zero-sized objects not allowed
-                this.group.removeChild(newObject);
+                this.group.deleteChild(newObject);
             }
             this.state = IDLE;
             return true;
@@ -177,7 +177,7 @@ public abstract class NewBehavior implements Behavior {
      */
     public boolean cancel(BehaviorEvent event) {
         if (event.matches(this.cancelEvent) && this.state != IDLE) {
-            this.group.removeChild(newObject);
+            this.group.deleteChild(newObject);
             this.state = IDLE;
             return true;
         }
@@ -3,6 +3,7 @@ package ui.toolkit.behavior;
 import java.awt.Color;
 
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -19,9 +20,9 @@ public class NewEllipseBehavior extends NewBehavior {
     private Color color;
     private int lineThickness;
 
-    private Constraint<Integer> typeConstraint = new NoConstraint<>();
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
-    private Constraint<Integer> lineThicknessConstraint = new NoConstraint<>();
+    private Constraint<Integer> typeConstraint = NoConstraint.unused();
+    private Constraint<Color> colorConstraint = NoConstraint.unused();
+    private Constraint<Integer> lineThicknessConstraint = NoConstraint.unused();
 
     public static final int ELLIPSE = 0;
     public static final int FILLED_ELLIPSE = 1;
@@ -88,8 +89,11 @@ public class NewEllipseBehavior extends NewBehavior {
      * Getters and setters
      */
     public int getType() {
+        if (Constraint.isCapturing()) {
+            useType().track();
+        }
         if (typeConstraint.isConstrained()) {
-            this.type = typeConstraint.evaluate();
+            this.type = IntConstraint.evaluateInt(typeConstraint);
         }
         return this.type;
     }
@@ -116,10 +120,16 @@ public class NewEllipseBehavior extends NewBehavior {
     }
 
     public Constraint<Integer> useType() {
+        if (NoConstraint.isUnused(typeConstraint)) {
+            typeConstraint = new NoConstraint<>();
+        }
         return this.typeConstraint;
     }
 
     public Color getColor() {
+        if (Constraint.isCapturing()) {
+            useColor().track();
+        }
         if (colorConstraint.isConstrained()) {
             this.color = colorConstraint.evaluate();
         }
@@ -148,12 +158,18 @@ public class NewEllipseBehavior extends NewBehavior {
     }
 
     public Constraint<Color> useColor() {
+        if (NoConstraint.isUnused(colorConstraint)) {
+            colorConstraint = new NoConstraint<>();
+        }
         return this.colorConstraint;
     }
 
     public int getLineThickness() {
+        if (Constraint.isCapturing()) {
+            useLineThickness().track();
+        }
         if (lineThicknessConstraint.isConstrained()) {
-            this.lineThickness = lineThicknessConstraint.evaluate();
+            this.lineThickness = IntConstraint.evaluateInt(lineThicknessConstraint);
         }
         return this.lineThickness;
     }
@@ -180,6 +196,9 @@ public class NewEllipseBehavior extends NewBehavior {
     }
 
     public Constraint<Integer> useLineThickness() {
+        if (NoConstraint.isUnused(lineThicknessConstraint)) {
+            lineThicknessConstraint = new NoConstraint<>();
+        }
         return this.lineThicknessConstraint;
     }
 }
\ No newline at end of file
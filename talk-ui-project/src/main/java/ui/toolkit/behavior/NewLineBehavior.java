@@ -3,6 +3,7 @@ package ui.toolkit.behavior;
 import java.awt.Color;
 
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -16,8 +17,8 @@ public class NewLineBehavior extends NewBehavior {
     private Color color;
     private int lineThickness;
 
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
-    private Constraint<Integer> lineThicknessConstraint = new NoConstraint<>();
+    private Constraint<Color> colorConstraint = NoConstraint.unused();
+    private Constraint<Integer> lineThicknessConstraint = NoConstraint.unused();
 
     /**
      * NewLineBehavior constructor
@@ -66,6 +67,9 @@ public class NewLineBehavior extends NewBehavior {
      * Getters and setters
      */
     public Color getColor() {
+        if (Constraint.isCapturing()) {
+            useColor().track();
+        }
         if (colorConstraint.isConstrained()) {
             this.color = colorConstraint.evaluate();
         }
@@ -94,12 +98,18 @@ public class NewLineBehavior extends NewBehavior {
     }
 
     public Constraint<Color> useColor() {
+        if (NoConstraint.isUnused(colorConstraint)) {
+            colorConstraint = new NoConstraint<>();
+        }
         return this.colorConstraint;
     }
 
     public int getLineThickness() {
+        if (Constraint.isCapturing()) {
+            useLineThickness().track();
+        }
         if (lineThicknessConstraint.isConstrained()) {
-            this.lineThickness = lineThicknessConstraint.evaluate();
+            this.lineThickness = IntConstraint.evaluateInt(lineThicknessConstraint);
         }
         return this.lineThickness;
     }
@@ -126,6 +136,9 @@ public class NewLineBehavior extends NewBehavior {
     }
 
     public Constraint<Integer> useLineThickness() {
+        if (NoConstraint.isUnused(lineThicknessConstraint)) {
+            lineThicknessConstraint = new NoConstraint<>();
+        }
         return this.lineThicknessConstraint;
     }
 }
\ No newline at end of file
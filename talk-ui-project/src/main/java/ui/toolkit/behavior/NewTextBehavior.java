@@ -18,9 +18,9 @@ public class NewTextBehavior extends NewBehavior {
     private Font font;
     private Color color;
 
-    private Constraint<String> textConstraint = new NoConstraint<>();
-    private Constraint<Font> fontConstraint = new NoConstraint<>();
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
+    private Constraint<String> textConstraint = NoConstraint.unused();
+    private Constraint<Font> fontConstraint = NoConstraint.unused();
+    private Constraint<Color> colorConstraint = NoConstraint.unused();
 
     public NewTextBehavior(String text, Font font, Color color, SetupConstraint constraint) {
         super(false, constraint);
@@ -66,6 +66,9 @@ public class NewTextBehavior extends NewBehavior {
      * Getters and setters
      */
     public String getText() {
+        if (Constraint.isCapturing()) {
+            useText().track();
+        }
         if (textConstraint.isConstrained()) {
             this.text = textConstraint.evaluate();
         }
@@ -92,10 +95,16 @@ public class NewTextBehavior extends NewBehavior {
     }
 
     public Constraint<String> useText() {
+        if (NoConstraint.isUnused(textConstraint)) {
+            textConstraint = new NoConstraint<>();
+        }
         return this.textConstraint;
     }
 
     public Font getFont() {
+        if (Constraint.isCapturing()) {
+            useFont().track();
+        }
         if (fontConstraint.isConstrained()) {
             this.font = fontConstraint.evaluate();
         }
@@ -122,10 +131,16 @@ public class NewTextBehavior extends NewBehavior {
     }
 
     public Constraint<Font> useFont() {
+        if (NoConstraint.isUnused(fontConstraint)) {
+            fontConstraint = new NoConstraint<>();
+        }
         return this.fontConstraint;
     }
 
     public Color getColor() {
+        if (Constraint.isCapturing()) {
+            useColor().track();
+        }
         if (colorConstraint.isConstrained()) {
             this.color = colorConstraint.evaluate();
         }
@@ -152,6 +167,9 @@ public class NewTextBehavior extends NewBehavior {
     }
 
     public Constraint<Color> useColor() {
+        if (NoConstraint.isUnused(colorConstraint)) {
+            colorConstraint = new NoConstraint<>();
+        }
         return this.colorConstraint;
     }
 }
\ No newline at end of file
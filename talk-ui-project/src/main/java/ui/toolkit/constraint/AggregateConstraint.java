@@ -0,0 +1,275 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+public class AggregateConstraint extends IntConstraint {
+    /**
+     * AggregateConstraint class: the sum, maximum, minimum or count of a
+     * changing set of terms, maintained incrementally
+     *
+     * Every term is a measure, e.g. the height of one child of a group, kept
+     * in its own TrackedConstraint, so it depends on exactly the properties
+     * the measure reads. When a term is marked out-of-date it queues itself
+     * on the aggregate, and refreshing the aggregate re-computes only the
+     * queued terms: a sum is corrected by the difference in O(1), a maximum
+     * or minimum is updated in a segment tree in O(log n). Adding or removing
+     * a term costs the same, so the aggregate never scans all its terms.
+     *
+     * Terms are added and removed by key; Group.aggregate() binds an
+     * aggregate to the children of a group. The aggregate of no terms is 0.
+     */
+    public enum Operation { SUM, MAX, MIN, COUNT }
+
+    private final Operation operation;
+    private final Map<Object, Term> terms = new IdentityHashMap<>();
+    // terms by index, the leaves of the segment tree
+    private Term[] slots = new Term[0];
+    private int size = 0;
+    // segment tree of MAX and MIN: leaves at capacity + index, root at 1
+    private int[] tree = new int[2];
+    private int capacity = 1;
+    private long sum = 0;
+    private boolean disposed = false;
+    // terms marked out-of-date since the last refresh
+    private final ArrayDeque<Term> dirty = new ArrayDeque<>();
+
+    public AggregateConstraint(Operation operation) {
+        super();
+        this.operation = operation;
+        Arrays.fill(this.tree, identity());
+    }
+
+    public AggregateConstraint(String name, Operation operation) {
+        super(name);
+        this.operation = operation;
+        Arrays.fill(this.tree, identity());
+    }
+
+    public Operation getOperation() {
+        return this.operation;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean contains(Object key) {
+        return this.terms.containsKey(key);
+    }
+
+    /**
+     * Add the term of a key, computed by the measure
+     *
+     * The measure is not called until the aggregate is evaluated. COUNT
+     * ignores it and may be given null.
+     */
+    public AggregateConstraint add(Object key, IntSupplier measure) {
+        if (this.disposed || this.terms.containsKey(key)) {
+            return this;
+        }
+        Term term = new Term(measure, this.size);
+        this.terms.put(key, term);
+        if (this.size == this.slots.length) {
+            this.slots = Arrays.copyOf(this.slots, Math.max(4, 2 * this.size));
+        }
+        this.slots[this.size++] = term;
+        if (this.operation != Operation.COUNT) {
+            if (this.size > this.capacity) {
+                grow();
+            }
+            Edge edge = new Edge(term, this);
+            term.addOutEdge(edge);
+            this.addInEdge(edge);
+            // evaluated the first time the aggregate is
+            this.dirty.add(term);
+        }
+        markOutOfDate();
+        return this;
+    }
+
+    /**
+     * Remove the term of a key, moving the last term into its place
+     */
+    public AggregateConstraint remove(Object key) {
+        Term term = this.terms.remove(key);
+        if (term == null) {
+            return this;
+        }
+        int index = term.index;
+        Term last = this.slots[--this.size];
+        this.slots[index] = last;
+        this.slots[this.size] = null;
+        last.index = index;
+        term.index = -1;
+        if (this.operation != Operation.COUNT) {
+            this.sum -= term.current;
+            update(index, last.current);
+            update(this.size, identity());
+            term.dispose();
+        }
+        markOutOfDate();
+        return this;
+    }
+
+    public AggregateConstraint clear() {
+        for (Object key : this.terms.keySet().toArray()) {
+            remove(key);
+        }
+        return this;
+    }
+
+    /**
+     * Detach the aggregate and all its terms from the dependency graph
+     *
+     * Terms added afterwards are ignored.
+     */
+    @Override
+    public void dispose() {
+        for (int i = 0; i < this.size; ++i) {
+            this.slots[i].index = -1;
+            this.slots[i].dispose();
+        }
+        this.terms.clear();
+        this.slots = new Term[0];
+        this.size = 0;
+        this.dirty.clear();
+        this.disposed = true;
+        super.dispose();
+    }
+
+    public boolean isDisposed() {
+        return this.disposed;
+    }
+
+    @Override
+    public boolean isConstrained() {
+        return true;
+    }
+
+    @Override
+    public int getIntValue() {
+        refresh();
+        return this.intValue;
+    }
+
+    /**
+     * Re-compute the queued terms only, instead of visiting every incoming
+     * edge like Dependency.refreshInputs()
+     *
+     * The result is then always re-computed, in O(1), since adding or
+     * removing a term changes it without any pending edge.
+     */
+    @Override
+    protected boolean refreshInputs() {
+        Term term;
+        while ((term = this.dirty.poll()) != null) {
+            if (term.index >= 0) {
+                term.refresh();
+                // the only outgoing edge of a term ends at the aggregate
+                term.getOutEdge(0).setPending(false);
+                int value = (term.value != null) ? term.value : 0;
+                if (value != term.current) {
+                    this.sum += value - term.current;
+                    term.current = value;
+                    update(term.index, value);
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean recompute() {
+        int newValue = result();
+        if (isEquivalent(newValue)) {
+            cutOff();
+            return false;
+        }
+        if (isConflict()) {
+            return false;
+        }
+        this.intValue = newValue;
+        return true;
+    }
+
+    private int result() {
+        if (this.size == 0) {
+            return 0;
+        }
+        switch (this.operation) {
+        case SUM:
+            return (int) this.sum;
+        case COUNT:
+            return this.size;
+        default:
+            return this.tree[1];
+        }
+    }
+
+    private int identity() {
+        return (this.operation == Operation.MIN) ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+    }
+
+    private int combine(int a, int b) {
+        return (this.operation == Operation.MIN) ? Math.min(a, b) : Math.max(a, b);
+    }
+
+    // set a leaf of the segment tree and the nodes above it
+    private void update(int index, int value) {
+        if (this.operation != Operation.MAX && this.operation != Operation.MIN) {
+            return;
+        }
+        int node = this.capacity + index;
+        this.tree[node] = value;
+        for (node >>= 1; node >= 1; node >>= 1) {
+            this.tree[node] = combine(this.tree[2 * node], this.tree[2 * node + 1]);
+        }
+    }
+
+    // double the leaves and rebuild the inner nodes, amortized O(1) per add
+    private void grow() {
+        int oldCapacity = this.capacity;
+        int[] oldTree = this.tree;
+        this.capacity = 2 * oldCapacity;
+        this.tree = new int[2 * this.capacity];
+        Arrays.fill(this.tree, identity());
+        System.arraycopy(oldTree, oldCapacity, this.tree, this.capacity, oldCapacity);
+        for (int node = this.capacity - 1; node >= 1; --node) {
+            this.tree[node] = combine(this.tree[2 * node], this.tree[2 * node + 1]);
+        }
+    }
+
+    /**
+     * One term: a tracked measure that queues itself on the aggregate
+     * whenever propagation marks it out-of-date
+     */
+    private final class Term extends TrackedConstraint<Integer> {
+        private final IntSupplier measure;
+        private int index;
+        // the value accounted for in the sum and the segment tree
+        private int current;
+
+        Term(IntSupplier measure, int index) {
+            super();
+            this.measure = measure;
+            this.index = index;
+            this.current = (operation == Operation.SUM) ? 0 : identity();
+            this.observesInvalidation = true;
+        }
+
+        public Integer getValue() {
+            return this.measure.getAsInt();
+        }
+
+        @Override
+        void invalidated() {
+            if (this.index >= 0) {
+                AggregateConstraint.this.dirty.add(this);
+            }
+        }
+    }
+}
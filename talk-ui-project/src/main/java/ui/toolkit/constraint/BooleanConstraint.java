@@ -0,0 +1,83 @@
+package ui.toolkit.constraint;
+
+public abstract class BooleanConstraint extends Constraint<Boolean> {
+    /**
+     * BooleanConstraint class: a Constraint on a boolean that never boxes its value
+     * 
+     * Implement getBooleanValue() instead of getValue(); evaluateBoolean() returns the
+     * primitive value and compares old and new values as booleans, unless a custom
+     * equivalence is set.
+     */
+    protected boolean booleanValue;
+
+    public BooleanConstraint() {
+        super();
+    }
+    public BooleanConstraint(Dependency<?>... dependencies) {
+        super(dependencies);
+    }
+    public BooleanConstraint(String name, Dependency<?>... dependencies) {
+        super(name, dependencies);
+    }
+
+    // This should be overridden by custom constraints
+    public abstract boolean getBooleanValue();
+
+    public final Boolean getValue() {
+        return getBooleanValue();
+    }
+
+    public void setValue(Boolean value) {
+        this.booleanValue = (value != null) ? value : false;
+    }
+
+    public void setBooleanValue(boolean value) {
+        this.booleanValue = value;
+    }
+
+    public boolean evaluateBoolean() {
+        refresh();
+        return this.booleanValue;
+    }
+
+    @Override
+    public Boolean evaluate() {
+        return evaluateBoolean();
+    }
+
+    @Override
+    protected boolean recompute() {
+        boolean newValue = this.getBooleanValue();
+        if (isEquivalent(newValue)) {
+            cutOff();
+            return false;
+        }
+        if (isConflict()) {
+            return false;
+        }
+        this.booleanValue = newValue;
+        return true;
+    }
+
+    // whether the new value counts as unchanged, i.e. propagation stops here
+    protected final boolean isEquivalent(boolean newValue) {
+        if (hasDefaultEquivalence()) {
+            return newValue == this.booleanValue;
+        }
+        // a custom equivalence never keeps the initial value
+        return isComputed() && getEquivalence().isEquivalent(this.booleanValue, newValue);
+    }
+
+    /**
+     * Evaluate any boolean constraint, without boxing if it is a BooleanConstraint
+     * 
+     * @param constraint the constraint to evaluate
+     * @return evaluated constraint value
+     */
+    public static boolean evaluateBoolean(Dependency<Boolean> constraint) {
+        if (constraint instanceof BooleanConstraint) {
+            return ((BooleanConstraint) constraint).evaluateBoolean();
+        }
+        return constraint.evaluate();
+    }
+}
@@ -0,0 +1,35 @@
+package ui.toolkit.constraint;
+
+public class ChangeObserver extends Constraint<Object> {
+    /**
+     * ChangeObserver class: calls an action when any of its dependencies is
+     * marked out-of-date, e.g. to learn which objects need redrawing
+     *
+     * The action runs during propagation, so it should only record that
+     * something changed. It is called once per change: an observer that is
+     * out-of-date is not visited by propagation again until evaluate()
+     * brings it and its dependencies up to date, which re-arms it.
+     */
+    private final Runnable action;
+
+    public ChangeObserver(Runnable action, Dependency<?>... dependencies) {
+        super(dependencies);
+        this.action = action;
+        this.observesInvalidation = true;
+    }
+
+    @Override
+    public Object getValue() {
+        return null;
+    }
+
+    @Override
+    public boolean isConstrained() {
+        return true;
+    }
+
+    @Override
+    void invalidated() {
+        this.action.run();
+    }
+}
@@ -0,0 +1,156 @@
+package ui.toolkit.constraint;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+public class CommandQueue {
+    /**
+     * CommandQueue class: scene mutations posted by other threads, run in
+     * batches by the thread that owns the constraint graph
+     *
+     * The constraint graph is not thread-safe: propagation, transactions and
+     * the out-of-date flags are only consistent on one thread, the owner
+     * (the event dispatch thread for an InteractiveWindowGroup). Any other
+     * thread, e.g. the one waiting for voice input, posts its changes
+     * instead of making them, and the owner drains the queue before drawing
+     * the next frame:
+     *
+     *     window.getCommandQueue().post(() -> panel.addChild(rect));
+     *
+     * Posting is lock-free and wait-free for any number of producers (an
+     * intrusive linked queue with an atomic tail); the single consumer never
+     * blocks them. A drained batch runs as one ConstraintTransaction, so
+     * values depending on what a command writes are only marked out-of-date
+     * after the batch. The first post after a drain calls the wake-up action
+     * given to the constructor, so the owner does not have to poll.
+     */
+    private final BooleanSupplier ownerThread;
+    private final Runnable wakeUp;
+
+    // producers append at the tail; head is the last node consumed
+    private final AtomicReference<Node> tail;
+    private Node head;
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+    /**
+     * @param ownerThread whether the calling thread owns the graph
+     * @param wakeUp      asks the owner to call drain() soon; called on the
+     *                    posting thread
+     */
+    public CommandQueue(BooleanSupplier ownerThread, Runnable wakeUp) {
+        this.ownerThread = ownerThread;
+        this.wakeUp = wakeUp;
+        this.head = new Node(null);
+        this.tail = new AtomicReference<>(this.head);
+    }
+
+    public boolean isOwnerThread() {
+        return this.ownerThread.getAsBoolean();
+    }
+
+    /**
+     * Queue a command for the owner thread, from any thread
+     */
+    public void post(Runnable command) {
+        Node node = new Node(command);
+        // the consumer sees the node once the previous one links it
+        this.tail.getAndSet(node).next = node;
+        if (this.scheduled.compareAndSet(false, true)) {
+            this.wakeUp.run();
+        }
+    }
+
+    /**
+     * Run the command now on the owner thread, or post it from any other
+     */
+    public void execute(Runnable command) {
+        if (isOwnerThread()) {
+            command.run();
+        } else {
+            post(command);
+        }
+    }
+
+    /**
+     * Run a command on the owner thread and get its result, e.g. to wait for
+     * it with join(); runs it at once on the owner thread itself, where
+     * waiting for a posted command would never end
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> command) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                result.complete(command.get());
+            } catch (Throwable e) {
+                // an Error too, or join() would never return
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return this.head.next == null;
+    }
+
+    /**
+     * Run every command posted so far, on the owner thread
+     *
+     * @return the number of commands run
+     */
+    public int drain() {
+        return drain(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Run at most max commands; the rest wake the owner up again
+     */
+    public int drain(int max) {
+        // posts from now on wake the owner up again
+        this.scheduled.set(false);
+        if (isEmpty()) {
+            return 0;
+        }
+        int[] count = new int[1];
+        ConstraintTransaction.run(() -> {
+            Runnable command;
+            while (count[0] < max && (command = poll()) != null) {
+                count[0]++;
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    // one failing command does not drop the rest of the batch
+                    System.err.println(String.format("ERROR: in posted command %s: %s", command, e));
+                }
+            }
+        });
+        if (!isEmpty() && this.scheduled.compareAndSet(false, true)) {
+            this.wakeUp.run();
+        }
+        return count[0];
+    }
+
+    private Runnable poll() {
+        Node next = this.head.next;
+        if (next == null) {
+            return null;
+        }
+        Runnable command = next.command;
+        // the consumed node becomes the new sentinel
+        next.command = null;
+        this.head = next;
+        return command;
+    }
+
+    private static final class Node {
+        private Runnable command;
+        private volatile Node next;
+
+        private Node(Runnable command) {
+            this.command = command;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ConstraintProfiler {
+    /**
+     * ConstraintProfiler class: per-dependency counters of the constraint
+     * graph, to find the constraints that dominate frame time
+     *
+     * For every dependency, counts re-computations, the time spent in them
+     * (total, and self time excluding nested re-computations), how often it
+     * was marked out-of-date, how many successors it marked out-of-date
+     * directly (fan-out), how often it was changed by a setter, and cyclic
+     * conflicts. Dependencies are reported by name, see
+     * Dependency(String, Dependency...).
+     *
+     * Disabled by default: Dependency then only tests a static flag. Counters
+     * are kept until reset(), including those of dependencies no longer used.
+     * They are updated under the lock of their Stats, since ParallelSolver
+     * evaluates constraints on several threads.
+     */
+    static boolean enabled = false;
+
+    private static final List<Stats> profiled = new ArrayList<>();
+    // time spent in nested re-computations of the innermost running one
+    private static final ThreadLocal<long[]> nestedNanos = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ConstraintProfiler() {}
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Drop all counters collected so far
+     */
+    public static void reset() {
+        synchronized (profiled) {
+            for (Stats stats : profiled) {
+                stats.dependency.profile = null;
+            }
+            profiled.clear();
+        }
+    }
+
+    public static List<Stats> getStats() {
+        synchronized (profiled) {
+            return new ArrayList<>(profiled);
+        }
+    }
+
+    public static Stats getStats(Dependency<?> dependency) {
+        return dependency.profile;
+    }
+
+    /**
+     * The n dependencies ranked highest by the comparator
+     */
+    public static List<Stats> top(int n, Comparator<Stats> order) {
+        List<Stats> stats = getStats();
+        Collections.sort(stats, order);
+        return stats.subList(0, Math.min(n, stats.size()));
+    }
+
+    // the n dependencies with most self time
+    public static List<Stats> top(int n) {
+        return top(n, Stats.BY_SELF_TIME);
+    }
+
+    /**
+     * Plain text table of the n dependencies with most self time
+     */
+    public static String report(int n) {
+        StringBuilder report = new StringBuilder(String.format("%-32s %8s %10s %10s %8s %8s %8s %9s%n",
+                "constraint", "evals", "total(ms)", "self(ms)", "invalid", "changes", "fan-out", "conflicts"));
+        for (Stats stats : top(n)) {
+            report.append(String.format("%-32s %8d %10.3f %10.3f %8d %8d %8d %9d%n",
+                    stats.dependency, stats.evaluations, stats.totalNanos / 1e6, stats.selfNanos / 1e6,
+                    stats.invalidations, stats.changes, stats.fanOut, stats.conflicts));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Graphviz DOT of the subgraph induced by the n dependencies with most
+     * self time, with the hottest drawn darkest
+     */
+    public static String toDot(int n) {
+        List<Stats> hot = top(n);
+        Map<Dependency<?>, Integer> ids = new IdentityHashMap<>();
+        long hottest = hot.isEmpty() ? 1 : Math.max(1, hot.get(0).selfNanos);
+
+        StringBuilder dot = new StringBuilder("digraph constraints {\n");
+        dot.append("    node [shape=box, style=filled, fontname=\"Helvetica\"];\n");
+        for (Stats stats : hot) {
+            int id = ids.size();
+            ids.put(stats.dependency, id);
+            double heat = (double) stats.selfNanos / hottest;
+            dot.append(String.format("    n%d [label=\"%s\\n%d evals, %.3f ms\", fillcolor=\"0.0 %.2f 1.0\"];%n",
+                    id, escape(String.valueOf(stats.dependency)), stats.evaluations, stats.selfNanos / 1e6, heat));
+        }
+        for (Stats stats : hot) {
+            for (int i = 0; i < stats.dependency.getOutDegree(); ++i) {
+                Integer end = ids.get(stats.dependency.getOutEdge(i).getEnd());
+                if (end != null) {
+                    dot.append(String.format("    n%d -> n%d;%n", ids.get(stats.dependency), end));
+                }
+            }
+        }
+        return dot.append("}\n").toString();
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Hooks called by Dependency while enabled
+     */
+    static boolean recompute(Dependency<?> dependency) {
+        long[] nested = nestedNanos.get();
+        long outerNested = nested[0];
+        nested[0] = 0;
+        long start = System.nanoTime();
+        try {
+            return dependency.recompute();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Stats stats = statsOf(dependency);
+            synchronized (stats) {
+                stats.evaluations++;
+                stats.totalNanos += elapsed;
+                stats.selfNanos += elapsed - nested[0];
+            }
+            nested[0] = outerNested + elapsed;
+        }
+    }
+
+    static void invalidated(Dependency<?> dependency, int fanOut) {
+        Stats stats = statsOf(dependency);
+        synchronized (stats) {
+            stats.invalidations++;
+            stats.fanOut += fanOut;
+        }
+    }
+
+    static void changed(Dependency<?> dependency, int fanOut) {
+        Stats stats = statsOf(dependency);
+        synchronized (stats) {
+            stats.changes++;
+            stats.fanOut += fanOut;
+        }
+    }
+
+    static void conflict(Dependency<?> dependency) {
+        Stats stats = statsOf(dependency);
+        synchronized (stats) {
+            stats.conflicts++;
+        }
+    }
+
+    private static Stats statsOf(Dependency<?> dependency) {
+        Stats stats = dependency.profile;
+        if (stats == null) {
+            synchronized (profiled) {
+                // another thread may have created it meanwhile
+                stats = dependency.profile;
+                if (stats == null) {
+                    stats = new Stats(dependency);
+                    dependency.profile = stats;
+                    profiled.add(stats);
+                }
+            }
+        }
+        return stats;
+    }
+
+    public static class Stats {
+        public static final Comparator<Stats> BY_SELF_TIME = (a, b) -> Long.compare(b.selfNanos, a.selfNanos);
+        public static final Comparator<Stats> BY_EVALUATIONS = (a, b) -> Long.compare(b.evaluations, a.evaluations);
+        public static final Comparator<Stats> BY_FAN_OUT = (a, b) -> Long.compare(b.fanOut, a.fanOut);
+
+        private final Dependency<?> dependency;
+        private long evaluations = 0;
+        private long totalNanos = 0;
+        private long selfNanos = 0;
+        private long invalidations = 0;
+        private long changes = 0;
+        private long fanOut = 0;
+        private long conflicts = 0;
+
+        private Stats(Dependency<?> dependency) {
+            this.dependency = dependency;
+        }
+
+        public Dependency<?> getDependency() {
+            return this.dependency;
+        }
+
+        public synchronized long getEvaluations() {
+            return this.evaluations;
+        }
+
+        public synchronized long getTotalNanos() {
+            return this.totalNanos;
+        }
+
+        public synchronized long getSelfNanos() {
+            return this.selfNanos;
+        }
+
+        public synchronized long getInvalidations() {
+            return this.invalidations;
+        }
+
+        public synchronized long getChanges() {
+            return this.changes;
+        }
+
+        public synchronized long getFanOut() {
+            return this.fanOut;
+        }
+
+        public synchronized long getConflicts() {
+            return this.conflicts;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayDeque;
+
+public class ConstraintScheduler implements InvalidationListener {
+    /**
+     * ConstraintScheduler class: evaluate deferred constraints in idle time
+     *
+     * Drawing evaluates constraints lazily: the window and every group cull
+     * their children against the clip, which evaluates the bounds of the
+     * children tested (only those that moved, with a spatial index), and
+     * only the drawn objects evaluate the rest, e.g. colors or text. While
+     * attached, the scheduler records every dependency that becomes
+     * out-of-date; whatever drawing did not evaluate is brought up to date
+     * later by runSlice(), a bounded amount of time at a time, so scrolling
+     * it into view does not cost a long frame.
+     *
+     * Dependencies are refreshed on the calling thread in the order they were
+     * invalidated. InteractiveWindowGroup.setConstraintScheduler() runs the
+     * slices from a Swing timer when no redraw happened for a while.
+     */
+    private static final long DEFAULT_SLICE_NANOS = 4000000L;
+
+    private final ArrayDeque<Dependency<?>> deferred = new ArrayDeque<>();
+    private long sliceNanos = DEFAULT_SLICE_NANOS;
+    private boolean attached = false;
+
+    public ConstraintScheduler attach() {
+        if (!this.attached) {
+            Dependency.addInvalidationListener(this);
+            this.attached = true;
+        }
+        return this;
+    }
+
+    public ConstraintScheduler detach() {
+        if (this.attached) {
+            Dependency.removeInvalidationListener(this);
+            this.attached = false;
+            this.deferred.clear();
+        }
+        return this;
+    }
+
+    public boolean isAttached() {
+        return this.attached;
+    }
+
+    // time budget of one runSlice() call
+    public long getSliceNanos() {
+        return this.sliceNanos;
+    }
+
+    public void setSliceNanos(long sliceNanos) {
+        this.sliceNanos = sliceNanos;
+    }
+
+    @Override
+    public void invalidated(Dependency<?> dependency) {
+        this.deferred.add(dependency);
+    }
+
+    /**
+     * Whether some recorded dependency may still be out-of-date
+     */
+    public boolean hasDeferredWork() {
+        return !this.deferred.isEmpty();
+    }
+
+    /**
+     * Refresh deferred dependencies until the time slice is used up
+     *
+     * Dependencies evaluated since they were recorded, e.g. by drawing, are
+     * skipped at almost no cost.
+     *
+     * @return whether deferred work remains
+     */
+    public boolean runSlice() {
+        long deadline = System.nanoTime() + this.sliceNanos;
+        Dependency<?> dependency;
+        while ((dependency = this.deferred.poll()) != null) {
+            if (dependency.isOutOfDate()) {
+                dependency.refresh();
+                if (System.nanoTime() >= deadline) {
+                    break;
+                }
+            }
+        }
+        return !this.deferred.isEmpty();
+    }
+}
@@ -0,0 +1,305 @@
+package ui.toolkit.constraint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ConstraintSnapshot {
+    /**
+     * ConstraintSnapshot class: save and restore the constraint network of a
+     * list of objects in a compact binary format
+     *
+     * Every property of the objects constrained by a FormConstraint is saved
+     * as its form, coefficients and sources; objects are referred to by their
+     * position in the list, property names through a string table, and
+     * integers as varints. Restoring onto an equivalent list of objects, e.g.
+     * the same scene rebuilt, creates the constraints unconnected, connects
+     * all of them in one bulk pass (Dependency.connectAll()) and installs them
+     * in one ConstraintTransaction; they are evaluated lazily afterwards.
+     *
+     * Constraints with their own getValue() code cannot be saved and are
+     * skipped; properties keep their current values instead.
+     *
+     * Format: magic, version, property names, object count, then per
+     * constraint its target object and name, form, sources and, for the
+     * linear forms that need them, coefficients and constant.
+     */
+    private static final int MAGIC = 0x544b4353; // "TKCS"
+    private static final int VERSION = 1;
+
+    private static final FormConstraint.Form[] FORMS = FormConstraint.Form.values();
+
+    private ConstraintSnapshot() {}
+
+    /**
+     * @return the number of constraints saved
+     * @throws IllegalArgumentException if a saved constraint reads a
+     *         property of an object not in the list
+     */
+    public static int write(List<?> objects, OutputStream stream) throws IOException {
+        Map<Object, Integer> indices = new IdentityHashMap<>();
+        for (Object object : objects) {
+            indices.put(object, indices.size());
+        }
+
+        // collect first: the name table precedes the constraints
+        Map<String, Integer> names = new LinkedHashMap<>();
+        List<IntProperty> targets = new ArrayList<>();
+        List<FormConstraint> forms = new ArrayList<>();
+        for (Object object : objects) {
+            for (String name : IntProperty.namesOf(object.getClass())) {
+                IntProperty property = IntProperty.of(object, name);
+                Constraint<Integer> constraint = property.getConstraint();
+                if (constraint instanceof FormConstraint) {
+                    targets.add(property);
+                    forms.add((FormConstraint) constraint);
+                    names.putIfAbsent(name, names.size());
+                }
+            }
+        }
+        for (FormConstraint form : forms) {
+            for (int i = 0; i < form.getSourceCount(); ++i) {
+                names.putIfAbsent(form.getSource(i).getName(), names.size());
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarint(out, names.size());
+        for (String name : names.keySet()) {
+            out.writeUTF(name);
+        }
+        writeVarint(out, objects.size());
+        writeVarint(out, forms.size());
+
+        for (int i = 0; i < forms.size(); ++i) {
+            FormConstraint form = forms.get(i);
+            writeProperty(out, targets.get(i), indices, names);
+            out.writeByte(form.getForm().ordinal());
+            writeVarint(out, form.getSourceCount());
+            for (int j = 0; j < form.getSourceCount(); ++j) {
+                writeProperty(out, form.getSource(j), indices, names);
+            }
+            switch (form.getForm()) {
+            case COPY:
+            case SUM:
+            case MAX:
+            case MIN:
+                break;
+            case OFFSET:
+                writeVarint(out, zigzag((int) form.getConstant()));
+                break;
+            default:
+                for (int j = 0; j < form.getSourceCount(); ++j) {
+                    out.writeDouble(form.getCoefficient(j));
+                }
+                out.writeDouble(form.getConstant());
+                break;
+            }
+        }
+        out.flush();
+        return forms.size();
+    }
+
+    /**
+     * Constrain the objects as saved; the list must hold the same number of
+     * objects, of the same kinds, in the same order
+     *
+     * @return the constraints installed
+     * @throws IOException if the stream is not a snapshot, is corrupt or
+     *         does not match the objects
+     */
+    public static List<FormConstraint> read(List<?> objects, InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a constraint snapshot");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        String[] names = new String[readCount(in)];
+        for (int i = 0; i < names.length; ++i) {
+            names[i] = in.readUTF();
+        }
+        int objectCount = readCount(in);
+        if (objectCount != objects.size()) {
+            throw new IOException(String.format("Snapshot of %d objects, %d given", objectCount, objects.size()));
+        }
+        int count = readCount(in);
+
+        // node i < count is the i-th constraint, the rest are the properties
+        // read that are not constrained by the snapshot
+        List<Dependency<?>> nodes = new ArrayList<>(count);
+        IntProperty[] targets = new IntProperty[count];
+        int[][] sourceNodes = new int[count][];
+        int[][] slots = new int[objectCount][];
+
+        // targets are only known once every constraint is read, so sources
+        // are kept as (object, name) pairs until then
+        int[][] sourceKeys = new int[count][];
+        for (int i = 0; i < count; ++i) {
+            int object = readIndex(in, objectCount, "object");
+            int name = readIndex(in, names.length, "name");
+            targets[i] = property(objects, object, names[name]);
+            slotsOf(slots, object, names.length)[name] = i;
+
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= FORMS.length) {
+                throw new IOException("Corrupt snapshot: unknown form " + ordinal);
+            }
+            FormConstraint.Form form = FORMS[ordinal];
+            int sourceCount = readCount(in);
+            if ((form == FormConstraint.Form.COPY || form == FormConstraint.Form.OFFSET) && sourceCount != 1) {
+                throw new IOException(String.format("Corrupt snapshot: %s of %d sources", form, sourceCount));
+            }
+            IntProperty[] sources = new IntProperty[sourceCount];
+            int[] keys = new int[2 * sourceCount];
+            for (int j = 0; j < sourceCount; ++j) {
+                keys[2 * j] = readIndex(in, objectCount, "object");
+                keys[2 * j + 1] = readIndex(in, names.length, "name");
+                sources[j] = property(objects, keys[2 * j], names[keys[2 * j + 1]]);
+            }
+            sourceKeys[i] = keys;
+
+            double[] coefficients;
+            double constant = 0.0;
+            switch (form) {
+            case SUM:
+            case MAX:
+            case MIN:
+                coefficients = new double[0];
+                break;
+            case COPY:
+                coefficients = new double[] { 1.0 };
+                break;
+            case OFFSET:
+                coefficients = new double[] { 1.0 };
+                constant = unzigzag(readVarint(in));
+                break;
+            default:
+                coefficients = new double[sourceCount];
+                for (int j = 0; j < sourceCount; ++j) {
+                    coefficients[j] = in.readDouble();
+                }
+                constant = in.readDouble();
+                break;
+            }
+            nodes.add(new FormConstraint(form, sources, coefficients, constant));
+        }
+
+        for (int i = 0; i < count; ++i) {
+            int[] keys = sourceKeys[i];
+            int[] inputs = new int[keys.length / 2];
+            for (int j = 0; j < inputs.length; ++j) {
+                int object = keys[2 * j], name = keys[2 * j + 1];
+                int[] objectSlots = slotsOf(slots, object, names.length);
+                if (objectSlots[name] < 0) {
+                    objectSlots[name] = nodes.size();
+                    nodes.add(((FormConstraint) nodes.get(i)).getSource(j).use());
+                }
+                inputs[j] = objectSlots[name];
+            }
+            sourceNodes[i] = inputs;
+        }
+
+        int[][] allSources = new int[nodes.size()][];
+        System.arraycopy(sourceNodes, 0, allSources, 0, count);
+        for (int i = count; i < allSources.length; ++i) {
+            allSources[i] = new int[0];
+        }
+        Dependency.connectAll(nodes.toArray(new Dependency<?>[0]), allSources, true);
+
+        List<FormConstraint> installed = new ArrayList<>(count);
+        ConstraintTransaction.run(() -> {
+            for (int i = 0; i < count; ++i) {
+                FormConstraint form = (FormConstraint) nodes.get(i);
+                targets[i].set(form);
+                installed.add(form);
+            }
+        });
+        return installed;
+    }
+
+    private static IntProperty property(List<?> objects, int object, String name) throws IOException {
+        try {
+            return IntProperty.of(objects.get(object), name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Snapshot does not match the objects", e);
+        }
+    }
+
+    private static int[] slotsOf(int[][] slots, int object, int nameCount) {
+        if (slots[object] == null) {
+            slots[object] = new int[nameCount];
+            Arrays.fill(slots[object], -1);
+        }
+        return slots[object];
+    }
+
+    private static void writeProperty(DataOutputStream out, IntProperty property, Map<Object, Integer> indices,
+            Map<String, Integer> names) throws IOException {
+        Integer object = indices.get(property.getOwner());
+        if (object == null) {
+            throw new IllegalArgumentException("Constraint reads an object outside the snapshot: " + property);
+        }
+        writeVarint(out, object);
+        writeVarint(out, names.get(property.getName()));
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    // a varint that indexes a table of the given size
+    private static int readIndex(DataInputStream in, int size, String what) throws IOException {
+        int index = readVarint(in);
+        if (index < 0 || index >= size) {
+            throw new IOException(String.format("Corrupt snapshot: %s %d of %d", what, index, size));
+        }
+        return index;
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = readVarint(in);
+        if (count < 0) {
+            throw new IOException("Corrupt snapshot: negative count " + count);
+        }
+        return count;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
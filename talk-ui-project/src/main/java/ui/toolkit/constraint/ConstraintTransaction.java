@@ -0,0 +1,33 @@
+package ui.toolkit.constraint;
+
+public final class ConstraintTransaction {
+    /**
+     * ConstraintTransaction class: batch many property writes into a single
+     * out-of-date propagation pass
+     * 
+     * Every notifyValueChange() and markOutOfDate() made while the transaction
+     * runs only records the dependency; when the outermost transaction
+     * finishes, the changes are propagated together, visiting shared
+     * successors once. Until then, values that depend on the written
+     * properties are not yet marked out-of-date, and observers such as
+     * TrackedObserver are not notified, so read them after the transaction
+     * instead.
+     * 
+     * Transactions nest, and the changes are propagated even if the body
+     * throws.
+     */
+    private ConstraintTransaction() {}
+
+    public static void run(Runnable body) {
+        Dependency.beginTransaction();
+        try {
+            body.run();
+        } finally {
+            Dependency.commitTransaction();
+        }
+    }
+
+    public static boolean isActive() {
+        return Dependency.isInTransaction();
+    }
+}
@@ -0,0 +1,139 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayDeque;
+
+final class CycleIndex {
+    /**
+     * CycleIndex class: strongly connected components of the dependency graph
+     *
+     * Every dependency caches the component it belongs to (cycleRoot, null if
+     * it is not in a cycle) together with the graph version it was computed
+     * for. An edge change that may alter a component bumps the version; the
+     * next cycle query re-runs an iterative Tarjan search over the part of the
+     * graph reachable from the queried dependency, so repeated queries on an
+     * unchanged graph, e.g. setX() on every mouse move of a drag, are O(1).
+     * Most edges are added to a new constraint, which has no successors yet,
+     * and leave the index as it is.
+     */
+    private static int version = 1;
+
+    private CycleIndex() {}
+
+    private static void invalidate() {
+        version++;
+    }
+
+    /**
+     * Invalidate the index for a new edge unless it cannot close a cycle,
+     * i.e. nothing leaves its end or nothing enters its start
+     */
+    static void added(Dependency<?> start, Dependency<?> end) {
+        if (end == null || (start != end && (end.getOutDegree() == 0 || start.getInDegree() == 0))) {
+            return;
+        }
+        invalidate();
+    }
+
+    /**
+     * Invalidate the index for a removed edge unless it cannot split a
+     * component, i.e. its ends are indexed and not in the same cycle
+     *
+     * An edge to a collected dependency never can: a live dependency in a
+     * cycle with it would still reach it through its strong incoming edges.
+     */
+    static void removed(Dependency<?> start, Dependency<?> end) {
+        if (end == null || (isIndexed(start) && isIndexed(end)
+                && (start.cycleRoot == null || start.cycleRoot != end.cycleRoot))) {
+            return;
+        }
+        invalidate();
+    }
+
+    // invalidate the index for removing all edges of a dependency, unless it
+    // is indexed and not in a cycle
+    static void removedAll(Dependency<?> dependency) {
+        if (!isIndexed(dependency) || dependency.cycleRoot != null) {
+            invalidate();
+        }
+    }
+
+    static boolean isIndexed(Dependency<?> dependency) {
+        return dependency.cycleVersion == version;
+    }
+
+    /**
+     * Find the strongly connected components reachable from the root
+     *
+     * Dependencies already indexed at the current version are skipped: their
+     * whole component was found when they were indexed, so no unindexed
+     * dependency can belong to it.
+     *
+     * @param root the dependency to start the search from
+     */
+    static void index(Dependency<?> root) {
+        ArrayDeque<Visit> calls = new ArrayDeque<>();
+        ArrayDeque<Visit> component = new ArrayDeque<>();
+        int counter = 0;
+
+        Visit first = new Visit(root, counter++);
+        calls.push(first);
+        component.push(first);
+
+        while (!calls.isEmpty()) {
+            Visit visit = calls.peek();
+            if (visit.nextEdge < visit.node.getOutDegree()) {
+                Dependency<?> end = visit.node.getOutEdge(visit.nextEdge++).getEnd();
+                if (end == null) {
+                    // weak edge to a collected dependency
+                    continue;
+                }
+                if (end == visit.node) {
+                    visit.selfLoop = true;
+                } else if (!isIndexed(end)) {
+                    Visit endVisit = end.cycleVisit;
+                    if (endVisit == null) {
+                        endVisit = new Visit(end, counter++);
+                        calls.push(endVisit);
+                        component.push(endVisit);
+                    } else {
+                        // still on the component stack, i.e. in this component
+                        visit.lowLink = Math.min(visit.lowLink, endVisit.order);
+                    }
+                }
+                continue;
+            }
+
+            // all successors visited: pop the component if this is its root
+            calls.pop();
+            if (visit.lowLink == visit.order) {
+                boolean cyclic = visit.selfLoop || component.peek() != visit;
+                Visit member;
+                do {
+                    member = component.pop();
+                    member.node.cycleVisit = null;
+                    member.node.cycleVersion = version;
+                    member.node.cycleRoot = cyclic ? visit.node : null;
+                } while (member != visit);
+            }
+            if (!calls.isEmpty()) {
+                Visit caller = calls.peek();
+                caller.lowLink = Math.min(caller.lowLink, visit.lowLink);
+            }
+        }
+    }
+
+    static class Visit {
+        private final Dependency<?> node;
+        private final int order;
+        private int lowLink;
+        private int nextEdge = 0;
+        private boolean selfLoop = false;
+
+        private Visit(Dependency<?> node, int order) {
+            this.node = node;
+            this.order = order;
+            this.lowLink = order;
+            node.cycleVisit = this;
+        }
+    }
+}
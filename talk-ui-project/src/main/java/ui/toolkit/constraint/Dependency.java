@@ -1,6 +1,8 @@
 package ui.toolkit.constraint;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public abstract class Dependency<T> {
@@ -9,11 +11,68 @@ public abstract class Dependency<T> {
      */
     protected T value;
     private boolean outOfDate = true;
-    private boolean visited = false;
-    private boolean evaluated = true;
-    private List<Edge> outEdges = new ArrayList<>();
-    private List<Edge> inEdges = new ArrayList<>();
+    private boolean evaluating = false;
+    private boolean reentered = false;
+    // adjacency arrays: each edge knows its index in both of them, so it is
+    // removed in O(1) by moving the last edge into its place
+    private Edge[] outEdges = NO_EDGES;
+    private Edge[] inEdges = NO_EDGES;
+    private int outDegree = 0;
+    private int inDegree = 0;
     private String name = null;
+    private boolean sideEffects = false;
+
+    // early cutoff: stop propagation when a re-computed value is equivalent,
+    // by default the same reference as the old one
+    private Equivalence<? super T> equivalence = Equivalence.IDENTITY;
+    private int cutoffCount = 0;
+    private long savedEvaluations = 0;
+    // the cutoff that last left this up to date without a change, if any,
+    // and when, to credit the evaluations it saves downstream
+    private Dependency<?> cutoffSource = null;
+    private long cutoffTime = 0;
+    private boolean computed = false;
+    private static long cutoffClock = 0;
+
+    private static final Edge[] NO_EDGES = new Edge[0];
+
+    // Out-of-date propagation is iterative: a shared worklist replaces the
+    // recursion, and each pass stamps the nodes it has visited with its own
+    // generation number instead of setting and clearing a visited flag
+    private static final ArrayDeque<Dependency<?>> worklist = new ArrayDeque<>();
+    private static int currentPass = 0;
+    private int visitedPass = 0;
+
+    // dependencies changed inside the open ConstraintTransaction, if any,
+    // and those marked out-of-date themselves
+    private static final List<Dependency<?>> changedInTransaction = new ArrayList<>();
+    private static final List<Dependency<?>> invalidatedInTransaction = new ArrayList<>();
+    private static int transactionDepth = 0;
+    private static int transactionPass = 0;
+
+    // notified of every dependency that becomes out-of-date; copied on write
+    // so that propagation only pays for a length check when nobody listens
+    private static InvalidationListener[] invalidationListeners = new InvalidationListener[0];
+
+    // whether new edges reference their end weakly, see setWeakEdges()
+    static boolean weakEdges = false;
+
+    // the TrackedConstraint whose getValue() is running, if any
+    static TrackedConstraint<?> capturing = null;
+    // stamp of the last TrackedConstraint capture or rewire that saw this,
+    // so that each one checks for a repeated read in O(1)
+    int readStamp = 0;
+
+    // whether propagation calls invalidated() when marking this out-of-date
+    boolean observesInvalidation = false;
+
+    // per-dependency counters, only allocated while ConstraintProfiler is on
+    ConstraintProfiler.Stats profile = null;
+
+    // strongly connected component this dependency belongs to, see CycleIndex
+    int cycleVersion = 0;
+    Dependency<?> cycleRoot = null;
+    CycleIndex.Visit cycleVisit = null;
 
     public Dependency() {}
 
@@ -21,9 +80,10 @@ public abstract class Dependency<T> {
         // set up incoming and outgoing edges in the dependency graph
         for (Dependency<?> dependency: dependencies) {
             Edge edge = new Edge(dependency, this);
-            this.inEdges.add(edge);
-            dependency.outEdges.add(edge);
+            this.attachIn(edge);
+            dependency.attachOut(edge);
         }
+        // a new dependency has no successors, so no edge to it closes a cycle
     }
 
     public Dependency(String name, Dependency<?>... dependencies) {
@@ -49,32 +109,200 @@ public abstract class Dependency<T> {
         this.outOfDate = outOfDate;
     }
 
+    // a copy: iterate with getOutDegree() and getOutEdge() in this package
     public List<Edge> getOutEdges() {
-        return this.outEdges;
+        return Arrays.asList(Arrays.copyOf(this.outEdges, this.outDegree));
     }
 
     public void addOutEdge(Edge edge) {
-        this.outEdges.add(edge);
+        this.attachOut(edge);
+        CycleIndex.added(edge.getStart(), edge.getEnd());
     }
 
     public void removeOutEdge(Edge edge) {
-        this.outEdges.remove(edge);
+        this.detachOut(edge);
+        CycleIndex.removed(edge.getStart(), edge.getEnd());
     }
 
     public List<Edge> getInEdges() {
-        return this.inEdges;
+        return Arrays.asList(Arrays.copyOf(this.inEdges, this.inDegree));
     }
 
     public void addInEdge(Edge edge) {
-        this.inEdges.add(edge);
+        this.attachIn(edge);
+        CycleIndex.added(edge.getStart(), edge.getEnd());
     }
 
     public void removeInEdge(Edge edge) {
-        this.inEdges.remove(edge);
+        this.detachIn(edge);
+        CycleIndex.removed(edge.getStart(), edge.getEnd());
+    }
+
+    int getOutDegree() {
+        return this.outDegree;
+    }
+
+    Edge getOutEdge(int index) {
+        return this.outEdges[index];
+    }
+
+    int getInDegree() {
+        return this.inDegree;
+    }
+
+    Edge getInEdge(int index) {
+        return this.inEdges[index];
+    }
+
+    private void attachOut(Edge edge) {
+        if (this.outDegree == this.outEdges.length) {
+            this.outEdges = Arrays.copyOf(this.outEdges, Math.max(2, 2 * this.outDegree));
+        }
+        edge.outIndex = this.outDegree;
+        this.outEdges[this.outDegree++] = edge;
+    }
+
+    private void detachOut(Edge edge) {
+        int index = edge.outIndex;
+        if (index < this.outDegree && this.outEdges[index] == edge) {
+            Edge last = this.outEdges[--this.outDegree];
+            this.outEdges[index] = last;
+            last.outIndex = index;
+            this.outEdges[this.outDegree] = null;
+        }
+    }
+
+    private void attachIn(Edge edge) {
+        if (this.inDegree == this.inEdges.length) {
+            this.inEdges = Arrays.copyOf(this.inEdges, Math.max(2, 2 * this.inDegree));
+        }
+        edge.inIndex = this.inDegree;
+        this.inEdges[this.inDegree++] = edge;
+    }
+
+    private void detachIn(Edge edge) {
+        int index = edge.inIndex;
+        if (index < this.inDegree && this.inEdges[index] == edge) {
+            Edge last = this.inEdges[--this.inDegree];
+            this.inEdges[index] = last;
+            last.inIndex = index;
+            this.inEdges[this.inDegree] = null;
+        }
+    }
+
+    /**
+     * Connect dependencies in bulk, e.g. when a snapshot is loaded
+     * 
+     * sources[i] holds the indices of new inputs of nodes[i], in order. Each
+     * adjacency array grows once to its final size and is filled directly,
+     * instead of growing one edge at a time.
+     * 
+     * @param pending whether the new edges are pending
+     */
+    static void connectAll(Dependency<?>[] nodes, int[][] sources, boolean pending) {
+        int[] outCounts = new int[nodes.length];
+        for (int[] inputs : sources) {
+            for (int input : inputs) {
+                outCounts[input]++;
+            }
+        }
+        for (int i = 0; i < nodes.length; ++i) {
+            Dependency<?> node = nodes[i];
+            if (sources[i].length > 0) {
+                node.inEdges = Arrays.copyOf(node.inEdges, node.inDegree + sources[i].length);
+            }
+            if (outCounts[i] > 0) {
+                node.outEdges = Arrays.copyOf(node.outEdges, node.outDegree + outCounts[i]);
+            }
+        }
+        for (int i = 0; i < nodes.length; ++i) {
+            Dependency<?> node = nodes[i];
+            for (int input : sources[i]) {
+                Dependency<?> start = nodes[input];
+                Edge edge = new Edge(start, node);
+                edge.setPending(pending);
+                edge.inIndex = node.inDegree;
+                node.inEdges[node.inDegree++] = edge;
+                edge.outIndex = start.outDegree;
+                start.outEdges[start.outDegree++] = edge;
+            }
+        }
+        // checked once all edges are in, as each may extend another's cycle
+        for (int i = 0; i < nodes.length; ++i) {
+            for (int input : sources[i]) {
+                CycleIndex.added(nodes[input], nodes[i]);
+            }
+        }
+    }
+
+    private void clearEdges() {
+        this.outEdges = NO_EDGES;
+        this.inEdges = NO_EDGES;
+        this.outDegree = 0;
+        this.inDegree = 0;
+    }
+
+    public Equivalence<? super T> getEquivalence() {
+        return this.equivalence;
+    }
+
+    public void setEquivalence(Equivalence<? super T> equivalence) {
+        this.equivalence = equivalence;
+    }
+
+    // whether the value has been re-computed at least once, i.e. is not just
+    // the initial one
+    protected final boolean isComputed() {
+        return this.computed;
+    }
+
+    // whether the equivalence is a built-in one, under which the primitive
+    // subclasses compare their unboxed values directly instead
+    protected final boolean hasDefaultEquivalence() {
+        return this.equivalence == Equivalence.IDENTITY || this.equivalence == Equivalence.EQUALS;
+    }
+
+    // number of re-evaluations whose value was unchanged
+    public int getCutoffCount() {
+        return this.cutoffCount;
+    }
+
+    // number of downstream re-computations skipped because of those cutoffs:
+    // each out-of-date successor left without a pending input counts once,
+    // for the most recent cutoff that reached it
+    public long getSavedEvaluations() {
+        return this.savedEvaluations;
+    }
+
+    // whether getValue() touches state outside its own inputs, e.g. prints or
+    // writes another object; ParallelSolver never evaluates these off the EDT
+    public boolean hasSideEffects() {
+        return this.sideEffects;
+    }
+
+    public void setSideEffects(boolean sideEffects) {
+        this.sideEffects = sideEffects;
     }
 
     public boolean isConstrained() {
-        return (this.inEdges.size() > 0);
+        return (this.inDegree > 0);
+    }
+
+    /**
+     * Report a read of this dependency, called by property getters
+     * 
+     * If a TrackedConstraint is being evaluated, the dependency becomes one of
+     * its inputs; otherwise this does nothing.
+     */
+    public final void track() {
+        if (capturing != null) {
+            capturing.captured(this);
+        }
+    }
+
+    // whether a TrackedConstraint is capturing the dependencies it reads
+    public static boolean isCapturing() {
+        return capturing != null;
     }
 
     @Override
@@ -89,73 +317,267 @@ public abstract class Dependency<T> {
      */
     public void replaceWithConstraint(Dependency<T> newConstraint) {
         // remove previous outgoing edges
-        for (Edge outEdge: this.outEdges) {
+        for (int i = 0; i < this.outDegree; ++i) {
+            Edge outEdge = this.outEdges[i];
             Dependency<?> target = outEdge.getEnd();
-            target.removeInEdge(outEdge);
+            if (target == null) {
+                continue;
+            }
+            target.detachIn(outEdge);
 
             // add new outgoing edges
             Edge edge = new Edge(newConstraint, target);
-            target.addInEdge(edge);
-            newConstraint.addOutEdge(edge);
+            target.attachIn(edge);
+            newConstraint.attachOut(edge);
+            CycleIndex.added(newConstraint, target);
         }
 
         // remove previous incoming edges
-        for (Edge inEdge: this.inEdges) {
-            inEdge.getStart().removeOutEdge(inEdge);
+        for (int i = 0; i < this.inDegree; ++i) {
+            this.inEdges[i].getStart().detachOut(this.inEdges[i]);
+        }
+        if (this.outDegree > 0 || this.inDegree > 0) {
+            CycleIndex.removedAll(this);
+            this.clearEdges();
         }
     }
     
+    /**
+     * Detach this dependency from the dependency graph
+     * 
+     * Its inputs no longer reference it, and its successors lose it as an
+     * input: a property constrained only by it keeps its last value.
+     * Group.deleteChild() disposes the constraints of the child this way, so
+     * that the objects they read do not keep the child alive.
+     */
+    public void dispose() {
+        if (this.inDegree == 0 && this.outDegree == 0) {
+            return;
+        }
+        for (int i = 0; i < this.inDegree; ++i) {
+            this.inEdges[i].getStart().detachOut(this.inEdges[i]);
+        }
+        for (int i = 0; i < this.outDegree; ++i) {
+            Dependency<?> end = this.outEdges[i].getEnd();
+            if (end != null) {
+                end.detachIn(this.outEdges[i]);
+            }
+        }
+        CycleIndex.removedAll(this);
+        this.clearEdges();
+    }
+
+    /**
+     * Let edges created from now on reference their end weakly
+     * 
+     * A dependency is then only kept alive by its successors and by the
+     * object whose property it constrains, not by its inputs, so constraints
+     * of objects dropped without dispose() are garbage collected. Edges whose
+     * end was collected are removed during the next propagation.
+     */
+    public static void setWeakEdges(boolean weak) {
+        weakEdges = weak;
+    }
+
+    public static boolean hasWeakEdges() {
+        return weakEdges;
+    }
+
     /**
      * Detect if the constraint is involved in a dependency cycle
+     * 
+     * The answer comes from the strongly connected components in CycleIndex,
+     * which are only re-computed after the graph has changed.
      */
     public boolean hasCycle() {
-        if (this.visited) {
-            return true;
+        if (!CycleIndex.isIndexed(this)) {
+            CycleIndex.index(this);
         }
+        return this.cycleRoot != null;
+    }
 
-        this.visited = true;
-        boolean cycleDetected = false;
-        for (Edge outEdge : this.outEdges) {
-            if (outEdge.getEnd().hasCycle()) {
-                cycleDetected = true;
-                break;
-            }
-        }
-        this.visited = false;
-        return cycleDetected;
+    /**
+     * Check if this and the other dependency are involved in the same cycle
+     * 
+     * @param other another dependency
+     */
+    public boolean isInCycleWith(Dependency<?> other) {
+        return this.hasCycle() && other.hasCycle() && this.cycleRoot == other.cycleRoot;
     }
 
     /**
      * Notify its direct successor to propagate out-of-date signals
      * 
+     * Inside a ConstraintTransaction the propagation is deferred until the
+     * transaction commits.
+     * 
      * @param selfOutOfDate whether to mark itself as out-of-date
      */
     public void notifyValueChange(boolean selfOutOfDate) {
-        this.visited = true;
+        if (!selfOutOfDate && this.outDegree == 0) {
+            // nothing depends on it, e.g. NoConstraint.unused()
+            this.outOfDate = false;
+            return;
+        }
         this.outOfDate = selfOutOfDate;
-        for (Edge outEdge : this.outEdges) {
-            outEdge.setPending(true);
-            outEdge.getEnd().markOutOfDate();
+        for (int i = 0; i < this.outDegree; ++i) {
+            this.outEdges[i].setPending(true);
+        }
+        if (selfOutOfDate) {
+            fireInvalidated(this);
         }
-        this.visited = false;
+        if (transactionDepth > 0) {
+            if (this.visitedPass != transactionPass) {
+                this.visitedPass = transactionPass;
+                changedInTransaction.add(this);
+            }
+            return;
+        }
+
+        int pass = ++currentPass;
+        this.visitedPass = pass;
+        enqueueSuccessors(this, pass);
+        if (ConstraintProfiler.enabled) {
+            ConstraintProfiler.changed(this, worklist.size());
+        }
+        propagate(pass);
     }    
 
     /**
-     * Mark all successors of this dependency as out-of-date
+     * Mark this dependency and all its successors as out-of-date
+     * 
+     * Inside a ConstraintTransaction this is deferred until the transaction
+     * commits, as for notifyValueChange().
      */
     public void markOutOfDate() {
-        if (this.visited) {
+        if (transactionDepth > 0) {
+            // one that is out-of-date already has nothing left to mark
+            if (!this.outOfDate) {
+                invalidatedInTransaction.add(this);
+            }
             return;
         }
+        int pass = ++currentPass;
+        enqueue(this, pass);
+        propagate(pass);
+    }
 
-        this.visited = true;
-        if (!this.outOfDate) {
-            this.outOfDate = true;
-            for (Edge outEdge : this.outEdges) {
-                outEdge.getEnd().markOutOfDate();
+    /**
+     * Drain the worklist, marking every node reachable from it as out-of-date
+     * 
+     * A node is expanded at most once per pass, and nodes that are already out
+     * of date are not expanded at all, so a pass costs O(reachable edges)
+     * regardless of the depth of the graph.
+     * 
+     * @param pass generation number of the current pass
+     */
+    private static void propagate(int pass) {
+        Dependency<?> node;
+        while ((node = worklist.poll()) != null) {
+            node.outOfDate = true;
+            if (node.observesInvalidation) {
+                node.invalidated();
             }
+            fireInvalidated(node);
+            int queued = worklist.size();
+            enqueueSuccessors(node, pass);
+            if (ConstraintProfiler.enabled) {
+                ConstraintProfiler.invalidated(node, worklist.size() - queued);
+            }
+        }
+    }
+
+    public static void addInvalidationListener(InvalidationListener listener) {
+        InvalidationListener[] listeners = Arrays.copyOf(invalidationListeners, invalidationListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        invalidationListeners = listeners;
+    }
+
+    public static void removeInvalidationListener(InvalidationListener listener) {
+        List<InvalidationListener> listeners = new ArrayList<>(Arrays.asList(invalidationListeners));
+        listeners.remove(listener);
+        invalidationListeners = listeners.toArray(new InvalidationListener[0]);
+    }
+
+    // called by propagation if observesInvalidation is set
+    void invalidated() {
+    }
+
+    private static void fireInvalidated(Dependency<?> node) {
+        for (InvalidationListener listener : invalidationListeners) {
+            listener.invalidated(node);
+        }
+    }
+
+    static void beginTransaction() {
+        if (transactionDepth++ == 0) {
+            transactionPass = ++currentPass;
+        }
+    }
+
+    static boolean isInTransaction() {
+        return transactionDepth > 0;
+    }
+
+    /**
+     * Propagate the changes made in the outermost transaction in one pass
+     * 
+     * All changed dependencies are sources of the same pass, so none of them
+     * is marked out-of-date by another, and successors shared between them
+     * are visited once. The dependencies marked out-of-date themselves join
+     * the pass first, as markOutOfDate() would have marked them.
+     */
+    static void commitTransaction() {
+        if (--transactionDepth > 0) {
+            return;
+        }
+        int pass = ++currentPass;
+        for (Dependency<?> invalidated : invalidatedInTransaction) {
+            enqueue(invalidated, pass);
+        }
+        invalidatedInTransaction.clear();
+        for (Dependency<?> changed : changedInTransaction) {
+            changed.visitedPass = pass;
+        }
+        for (Dependency<?> changed : changedInTransaction) {
+            int queued = worklist.size();
+            enqueueSuccessors(changed, pass);
+            if (ConstraintProfiler.enabled) {
+                ConstraintProfiler.changed(changed, worklist.size() - queued);
+            }
+        }
+        changedInTransaction.clear();
+        propagate(pass);
+    }
+
+    private static void enqueueSuccessors(Dependency<?> node, int pass) {
+        Edge[] outEdges = node.outEdges;
+        boolean collected = false;
+        for (int i = 0, degree = node.outDegree; i < degree; ++i) {
+            Dependency<?> end = outEdges[i].getEnd();
+            if (end != null) {
+                enqueue(end, pass);
+            } else {
+                collected = true;
+            }
+        }
+        if (collected) {
+            // weak edges whose end was garbage collected; going backwards,
+            // the edge moved into a removed one's place was already checked
+            for (int i = node.outDegree - 1; i >= 0; --i) {
+                if (outEdges[i].getEnd() == null) {
+                    node.detachOut(outEdges[i]);
+                }
+            }
+            // which leaves every component as it was, see CycleIndex.removed()
+        }
+    }
+
+    private static void enqueue(Dependency<?> node, int pass) {
+        if (node.visitedPass != pass && !node.outOfDate) {
+            node.visitedPass = pass;
+            worklist.add(node);
         }
-        this.visited = false;
     }
 
     /**
@@ -164,94 +586,159 @@ public abstract class Dependency<T> {
      * @return evaluated constraint value
      */
     public T evaluate() {
-        // yet to be evaluated
-        this.evaluated = false;
+        refresh();
+        return this.value;
+    }
+
+    /**
+     * Bring the value up to date, re-computing it if any input is pending
+     * 
+     * Each dependency is re-computed at most once per evaluation: when a cycle
+     * leads back to a dependency that is still being evaluated, its current
+     * value is used, so a multi-way constraint is evaluated once around the
+     * cycle instead of re-entering every member again.
+     */
+    protected void refresh() {
+        if (this.evaluating) {
+            this.reentered = true;
+            return;
+        }
 
         // consider re-evaluating if out of date
         if (this.outOfDate) {
-            // check if there are any pending incoming edges
-            boolean anyPending = false;
-            for (Edge inEdge: this.inEdges) {
-                anyPending = anyPending || inEdge.isPending() || inEdge.getStart().isOutOfDate();
-                inEdge.setPending(false);
-            }
-
-            // re-evaluate the constraint
-            if (anyPending) {
-                try {
-                    T newValue = this.getValue();
-                    if (newValue != this.value) {
-                        if (this.evaluated) {
-                            // if cycle, report cyclic dependency conflict
-                            System.err.println(
-                                "ERROR: Conflict found when evaluating constraint " + this
-                            );
-                        } else {
-                            // if no cycles, update value and set pending edges
-                            this.value = newValue;
-                            for (Edge outEdge : this.outEdges) {
-                                outEdge.setPending(true);
+            this.evaluating = true;
+            this.reentered = false;
+            try {
+                // re-evaluate the constraint
+                if (refreshInputs()) {
+                    try {
+                        boolean changed = ConstraintProfiler.enabled
+                            ? ConstraintProfiler.recompute(this) : recompute();
+                        this.computed = true;
+                        if (changed) {
+                            // if value changed, set pending edges
+                            for (int i = 0; i < this.outDegree; ++i) {
+                                this.outEdges[i].setPending(true);
                             }
+                            this.cutoffSource = null;
+                            this.cutoffTime = ++cutoffClock;
                         }
+                    } catch (Exception e) {
+                        // error in user-implemented getValue method
+                        System.err.println(String.format(
+                            "ERROR: in %s.getValue(): %s", this, e
+                        ));
+                        return;
                     }
-                } catch (Exception e) {
-                    // error in user-implemented getValue method
-                    System.err.println(String.format(
-                        "ERROR: in %s.getValue(): %s", this, e
-                    ));
-                    return this.value;
+                } else {
+                    skipped();
                 }
+                // update outOfDate as the final step
+                // in case user implemented getValue() crashes
+                this.outOfDate = false;
+            } finally {
+                // finish evaluation
+                this.evaluating = false;
             }
-            // update outOfDate as the final step
-            // in case user implemented getValue() crashes
-            this.outOfDate = false;
         }
-        // finish evaluation
-        this.evaluated = true;
-        return this.value;
     }
-}
 
-class Edge {
     /**
-     * Edge class: directed edges in the dependency graph
+     * Bring the inputs up to date and check if there are any pending
+     * incoming edges
+     * 
+     * Called by refresh() while this dependency is being evaluated.
+     * 
+     * @return whether the value must be re-computed
      */
-    private Dependency<?> start;
-    private Dependency<?> end;
-    private boolean isPending;
-
-    public Edge(Dependency<?> start, Dependency<?> end) {
-        this.start = start;
-        this.end = end;
-        this.isPending = true;
-    }
-
-    public Dependency<?> getStart() {
-        return this.start;
-    }
-
-    public Dependency<?> getEnd() {
-        return this.end;
+    protected boolean refreshInputs() {
+        // a constrained node without inputs, i.e. a TrackedConstraint that
+        // has not captured any yet, is always re-computed
+        boolean anyPending = this.inDegree == 0 && isConstrained();
+        for (int i = 0; i < this.inDegree; ++i) {
+            Edge inEdge = this.inEdges[i];
+            // bring inputs up to date first, so that an input whose value
+            // did not change leaves its edge up to date (early cutoff);
+            // an input still being evaluated is in a cycle with this node
+            Dependency<?> start = inEdge.getStart();
+            if (start.outOfDate && !start.evaluating) {
+                start.refresh();
+            }
+            anyPending = anyPending || inEdge.isPending() || start.isOutOfDate();
+            inEdge.setPending(false);
+        }
+        return anyPending;
     }
 
-    public boolean isPending() {
-        return this.isPending;
+    /**
+     * Re-compute the value and store it unless it conflicts with a cycle
+     * 
+     * Subclasses that keep their value in a primitive field override this
+     * together with evaluate() and setValue().
+     * 
+     * @return whether the stored value changed
+     */
+    protected boolean recompute() {
+        T newValue = this.getValue();
+        if (this.equivalence.isEquivalent(this.value, newValue)) {
+            cutOff();
+            return false;
+        }
+        if (isConflict()) {
+            return false;
+        }
+        this.value = newValue;
+        return true;
     }
 
-    public void setPending(boolean isPending) {
-        this.isPending = isPending;
+    /**
+     * Record an early cutoff: the value did not change, so outgoing edges stay
+     * up to date and out-of-date successors can skip re-computing
+     */
+    protected final void cutOff() {
+        this.cutoffCount++;
+        this.cutoffSource = this;
+        this.cutoffTime = ++cutoffClock;
     }
 
-    private String outOfDateToString(boolean outOfDate) {
-        return outOfDate ? "out of date" : "up to date";
+    /**
+     * Credit a re-computation skipped for lack of pending inputs to the
+     * cutoff that reached this dependency last, through its inputs
+     */
+    private void skipped() {
+        Dependency<?> latest = null;
+        for (int i = 0; i < this.inDegree; ++i) {
+            Dependency<?> start = this.inEdges[i].getStart();
+            if (latest == null || start.cutoffTime > latest.cutoffTime) {
+                latest = start;
+            }
+        }
+        if (latest != null && latest.cutoffSource != null) {
+            latest.cutoffSource.savedEvaluations++;
+            this.cutoffSource = latest.cutoffSource;
+            this.cutoffTime = ++cutoffClock;
+        }
     }
 
-    @Override
-    public String toString() {
-        return String.format("Edge[%s (%s) -> %s (%s): %s]", 
-            start.toString(), outOfDateToString(start.isOutOfDate()),
-            end.toString(), outOfDateToString(end.isOutOfDate()),
-            isPending ? "pending" : "up to date"
-        );
+    /**
+     * Check whether a changed value has come back around a dependency cycle
+     * 
+     * If this dependency was needed again while computing its new value, the
+     * new value was computed around a cycle from the current value, and a
+     * different result means the formulas in the cycle are in conflict.
+     * 
+     * @return whether a cyclic dependency conflict was found (and reported)
+     */
+    protected final boolean isConflict() {
+        if (this.reentered) {
+            if (ConstraintProfiler.enabled) {
+                ConstraintProfiler.conflict(this);
+            }
+            System.err.println(
+                "ERROR: Conflict found when evaluating constraint " + this
+            );
+            return true;
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,94 @@
+package ui.toolkit.constraint;
+
+public abstract class DoubleConstraint extends Constraint<Double> {
+    /**
+     * DoubleConstraint class: a Constraint on a double that never boxes its value
+     * 
+     * Implement getDoubleValue() instead of getValue(); evaluateDouble() returns the
+     * primitive value and compares old and new values as doubles, within the
+     * tolerance, unless a custom equivalence is set.
+     */
+    protected double doubleValue;
+    private double tolerance = 0.0;
+
+    public DoubleConstraint() {
+        super();
+    }
+    public DoubleConstraint(Dependency<?>... dependencies) {
+        super(dependencies);
+    }
+    public DoubleConstraint(String name, Dependency<?>... dependencies) {
+        super(name, dependencies);
+    }
+
+    // This should be overridden by custom constraints
+    public abstract double getDoubleValue();
+
+    public final Double getValue() {
+        return getDoubleValue();
+    }
+
+    public void setValue(Double value) {
+        this.doubleValue = (value != null) ? value : 0;
+    }
+
+    public void setDoubleValue(double value) {
+        this.doubleValue = value;
+    }
+
+    // values closer than the tolerance count as unchanged (early cutoff),
+    // under the built-in equivalences
+    public double getTolerance() {
+        return this.tolerance;
+    }
+
+    public void setTolerance(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    public double evaluateDouble() {
+        refresh();
+        return this.doubleValue;
+    }
+
+    @Override
+    public Double evaluate() {
+        return evaluateDouble();
+    }
+
+    @Override
+    protected boolean recompute() {
+        double newValue = this.getDoubleValue();
+        if (isEquivalent(newValue)) {
+            cutOff();
+            return false;
+        }
+        if (isConflict()) {
+            return false;
+        }
+        this.doubleValue = newValue;
+        return true;
+    }
+
+    // whether the new value counts as unchanged, i.e. propagation stops here
+    protected final boolean isEquivalent(double newValue) {
+        if (hasDefaultEquivalence()) {
+            return Math.abs(newValue - this.doubleValue) <= this.tolerance;
+        }
+        // a custom equivalence never keeps the initial value
+        return isComputed() && getEquivalence().isEquivalent(this.doubleValue, newValue);
+    }
+
+    /**
+     * Evaluate any double constraint, without boxing if it is a DoubleConstraint
+     * 
+     * @param constraint the constraint to evaluate
+     * @return evaluated constraint value
+     */
+    public static double evaluateDouble(Dependency<Double> constraint) {
+        if (constraint instanceof DoubleConstraint) {
+            return ((DoubleConstraint) constraint).evaluateDouble();
+        }
+        return constraint.evaluate();
+    }
+}
@@ -0,0 +1,58 @@
+package ui.toolkit.constraint;
+
+import java.lang.ref.WeakReference;
+
+class Edge {
+    /**
+     * Edge class: directed edges in the dependency graph
+     */
+    private Dependency<?> start;
+    private Dependency<?> end;
+    private WeakReference<Dependency<?>> weakEnd = null;
+    private boolean isPending;
+
+    // positions in start's outgoing and end's incoming adjacency arrays
+    int outIndex = -1;
+    int inIndex = -1;
+
+    public Edge(Dependency<?> start, Dependency<?> end) {
+        this.start = start;
+        if (Dependency.weakEdges) {
+            this.weakEnd = new WeakReference<>(end);
+        } else {
+            this.end = end;
+        }
+        this.isPending = true;
+    }
+
+    public Dependency<?> getStart() {
+        return this.start;
+    }
+
+    // null if the edge is weak and its end was garbage collected
+    public Dependency<?> getEnd() {
+        return (this.weakEnd == null) ? this.end : this.weakEnd.get();
+    }
+
+    public boolean isPending() {
+        return this.isPending;
+    }
+
+    public void setPending(boolean isPending) {
+        this.isPending = isPending;
+    }
+
+    private String outOfDateToString(boolean outOfDate) {
+        return outOfDate ? "out of date" : "up to date";
+    }
+
+    @Override
+    public String toString() {
+        Dependency<?> end = getEnd();
+        return String.format("Edge[%s (%s) -> %s (%s): %s]", 
+            start.toString(), outOfDateToString(start.isOutOfDate()),
+            end, (end != null) ? outOfDateToString(end.isOutOfDate()) : "collected",
+            isPending ? "pending" : "up to date"
+        );
+    }
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package ui.toolkit.constraint;
+
+import java.util.Objects;
+
+@FunctionalInterface
+public interface Equivalence<T> {
+    /**
+     * Equivalence interface: decides whether a re-computed constraint value is
+     * the same as the old one, in which case propagation is cut off there
+     */
+    public boolean isEquivalent(T oldValue, T newValue);
+
+    // compare with equals(), e.g. for boxed numbers, Colors, Fonts and
+    // Strings that are re-created with the same value
+    public static final Equivalence<Object> EQUALS = Objects::equals;
+
+    // compare references, i.e. any newly created object counts as a change;
+    // the default for every Dependency
+    public static final Equivalence<Object> IDENTITY = (oldValue, newValue) -> oldValue == newValue;
+
+    // treat numbers within the given tolerance (e.g. half a pixel) as equal
+    public static Equivalence<Number> tolerance(double tolerance) {
+        return (oldValue, newValue) -> (oldValue == null || newValue == null) ? oldValue == newValue
+                : Math.abs(oldValue.doubleValue() - newValue.doubleValue()) <= tolerance;
+    }
+}
@@ -0,0 +1,161 @@
+package ui.toolkit.constraint;
+
+public class FormConstraint extends IntConstraint {
+    /**
+     * FormConstraint class: the common integer constraints as data instead of
+     * code, so they can be saved by ConstraintSnapshot
+     *
+     * Most constraints of a prototype copy a property, offset it, scale it,
+     * align to a weighted sum of properties or aggregate several, e.g.
+     *
+     *     rect.setX(FormConstraint.offset(IntProperty.of(other, "x"), 10));
+     *     label.setX(FormConstraint.centerOn(IntProperty.of(box, "x"),
+     *             IntProperty.of(box, "width"), IntProperty.of(label, "width")));
+     *
+     * The linear forms compute round(constant + sum of coefficient * source);
+     * SUM, MAX and MIN combine their sources unweighted. Sources are read
+     * through their getters and depend on their use() constraints. A
+     * Constraint with its own getValue() can do anything, but is not saved.
+     */
+    public enum Form { COPY, OFFSET, PROPORTIONAL, ALIGN, SUM, MAX, MIN }
+
+    private static final double[] NO_COEFFICIENTS = new double[0];
+
+    private final Form form;
+    private final IntProperty[] sources;
+    private final double[] coefficients;
+    private final double constant;
+
+    private FormConstraint(Form form, double[] coefficients, double constant, IntProperty... sources) {
+        super(uses(sources));
+        this.form = form;
+        this.sources = sources;
+        this.coefficients = coefficients;
+        this.constant = constant;
+    }
+
+    // unconnected, for ConstraintSnapshot to connect in bulk
+    FormConstraint(Form form, IntProperty[] sources, double[] coefficients, double constant) {
+        super();
+        this.form = form;
+        this.sources = sources;
+        this.coefficients = coefficients;
+        this.constant = constant;
+    }
+
+    private static Dependency<?>[] uses(IntProperty[] sources) {
+        Dependency<?>[] uses = new Dependency<?>[sources.length];
+        for (int i = 0; i < sources.length; ++i) {
+            uses[i] = sources[i].use();
+        }
+        return uses;
+    }
+
+    public static FormConstraint copy(IntProperty source) {
+        return new FormConstraint(Form.COPY, new double[] { 1.0 }, 0.0, source);
+    }
+
+    public static FormConstraint offset(IntProperty source, int offset) {
+        return new FormConstraint(Form.OFFSET, new double[] { 1.0 }, offset, source);
+    }
+
+    public static FormConstraint proportional(IntProperty source, double factor) {
+        return proportional(source, factor, 0.0);
+    }
+
+    public static FormConstraint proportional(IntProperty source, double factor, double offset) {
+        return new FormConstraint(Form.PROPORTIONAL, new double[] { factor }, offset, source);
+    }
+
+    /**
+     * constant + sum of weights[i] * sources[i]
+     */
+    public static FormConstraint align(double[] weights, double constant, IntProperty... sources) {
+        if (weights.length != sources.length) {
+            throw new IllegalArgumentException("One weight per source is needed");
+        }
+        return new FormConstraint(Form.ALIGN, weights.clone(), constant, sources);
+    }
+
+    // center of a size within another: x + (width - size) / 2
+    public static FormConstraint centerOn(IntProperty x, IntProperty width, IntProperty size) {
+        return align(new double[] { 1.0, 0.5, -0.5 }, 0.0, x, width, size);
+    }
+
+    public static FormConstraint sum(IntProperty... sources) {
+        return new FormConstraint(Form.SUM, NO_COEFFICIENTS, 0.0, sources);
+    }
+
+    public static FormConstraint max(IntProperty... sources) {
+        return new FormConstraint(Form.MAX, NO_COEFFICIENTS, 0.0, sources);
+    }
+
+    public static FormConstraint min(IntProperty... sources) {
+        return new FormConstraint(Form.MIN, NO_COEFFICIENTS, 0.0, sources);
+    }
+
+    public Form getForm() {
+        return this.form;
+    }
+
+    public int getSourceCount() {
+        return this.sources.length;
+    }
+
+    public IntProperty getSource(int index) {
+        return this.sources[index];
+    }
+
+    public double[] getCoefficients() {
+        return this.coefficients.clone();
+    }
+
+    public double getConstant() {
+        return this.constant;
+    }
+
+    // whether the form has coefficients and a constant at all
+    boolean isLinear() {
+        return this.form != Form.SUM && this.form != Form.MAX && this.form != Form.MIN;
+    }
+
+    double getCoefficient(int index) {
+        return this.coefficients[index];
+    }
+
+    @Override
+    public int getIntValue() {
+        switch (this.form) {
+        case SUM: {
+            int sum = 0;
+            for (IntProperty source : this.sources) {
+                sum += source.get();
+            }
+            return sum;
+        }
+        case MAX: {
+            int max = (this.sources.length == 0) ? 0 : Integer.MIN_VALUE;
+            for (IntProperty source : this.sources) {
+                max = Math.max(max, source.get());
+            }
+            return max;
+        }
+        case MIN: {
+            int min = (this.sources.length == 0) ? 0 : Integer.MAX_VALUE;
+            for (IntProperty source : this.sources) {
+                min = Math.min(min, source.get());
+            }
+            return min;
+        }
+        case COPY:
+            return this.sources[0].get();
+        default: {
+            double value = this.constant;
+            for (int i = 0; i < this.sources.length; ++i) {
+                value += this.coefficients[i] * this.sources[i].get();
+            }
+            return (int) Math.round(value);
+        }
+        }
+    }
+}
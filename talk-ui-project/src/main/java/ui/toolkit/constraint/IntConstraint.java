@@ -0,0 +1,83 @@
+package ui.toolkit.constraint;
+
+public abstract class IntConstraint extends Constraint<Integer> {
+    /**
+     * IntConstraint class: a Constraint on an int that never boxes its value
+     * 
+     * Implement getIntValue() instead of getValue(); evaluateInt() returns the
+     * primitive value and compares old and new values as ints, unless a custom
+     * equivalence is set.
+     */
+    protected int intValue;
+
+    public IntConstraint() {
+        super();
+    }
+    public IntConstraint(Dependency<?>... dependencies) {
+        super(dependencies);
+    }
+    public IntConstraint(String name, Dependency<?>... dependencies) {
+        super(name, dependencies);
+    }
+
+    // This should be overridden by custom constraints
+    public abstract int getIntValue();
+
+    public final Integer getValue() {
+        return getIntValue();
+    }
+
+    public void setValue(Integer value) {
+        this.intValue = (value != null) ? value : 0;
+    }
+
+    public void setIntValue(int value) {
+        this.intValue = value;
+    }
+
+    public int evaluateInt() {
+        refresh();
+        return this.intValue;
+    }
+
+    @Override
+    public Integer evaluate() {
+        return evaluateInt();
+    }
+
+    @Override
+    protected boolean recompute() {
+        int newValue = this.getIntValue();
+        if (isEquivalent(newValue)) {
+            cutOff();
+            return false;
+        }
+        if (isConflict()) {
+            return false;
+        }
+        this.intValue = newValue;
+        return true;
+    }
+
+    // whether the new value counts as unchanged, i.e. propagation stops here
+    protected final boolean isEquivalent(int newValue) {
+        if (hasDefaultEquivalence()) {
+            return newValue == this.intValue;
+        }
+        // a custom equivalence never keeps the initial value
+        return isComputed() && getEquivalence().isEquivalent(this.intValue, newValue);
+    }
+
+    /**
+     * Evaluate any integer constraint, without boxing if it is an IntConstraint
+     * 
+     * @param constraint the constraint to evaluate
+     * @return evaluated constraint value
+     */
+    public static int evaluateInt(Dependency<Integer> constraint) {
+        if (constraint instanceof IntConstraint) {
+            return ((IntConstraint) constraint).evaluateInt();
+        }
+        return constraint.evaluate();
+    }
+}
@@ -0,0 +1,98 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class IntProperty {
+    /**
+     * IntProperty class: an integer property of an object by name, e.g. the
+     * "x" of a rectangle
+     *
+     * Objects follow the same convention for every constrainable property:
+     * getX(), setX(Constraint), useX() and a field xConstraint holding the
+     * current constraint. An IntProperty reaches them through the
+     * PropertyTable of the class, so reading it costs about a direct call.
+     * FormConstraint reads its sources this way, and ConstraintSnapshot finds
+     * the constrained properties of an object.
+     */
+    private final Object owner;
+    private final PropertyTable.Property property;
+
+    private IntProperty(Object owner, PropertyTable.Property property) {
+        this.owner = owner;
+        this.property = property;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the object has no such property
+     */
+    public static IntProperty of(Object owner, String name) {
+        PropertyTable.Property property = PropertyTable.of(owner.getClass()).get(name);
+        if (!isIntConstrainable(property)) {
+            throw new IllegalArgumentException(String.format(
+                    "%s has no constrainable int property %s", owner.getClass().getSimpleName(), name));
+        }
+        return new IntProperty(owner, property);
+    }
+
+    /**
+     * The names of the constrainable int properties of a class
+     */
+    public static List<String> namesOf(Class<?> type) {
+        List<String> names = new ArrayList<>();
+        for (PropertyTable.Property property : PropertyTable.of(type).getProperties()) {
+            if (isIntConstrainable(property)) {
+                names.add(property.getName());
+            }
+        }
+        return names;
+    }
+
+    private static boolean isIntConstrainable(PropertyTable.Property property) {
+        return property != null && property.getType() == int.class && property.isConstrainable();
+    }
+
+    public Object getOwner() {
+        return this.owner;
+    }
+
+    public String getName() {
+        return this.property.getName();
+    }
+
+    public int get() {
+        return this.property.getInt(this.owner);
+    }
+
+    public void set(Constraint<Integer> constraint) {
+        this.property.setConstraint(this.owner, constraint);
+    }
+
+    // the dependency of the property, created if still unused
+    @SuppressWarnings("unchecked")
+    public Constraint<Integer> use() {
+        return (Constraint<Integer>) this.property.use(this.owner);
+    }
+
+    // the current constraint, without creating one
+    @SuppressWarnings("unchecked")
+    public Constraint<Integer> getConstraint() {
+        return (Constraint<Integer>) this.property.getConstraint(this.owner);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof IntProperty && ((IntProperty) other).owner == this.owner
+                && ((IntProperty) other).property == this.property;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(this.owner) + this.property.getName().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.owner + "." + this.property.getName();
+    }
+}
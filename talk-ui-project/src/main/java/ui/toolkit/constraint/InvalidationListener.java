@@ -0,0 +1,13 @@
+package ui.toolkit.constraint;
+
+@FunctionalInterface
+public interface InvalidationListener {
+    /**
+     * InvalidationListener interface: told about every dependency that
+     * becomes out-of-date, in propagation order
+     * 
+     * Called in the middle of a propagation pass, so implementations should
+     * only record the dependency, not evaluate or modify the graph.
+     */
+    public void invalidated(Dependency<?> dependency);
+}
@@ -4,10 +4,92 @@ public class NoConstraint<T> extends Constraint<T> {
     /**
      * NoConstraint class: a Constraint object with no constraint
      */
+    // shared by all properties that are neither constrained nor used yet;
+    // useX() replaces it with a NoConstraint of the property's own
+    private static final NoConstraint<?> UNUSED = new NoConstraint<>("unused");
+    // shared by the unused properties a TrackedObserver has read: they stay
+    // unallocated, and a change notifies the observers of their object
+    private static final NoConstraint<?> WATCHED = new NoConstraint<>("watched");
+
     public NoConstraint() {
         super();
     }
+
+    private NoConstraint(String name) {
+        super(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> NoConstraint<T> unused() {
+        return (NoConstraint<T>) UNUSED;
+    }
+
+    // whether a property has no constraint of its own yet, watched or not
+    public static boolean isUnused(Dependency<?> constraint) {
+        return constraint == UNUSED || constraint == WATCHED;
+    }
+
+    public static boolean isWatched(Dependency<?> constraint) {
+        return constraint == WATCHED;
+    }
+
+    /**
+     * Report a read of a property of owner, called by property getters while
+     * a TrackedConstraint is capturing
+     *
+     * A TrackedObserver watches an unused property through its object
+     * instead of allocating its constraint; any other reader gets the
+     * property's own constraint, as with useX().
+     *
+     * @return the constraint to keep for the property
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Constraint<T> track(Object owner, Constraint<T> constraint) {
+        if (isUnused(constraint)) {
+            if (capturing != null && capturing.watch(owner)) {
+                return (Constraint<T>) WATCHED;
+            }
+            constraint = use(owner, constraint);
+        }
+        constraint.track();
+        return constraint;
+    }
+
+    /**
+     * The constraint of its own for an unused property of owner, called by
+     * useX(); the observers watching owner depend on it from now on
+     */
+    public static <T> NoConstraint<T> use(Object owner, Constraint<T> constraint) {
+        NoConstraint<T> used = new NoConstraint<>();
+        if (constraint == WATCHED) {
+            TrackedObserver.connect(owner, used);
+        }
+        return used;
+    }
+
+    /**
+     * Propagate a new value of an unconstrained property of owner
+     */
+    public static void changed(Object owner, Dependency<?> constraint) {
+        if (constraint == WATCHED) {
+            TrackedObserver.changed(owner);
+        } else {
+            constraint.notifyValueChange(false);
+        }
+    }
+
+    /**
+     * Move the successors of a property of owner to its new constraint
+     */
+    public static <T> void replace(Object owner, Dependency<T> constraint, Dependency<T> newConstraint) {
+        if (constraint == WATCHED) {
+            TrackedObserver.connect(owner, newConstraint);
+        } else {
+            constraint.replaceWithConstraint(newConstraint);
+        }
+    }
+
     public T getValue() {
         return this.value;
     }
-}
\ No newline at end of file
+}
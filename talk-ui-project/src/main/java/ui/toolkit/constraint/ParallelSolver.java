@@ -0,0 +1,247 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+public class ParallelSolver implements InvalidationListener {
+    /**
+     * ParallelSolver class: opt-in eager evaluation of the out-of-date region
+     * on a ForkJoinPool
+     *
+     * While attached, the solver records every dependency that becomes
+     * out-of-date. solve(), called on the EDT before a frame is drawn, splits
+     * them into weakly connected components and evaluates the components in
+     * parallel, so the lazy getters called by draw() find them up to date.
+     *
+     * Two recorded dependencies end up in the same component if they are
+     * joined by an edge or read a common input, so no two tasks ever refresh
+     * the same dependency. Out-of-date inputs that were never recorded, e.g.
+     * new constraints not evaluated yet, are refreshed by their readers too,
+     * so they join the component of every reader. Components containing a dependency flagged with
+     * setSideEffects(true) are evaluated afterwards on the calling thread, in
+     * the order they were invalidated. solve() joins all tasks before it
+     * returns, which publishes the computed values to the calling thread.
+     *
+     * Getters of graphical objects are not thread-safe, so constraints that
+     * read or write anything other than their declared inputs must be
+     * flagged as having side effects; the widgets of the toolkit declare
+     * every property their constraints read. TrackedConstraints are always
+     * evaluated on the calling thread, since capturing their reads is not
+     * thread-safe. ConstraintProfiler counts evaluations from any thread.
+     */
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+    private final List<Dependency<?>> invalidated = new ArrayList<>();
+    private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+    private boolean attached = false;
+
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ParallelSolver attach() {
+        if (!this.attached) {
+            Dependency.addInvalidationListener(this);
+            this.attached = true;
+        }
+        return this;
+    }
+
+    public ParallelSolver detach() {
+        if (this.attached) {
+            Dependency.removeInvalidationListener(this);
+            this.attached = false;
+            this.invalidated.clear();
+        }
+        return this;
+    }
+
+    public boolean isAttached() {
+        return this.attached;
+    }
+
+    // below this many out-of-date dependencies, solve() does not fork at all
+    public int getSequentialThreshold() {
+        return this.sequentialThreshold;
+    }
+
+    public void setSequentialThreshold(int sequentialThreshold) {
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    @Override
+    public void invalidated(Dependency<?> dependency) {
+        this.invalidated.add(dependency);
+    }
+
+    /**
+     * Evaluate everything invalidated since the last call
+     *
+     * Must be called from the thread that owns the dependency graph, and not
+     * inside a ConstraintTransaction.
+     */
+    public void solve() {
+        List<Dependency<?>> outOfDate = new ArrayList<>(this.invalidated.size());
+        Set<Dependency<?>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Dependency<?> dependency : this.invalidated) {
+            // evaluated lazily since it was recorded, or recorded twice
+            if (dependency.isOutOfDate() && seen.add(dependency)) {
+                outOfDate.add(dependency);
+            }
+        }
+        this.invalidated.clear();
+        if (outOfDate.isEmpty()) {
+            return;
+        }
+        if (outOfDate.size() < this.sequentialThreshold) {
+            refreshAll(outOfDate);
+            return;
+        }
+
+        List<List<Dependency<?>>> parallel = new ArrayList<>();
+        List<List<Dependency<?>>> sequential = new ArrayList<>();
+        for (Component component : partition(outOfDate)) {
+            (component.sideEffects ? sequential : parallel).add(component.members);
+        }
+        if (parallel.size() > 1) {
+            this.pool.invoke(new Evaluation(parallel, 0, parallel.size()));
+        } else {
+            sequential.addAll(0, parallel);
+        }
+        for (List<Dependency<?>> component : sequential) {
+            refreshAll(component);
+        }
+    }
+
+    private static void refreshAll(List<Dependency<?>> dependencies) {
+        for (Dependency<?> dependency : dependencies) {
+            dependency.refresh();
+        }
+    }
+
+    /**
+     * Group the out-of-date dependencies into weakly connected components,
+     * using union-find over the dependencies and their direct inputs
+     *
+     * An out-of-date input that was not recorded is added to the list, so
+     * that its own inputs are followed as well: everything refresh() may
+     * bring up to date belongs to the component of the reader.
+     */
+    private static List<Component> partition(List<Dependency<?>> outOfDate) {
+        Map<Dependency<?>, Integer> index = new IdentityHashMap<>();
+        for (Dependency<?> dependency : outOfDate) {
+            index.put(dependency, index.size());
+        }
+        int[] parent = grow(new int[0], outOfDate.size());
+        // inputs that are not out-of-date themselves still link their readers
+        Map<Dependency<?>, Integer> firstReader = new IdentityHashMap<>();
+        for (int i = 0; i < outOfDate.size(); ++i) {
+            Dependency<?> dependency = outOfDate.get(i);
+            for (int j = 0; j < dependency.getInDegree(); ++j) {
+                Dependency<?> start = dependency.getInEdge(j).getStart();
+                Integer other = index.get(start);
+                if (other == null && start.isOutOfDate()) {
+                    other = outOfDate.size();
+                    index.put(start, other);
+                    outOfDate.add(start);
+                    parent = grow(parent, outOfDate.size());
+                } else if (other == null) {
+                    other = firstReader.putIfAbsent(start, i);
+                }
+                if (other != null) {
+                    union(parent, i, other);
+                }
+            }
+        }
+
+        Component[] components = new Component[parent.length];
+        List<Component> ordered = new ArrayList<>();
+        for (int i = 0; i < outOfDate.size(); ++i) {
+            int root = find(parent, i);
+            Component component = components[root];
+            if (component == null) {
+                component = new Component();
+                components[root] = component;
+                ordered.add(component);
+            }
+            Dependency<?> member = outOfDate.get(i);
+            component.members.add(member);
+            component.sideEffects |= member.hasSideEffects() || member instanceof TrackedConstraint;
+        }
+        return ordered;
+    }
+
+    // the union-find array with room for size dependencies, each its own root
+    private static int[] grow(int[] parent, int size) {
+        int length = parent.length;
+        if (size > length) {
+            parent = Arrays.copyOf(parent, Math.max(size, 2 * length));
+            for (int i = length; i < parent.length; ++i) {
+                parent[i] = i;
+            }
+        }
+        return parent;
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+
+    private static class Component {
+        private final List<Dependency<?>> members = new ArrayList<>();
+        private boolean sideEffects = false;
+    }
+
+    /**
+     * Evaluation: refresh a range of components, splitting it in halves
+     */
+    private static class Evaluation extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<List<Dependency<?>>> components;
+        private final int from;
+        private final int to;
+
+        private Evaluation(List<List<Dependency<?>>> components, int from, int to) {
+            this.components = components;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from == 1) {
+                refreshAll(this.components.get(this.from));
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            ForkJoinTask.invokeAll(new Evaluation(this.components, this.from, middle),
+                    new Evaluation(this.components, middle, this.to));
+        }
+    }
+}
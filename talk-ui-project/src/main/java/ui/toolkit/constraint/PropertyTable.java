@@ -0,0 +1,376 @@
+package ui.toolkit.constraint;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+public final class PropertyTable {
+    /**
+     * PropertyTable class: the properties of a class, looked up once
+     *
+     * A property is a public getX() (or isX() for a boolean) with a public
+     * setX() of the same type; it is constrainable if the class also has
+     * setX(Constraint), useX() and a field xConstraint, the convention of
+     * every graphical object. The table of a class is built on first use
+     * and kept for the life of the class.
+     *
+     * The properties of @Property fields are declared by the classes that
+     * ui.toolkit.property.PropertyProcessor generates, with a lambda per
+     * accessor, so a get or set is a plain call. Those of a class that does
+     * not declare them, or of its hand-written accessors, are looked up
+     * reflectively, each accessor a method handle adapted to take the owner
+     * as an Object, so a get or set is one invokeExact() instead of a
+     * reflective call with its argument array and access checks.
+     *
+     * The editors of PropertySheet read and write the properties through the
+     * table, DamageTracker reads them to observe an object, and IntProperty,
+     * used by FormConstraint and ConstraintSnapshot, reaches the constraints
+     * of the int properties.
+     */
+    private static final ClassValue<PropertyTable> TABLES = new ClassValue<PropertyTable>() {
+        @Override
+        protected PropertyTable computeValue(Class<?> type) {
+            return new PropertyTable(type);
+        }
+    };
+
+    // properties declared by generated classes, see declare()
+    private static final Map<Class<?>, Property[]> DECLARED = new ConcurrentHashMap<>();
+
+    private static final MethodType GET = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType GET_INT = MethodType.methodType(int.class, Object.class);
+    private static final MethodType SET = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType GET_CONSTRAINT = MethodType.methodType(Constraint.class, Object.class);
+    private static final MethodType SET_CONSTRAINT = MethodType.methodType(void.class, Object.class,
+            Constraint.class);
+
+    private final Class<?> type;
+    private final List<Property> properties;
+    private final Map<String, Property> byName = new HashMap<>();
+
+    private PropertyTable(Class<?> type) {
+        this.type = type;
+        this.properties = Collections.unmodifiableList(lookUp(type));
+        for (Property property : this.properties) {
+            this.byName.put(property.name, property);
+        }
+    }
+
+    public static PropertyTable of(Class<?> type) {
+        return TABLES.get(type);
+    }
+
+    /**
+     * Declare the properties of a class, called by the static initializer of
+     * the class generated for its @Property fields
+     */
+    public static void declare(Class<?> type, Property... properties) {
+        DECLARED.put(type, properties);
+    }
+
+    public static Property property(String name, Class<?> type, Function<Object, ?> getter,
+            ToIntFunction<Object> intGetter, BiConsumer<Object, Object> setter,
+            Function<Object, Constraint<?>> constraint, Function<Object, Constraint<?>> use,
+            BiConsumer<Object, Constraint<?>> constraintSetter) {
+        return new Property(name, type, getter, intGetter, setter, constraint, use, constraintSetter);
+    }
+
+    public Class<?> getType() {
+        return this.type;
+    }
+
+    // sorted by name, as the Introspector lists them
+    public List<Property> getProperties() {
+        return this.properties;
+    }
+
+    /**
+     * @return the property, or null if the class has none of that name
+     */
+    public Property get(String name) {
+        return this.byName.get(name);
+    }
+
+    private static List<Property> lookUp(Class<?> type) {
+        Map<String, Property> declared = new TreeMap<>();
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            initialize(current);
+            for (Property property : DECLARED.getOrDefault(current, new Property[0])) {
+                // a subclass may re-declare a property of its superclass
+                declared.putIfAbsent(property.name, property);
+            }
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        Map<String, Method> getters = new TreeMap<>();
+        Map<String, List<Method>> setters = new HashMap<>();
+        Map<String, Method> uses = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+                continue;
+            }
+            String methodName = method.getName();
+            Class<?>[] parameters = method.getParameterTypes();
+            if (parameters.length == 0 && method.getReturnType() != void.class) {
+                if (methodName.startsWith("get") && methodName.length() > 3 && !methodName.equals("getClass")) {
+                    getters.put(propertyName(methodName, 3), method);
+                } else if (methodName.startsWith("is") && methodName.length() > 2
+                        && method.getReturnType() == boolean.class) {
+                    getters.put(propertyName(methodName, 2), method);
+                } else if (methodName.startsWith("use") && methodName.length() > 3
+                        && Constraint.class.isAssignableFrom(method.getReturnType())) {
+                    uses.put(propertyName(methodName, 3), method);
+                }
+            } else if (parameters.length == 1 && methodName.startsWith("set") && methodName.length() > 3) {
+                setters.computeIfAbsent(propertyName(methodName, 3), name -> new ArrayList<>()).add(method);
+            }
+        }
+
+        List<Property> properties = new ArrayList<>();
+        for (Map.Entry<String, Method> entry : getters.entrySet()) {
+            String name = entry.getKey();
+            Method getter = entry.getValue();
+            if (declared.containsKey(name)) {
+                properties.add(declared.get(name));
+                continue;
+            }
+            Method setter = null;
+            Method constraintSetter = null;
+            for (Method candidate : setters.getOrDefault(name, Collections.emptyList())) {
+                Class<?> parameter = candidate.getParameterTypes()[0];
+                if (parameter == getter.getReturnType()) {
+                    setter = candidate;
+                } else if (parameter == Constraint.class) {
+                    constraintSetter = candidate;
+                }
+            }
+            try {
+                MethodHandle get = unreflect(lookup, getter);
+                MethodHandle set = (setter == null) ? null : unreflect(lookup, setter).asType(SET);
+                MethodHandle field = null;
+                MethodHandle use = null;
+                MethodHandle setConstraint = null;
+                Field constraintField = constraintField(type, name);
+                if (constraintField != null && constraintSetter != null && uses.containsKey(name)) {
+                    constraintField.setAccessible(true);
+                    field = lookup.unreflectGetter(constraintField).asType(GET_CONSTRAINT);
+                    use = unreflect(lookup, uses.get(name)).asType(GET_CONSTRAINT);
+                    setConstraint = unreflect(lookup, constraintSetter).asType(SET_CONSTRAINT);
+                }
+                MethodHandle getInt = (getter.getReturnType() == int.class) ? get.asType(GET_INT) : null;
+                properties.add(reflective(name, getter.getReturnType(), get.asType(GET), getInt, set, field, use,
+                        setConstraint));
+            } catch (IllegalAccessException e) {
+                // an accessor declared by a non-public class outside our code,
+                // e.g. a JDK internal
+            }
+        }
+        return properties;
+    }
+
+    // the class generated for the class, if any, declares its properties when initialized
+    private static void initialize(Class<?> type) {
+        try {
+            Class.forName(type.getName(), true, type.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            // not reachable by name, e.g. a hidden or JDK class without declared properties
+        }
+    }
+
+    private static Property reflective(String name, Class<?> type, MethodHandle getter, MethodHandle intGetter,
+            MethodHandle setter, MethodHandle constraintField, MethodHandle use, MethodHandle constraintSetter) {
+        return new Property(name, type,
+                owner -> {
+                    try {
+                        return getter.invokeExact(owner);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                },
+                (intGetter == null) ? null : owner -> {
+                    try {
+                        return (int) intGetter.invokeExact(owner);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                },
+                (setter == null) ? null : (owner, value) -> {
+                    try {
+                        setter.invokeExact(owner, value);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                },
+                (constraintField == null) ? null : owner -> {
+                    try {
+                        return (Constraint<?>) constraintField.invokeExact(owner);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                },
+                (use == null) ? null : owner -> {
+                    try {
+                        return (Constraint<?>) use.invokeExact(owner);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                },
+                (constraintSetter == null) ? null : (owner, constraint) -> {
+                    try {
+                        constraintSetter.invokeExact(owner, (Constraint) constraint);
+                    } catch (Throwable e) {
+                        throw rethrow(e);
+                    }
+                });
+    }
+
+    private static MethodHandle unreflect(MethodHandles.Lookup lookup, Method method) throws IllegalAccessException {
+        Class<?> declaring = method.getDeclaringClass();
+        if (!Modifier.isPublic(declaring.getModifiers())) {
+            // a public method declared by a package-private class, which
+            // only our own classes may open up
+            if (declaring.getClassLoader() != PropertyTable.class.getClassLoader()) {
+                throw new IllegalAccessException(method + " is declared by a non-public class");
+            }
+            method.setAccessible(true);
+        }
+        return lookup.unreflect(method);
+    }
+
+    private static Field constraintField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (field.getName().equals(name + "Constraint") && Constraint.class.isAssignableFrom(field.getType())) {
+                    return field;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String propertyName(String methodName, int prefix) {
+        char[] name = methodName.substring(prefix).toCharArray();
+        // as java.beans.Introspector.decapitalize(): "URL" stays "URL"
+        if (name.length > 1 && Character.isUpperCase(name[1]) && Character.isUpperCase(name[0])) {
+            return new String(name);
+        }
+        name[0] = Character.toLowerCase(name[0]);
+        return new String(name);
+    }
+
+    public static final class Property {
+        private final String name;
+        private final Class<?> type;
+        private final Function<Object, ?> getter;
+        private final ToIntFunction<Object> intGetter;
+        private final BiConsumer<Object, Object> setter;
+        private final Function<Object, Constraint<?>> constraint;
+        private final Function<Object, Constraint<?>> use;
+        private final BiConsumer<Object, Constraint<?>> constraintSetter;
+
+        private Property(String name, Class<?> type, Function<Object, ?> getter, ToIntFunction<Object> intGetter,
+                BiConsumer<Object, Object> setter, Function<Object, Constraint<?>> constraint,
+                Function<Object, Constraint<?>> use, BiConsumer<Object, Constraint<?>> constraintSetter) {
+            this.name = name;
+            this.type = type;
+            this.getter = getter;
+            this.intGetter = intGetter;
+            this.setter = setter;
+            this.constraint = constraint;
+            this.use = use;
+            this.constraintSetter = constraintSetter;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public Class<?> getType() {
+            return this.type;
+        }
+
+        public boolean isWritable() {
+            return this.setter != null;
+        }
+
+        public boolean isConstrainable() {
+            return this.constraint != null;
+        }
+
+        public Object get(Object owner) {
+            return this.getter.apply(owner);
+        }
+
+        // without boxing, for int properties
+        public int getInt(Object owner) {
+            if (this.intGetter == null) {
+                throw new IllegalStateException(this.name + " is not an int property");
+            }
+            return this.intGetter.applyAsInt(owner);
+        }
+
+        public void set(Object owner, Object value) {
+            if (this.setter == null) {
+                throw new IllegalStateException(this.name + " is read-only");
+            }
+            this.setter.accept(owner, value);
+        }
+
+        // the current constraint, without creating one
+        public Constraint<?> getConstraint(Object owner) {
+            requireConstrainable();
+            return this.constraint.apply(owner);
+        }
+
+        // the dependency of the property, created if still unused
+        public Constraint<?> use(Object owner) {
+            requireConstrainable();
+            return this.use.apply(owner);
+        }
+
+        public void setConstraint(Object owner, Constraint<?> constraint) {
+            requireConstrainable();
+            this.constraintSetter.accept(owner, constraint);
+        }
+
+        private void requireConstrainable() {
+            if (this.constraint == null) {
+                throw new IllegalStateException(this.name + " cannot be constrained");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.name + ": " + this.type.getSimpleName();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new RuntimeException(e);
+    }
+
+    @Override
+    public String toString() {
+        return this.type.getSimpleName() + Arrays.toString(this.properties.toArray());
+    }
+}
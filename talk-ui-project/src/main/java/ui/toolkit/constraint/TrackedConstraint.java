@@ -0,0 +1,149 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public abstract class TrackedConstraint<T> extends Constraint<T> {
+    /**
+     * TrackedConstraint class: a constraint that finds its own dependencies
+     *
+     * Instead of passing the useX() of every input to the constructor, the
+     * inputs are captured while getValue() runs: every property getter it
+     * calls reports the property through Dependency.track(). After each
+     * re-computation the incoming edges are rewired to exactly the properties
+     * read, so a formula that reads different properties in different
+     * branches only depends on the branch taken, e.g.
+     *
+     *     rect.setX(TrackedConstraint.of(() -> flag.getValue()
+     *             ? other.getX() + 10 : other.getWidth()));
+     *
+     * A tracked constraint always constrains its property, even before its
+     * first evaluation, until it is disposed; it then keeps its last value
+     * instead of capturing its inputs again. Since getValue() calls getters of graphical objects,
+     * it is flagged as having side effects, so ParallelSolver evaluates it on
+     * the calling thread.
+     */
+    private List<Dependency<?>> reads = null;
+    private int captureStamp = 0;
+    private boolean disposed = false;
+    private static int readClock = 0;
+
+    public TrackedConstraint() {
+        super();
+        this.setSideEffects(true);
+    }
+
+    public TrackedConstraint(String name) {
+        super(name);
+        this.setSideEffects(true);
+    }
+
+    /**
+     * A tracked constraint computed by a lambda
+     */
+    public static <T> TrackedConstraint<T> of(Supplier<T> formula) {
+        return of(null, formula);
+    }
+
+    public static <T> TrackedConstraint<T> of(String name, Supplier<T> formula) {
+        return new TrackedConstraint<T>(name) {
+            public T getValue() {
+                return formula.get();
+            }
+        };
+    }
+
+    @Override
+    public boolean isConstrained() {
+        return !this.disposed;
+    }
+
+    @Override
+    public void dispose() {
+        this.disposed = true;
+        super.dispose();
+    }
+
+    public boolean isDisposed() {
+        return this.disposed;
+    }
+
+    @Override
+    protected boolean recompute() {
+        TrackedConstraint<?> outer = Dependency.capturing;
+        List<Dependency<?>> outerReads = this.reads;
+        int outerStamp = this.captureStamp;
+        Dependency.capturing = this;
+        this.reads = new ArrayList<>();
+        this.captureStamp = ++readClock;
+        boolean completed = false;
+        try {
+            boolean changed = super.recompute();
+            completed = true;
+            return changed;
+        } finally {
+            Dependency.capturing = outer;
+            // keep the previous inputs if getValue() failed half-way
+            if (completed && !this.disposed) {
+                rewire(this.reads);
+            }
+            this.reads = outerReads;
+            this.captureStamp = outerStamp;
+        }
+    }
+
+    // a dependency read again is skipped by its stamp; one read both before
+    // and after a nested capture, which stamps it anew, is added twice, and
+    // rewire() gives it one edge
+    void captured(Dependency<?> dependency) {
+        if (dependency != this && dependency.readStamp != this.captureStamp) {
+            dependency.readStamp = this.captureStamp;
+            this.reads.add(dependency);
+        }
+    }
+
+    // whether a read of an unused property of owner was recorded without
+    // its constraint; only observers can do without, see TrackedObserver
+    boolean watch(Object owner) {
+        return false;
+    }
+
+    /**
+     * Make the incoming edges match the dependencies read
+     * 
+     * The dependencies read are stamped once more, and those with an edge
+     * already, or a new one, with a second stamp, so this is linear in the
+     * number of edges and reads.
+     */
+    private void rewire(List<Dependency<?>> read) {
+        int readNow = ++readClock;
+        int wired = ++readClock;
+        for (Dependency<?> dependency : read) {
+            dependency.readStamp = readNow;
+        }
+        List<Edge> unused = new ArrayList<>();
+        for (Edge inEdge : this.getInEdges()) {
+            Dependency<?> start = inEdge.getStart();
+            if (start.readStamp == readNow) {
+                start.readStamp = wired;
+            } else {
+                unused.add(inEdge);
+            }
+        }
+        for (Edge inEdge : unused) {
+            inEdge.getStart().removeOutEdge(inEdge);
+            this.removeInEdge(inEdge);
+        }
+        for (Dependency<?> dependency : read) {
+            if (dependency.readStamp == readNow) {
+                dependency.readStamp = wired;
+                // the value just read is current
+                Edge edge = new Edge(dependency, this);
+                edge.setPending(false);
+                dependency.addOutEdge(edge);
+                this.addInEdge(edge);
+            }
+        }
+    }
+}
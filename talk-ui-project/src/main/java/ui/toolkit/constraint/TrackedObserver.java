@@ -0,0 +1,204 @@
+package ui.toolkit.constraint;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Supplier;
+
+public class TrackedObserver<T> extends TrackedConstraint<T> {
+    /**
+     * TrackedObserver class: calls an action when anything read by its
+     * formula changes, e.g. the properties behind getBoundingBox() of an
+     * object
+     *
+     * As a ChangeObserver, but its dependencies are captured while the
+     * formula runs, as for any TrackedConstraint. The action runs during
+     * propagation and should only record the change; evaluate() re-runs the
+     * formula, returns its value and re-arms the observer.
+     *
+     * An unused property read by the formula does not get a constraint of
+     * its own: the observer watches its object instead, through a table
+     * entry per object, and a change of any watched property of the object
+     * calls the action. Observing many plain objects thus costs no
+     * constraint and edge per property read, at the price of hearing about
+     * the other properties of the object that some observer watches too.
+     */
+    // the observers watching each object, which keeps neither alive; the
+    // objects with properties compare by identity, as it needs
+    private static final Map<Object, WeakReference<?>[]> WATCHERS = new WeakHashMap<>();
+    private static final List<Object> NOTHING = Collections.emptyList();
+
+    private final Supplier<T> formula;
+    private final Runnable action;
+    // the objects watched since the last evaluation, and during one
+    private List<Object> watched = NOTHING;
+    private List<Object> watching = null;
+    private boolean watchedChanged = false;
+    private WeakReference<TrackedObserver<?>> reference = null;
+
+    public TrackedObserver(Supplier<T> formula, Runnable action) {
+        super();
+        this.formula = formula;
+        this.action = action;
+        this.observesInvalidation = true;
+    }
+
+    @Override
+    public T getValue() {
+        return this.formula.get();
+    }
+
+    @Override
+    void invalidated() {
+        this.action.run();
+    }
+
+    @Override
+    public void dispose() {
+        rewatch(NOTHING);
+        super.dispose();
+    }
+
+    @Override
+    protected boolean recompute() {
+        List<Object> outer = this.watching;
+        this.watching = new ArrayList<>();
+        boolean completed = false;
+        try {
+            boolean changed = super.recompute();
+            completed = true;
+            return changed;
+        } finally {
+            // keep watching the previous objects if getValue() failed half-way
+            if (completed && !isDisposed()) {
+                rewatch(this.watching.isEmpty() ? NOTHING : this.watching);
+            }
+            this.watching = outer;
+        }
+    }
+
+    @Override
+    protected boolean refreshInputs() {
+        boolean pending = super.refreshInputs();
+        boolean changed = this.watchedChanged;
+        this.watchedChanged = false;
+        return pending || changed;
+    }
+
+    @Override
+    boolean watch(Object owner) {
+        if (!contains(this.watching, owner)) {
+            this.watching.add(owner);
+        }
+        return true;
+    }
+
+    /**
+     * Notify the observers watching owner of a change, called when an unused
+     * property of owner is set
+     * 
+     * Inside a ConstraintTransaction the actions run when it commits, as
+     * markOutOfDate() is deferred until then.
+     */
+    static void changed(Object owner) {
+        WeakReference<?>[] watchers = WATCHERS.get(owner);
+        if (watchers == null) {
+            return;
+        }
+        for (WeakReference<?> watcher : watchers) {
+            TrackedObserver<?> observer = (TrackedObserver<?>) watcher.get();
+            if (observer != null) {
+                observer.watchedChanged = true;
+                observer.markOutOfDate();
+            }
+        }
+    }
+
+    /**
+     * Make the observers watching owner depend on a new constraint of one of
+     * its properties, which no longer notifies them through owner
+     */
+    static void connect(Object owner, Dependency<?> constraint) {
+        WeakReference<?>[] watchers = WATCHERS.get(owner);
+        if (watchers == null) {
+            return;
+        }
+        for (WeakReference<?> watcher : watchers) {
+            TrackedObserver<?> observer = (TrackedObserver<?>) watcher.get();
+            if (observer != null) {
+                // the value it has is current
+                Edge edge = new Edge(constraint, observer);
+                edge.setPending(false);
+                constraint.addOutEdge(edge);
+                observer.addInEdge(edge);
+            }
+        }
+    }
+
+    /**
+     * Make the table match the objects watched
+     */
+    private void rewatch(List<Object> owners) {
+        for (Object owner : this.watched) {
+            if (!contains(owners, owner)) {
+                remove(owner);
+            }
+        }
+        for (Object owner : owners) {
+            if (!contains(this.watched, owner)) {
+                add(owner);
+            }
+        }
+        this.watched = owners;
+    }
+
+    private void add(Object owner) {
+        if (this.reference == null) {
+            this.reference = new WeakReference<>(this);
+        }
+        WeakReference<?>[] watchers = WATCHERS.get(owner);
+        if (watchers == null) {
+            WATCHERS.put(owner, new WeakReference<?>[] { this.reference });
+        } else {
+            watchers = Arrays.copyOf(watchers, watchers.length + 1);
+            watchers[watchers.length - 1] = this.reference;
+            WATCHERS.put(owner, watchers);
+        }
+    }
+
+    // also drops the observers collected without dispose()
+    private void remove(Object owner) {
+        WeakReference<?>[] watchers = WATCHERS.get(owner);
+        if (watchers == null) {
+            return;
+        }
+        // copied, since changed() may be going through the array
+        WeakReference<?>[] kept = new WeakReference<?>[watchers.length];
+        int count = 0;
+        for (WeakReference<?> watcher : watchers) {
+            Object observer = watcher.get();
+            if (observer != null && observer != this) {
+                kept[count++] = watcher;
+            }
+        }
+        if (count == 0) {
+            WATCHERS.remove(owner);
+        } else if (count < watchers.length) {
+            WATCHERS.put(owner, Arrays.copyOf(kept, count));
+        }
+    }
+
+    // by identity
+    private static boolean contains(List<Object> owners, Object owner) {
+        for (Object each : owners) {
+            if (each == owner) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
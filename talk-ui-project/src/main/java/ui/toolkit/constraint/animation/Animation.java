@@ -0,0 +1,122 @@
+package ui.toolkit.constraint.animation;
+
+import ui.toolkit.constraint.IntConstraint;
+
+public abstract class Animation extends IntConstraint {
+    /**
+     * Animation class: an integer constraint whose value changes with the
+     * frames of a FrameClock
+     *
+     * Bind a property to it and start it:
+     *
+     *     rect.setX(new Tween(window.getFrameClock(), 0, 300, 500, Easing.EASE_OUT).start());
+     *
+     * While it runs, the clock calls step() once per frame with the time
+     * since start(); subclasses compute the new value there and report
+     * whether they have reached their end. Once finished, the property keeps
+     * the last value and the clock no longer touches the animation. The time
+     * of an idle clock is that of its last frame, so an animation started
+     * while no other runs counts from the first frame it is stepped in.
+     */
+    private final FrameClock clock;
+    // the value of the current frame; intValue is the last one evaluated
+    private int frameValue;
+    // -1 until the first frame, if started while the clock was idle
+    private int startTime = 0;
+    private boolean running = false;
+    private Runnable onFinish = null;
+
+    protected Animation(FrameClock clock, int initialValue) {
+        super();
+        this.clock = clock;
+        this.frameValue = initialValue;
+    }
+
+    public FrameClock getClock() {
+        return this.clock;
+    }
+
+    /**
+     * Start, or restart from the beginning, at the current frame
+     */
+    public Animation start() {
+        this.startTime = this.clock.isRunning() ? this.clock.getTime() : -1;
+        this.running = true;
+        restart();
+        this.clock.add(this);
+        notifyValueChange(true);
+        return this;
+    }
+
+    /**
+     * Stop at the current value, without calling the finish action
+     */
+    public Animation stop() {
+        this.running = false;
+        this.clock.remove(this);
+        return this;
+    }
+
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Run an action on the frame the animation finishes, e.g. to start the
+     * next one
+     */
+    public Animation whenFinished(Runnable action) {
+        this.onFinish = action;
+        return this;
+    }
+
+    // called by the clock every frame while running
+    boolean step(int time) {
+        if (this.startTime < 0) {
+            this.startTime = time;
+        }
+        boolean running = advance(time - this.startTime);
+        notifyValueChange(true);
+        return running;
+    }
+
+    // called by the clock after the frame it finished in
+    void finish() {
+        this.running = false;
+        if (this.onFinish != null) {
+            this.onFinish.run();
+        }
+    }
+
+    /**
+     * Reset to the beginning, called by start()
+     */
+    protected void restart() {
+    }
+
+    protected final void setFrameValue(int value) {
+        this.frameValue = value;
+    }
+
+    protected final int getFrameValue() {
+        return this.frameValue;
+    }
+
+    /**
+     * Compute the value for the given time since start and store it with
+     * setFrameValue()
+     *
+     * @return whether the animation is still running
+     */
+    protected abstract boolean advance(int elapsed);
+
+    @Override
+    public boolean isConstrained() {
+        return true;
+    }
+
+    @Override
+    public int getIntValue() {
+        return this.frameValue;
+    }
+}
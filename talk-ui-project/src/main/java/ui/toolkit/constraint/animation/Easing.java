@@ -0,0 +1,15 @@
+package ui.toolkit.constraint.animation;
+
+@FunctionalInterface
+public interface Easing {
+    /**
+     * Easing interface: the progress of an animation over time, both from 0
+     * to 1
+     */
+    double apply(double t);
+
+    Easing LINEAR = t -> t;
+    Easing EASE_IN = t -> t * t * t;
+    Easing EASE_OUT = t -> 1.0 - (1.0 - t) * (1.0 - t) * (1.0 - t);
+    Easing EASE_IN_OUT = t -> (t < 0.5) ? 4.0 * t * t * t : 1.0 - 4.0 * (1.0 - t) * (1.0 - t) * (1.0 - t);
+}
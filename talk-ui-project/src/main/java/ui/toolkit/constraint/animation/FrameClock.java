@@ -0,0 +1,122 @@
+package ui.toolkit.constraint.animation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ui.toolkit.constraint.ConstraintTransaction;
+import ui.toolkit.constraint.IntConstraint;
+
+public class FrameClock extends IntConstraint {
+    /**
+     * FrameClock class: the time of the current animation frame, in
+     * milliseconds, shared by all animations of a window
+     *
+     * Animations register with the clock while they run. Each tick() steps
+     * all of them to the same frame time and marks them, and the clock
+     * itself, out-of-date in one ConstraintTransaction, so any number of
+     * concurrent animations costs one propagation pass per frame; the
+     * properties bound to them are re-evaluated lazily by the next redraw.
+     * A constraint on the clock, e.g. new IntConstraint(clock) {...}, sees
+     * the frame time as its value.
+     *
+     * The clock only ticks while an animation runs: the first animation
+     * started calls the wake-up action given to the constructor, and tick()
+     * returns false once the last one has finished, so an idle scene costs
+     * nothing. InteractiveWindowGroup.getFrameClock() drives it from a Swing
+     * timer; like the rest of the constraint graph, it is only used on the
+     * event dispatch thread.
+     */
+    private final Runnable wakeUp;
+    private final long origin;
+    private int time = 0;
+    private long frames = 0;
+    private final List<Animation> active = new ArrayList<>();
+    private final List<Animation> finished = new ArrayList<>();
+
+    /**
+     * @param wakeUp asks for tick() to be called every frame until it
+     *               returns false
+     */
+    public FrameClock(Runnable wakeUp) {
+        super("frame clock");
+        this.wakeUp = wakeUp;
+        this.origin = System.nanoTime();
+    }
+
+    /**
+     * Advance to the current time
+     *
+     * @return whether any animation is still running
+     */
+    public boolean tick() {
+        return tick(System.nanoTime());
+    }
+
+    /**
+     * Advance to the given System.nanoTime(); a time before the last frame
+     * does not move the clock back
+     *
+     * @return whether any animation is still running
+     */
+    public boolean tick(long nanoTime) {
+        this.time = Math.max(this.time, (int) ((nanoTime - this.origin) / 1000000L));
+        this.frames++;
+        ConstraintTransaction.run(() -> {
+            notifyValueChange(true);
+            // animations started by a finishing one join the next frame
+            for (Animation animation : this.active.toArray(new Animation[0])) {
+                if (!animation.step(this.time)) {
+                    this.active.remove(animation);
+                    this.finished.add(animation);
+                }
+            }
+        });
+        for (Animation animation : this.finished) {
+            animation.finish();
+        }
+        this.finished.clear();
+        return !this.active.isEmpty();
+    }
+
+    public int getTime() {
+        return this.time;
+    }
+
+    // number of frames ticked so far
+    public long getFrameCount() {
+        return this.frames;
+    }
+
+    public boolean isRunning() {
+        return !this.active.isEmpty();
+    }
+
+    public int getRunningCount() {
+        return this.active.size();
+    }
+
+    // called by Animation.start()
+    void add(Animation animation) {
+        if (!this.active.contains(animation)) {
+            this.active.add(animation);
+            if (this.active.size() == 1) {
+                this.wakeUp.run();
+            }
+        }
+    }
+
+    // called by Animation.stop()
+    void remove(Animation animation) {
+        this.active.remove(animation);
+    }
+
+    @Override
+    public boolean isConstrained() {
+        return true;
+    }
+
+    @Override
+    public int getIntValue() {
+        return this.time;
+    }
+}
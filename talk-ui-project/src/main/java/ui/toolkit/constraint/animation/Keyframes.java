@@ -0,0 +1,93 @@
+package ui.toolkit.constraint.animation;
+
+import java.util.Arrays;
+
+public class Keyframes extends Animation {
+    /**
+     * Keyframes class: pass through given values at given times
+     *
+     *     new Keyframes(clock).at(0, 10).at(200, 80, Easing.EASE_OUT).at(500, 10)
+     *
+     * Between two keyframes the value moves with the easing of the later
+     * one. The animation ends at the last keyframe, or starts over if it
+     * loops.
+     */
+    private int[] times = new int[0];
+    private int[] values = new int[0];
+    private Easing[] easings = new Easing[0];
+    private boolean loop = false;
+
+    public Keyframes(FrameClock clock) {
+        super(clock, 0);
+    }
+
+    public Keyframes at(int time, int value) {
+        return at(time, value, Easing.LINEAR);
+    }
+
+    /**
+     * @param time in milliseconds since start, after the previous keyframe
+     */
+    public Keyframes at(int time, int value, Easing easing) {
+        int count = this.times.length;
+        if (count > 0 && time <= this.times[count - 1]) {
+            throw new IllegalArgumentException("Keyframes must be added in time order");
+        }
+        this.times = Arrays.copyOf(this.times, count + 1);
+        this.values = Arrays.copyOf(this.values, count + 1);
+        this.easings = Arrays.copyOf(this.easings, count + 1);
+        this.times[count] = time;
+        this.values[count] = value;
+        this.easings[count] = easing;
+        if (count == 0) {
+            setFrameValue(value);
+        }
+        return this;
+    }
+
+    public Keyframes loop(boolean loop) {
+        this.loop = loop;
+        return this;
+    }
+
+    @Override
+    protected void restart() {
+        if (this.values.length > 0) {
+            setFrameValue(this.values[0]);
+        }
+    }
+
+    @Override
+    protected boolean advance(int elapsed) {
+        int count = this.times.length;
+        if (count == 0) {
+            return false;
+        }
+        int end = this.times[count - 1];
+        boolean done = false;
+        if (elapsed >= end) {
+            if (this.loop && end > 0) {
+                elapsed %= end;
+            } else {
+                elapsed = end;
+                done = true;
+            }
+        }
+        // the first keyframe at or after the time
+        int next = Arrays.binarySearch(this.times, elapsed);
+        if (next < 0) {
+            next = -next - 1;
+        }
+        if (next == 0) {
+            setFrameValue(this.values[0]);
+        } else if (next == count) {
+            setFrameValue(this.values[count - 1]);
+        } else {
+            int start = this.times[next - 1];
+            double t = (elapsed - start) / (double) (this.times[next] - start);
+            double eased = this.easings[next].apply(t);
+            setFrameValue((int) Math.round(this.values[next - 1] + (this.values[next] - this.values[next - 1]) * eased));
+        }
+        return !done;
+    }
+}
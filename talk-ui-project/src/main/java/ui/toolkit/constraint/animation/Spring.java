@@ -0,0 +1,84 @@
+package ui.toolkit.constraint.animation;
+
+public class Spring extends Animation {
+    /**
+     * Spring class: follow a target value like a damped spring
+     *
+     * Unlike a tween, a spring has no duration: it keeps its velocity when
+     * the target moves, so setTarget() during a drag or on every voice
+     * command gives a continuous motion. It finishes once it rests at the
+     * target. The motion is integrated in fixed steps of STEP milliseconds,
+     * so it does not depend on the frame rate.
+     */
+    private static final int STEP = 4;
+    private static final double REST_VELOCITY = 1.0;
+    private static final double REST_DISTANCE = 0.5;
+
+    private final double stiffness;
+    private final double damping;
+    private double position;
+    private double velocity = 0.0;
+    private double target;
+    private int integrated = 0;
+
+    // a slightly underdamped spring
+    public Spring(FrameClock clock, int initialValue) {
+        this(clock, initialValue, 170.0, 26.0);
+    }
+
+    /**
+     * @param stiffness force per unit of distance to the target
+     * @param damping   force per unit of velocity, both for a unit mass and
+     *                  times in seconds
+     */
+    public Spring(FrameClock clock, int initialValue, double stiffness, double damping) {
+        super(clock, initialValue);
+        this.stiffness = stiffness;
+        this.damping = damping;
+        this.position = initialValue;
+        this.target = initialValue;
+    }
+
+    /**
+     * Move towards a new target, starting the spring if it is at rest
+     */
+    public Spring setTarget(int target) {
+        this.target = target;
+        if (!isRunning()) {
+            start();
+        }
+        return this;
+    }
+
+    public int getTarget() {
+        return (int) this.target;
+    }
+
+    public double getVelocity() {
+        return this.velocity;
+    }
+
+    @Override
+    protected void restart() {
+        // keep position and velocity: the spring goes on from where it is
+        this.integrated = 0;
+    }
+
+    @Override
+    protected boolean advance(int elapsed) {
+        double dt = STEP / 1000.0;
+        for (; this.integrated + STEP <= elapsed; this.integrated += STEP) {
+            double force = -this.stiffness * (this.position - this.target) - this.damping * this.velocity;
+            this.velocity += force * dt;
+            this.position += this.velocity * dt;
+        }
+        boolean resting = Math.abs(this.velocity) < REST_VELOCITY
+                && Math.abs(this.position - this.target) < REST_DISTANCE;
+        if (resting) {
+            this.position = this.target;
+            this.velocity = 0.0;
+        }
+        setFrameValue((int) Math.round(this.position));
+        return !resting;
+    }
+}
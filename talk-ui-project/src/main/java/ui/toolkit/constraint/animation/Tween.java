@@ -0,0 +1,66 @@
+package ui.toolkit.constraint.animation;
+
+public class Tween extends Animation {
+    /**
+     * Tween class: move from one value to another in a given time
+     *
+     * The value at each frame is from + (to - from) * easing(elapsed /
+     * duration). A tween can repeat, optionally going back and forth.
+     */
+    public static final int FOREVER = -1;
+
+    private final int from;
+    private final int to;
+    private final int duration;
+    private final Easing easing;
+    private int repeats = 0;
+    private boolean alternate = false;
+
+    public Tween(FrameClock clock, int from, int to, int duration) {
+        this(clock, from, to, duration, Easing.LINEAR);
+    }
+
+    /**
+     * @param duration in milliseconds
+     */
+    public Tween(FrameClock clock, int from, int to, int duration, Easing easing) {
+        super(clock, from);
+        if (duration <= 0) {
+            throw new IllegalArgumentException("A tween needs a positive duration");
+        }
+        this.from = from;
+        this.to = to;
+        this.duration = duration;
+        this.easing = easing;
+    }
+
+    /**
+     * Play again the given number of times after the first, or FOREVER;
+     * alternate plays every other time backwards
+     */
+    public Tween repeat(int repeats, boolean alternate) {
+        this.repeats = repeats;
+        this.alternate = alternate;
+        return this;
+    }
+
+    @Override
+    protected void restart() {
+        setFrameValue(this.from);
+    }
+
+    @Override
+    protected boolean advance(int elapsed) {
+        int cycle = elapsed / this.duration;
+        boolean done = this.repeats != FOREVER && cycle > this.repeats;
+        if (done) {
+            cycle = this.repeats;
+        }
+        double t = done ? 1.0 : (elapsed - (long) cycle * this.duration) / (double) this.duration;
+        if (this.alternate && cycle % 2 == 1) {
+            t = 1.0 - t;
+        }
+        setFrameValue((int) Math.round(this.from + (this.to - this.from) * this.easing.apply(t)));
+        return !done;
+    }
+}
@@ -0,0 +1,54 @@
+package ui.toolkit.constraint.linear;
+
+public final class LinearConstraint {
+    /**
+     * LinearConstraint class: expression == 0, expression <= 0 or
+     * expression >= 0, with a strength
+     *
+     * Built from two expressions by LinearExpression.equalTo(),
+     * lessOrEqual() and greaterOrEqual(); withStrength() gives a non-required
+     * copy. A constraint is added to a LinearSolver as is, and identified by
+     * reference when removed.
+     */
+    public enum Relation { EQ, LE, GE }
+
+    private final LinearExpression expression;
+    private final Relation relation;
+    private final double strength;
+
+    public LinearConstraint(LinearExpression expression, Relation relation) {
+        this(expression, relation, Strength.REQUIRED);
+    }
+
+    public LinearConstraint(LinearExpression expression, Relation relation, double strength) {
+        this.expression = expression;
+        this.relation = relation;
+        this.strength = Strength.clip(strength);
+    }
+
+    public LinearConstraint withStrength(double strength) {
+        return new LinearConstraint(this.expression, this.relation, strength);
+    }
+
+    public LinearExpression getExpression() {
+        return this.expression;
+    }
+
+    public Relation getRelation() {
+        return this.relation;
+    }
+
+    public double getStrength() {
+        return this.strength;
+    }
+
+    public boolean isRequired() {
+        return this.strength >= Strength.REQUIRED;
+    }
+
+    @Override
+    public String toString() {
+        String operator = (this.relation == Relation.EQ) ? "==" : (this.relation == Relation.LE) ? "<=" : ">=";
+        return String.format("%s %s 0 | strength %s", this.expression, operator, this.strength);
+    }
+}
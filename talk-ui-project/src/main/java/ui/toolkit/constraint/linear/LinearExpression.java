@@ -0,0 +1,127 @@
+package ui.toolkit.constraint.linear;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class LinearExpression {
+    /**
+     * LinearExpression class: a sum of variables times coefficients plus a
+     * constant, e.g. a.x + a.width - 10
+     *
+     * Immutable: plus(), minus() and times() return a new expression, so
+     * expressions read left to right,
+     *
+     *     LinearExpression.of(ax).plus(aw).lessOrEqual(LinearExpression.of(bx).minus(10))
+     */
+    private final Map<Variable, Double> terms;
+    private final double constant;
+
+    private LinearExpression(Map<Variable, Double> terms, double constant) {
+        this.terms = terms;
+        this.constant = constant;
+    }
+
+    public static LinearExpression of(Variable variable) {
+        return of(variable, 1.0);
+    }
+
+    public static LinearExpression of(Variable variable, double coefficient) {
+        Map<Variable, Double> terms = new LinkedHashMap<>();
+        terms.put(variable, coefficient);
+        return new LinearExpression(terms, 0.0);
+    }
+
+    public static LinearExpression constant(double constant) {
+        return new LinearExpression(new LinkedHashMap<>(), constant);
+    }
+
+    public Map<Variable, Double> getTerms() {
+        return Collections.unmodifiableMap(this.terms);
+    }
+
+    public double getConstant() {
+        return this.constant;
+    }
+
+    public LinearExpression plus(Variable variable) {
+        return plus(of(variable));
+    }
+
+    public LinearExpression plus(double constant) {
+        return new LinearExpression(this.terms, this.constant + constant);
+    }
+
+    public LinearExpression plus(LinearExpression other) {
+        Map<Variable, Double> terms = new LinkedHashMap<>(this.terms);
+        for (Map.Entry<Variable, Double> term : other.terms.entrySet()) {
+            terms.merge(term.getKey(), term.getValue(), Double::sum);
+        }
+        return new LinearExpression(terms, this.constant + other.constant);
+    }
+
+    public LinearExpression minus(Variable variable) {
+        return plus(of(variable, -1.0));
+    }
+
+    public LinearExpression minus(double constant) {
+        return plus(-constant);
+    }
+
+    public LinearExpression minus(LinearExpression other) {
+        return plus(other.times(-1.0));
+    }
+
+    public LinearExpression times(double factor) {
+        Map<Variable, Double> terms = new LinkedHashMap<>();
+        for (Map.Entry<Variable, Double> term : this.terms.entrySet()) {
+            terms.put(term.getKey(), term.getValue() * factor);
+        }
+        return new LinearExpression(terms, this.constant * factor);
+    }
+
+    /**
+     * Required constraints comparing this expression to another
+     */
+    public LinearConstraint equalTo(LinearExpression other) {
+        return new LinearConstraint(this.minus(other), LinearConstraint.Relation.EQ);
+    }
+
+    public LinearConstraint equalTo(double value) {
+        return equalTo(constant(value));
+    }
+
+    public LinearConstraint lessOrEqual(LinearExpression other) {
+        return new LinearConstraint(this.minus(other), LinearConstraint.Relation.LE);
+    }
+
+    public LinearConstraint lessOrEqual(double value) {
+        return lessOrEqual(constant(value));
+    }
+
+    public LinearConstraint greaterOrEqual(LinearExpression other) {
+        return new LinearConstraint(this.minus(other), LinearConstraint.Relation.GE);
+    }
+
+    public LinearConstraint greaterOrEqual(double value) {
+        return greaterOrEqual(constant(value));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<Variable, Double> term : this.terms.entrySet()) {
+            if (text.length() > 0) {
+                text.append(" + ");
+            }
+            if (term.getValue() != 1.0) {
+                text.append(term.getValue()).append(" * ");
+            }
+            text.append(term.getKey());
+        }
+        if (this.constant != 0.0 || text.length() == 0) {
+            text.append((text.length() > 0) ? " + " : "").append(this.constant);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,685 @@
+package ui.toolkit.constraint.linear;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class LinearSolver {
+    /**
+     * LinearSolver class: incremental solver of linear equalities and
+     * inequalities with strengths (the Cassowary algorithm)
+     *
+     * Unlike one-way constraints, which compute each property from others and
+     * can only report a conflict when a cycle disagrees, the solver finds
+     * values of all variables at once that satisfy every required constraint
+     * and minimize the weighted error of the others, e.g.
+     *
+     *     solver.addConstraint(LinearExpression.of(ax).plus(aw)
+     *             .lessOrEqual(LinearExpression.of(bx).minus(10)));
+     *     solver.addConstraint(LinearExpression.of(aw).equalTo(100).withStrength(Strength.STRONG));
+     *
+     * The tableau is kept in solved form between calls. Adding or removing a
+     * constraint re-optimizes with the primal simplex from the previous
+     * solution; an edit variable (addEditVariable(), suggestValue()) only
+     * changes constants, which is re-solved with the dual simplex in a few
+     * pivots, fast enough to follow the mouse while dragging.
+     *
+     * Variables are updated by updateVariables() only, so several
+     * suggestions can be made before the bound properties are invalidated.
+     */
+    private static final double EPSILON = 1.0e-8;
+
+    // in the order added; constraints are compared by reference
+    private final Map<LinearConstraint, Tag> constraints = new LinkedHashMap<>();
+    private final Map<Symbol, Row> rows = new LinkedHashMap<>();
+    private final Map<Variable, Symbol> variables = new LinkedHashMap<>();
+    private final Map<Variable, EditInfo> edits = new IdentityHashMap<>();
+    private final ArrayDeque<Symbol> infeasibleRows = new ArrayDeque<>();
+    private final Row objective = new Row();
+    private Row artificial = null;
+    private int nextId = 0;
+
+    /**
+     * Add a constraint and re-optimize
+     *
+     * @throws UnsatisfiableConstraintRunTimeException if the constraint is
+     *         required and contradicts the required constraints already added
+     */
+    public LinearSolver addConstraint(LinearConstraint constraint) {
+        if (this.constraints.containsKey(constraint)) {
+            throw new RuntimeException("Constraint is already in the solver");
+        }
+
+        Tag tag = new Tag();
+        Row row = createRow(constraint, tag);
+        Symbol subject = chooseSubject(row, tag);
+
+        // a row of dummies only can be added if it is trivially satisfied
+        if (subject == null && row.allDummies()) {
+            if (!nearZero(row.constant)) {
+                throw new UnsatisfiableConstraintRunTimeException(constraint);
+            }
+            subject = tag.marker;
+        }
+
+        if (subject == null) {
+            if (!addWithArtificialVariable(row)) {
+                // the failed row was pivoted into the tableau already
+                rebuild();
+                throw new UnsatisfiableConstraintRunTimeException(constraint);
+            }
+        } else {
+            row.solveFor(subject);
+            substitute(subject, row);
+            this.rows.put(subject, row);
+        }
+
+        this.constraints.put(constraint, tag);
+        optimize(this.objective);
+        return this;
+    }
+
+    public LinearSolver addConstraints(LinearConstraint... constraints) {
+        for (LinearConstraint constraint : constraints) {
+            addConstraint(constraint);
+        }
+        return this;
+    }
+
+    public LinearSolver removeConstraint(LinearConstraint constraint) {
+        Tag tag = this.constraints.remove(constraint);
+        if (tag == null) {
+            throw new RuntimeException("Constraint is not in the solver");
+        }
+
+        removeConstraintEffects(constraint, tag);
+
+        // if the marker is basic, dropping its row removes the constraint;
+        // otherwise pivot it into the basis first
+        if (this.rows.remove(tag.marker) == null) {
+            Symbol leaving = getMarkerLeavingSymbol(tag.marker);
+            if (leaving == null) {
+                throw new IllegalStateException("Failed to find leaving row");
+            }
+            Row row = this.rows.remove(leaving);
+            row.solveFor(leaving, tag.marker);
+            substitute(tag.marker, row);
+        }
+
+        optimize(this.objective);
+        return this;
+    }
+
+    public boolean hasConstraint(LinearConstraint constraint) {
+        return this.constraints.containsKey(constraint);
+    }
+
+    /**
+     * Let the value of a variable be suggested, e.g. by a drag behavior,
+     * with the given non-required strength
+     */
+    public LinearSolver addEditVariable(Variable variable, double strength) {
+        if (this.edits.containsKey(variable)) {
+            throw new RuntimeException("Variable is already an edit variable");
+        }
+        strength = Strength.clip(strength);
+        if (strength >= Strength.REQUIRED) {
+            throw new RuntimeException("Edit variable cannot be required");
+        }
+
+        LinearConstraint constraint = new LinearConstraint(LinearExpression.of(variable),
+                LinearConstraint.Relation.EQ, strength);
+        addConstraint(constraint);
+        this.edits.put(variable, new EditInfo(constraint, this.constraints.get(constraint)));
+        return this;
+    }
+
+    public LinearSolver removeEditVariable(Variable variable) {
+        EditInfo edit = this.edits.remove(variable);
+        if (edit == null) {
+            throw new RuntimeException("Variable is not an edit variable");
+        }
+        removeConstraint(edit.constraint);
+        return this;
+    }
+
+    public boolean hasEditVariable(Variable variable) {
+        return this.edits.containsKey(variable);
+    }
+
+    /**
+     * Suggest a value for an edit variable and re-solve with the dual simplex
+     */
+    public LinearSolver suggestValue(Variable variable, double value) {
+        EditInfo edit = this.edits.get(variable);
+        if (edit == null) {
+            throw new RuntimeException("Variable is not an edit variable");
+        }
+
+        double delta = value - edit.constant;
+        edit.constant = value;
+
+        // the positive error of the edit constraint is basic
+        Row row = this.rows.get(edit.tag.marker);
+        if (row != null) {
+            if (row.add(-delta) < 0.0) {
+                this.infeasibleRows.add(edit.tag.marker);
+            }
+            dualOptimize();
+            return this;
+        }
+
+        // the negative error is basic
+        row = this.rows.get(edit.tag.other);
+        if (row != null) {
+            if (row.add(delta) < 0.0) {
+                this.infeasibleRows.add(edit.tag.other);
+            }
+            dualOptimize();
+            return this;
+        }
+
+        // neither is basic: every row with the marker changes
+        for (Map.Entry<Symbol, Row> entry : this.rows.entrySet()) {
+            Row current = entry.getValue();
+            double coefficient = current.coefficientFor(edit.tag.marker);
+            if (coefficient != 0.0 && current.add(delta * coefficient) < 0.0
+                    && entry.getKey().type != Symbol.Type.EXTERNAL) {
+                this.infeasibleRows.add(entry.getKey());
+            }
+        }
+        dualOptimize();
+        return this;
+    }
+
+    /**
+     * Copy the solution into the variables; those whose value changed are
+     * marked out-of-date
+     *
+     * @return the number of variables that changed
+     */
+    public int updateVariables() {
+        int changed = 0;
+        for (Map.Entry<Variable, Symbol> entry : this.variables.entrySet()) {
+            Row row = this.rows.get(entry.getValue());
+            double value = (row == null) ? 0.0 : row.constant;
+            if (entry.getKey().setSolution(nearZero(value) ? 0.0 : value)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Remove all constraints and edit variables
+     */
+    public LinearSolver reset() {
+        this.constraints.clear();
+        this.rows.clear();
+        this.variables.clear();
+        this.edits.clear();
+        this.infeasibleRows.clear();
+        this.objective.cells.clear();
+        this.objective.constant = 0.0;
+        this.artificial = null;
+        return this;
+    }
+
+    /**
+     * Solve again from scratch with the constraints and edit variables
+     * currently registered
+     */
+    private void rebuild() {
+        List<LinearConstraint> added = new ArrayList<>(this.constraints.keySet());
+        Map<Variable, EditInfo> edited = new LinkedHashMap<>(this.edits);
+        Map<Variable, Symbol> known = new LinkedHashMap<>(this.variables);
+        reset();
+        // keep the variables in updateVariables(), even if no longer used
+        for (Variable variable : known.keySet()) {
+            getVariableSymbol(variable);
+        }
+        for (LinearConstraint constraint : added) {
+            addConstraint(constraint);
+        }
+        for (Map.Entry<Variable, EditInfo> edit : edited.entrySet()) {
+            LinearConstraint constraint = edit.getValue().constraint;
+            this.edits.put(edit.getKey(), new EditInfo(constraint, this.constraints.get(constraint)));
+            suggestValue(edit.getKey(), edit.getValue().constant);
+        }
+    }
+
+    /**
+     * Row of the constraint in terms of the current basis, with the slack
+     * and error symbols it introduces; error symbols enter the objective
+     * weighted by the strength
+     */
+    private Row createRow(LinearConstraint constraint, Tag tag) {
+        LinearExpression expression = constraint.getExpression();
+        Row row = new Row(expression.getConstant());
+
+        for (Map.Entry<Variable, Double> term : expression.getTerms().entrySet()) {
+            double coefficient = term.getValue();
+            if (nearZero(coefficient)) {
+                continue;
+            }
+            Symbol symbol = getVariableSymbol(term.getKey());
+            Row basic = this.rows.get(symbol);
+            if (basic != null) {
+                row.insert(basic, coefficient);
+            } else {
+                row.insert(symbol, coefficient);
+            }
+        }
+
+        double strength = constraint.getStrength();
+        boolean required = constraint.isRequired();
+        switch (constraint.getRelation()) {
+        case LE:
+        case GE: {
+            double coefficient = (constraint.getRelation() == LinearConstraint.Relation.LE) ? 1.0 : -1.0;
+            Symbol slack = newSymbol(Symbol.Type.SLACK);
+            tag.marker = slack;
+            row.insert(slack, coefficient);
+            if (!required) {
+                Symbol error = newSymbol(Symbol.Type.ERROR);
+                tag.other = error;
+                row.insert(error, -coefficient);
+                this.objective.insert(error, strength);
+            }
+            break;
+        }
+        case EQ: {
+            if (!required) {
+                Symbol errorPlus = newSymbol(Symbol.Type.ERROR);
+                Symbol errorMinus = newSymbol(Symbol.Type.ERROR);
+                tag.marker = errorPlus;
+                tag.other = errorMinus;
+                row.insert(errorPlus, -1.0);
+                row.insert(errorMinus, 1.0);
+                this.objective.insert(errorPlus, strength);
+                this.objective.insert(errorMinus, strength);
+            } else {
+                Symbol dummy = newSymbol(Symbol.Type.DUMMY);
+                tag.marker = dummy;
+                row.insert(dummy, 1.0);
+            }
+            break;
+        }
+        }
+
+        // the constant of a row in the tableau is never negative
+        if (row.constant < 0.0) {
+            row.reverseSign();
+        }
+        return row;
+    }
+
+    /**
+     * The symbol to solve the new row for: an external variable if there is
+     * one, else a new slack or error symbol with a negative coefficient, so
+     * the basic solution stays feasible; null if there is none
+     */
+    private static Symbol chooseSubject(Row row, Tag tag) {
+        for (Symbol symbol : row.cells.keySet()) {
+            if (symbol.type == Symbol.Type.EXTERNAL) {
+                return symbol;
+            }
+        }
+        if (tag.marker.isPivotable() && row.coefficientFor(tag.marker) < 0.0) {
+            return tag.marker;
+        }
+        if (tag.other != null && tag.other.isPivotable() && row.coefficientFor(tag.other) < 0.0) {
+            return tag.other;
+        }
+        return null;
+    }
+
+    /**
+     * Add a row through an artificial variable, minimized to zero by the
+     * primal simplex: if it cannot be, the row is not satisfiable
+     */
+    private boolean addWithArtificialVariable(Row row) {
+        Symbol art = newSymbol(Symbol.Type.SLACK);
+        this.rows.put(art, new Row(row));
+        this.artificial = new Row(row);
+
+        optimize(this.artificial);
+        boolean success = nearZero(this.artificial.constant);
+        this.artificial = null;
+
+        // if the artificial variable is basic, pivot it out of the basis
+        Row artRow = this.rows.remove(art);
+        if (artRow != null) {
+            if (artRow.cells.isEmpty()) {
+                return success;
+            }
+            Symbol entering = anyPivotableSymbol(artRow);
+            if (entering == null) {
+                return false;
+            }
+            artRow.solveFor(art, entering);
+            substitute(entering, artRow);
+            this.rows.put(entering, artRow);
+        }
+
+        // it is non-basic now: drop it from the tableau
+        for (Row current : this.rows.values()) {
+            current.remove(art);
+        }
+        this.objective.remove(art);
+        return success;
+    }
+
+    // replace a symbol by its row in every row and the objective
+    private void substitute(Symbol symbol, Row row) {
+        for (Map.Entry<Symbol, Row> entry : this.rows.entrySet()) {
+            Row current = entry.getValue();
+            current.substitute(symbol, row);
+            if (entry.getKey().type != Symbol.Type.EXTERNAL && current.constant < 0.0) {
+                this.infeasibleRows.add(entry.getKey());
+            }
+        }
+        this.objective.substitute(symbol, row);
+        if (this.artificial != null) {
+            this.artificial.substitute(symbol, row);
+        }
+    }
+
+    /**
+     * Primal simplex: pivot until no symbol with a negative coefficient
+     * remains in the objective
+     */
+    private void optimize(Row objective) {
+        while (true) {
+            Symbol entering = getEnteringSymbol(objective);
+            if (entering == null) {
+                return;
+            }
+            Symbol leaving = getLeavingSymbol(entering);
+            if (leaving == null) {
+                throw new IllegalStateException("The objective is unbounded");
+            }
+            Row row = this.rows.remove(leaving);
+            row.solveFor(leaving, entering);
+            substitute(entering, row);
+            this.rows.put(entering, row);
+        }
+    }
+
+    /**
+     * Dual simplex: pivot the rows made infeasible by a suggested value
+     * until all constants are non-negative again
+     */
+    private void dualOptimize() {
+        Symbol leaving;
+        while ((leaving = this.infeasibleRows.poll()) != null) {
+            Row row = this.rows.get(leaving);
+            if (row != null && row.constant < 0.0) {
+                Symbol entering = getDualEnteringSymbol(row);
+                if (entering == null) {
+                    throw new IllegalStateException("Dual optimize failed");
+                }
+                this.rows.remove(leaving);
+                row.solveFor(leaving, entering);
+                substitute(entering, row);
+                this.rows.put(entering, row);
+            }
+        }
+    }
+
+    private static Symbol getEnteringSymbol(Row objective) {
+        for (Map.Entry<Symbol, Double> cell : objective.cells.entrySet()) {
+            if (cell.getKey().type != Symbol.Type.DUMMY && cell.getValue() < 0.0) {
+                return cell.getKey();
+            }
+        }
+        return null;
+    }
+
+    private Symbol getDualEnteringSymbol(Row row) {
+        Symbol entering = null;
+        double ratio = Double.MAX_VALUE;
+        for (Map.Entry<Symbol, Double> cell : row.cells.entrySet()) {
+            if (cell.getValue() > 0.0 && cell.getKey().type != Symbol.Type.DUMMY) {
+                double current = this.objective.coefficientFor(cell.getKey()) / cell.getValue();
+                if (current < ratio) {
+                    ratio = current;
+                    entering = cell.getKey();
+                }
+            }
+        }
+        return entering;
+    }
+
+    private static Symbol anyPivotableSymbol(Row row) {
+        for (Symbol symbol : row.cells.keySet()) {
+            if (symbol.isPivotable()) {
+                return symbol;
+            }
+        }
+        return null;
+    }
+
+    // the row that limits the entering symbol most (minimum ratio test)
+    private Symbol getLeavingSymbol(Symbol entering) {
+        double ratio = Double.MAX_VALUE;
+        Symbol leaving = null;
+        for (Map.Entry<Symbol, Row> entry : this.rows.entrySet()) {
+            if (entry.getKey().type != Symbol.Type.EXTERNAL) {
+                double coefficient = entry.getValue().coefficientFor(entering);
+                if (coefficient < 0.0) {
+                    double current = -entry.getValue().constant / coefficient;
+                    if (current < ratio) {
+                        ratio = current;
+                        leaving = entry.getKey();
+                    }
+                }
+            }
+        }
+        return leaving;
+    }
+
+    /**
+     * The row to pivot a non-basic marker into when its constraint is
+     * removed: a restricted row it limits most, else one it does not limit,
+     * else an unrestricted row
+     */
+    private Symbol getMarkerLeavingSymbol(Symbol marker) {
+        double firstRatio = Double.MAX_VALUE, secondRatio = Double.MAX_VALUE;
+        Symbol first = null, second = null, third = null;
+        for (Map.Entry<Symbol, Row> entry : this.rows.entrySet()) {
+            Row row = entry.getValue();
+            double coefficient = row.coefficientFor(marker);
+            if (coefficient == 0.0) {
+                continue;
+            }
+            if (entry.getKey().type == Symbol.Type.EXTERNAL) {
+                third = entry.getKey();
+            } else if (coefficient < 0.0) {
+                double ratio = -row.constant / coefficient;
+                if (ratio < firstRatio) {
+                    firstRatio = ratio;
+                    first = entry.getKey();
+                }
+            } else {
+                double ratio = row.constant / coefficient;
+                if (ratio < secondRatio) {
+                    secondRatio = ratio;
+                    second = entry.getKey();
+                }
+            }
+        }
+        return (first != null) ? first : (second != null) ? second : third;
+    }
+
+    private void removeConstraintEffects(LinearConstraint constraint, Tag tag) {
+        if (tag.marker.type == Symbol.Type.ERROR) {
+            removeMarkerEffects(tag.marker, constraint.getStrength());
+        }
+        if (tag.other != null && tag.other.type == Symbol.Type.ERROR) {
+            removeMarkerEffects(tag.other, constraint.getStrength());
+        }
+    }
+
+    private void removeMarkerEffects(Symbol marker, double strength) {
+        Row row = this.rows.get(marker);
+        if (row != null) {
+            this.objective.insert(row, -strength);
+        } else {
+            this.objective.insert(marker, -strength);
+        }
+    }
+
+    private Symbol getVariableSymbol(Variable variable) {
+        Symbol symbol = this.variables.get(variable);
+        if (symbol == null) {
+            symbol = newSymbol(Symbol.Type.EXTERNAL);
+            this.variables.put(variable, symbol);
+        }
+        return symbol;
+    }
+
+    private Symbol newSymbol(Symbol.Type type) {
+        return new Symbol(type, this.nextId++);
+    }
+
+    private static boolean nearZero(double value) {
+        return Math.abs(value) < EPSILON;
+    }
+
+    /**
+     * Symbol of the tableau: a variable, or a slack, error or dummy symbol
+     * introduced by a constraint
+     */
+    private static final class Symbol {
+        enum Type { EXTERNAL, SLACK, ERROR, DUMMY }
+
+        private final Type type;
+        private final int id;
+
+        private Symbol(Type type, int id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        private boolean isPivotable() {
+            return this.type == Type.SLACK || this.type == Type.ERROR;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.id;
+        }
+
+        @Override
+        public String toString() {
+            return this.type.name().charAt(0) + Integer.toString(this.id);
+        }
+    }
+
+    /**
+     * Row of the tableau: basic symbol = constant + sum of coefficient * cell
+     */
+    private static final class Row {
+        private final Map<Symbol, Double> cells;
+        private double constant;
+
+        private Row() {
+            this(0.0);
+        }
+
+        private Row(double constant) {
+            this.cells = new HashMap<>();
+            this.constant = constant;
+        }
+
+        private Row(Row other) {
+            this.cells = new HashMap<>(other.cells);
+            this.constant = other.constant;
+        }
+
+        private double add(double value) {
+            return this.constant += value;
+        }
+
+        private void insert(Symbol symbol, double coefficient) {
+            double value = this.cells.getOrDefault(symbol, 0.0) + coefficient;
+            if (nearZero(value)) {
+                this.cells.remove(symbol);
+            } else {
+                this.cells.put(symbol, value);
+            }
+        }
+
+        private void insert(Row other, double coefficient) {
+            this.constant += other.constant * coefficient;
+            for (Map.Entry<Symbol, Double> cell : other.cells.entrySet()) {
+                insert(cell.getKey(), cell.getValue() * coefficient);
+            }
+        }
+
+        private void remove(Symbol symbol) {
+            this.cells.remove(symbol);
+        }
+
+        private void reverseSign() {
+            this.constant = -this.constant;
+            this.cells.replaceAll((symbol, value) -> -value);
+        }
+
+        // solve the row, equal to zero, for one of its symbols
+        private void solveFor(Symbol symbol) {
+            double coefficient = -1.0 / this.cells.remove(symbol);
+            this.constant *= coefficient;
+            this.cells.replaceAll((cell, value) -> value * coefficient);
+        }
+
+        // solve lhs = row for rhs
+        private void solveFor(Symbol lhs, Symbol rhs) {
+            insert(lhs, -1.0);
+            solveFor(rhs);
+        }
+
+        private double coefficientFor(Symbol symbol) {
+            return this.cells.getOrDefault(symbol, 0.0);
+        }
+
+        private void substitute(Symbol symbol, Row row) {
+            Double coefficient = this.cells.remove(symbol);
+            if (coefficient != null) {
+                insert(row, coefficient);
+            }
+        }
+
+        private boolean allDummies() {
+            for (Symbol symbol : this.cells.keySet()) {
+                if (symbol.type != Symbol.Type.DUMMY) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // the marker and other symbols a constraint introduced
+    private static final class Tag {
+        private Symbol marker;
+        private Symbol other;
+    }
+
+    private static final class EditInfo {
+        private final LinearConstraint constraint;
+        private final Tag tag;
+        // the value last suggested
+        private double constant = 0.0;
+
+        private EditInfo(LinearConstraint constraint, Tag tag) {
+            this.constraint = constraint;
+            this.tag = tag;
+        }
+    }
+}
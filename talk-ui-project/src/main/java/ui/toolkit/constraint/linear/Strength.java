@@ -0,0 +1,34 @@
+package ui.toolkit.constraint.linear;
+
+public final class Strength {
+    /**
+     * Strength class: how strongly a LinearSolver tries to satisfy a
+     * constraint
+     *
+     * A required constraint must hold. The others are weighted
+     * lexicographically: no amount of weak errors outweighs one medium error,
+     * no amount of medium errors one strong error (up to 1000 of each).
+     */
+    public static final double REQUIRED = create(1000.0, 1000.0, 1000.0);
+    public static final double STRONG = create(1.0, 0.0, 0.0);
+    public static final double MEDIUM = create(0.0, 1.0, 0.0);
+    public static final double WEAK = create(0.0, 0.0, 1.0);
+
+    private Strength() {}
+
+    public static double create(double strong, double medium, double weak) {
+        return create(strong, medium, weak, 1.0);
+    }
+
+    public static double create(double strong, double medium, double weak, double weight) {
+        return clamp(strong * weight) * 1000000.0 + clamp(medium * weight) * 1000.0 + clamp(weak * weight);
+    }
+
+    static double clip(double strength) {
+        return Math.max(0.0, Math.min(REQUIRED, strength));
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0.0, Math.min(1000.0, value));
+    }
+}
@@ -0,0 +1,20 @@
+package ui.toolkit.constraint.linear;
+
+public class UnsatisfiableConstraintRunTimeException extends RuntimeException {
+    /**
+     * UnsatisfiableConstraintRunTimeException class:
+     * Thrown when a required constraint contradicts the required constraints
+     * already in a LinearSolver
+     */
+    private static final long serialVersionUID = 1L;
+    private final transient LinearConstraint constraint;
+
+    public UnsatisfiableConstraintRunTimeException(LinearConstraint constraint) {
+        super("Unsatisfiable required constraint: " + constraint);
+        this.constraint = constraint;
+    }
+
+    public LinearConstraint getConstraint() {
+        return this.constraint;
+    }
+}
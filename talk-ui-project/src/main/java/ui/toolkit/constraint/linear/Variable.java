@@ -0,0 +1,50 @@
+package ui.toolkit.constraint.linear;
+
+import ui.toolkit.constraint.IntConstraint;
+
+public class Variable extends IntConstraint {
+    /**
+     * Variable class: an unknown of a LinearSolver
+     *
+     * A variable is also an integer constraint holding its solved value,
+     * rounded, so a property is bound to it like to any other constraint:
+     *
+     *     rect.setX(x);
+     *
+     * LinearSolver.updateVariables() marks the variables whose solution
+     * changed out-of-date, so the properties bound to them follow lazily.
+     */
+    private double solution = 0.0;
+
+    public Variable() {
+        super();
+    }
+
+    public Variable(String name) {
+        super(name);
+    }
+
+    public double getSolution() {
+        return this.solution;
+    }
+
+    // called by LinearSolver.updateVariables()
+    boolean setSolution(double solution) {
+        if (solution == this.solution) {
+            return false;
+        }
+        this.solution = solution;
+        markOutOfDate();
+        return true;
+    }
+
+    @Override
+    public boolean isConstrained() {
+        return true;
+    }
+
+    @Override
+    public int getIntValue() {
+        return (int) Math.round(this.solution);
+    }
+}
@@ -0,0 +1,99 @@
+package ui.toolkit.graphics.group;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
+import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.NoConstraint;
+import ui.toolkit.graphics.object.GraphicalObject;
+
+public class ChildAggregates {
+    /**
+     * ChildAggregates class: the aggregate constraints bound to the child
+     * list of one group
+     *
+     * The group calls childAdded() and childRemoved() when its children
+     * change, and every aggregate created by it gains or loses the term of
+     * that child, e.g.
+     *
+     *     panel.setHeight(list.aggregate(Operation.SUM, child -> child.getBoundingBox().height));
+     *
+     * Aggregates live as long as the group; dispose() of an aggregate that is
+     * no longer needed detaches it from the children. The number of children
+     * is a single counter shared by everyone asking, without a term per
+     * child.
+     */
+    private final List<Binding> bindings = new ArrayList<>();
+    // the children counted, once count() was called
+    private List<GraphicalObject> counted = null;
+    private NoConstraint<Integer> count = null;
+
+    public AggregateConstraint create(Operation operation, ToIntFunction<GraphicalObject> measure,
+            List<GraphicalObject> children) {
+        Binding binding = new Binding(new AggregateConstraint(operation), measure);
+        for (GraphicalObject child : children) {
+            binding.add(child);
+        }
+        prune();
+        this.bindings.add(binding);
+        return binding.aggregate;
+    }
+
+    /**
+     * The number of children, changed whenever a child is added or removed
+     */
+    public Constraint<Integer> count(List<GraphicalObject> children) {
+        if (this.count == null) {
+            this.counted = children;
+            this.count = new NoConstraint<>();
+            this.count.setValue(children.size());
+        }
+        return this.count;
+    }
+
+    public void childAdded(GraphicalObject child) {
+        recount();
+        prune();
+        for (Binding binding : this.bindings) {
+            binding.add(child);
+        }
+    }
+
+    public void childRemoved(GraphicalObject child) {
+        recount();
+        prune();
+        for (Binding binding : this.bindings) {
+            binding.aggregate.remove(child);
+        }
+    }
+
+    // groups also report removing a child they do not have
+    private void recount() {
+        if (this.count != null && this.count.getValue() != this.counted.size()) {
+            this.count.setValue(this.counted.size());
+            this.count.notifyValueChange(false);
+        }
+    }
+
+    // drop the aggregates disposed since, with the measures they hold
+    private void prune() {
+        this.bindings.removeIf(binding -> binding.aggregate.isDisposed());
+    }
+
+    private static class Binding {
+        private final AggregateConstraint aggregate;
+        private final ToIntFunction<GraphicalObject> measure;
+
+        private Binding(AggregateConstraint aggregate, ToIntFunction<GraphicalObject> measure) {
+            this.aggregate = aggregate;
+            this.measure = measure;
+        }
+
+        private void add(GraphicalObject child) {
+            this.aggregate.add(child, () -> this.measure.applyAsInt(child));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ui.toolkit.graphics.group;
+
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+
+import ui.toolkit.graphics.object.GraphicalObject;
+
+public final class Culling {
+    /**
+     * Culling class: which children a group draws for a clip
+     *
+     * A child is drawn if its bounding box meets the clip, grown by MARGIN
+     * since objects may paint a little beyond their bounds, e.g. anti-aliased
+     * edges or glyph overhangs. Zero-sized bounds count, e.g. a horizontal
+     * line without thickness. InteractiveWindowGroup and DamageTracker cull
+     * the top-level children the same way, so a scene is culled at every
+     * level of groups.
+     */
+    public static final int MARGIN = 2;
+
+    private Culling() {}
+
+    /**
+     * The area to test children against, in their coordinates
+     */
+    public static Rectangle area(Rectangle2D childClip) {
+        Rectangle area = childClip.getBounds();
+        area.grow(MARGIN, MARGIN);
+        return area;
+    }
+
+    public static boolean isVisible(GraphicalObject child, Rectangle area) {
+        Rectangle bounds = child.getBoundingBox();
+        return bounds.x <= area.x + area.width && area.x <= bounds.x + Math.max(0, bounds.width)
+                && bounds.y <= area.y + area.height && area.y <= bounds.y + Math.max(0, bounds.height);
+    }
+}
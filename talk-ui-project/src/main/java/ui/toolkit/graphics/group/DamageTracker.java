@@ -0,0 +1,297 @@
+package ui.toolkit.graphics.group;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.PropertyTable;
+import ui.toolkit.constraint.TrackedObserver;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.GraphicalObject;
+
+public class DamageTracker {
+    /**
+     * DamageTracker class: the areas of a window that changed since the last
+     * redraw, so only those are drawn again
+     *
+     * Every object below the tracked top-level objects gets a TrackedObserver
+     * that reads all its constrainable properties, and for a group the count
+     * of its children. When a property changes, or a group gains or loses a
+     * child, the object is marked dirty; the next collect() damages both its
+     * last bounds and its current ones, in window coordinates, and merges
+     * overlapping areas. Objects whose look changes without a property, e.g.
+     * an image edited in place, call damage() themselves.
+     *
+     * The observers watch the unused properties through their object, so
+     * they cost a dependency per constrained or used property only, and
+     * tracking evaluates the constraints of a changed object right away
+     * instead of when it is drawn.
+     */
+    // around each area, for anti-aliased edges and line widths
+    private static final int PADDING = 2;
+    // more separate areas than this are drawn as their union
+    private static final int MAX_AREAS = 8;
+    // layout during drawing can move objects again, see redraw()
+    private static final int MAX_PASSES = 3;
+
+    private final Map<GraphicalObject, Entry> entries = new IdentityHashMap<>();
+    private final List<Entry> dirty = new ArrayList<>();
+    private final List<Rectangle> areas = new ArrayList<>();
+
+    /**
+     * Track a top-level object and everything in it, damaging its bounds
+     */
+    public void track(GraphicalObject object) {
+        track(object, object.getGroup());
+    }
+
+    /**
+     * Stop tracking a top-level object, damaging its last bounds; call it
+     * before the object is removed from the window
+     */
+    public void untrack(GraphicalObject object) {
+        Entry entry = entries.get(object);
+        if (entry != null) {
+            damage(entry);
+            release(entry);
+        }
+    }
+
+    /**
+     * Damage an area in window coordinates
+     */
+    public void damage(Rectangle area) {
+        addArea(new Rectangle(area.x - PADDING, area.y - PADDING,
+                area.width + 2 * PADDING, area.height + 2 * PADDING));
+    }
+
+    public boolean hasDamage() {
+        return !dirty.isEmpty() || !areas.isEmpty();
+    }
+
+    public int getTrackedCount() {
+        return entries.size();
+    }
+
+    /**
+     * The damaged areas since the last call, in window coordinates; brings
+     * the tracked objects up to date and re-arms their observers
+     */
+    public List<Rectangle> collect() {
+        // tracking new children can mark more entries dirty
+        for (int i = 0; i < dirty.size(); ++i) {
+            Entry entry = dirty.get(i);
+            if (entry.released) {
+                continue;
+            }
+            entry.dirty = false;
+            Rectangle last = entry.bounds;
+            if (entry.object instanceof Group) {
+                syncChildren(entry);
+            }
+            entry.observer.evaluate();
+            entry.bounds = new Rectangle(entry.object.getBoundingBox());
+            if (last != null && !last.equals(entry.bounds)) {
+                damage(toWindow(entry.parent, last));
+            }
+            damage(toWindow(entry.parent, entry.bounds));
+        }
+        dirty.clear();
+        List<Rectangle> collected = new ArrayList<>(areas);
+        areas.clear();
+        return collected;
+    }
+
+    /**
+     * Draw the damaged areas of the window
+     *
+     * Each area is cleared to the background and the objects overlapping it
+     * are drawn clipped to it. Drawing may change the scene again, e.g. a
+     * LayoutGroup placing its children, so this repeats a few times while
+     * there is new damage.
+     *
+     * @param graphics   graphics of the window buffer
+     * @param window     bounds of the window
+     * @param background color of the window
+     * @param objects    top-level objects, bottom to top
+     * @return the areas drawn, to be copied to the screen
+     */
+    public List<Rectangle> redraw(Graphics2D graphics, Rectangle window, Color background,
+            List<GraphicalObject> objects) {
+        List<Rectangle> drawn = new ArrayList<>();
+        Rectangle oldClip = graphics.getClipBounds();
+        for (int pass = 0; pass < MAX_PASSES && hasDamage(); ++pass) {
+            for (Rectangle area : collect()) {
+                BoundaryRectangle clip = new BoundaryRectangle(area.intersection(window));
+                if (clip.isEmpty()) {
+                    continue;
+                }
+                graphics.setClip(clip);
+                graphics.setColor(background);
+                graphics.fill(clip);
+                Rectangle visible = Culling.area(clip);
+                for (GraphicalObject object : objects) {
+                    if (Culling.isVisible(object, visible)) {
+                        object.draw(graphics, clip);
+                    }
+                }
+                drawn.add(clip);
+            }
+        }
+        graphics.setClip(oldClip);
+        return drawn;
+    }
+
+    /**
+     * Stop tracking everything
+     */
+    public void dispose() {
+        for (Entry entry : new ArrayList<>(entries.values())) {
+            release(entry);
+        }
+        dirty.clear();
+        areas.clear();
+    }
+
+    private Entry track(GraphicalObject object, Group parent) {
+        Entry old = entries.get(object);
+        if (old != null) {
+            // moved from another group that was not collected yet
+            damage(old);
+            release(old);
+        }
+        Entry entry = new Entry(object, parent);
+        entries.put(object, entry);
+        List<PropertyTable.Property> properties = new ArrayList<>();
+        for (PropertyTable.Property property : PropertyTable.of(object.getClass()).getProperties()) {
+            if (property.isConstrainable()) {
+                properties.add(property);
+            }
+        }
+        if (object instanceof Group) {
+            Group group = (Group) object;
+            entry.count = group.childCount();
+            for (GraphicalObject child : group.getChildren()) {
+                entry.children.add(track(child, group));
+            }
+        }
+        entry.observer = new TrackedObserver<>(() -> {
+            for (PropertyTable.Property property : properties) {
+                property.get(object);
+            }
+            if (entry.count != null) {
+                entry.count.track();
+                entry.count.evaluate();
+            }
+            return null;
+        }, () -> markDirty(entry));
+        entry.observer.evaluate();
+        entry.bounds = new Rectangle(object.getBoundingBox());
+        damage(toWindow(parent, entry.bounds));
+        return entry;
+    }
+
+    private void syncChildren(Entry entry) {
+        List<GraphicalObject> children = ((Group) entry.object).getChildren();
+        Set<GraphicalObject> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.addAll(children);
+        List<Entry> kept = new ArrayList<>(children.size());
+        for (Entry child : entry.children) {
+            if (child.released) {
+                continue;
+            }
+            if (current.remove(child.object) && child.parent == entry.object) {
+                kept.add(child);
+            } else {
+                damage(child);
+                release(child);
+            }
+        }
+        for (GraphicalObject child : children) {
+            if (current.contains(child)) {
+                kept.add(track(child, (Group) entry.object));
+            }
+        }
+        entry.children = kept;
+    }
+
+    private void markDirty(Entry entry) {
+        if (!entry.dirty) {
+            entry.dirty = true;
+            dirty.add(entry);
+        }
+    }
+
+    private void damage(Entry entry) {
+        if (entry.bounds != null) {
+            damage(toWindow(entry.parent, entry.bounds));
+        }
+    }
+
+    private void release(Entry entry) {
+        entry.released = true;
+        entries.remove(entry.object, entry);
+        entry.observer.dispose();
+        for (Entry child : entry.children) {
+            if (!child.released) {
+                release(child);
+            }
+        }
+    }
+
+    // from the coordinates of a group up to the window
+    private static Rectangle toWindow(Group group, Rectangle area) {
+        Point topLeft = area.getLocation();
+        Point bottomRight = new Point(area.x + area.width, area.y + area.height);
+        for (Group current = group; current != null; current = current.getGroup()) {
+            topLeft = current.childToParent(topLeft);
+            bottomRight = current.childToParent(bottomRight);
+        }
+        return new Rectangle(topLeft.x, topLeft.y, bottomRight.x - topLeft.x, bottomRight.y - topLeft.y);
+    }
+
+    private void addArea(Rectangle area) {
+        // merge with every area it overlaps, which may in turn overlap others
+        for (int i = 0; i < areas.size(); ++i) {
+            if (areas.get(i).intersects(area)) {
+                area = area.union(areas.remove(i));
+                i = -1;
+            }
+        }
+        areas.add(area);
+        if (areas.size() > MAX_AREAS) {
+            Rectangle union = areas.get(0);
+            for (Rectangle other : areas) {
+                union = union.union(other);
+            }
+            areas.clear();
+            areas.add(union);
+        }
+    }
+
+    private static final class Entry {
+        private final GraphicalObject object;
+        private final Group parent;
+        private TrackedObserver<Object> observer;
+        // number of children, for groups; shared with the group
+        private Constraint<Integer> count;
+        private List<Entry> children = new ArrayList<>();
+        // last bounds, in the coordinates of the parent
+        private Rectangle bounds;
+        private boolean dirty = false;
+        private boolean released = false;
+
+        private Entry(GraphicalObject object, Group parent) {
+            this.object = object;
+            this.parent = parent;
+        }
+    }
+}
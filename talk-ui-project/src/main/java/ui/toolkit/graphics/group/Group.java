@@ -2,8 +2,12 @@ package ui.toolkit.graphics.group;
 
 import java.awt.Point;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import ui.toolkit.behavior.Behavior;
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.Constraint;
 import ui.toolkit.graphics.object.AlreadyHasGroupRunTimeException;
 import ui.toolkit.graphics.object.GraphicalObject;
 
@@ -12,6 +16,12 @@ public interface Group extends GraphicalObject {
     public Group addChildren(GraphicalObject... children) throws AlreadyHasGroupRunTimeException;
     public Group removeChild(GraphicalObject child);
     public Group removeChildren(GraphicalObject... children);
+    // remove a child that will not be added again and release it
+    public default Group deleteChild(GraphicalObject child) {
+        removeChild(child);
+        child.release();
+        return this;
+    }
 
     public Group addChildToTop(GraphicalObject child) throws AlreadyHasGroupRunTimeException;
 
@@ -19,6 +29,27 @@ public interface Group extends GraphicalObject {
     public Group resizeToChildren();
     public List<GraphicalObject> getChildren();
 
+    // the front-most child that contains a point (in child coordinates) and
+    // matches the filter, or null; behaviors find their targets this way
+    public default GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        return SpatialIndex.scan(getChildren(), pt, filter);
+    }
+
+    // sum, max, min or count of a measure of the children, kept up to date
+    // incrementally as children are added, removed or change; by default
+    // only over the current children, so a group whose children change keeps
+    // a ChildAggregates and overrides this
+    public default AggregateConstraint aggregate(AggregateConstraint.Operation operation,
+            ToIntFunction<GraphicalObject> measure) {
+        return new ChildAggregates().create(operation, measure, getChildren());
+    }
+
+    // the number of children, changed whenever a child is added or removed;
+    // by default a COUNT aggregate of the current children, as aggregate()
+    public default Constraint<Integer> childCount() {
+        return aggregate(AggregateConstraint.Operation.COUNT, null);
+    }
+
     public Group addBehavior(Behavior behavior);
     public Group addBehaviors(Behavior... behaviors);
     public Group removeBehavior(Behavior behavior);
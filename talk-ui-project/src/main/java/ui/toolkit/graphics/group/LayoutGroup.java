@@ -1,32 +1,65 @@
 package ui.toolkit.graphics.group;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Shape;
-import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import ui.toolkit.behavior.Behavior;
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.ConstraintTransaction;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.NoConstraint;
+import ui.toolkit.constraint.TrackedObserver;
 import ui.toolkit.graphics.object.AlreadyHasGroupRunTimeException;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.Icon;
+import ui.toolkit.graphics.object.Rect;
+import ui.toolkit.graphics.object.Text;
+import ui.toolkit.property.Property;
 
-public class LayoutGroup implements Group {
+public class LayoutGroup extends LayoutGroupProperties implements Group {
     /**
      * LayoutGroup class
      * 
      * Automatically places its children in a certain layout Options include
      * horizontal, vertical and grid layouts
+     *
+     * The layout is cached: draw() places children again only after the
+     * child list, the size of a child, or layout, offset, nRows or nColumns
+     * changed, and only from the first child affected onward. Each child has
+     * a TrackedObserver on the properties its size depends on (see sizeOf()),
+     * not on its position, so the constraints of the x and y of the children
+     * are never allocated; a child moved by something else than the layout
+     * stays there until a child before it changes.
      */
-    private int x, y, width, height;
-    private int layout, offset;
-    private int nRows, nColumns;
+    @Property int x, y, width, height;
+    private int layout;
+    @Property int offset, nRows, nColumns;
     private Group group = null;
     private List<GraphicalObject> children = new ArrayList<>();
+    private final ChildAggregates aggregates = new ChildAggregates();
+    // the children by bounds, if set
+    private SpatialIndex index = null;
+
+    // the cached layout: children before layoutFrom are in place
+    private final Map<GraphicalObject, Slot> slots = new IdentityHashMap<>();
+    private final List<Slot> changed = new ArrayList<>();
+    private int layoutFrom = 0;
+    private int laidOutLayout = -1, laidOutOffset, laidOutRows, laidOutColumns;
 
     private List<Behavior> behaviors = new ArrayList<>();
     private List<Behavior> behaviorsToAdd = new ArrayList<>();
@@ -37,14 +70,7 @@ public class LayoutGroup implements Group {
     public static final int VERTICAL = 1;
     public static final int GRID = 2;
 
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Integer> widthConstraint = new NoConstraint<>();
-    private Constraint<Integer> heightConstraint = new NoConstraint<>();
-    private Constraint<Integer> layoutConstraint = new NoConstraint<>();
-    private Constraint<Integer> offsetConstraint = new NoConstraint<>();
-    private Constraint<Integer> nRowsConstraint = new NoConstraint<>();
-    private Constraint<Integer> nColumnsConstraint = new NoConstraint<>();
+    private Constraint<Integer> layoutConstraint = NoConstraint.unused();
 
     /**
      * Constructors
@@ -75,137 +101,13 @@ public class LayoutGroup implements Group {
         }
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public int getWidth() {
-        if (widthConstraint.isConstrained()) {
-            this.width = widthConstraint.evaluate();
-        }
-        return this.width;
-    }
-
-    public void setWidth(int width) {
-        if (this.width != width) {
-            if (!widthConstraint.isConstrained()) {
-                this.width = width;
-                widthConstraint.notifyValueChange(false);
-            } else if (widthConstraint.hasCycle()) {
-                widthConstraint.setValue(width);
-                widthConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setWidth(Constraint<Integer> constraint) {
-        widthConstraint.replaceWithConstraint(constraint);
-        widthConstraint = constraint;
-        widthConstraint.setValue(this.width);
-        widthConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useWidth() {
-        return this.widthConstraint;
-    }
-
-    public int getHeight() {
-        if (heightConstraint.isConstrained()) {
-            this.height = heightConstraint.evaluate();
-        }
-        return this.height;
-    }
-
-    public void setHeight(int height) {
-        if (this.height != height) {
-            if (!heightConstraint.isConstrained()) {
-                this.height = height;
-                heightConstraint.notifyValueChange(false);
-            } else if (heightConstraint.hasCycle()) {
-                heightConstraint.setValue(height);
-                heightConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setHeight(Constraint<Integer> constraint) {
-        heightConstraint.replaceWithConstraint(constraint);
-        heightConstraint = constraint;
-        heightConstraint.setValue(this.height);
-        heightConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useHeight() {
-        return this.heightConstraint;
-    }
-
+    // written by hand rather than generated, since setLayout() checks the value
     public int getLayout() {
+        if (Constraint.isCapturing()) {
+            useLayout().track();
+        }
         if (layoutConstraint.isConstrained()) {
-            this.layout = layoutConstraint.evaluate();
+            this.layout = IntConstraint.evaluateInt(layoutConstraint);
         }
         return this.layout;
     }
@@ -231,97 +133,10 @@ public class LayoutGroup implements Group {
     }
 
     public Constraint<Integer> useLayout() {
-        return this.layoutConstraint;
-    }
-
-    public int getOffset() {
-        if (offsetConstraint.isConstrained()) {
-            this.offset = offsetConstraint.evaluate();
-        }
-        return this.offset;
-    }
-
-    public void setOffset(int offset) {
-        if (this.offset != offset) {
-            if (!offsetConstraint.isConstrained()) {
-                this.offset = offset;
-                offsetConstraint.notifyValueChange(false);
-            } else if (offsetConstraint.hasCycle()) {
-                offsetConstraint.setValue(offset);
-                offsetConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setOffset(Constraint<Integer> constraint) {
-        offsetConstraint.replaceWithConstraint(constraint);
-        offsetConstraint = constraint;
-        offsetConstraint.setValue(this.offset);
-        offsetConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useOffset() {
-        return this.offsetConstraint;
-    }
-
-    public int getNRows() {
-        if (nRowsConstraint.isConstrained()) {
-            this.nRows = nRowsConstraint.evaluate();
-        }
-        return this.nRows;
-    }
-
-    public void setNRows(int nRows) {
-        if (this.nRows != nRows) {
-            if (!nRowsConstraint.isConstrained()) {
-                this.nRows = nRows;
-                nRowsConstraint.notifyValueChange(false);
-            } else if (nRowsConstraint.hasCycle()) {
-                nRowsConstraint.setValue(nRows);
-                nRowsConstraint.notifyValueChange(false);
-            }
+        if (NoConstraint.isUnused(layoutConstraint)) {
+            layoutConstraint = new NoConstraint<>();
         }
-    }
-
-    public void setNRows(Constraint<Integer> constraint) {
-        nRowsConstraint.replaceWithConstraint(constraint);
-        nRowsConstraint = constraint;
-        nRowsConstraint.setValue(this.nRows);
-        nRowsConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useNRows() {
-        return this.nRowsConstraint;
-    }
-
-    public int getNColumns() {
-        if (nColumnsConstraint.isConstrained()) {
-            this.nColumns = nColumnsConstraint.evaluate();
-        }
-        return this.nColumns;
-    }
-
-    public void setNColumns(int nColumns) {
-        if (this.nColumns != nColumns) {
-            if (!nColumnsConstraint.isConstrained()) {
-                this.nColumns = nColumns;
-                nColumnsConstraint.notifyValueChange(false);
-            } else if (nColumnsConstraint.hasCycle()) {
-                nColumnsConstraint.setValue(nColumns);
-                nColumnsConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setNColumns(Constraint<Integer> constraint) {
-        nColumnsConstraint.replaceWithConstraint(constraint);
-        nColumnsConstraint = constraint;
-        nColumnsConstraint.setValue(this.nColumns);
-        nColumnsConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useNColumns() {
-        return this.nColumnsConstraint;
+        return this.layoutConstraint;
     }
 
     /**
@@ -344,59 +159,202 @@ public class LayoutGroup implements Group {
         return new Object[] { rowHeight, columnWidth };
     }
 
-    public void draw(Graphics2D graphics, Shape clipShape) {
-        // Intersect the clip shape with the group bounding box
-        Shape commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
-
-        // Translate the new clip shape to pass to children
-        AffineTransform transform = new AffineTransform();
-        int x = getX(), y = getY();
-        transform.translate(-x, -y);
-        Shape childClipShape = transform.createTransformedShape(commonClipArea);
-
-        // Translate the origin to draw children
-        graphics.translate(x, y);
+    /**
+     * Move children to their positions in the layout, from the first child
+     * whose position may have changed since the last time
+     * 
+     * @return the number of children placed (a grid may not fit them all)
+     */
+    private int layoutChildren() {
         int layout = getLayout(), offset = getOffset();
         int nRows = getNRows(), nColumns = getNColumns();
+        int count = (layout == GRID) ? Math.min(children.size(), nRows * nColumns) : children.size();
 
-        int currentXPosition = 0, currentYPosition = 0;
-        int[] rowHeight = { 0 }, columnWidth = { 0 };
+        if (layout != laidOutLayout || offset != laidOutOffset || nRows != laidOutRows
+                || nColumns != laidOutColumns) {
+            laidOutLayout = layout;
+            laidOutOffset = offset;
+            laidOutRows = nRows;
+            laidOutColumns = nColumns;
+            layoutFrom = 0;
+        }
+        checkChangedChildren();
+        if (layout == GRID && layoutFrom != Integer.MAX_VALUE) {
+            // a row or column may change size with any child: place all
+            layoutFrom = 0;
+        }
+        if (layoutFrom >= count) {
+            layoutFrom = Integer.MAX_VALUE;
+            return count;
+        }
 
+        int[] rowHeight = { 0 }, columnWidth = { 0 };
         if (layout == GRID) {
             Object[] gridSizes = getGridSizes(children);
             rowHeight = (int[]) gridSizes[0];
             columnWidth = (int[]) gridSizes[1];
         }
 
-        for (int idx = 0; idx < children.size(); ++idx) {
-            if ((layout == GRID) && (idx >= nRows * nColumns)) {
-                break;
+        // go on from where the previous child ended
+        int first = layoutFrom;
+        Slot previous = (first > 0) ? slots.get(children.get(first - 1)) : null;
+        int startX = (previous != null) ? previous.nextX : 0;
+        int startY = (previous != null) ? previous.nextY : 0;
+
+        int[] gridRowHeight = rowHeight, gridColumnWidth = columnWidth;
+        ConstraintTransaction.run(() -> {
+            int currentXPosition = startX, currentYPosition = startY;
+            for (int idx = first; idx < count; ++idx) {
+                GraphicalObject child = children.get(idx);
+                BoundaryRectangle box = child.getBoundingBox();
+
+                switch (layout) {
+                    case HORIZONTAL:
+                        child.moveTo(currentXPosition, 0);
+                        currentXPosition += box.width + offset;
+                        break;
+                    case VERTICAL:
+                        child.moveTo(0, currentYPosition);
+                        currentYPosition += box.height + offset;
+                        break;
+                    case GRID:
+                        child.moveTo(currentXPosition, currentYPosition);
+                        if ((idx + 1) % nColumns != 0) {
+                            currentXPosition += gridColumnWidth[idx % nColumns] + offset;
+                        } else {
+                            currentXPosition = 0;
+                            currentYPosition += gridRowHeight[idx / nColumns] + offset;
+                        }
+                        break;
+                    default:
+                        throw new RuntimeException("Not supported layout type");
+                }
+                Slot slot = slots.get(child);
+                slot.nextX = currentXPosition;
+                slot.nextY = currentYPosition;
             }
-            GraphicalObject child = children.get(idx);
-            BoundaryRectangle box = child.getBoundingBox();
+        });
+
+        // the moves marked the children whose size reads their position,
+        // e.g. lines: take their new size as placed
+        for (int idx = first; idx < count; ++idx) {
+            slots.get(children.get(idx)).placed();
+        }
+        layoutFrom = Integer.MAX_VALUE;
+        return count;
+    }
+
+    // lower layoutFrom to the first child that moved or resized by itself
+    private void checkChangedChildren() {
+        boolean stale = false;
+        for (Slot slot : changed) {
+            if (slot.changed && !slot.removed) {
+                slot.changed = false;
+                Object size = slot.observer.evaluate();
+                if (!Objects.equals(size, slot.size)) {
+                    slot.size = size;
+                    slot.stale = true;
+                    stale = true;
+                }
+            }
+        }
+        changed.clear();
+        if (!stale) {
+            return;
+        }
+        int first = Integer.MAX_VALUE;
+        for (int idx = children.size() - 1; idx >= 0; --idx) {
+            Slot slot = slots.get(children.get(idx));
+            if (slot.stale) {
+                slot.stale = false;
+                first = idx;
+            }
+        }
+        layoutFrom = Math.min(layoutFrom, first);
+    }
 
-            switch (layout) {
-                case HORIZONTAL:
-                    child.moveTo(currentXPosition, 0);
-                    currentXPosition += box.width + offset;
-                    break;
-                case VERTICAL:
-                    child.moveTo(0, currentYPosition);
-                    currentYPosition += box.height + offset;
-                    break;
-                case GRID:
-                    child.moveTo(currentXPosition, currentYPosition);
-                    if ((idx + 1) % nColumns != 0) {
-                        currentXPosition += columnWidth[idx % nColumns] + offset;
-                    } else {
-                        currentXPosition = 0;
-                        currentYPosition += rowHeight[idx / nColumns] + offset;
-                    }
-                    break;
-                default:
-                    throw new RuntimeException("Not supported layout type");
+    private void childAddedAt(GraphicalObject child, int idx) {
+        Slot slot = new Slot();
+        slot.observer = new TrackedObserver<>(() -> sizeOf(child), () -> {
+            if (!slot.changed && !slot.removed) {
+                slot.changed = true;
+                changed.add(slot);
+            }
+        });
+        slot.size = slot.observer.evaluate();
+        slots.put(child, slot);
+        layoutFrom = Math.min(layoutFrom, idx);
+    }
+
+    /**
+     * What the size of a child depends on, read without its position; it
+     * only has to change whenever the size may have changed
+     */
+    private static Object sizeOf(GraphicalObject child) {
+        if (child instanceof Rect) {
+            Rect rect = (Rect) child;
+            return new Dimension(rect.getWidth(), rect.getHeight());
+        } else if (child instanceof SimpleGroup) {
+            SimpleGroup group = (SimpleGroup) child;
+            return new Dimension(group.getWidth(), group.getHeight());
+        } else if (child instanceof LayoutGroup) {
+            LayoutGroup group = (LayoutGroup) child;
+            return new Dimension(group.getWidth(), group.getHeight());
+        } else if (child instanceof ScaledGroup) {
+            ScaledGroup group = (ScaledGroup) child;
+            return new BoundaryRectangle(0, 0, group.getWidth() * group.getScaleX(),
+                    group.getHeight() * group.getScaleY()).getSize();
+        } else if (child instanceof Text) {
+            Text text = (Text) child;
+            return Arrays.asList(text.getText(), text.getFont());
+        } else if (child instanceof Icon) {
+            return ((Icon) child).getImage();
+        }
+        // e.g. a line, whose size depends on all its end points
+        return child.getBoundingBox().getSize();
+    }
+
+    private void childRemovedAt(GraphicalObject child, int idx) {
+        Slot slot = slots.remove(child);
+        if (slot != null) {
+            slot.observer.dispose();
+            slot.removed = true;
+        }
+        layoutFrom = Math.min(layoutFrom, idx);
+    }
+
+    public void draw(Graphics2D graphics, Shape clipShape) {
+        // Place the children whose place may have changed, in a single
+        // constraint propagation pass
+        int laidOut = layoutChildren();
+
+        // Intersect the clip shape with the group bounding box
+        Rectangle commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
+        if (commonClipArea.isEmpty()) {
+            return;
+        }
+
+        // Translate the new clip to pass to children; it stays a rectangle,
+        // which Java2D clips to far faster than a general shape
+        int x = getX(), y = getY();
+        BoundaryRectangle childClip = new BoundaryRectangle(commonClipArea.x - x, commonClipArea.y - y,
+                commonClipArea.width, commonClipArea.height);
+
+        // Translate the origin to draw the laid out children in the clip only
+        Rectangle area = Culling.area(childClip);
+        graphics.translate(x, y);
+        if (index != null && laidOut == children.size()) {
+            for (GraphicalObject child : index.query(area)) {
+                child.draw(graphics, childClip);
+            }
+        } else {
+            // a full grid leaves the children after it out
+            for (int idx = 0; idx < laidOut; ++idx) {
+                GraphicalObject child = children.get(idx);
+                if (Culling.isVisible(child, area)) {
+                    child.draw(graphics, childClip);
+                }
             }
-            child.draw(graphics, childClipShape);
         }
         graphics.translate(-x, -y);
 
@@ -446,6 +404,11 @@ public class LayoutGroup implements Group {
         } else {
             children.add(child);
             child.setGroup(this);
+            childAddedAt(child, children.size() - 1);
+            aggregates.childAdded(child);
+            if (index != null) {
+                index.add(child);
+            }
             if (child instanceof Group) {
                 Group groupChild = (Group) child;
                 addBehaviors(groupChild.getBehaviorsToAdd());
@@ -464,13 +427,21 @@ public class LayoutGroup implements Group {
     }
 
     public Group removeChild(GraphicalObject child) {
-        children.remove(child);
+        int idx = children.indexOf(child);
+        if (idx >= 0) {
+            children.remove(idx);
+            childRemovedAt(child, idx);
+        }
         child.setGroup(null);
         if (child instanceof Group) {
             for (Behavior behavior : ((Group) child).getBehaviors()) {
                 removeBehavior(behavior);
             }
         }
+        aggregates.childRemoved(child);
+        if (index != null) {
+            index.remove(child);
+        }
         return this;
     }
 
@@ -489,6 +460,11 @@ public class LayoutGroup implements Group {
         } else {
             children.add(0, child);
             child.setGroup(this);
+            childAddedAt(child, 0);
+            aggregates.childAdded(child);
+            if (index != null) {
+                index.addToBottom(child);
+            }
             if (child instanceof Group) {
                 Group groupChild = (Group) child;
                 addBehaviors(groupChild.getBehaviorsToAdd());
@@ -559,8 +535,14 @@ public class LayoutGroup implements Group {
     }
 
     public Group bringChildToFront(GraphicalObject child) {
-        if (children.remove(child)) {
+        int idx = children.indexOf(child);
+        if (idx >= 0) {
+            children.remove(idx);
             children.add(child);
+            layoutFrom = Math.min(layoutFrom, idx);
+            if (index != null) {
+                index.bringToFront(child);
+            }
         } else {
             throw new RuntimeException("Object is not in the group");
         }
@@ -615,6 +597,37 @@ public class LayoutGroup implements Group {
         return new ArrayList<GraphicalObject>(children);
     }
 
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        return (index != null) ? index.childAt(pt, filter) : SpatialIndex.scan(children, pt, filter);
+    }
+
+    /**
+     * Keep the children in a SpatialIndex, so hit tests and culling cost
+     * O(log n) instead of a scan; worth it for a canvas of many objects
+     */
+    public Group setSpatialIndex(boolean on) {
+        if (on && index == null) {
+            index = new SpatialIndex(children);
+        } else if (!on && index != null) {
+            index.dispose();
+            index = null;
+        }
+        return this;
+    }
+
+    // null unless setSpatialIndex(true)
+    public SpatialIndex getSpatialIndex() {
+        return index;
+    }
+
+    public AggregateConstraint aggregate(Operation operation, ToIntFunction<GraphicalObject> measure) {
+        return aggregates.create(operation, measure, children);
+    }
+
+    public Constraint<Integer> childCount() {
+        return aggregates.count(children);
+    }
+
     public Point parentToChild(Point pt) {
         int x = getX(), y = getY();
         int childX = pt.x - x;
@@ -628,4 +641,38 @@ public class LayoutGroup implements Group {
         int parentY = pt.y + y;
         return new Point(parentX, parentY);
     }
+
+    public void release() {
+        releaseProperties();
+        layoutConstraint.dispose();
+        for (GraphicalObject child : children) {
+            child.release();
+        }
+        for (Slot slot : slots.values()) {
+            slot.observer.dispose();
+        }
+        slots.clear();
+        changed.clear();
+        if (index != null) {
+            index.dispose();
+        }
+    }
+
+    // a child in the cached layout
+    private static final class Slot {
+        private TrackedObserver<Object> observer;
+        private Object size;
+        // where the next child goes
+        private int nextX, nextY;
+        private boolean changed = false;
+        private boolean stale = false;
+        private boolean removed = false;
+
+        private void placed() {
+            if (changed) {
+                changed = false;
+                size = observer.evaluate();
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -2,41 +2,44 @@ package ui.toolkit.graphics.group;
 
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import ui.toolkit.behavior.Behavior;
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
 import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.object.AlreadyHasGroupRunTimeException;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.property.Property;
 
-public class ScaledGroup implements Group {
+public class ScaledGroup extends ScaledGroupProperties implements Group {
     /**
      * ScaledGroup class
      * 
      * Shrinks or enlarges a group of graphical objects by a scale factor
      */
-    private int x, y, width, height;
-    private double scaleX, scaleY;
+    @Property int x, y, width, height;
+    @Property double scaleX, scaleY;
     private Group group = null;
     private List<GraphicalObject> children = new ArrayList<>();
+    private final ChildAggregates aggregates = new ChildAggregates();
+    // the children by bounds, if set
+    private SpatialIndex index = null;
+    private AggregateConstraint childrenRight = null, childrenBottom = null;
 
     private List<Behavior> behaviors = new ArrayList<>();
     private List<Behavior> behaviorsToAdd = new ArrayList<>();
     private List<Behavior> behaviorsToRemove = new ArrayList<>();
 
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Integer> widthConstraint = new NoConstraint<>();
-    private Constraint<Integer> heightConstraint = new NoConstraint<>();
-    private Constraint<Double> scaleXConstraint = new NoConstraint<>();
-    private Constraint<Double> scaleYConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -53,198 +56,16 @@ public class ScaledGroup implements Group {
         this(0, 0, 200, 200, 1.0, 1.0);
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public int getWidth() {
-        if (widthConstraint.isConstrained()) {
-            this.width = widthConstraint.evaluate();
-        }
-        return this.width;
-    }
-
-    public void setWidth(int width) {
-        if (this.width != width) {
-            if (!widthConstraint.isConstrained()) {
-                this.width = width;
-                widthConstraint.notifyValueChange(false);
-            } else if (widthConstraint.hasCycle()) {
-                widthConstraint.setValue(width);
-                widthConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setWidth(Constraint<Integer> constraint) {
-        widthConstraint.replaceWithConstraint(constraint);
-        widthConstraint = constraint;
-        widthConstraint.setValue(this.width);
-        widthConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useWidth() {
-        return this.widthConstraint;
-    }
-
-    public int getHeight() {
-        if (heightConstraint.isConstrained()) {
-            this.height = heightConstraint.evaluate();
-        }
-        return this.height;
-    }
-
-    public void setHeight(int height) {
-        if (this.height != height) {
-            if (!heightConstraint.isConstrained()) {
-                this.height = height;
-                heightConstraint.notifyValueChange(false);
-            } else if (heightConstraint.hasCycle()) {
-                heightConstraint.setValue(height);
-                heightConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setHeight(Constraint<Integer> constraint) {
-        heightConstraint.replaceWithConstraint(constraint);
-        heightConstraint = constraint;
-        heightConstraint.setValue(this.height);
-        heightConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useHeight() {
-        return this.heightConstraint;
-    }
-
-    public double getScaleX() {
-        if (scaleXConstraint.isConstrained()) {
-            this.scaleX = scaleXConstraint.evaluate();
-        }
-        return this.scaleX;
-    }
-
-    public void setScaleX(double scaleX) {
-        if (this.scaleX != scaleX) {
-            if (!scaleXConstraint.isConstrained()) {
-                this.scaleX = scaleX;
-                scaleXConstraint.notifyValueChange(false);
-            } else if (scaleXConstraint.hasCycle()) {
-                scaleXConstraint.setValue(scaleX);
-                scaleXConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setScaleX(Constraint<Double> constraint) {
-        scaleXConstraint.replaceWithConstraint(constraint);
-        scaleXConstraint = constraint;
-        scaleXConstraint.setValue(this.scaleX);
-        scaleXConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Double> useScaleX() {
-        return this.scaleXConstraint;
-    }
-
-    public double getScaleY() {
-        if (scaleYConstraint.isConstrained()) {
-            this.scaleY = scaleYConstraint.evaluate();
-        }
-        return this.scaleY;
-    }
-
-    public void setScaleY(double scaleY) {
-        if (this.scaleY != scaleY) {
-            if (!scaleYConstraint.isConstrained()) {
-                this.scaleY = scaleY;
-                scaleYConstraint.notifyValueChange(false);
-            } else if (scaleYConstraint.hasCycle()) {
-                scaleYConstraint.setValue(scaleY);
-                scaleYConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setScaleY(Constraint<Double> constraint) {
-        scaleYConstraint.replaceWithConstraint(constraint);
-        scaleYConstraint = constraint;
-        scaleYConstraint.setValue(this.scaleY);
-        scaleYConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Double> useScaleY() {
-        return this.scaleYConstraint;
-    }
-
     /**
      * Methods defined in the GraphicalObject interface
      */
     public void draw(Graphics2D graphics, Shape clipShape) {
+        // Intersect the clip shape with the group bounding box
+        Rectangle commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
+        if (commonClipArea.isEmpty()) {
+            return;
+        }
+
         // Turn on anti-aliasing for aesthetics
         RenderingHints oldRenderingHints = graphics.getRenderingHints();
         graphics.setRenderingHint(
@@ -252,24 +73,28 @@ public class ScaledGroup implements Group {
             RenderingHints.VALUE_ANTIALIAS_ON
         );
 
-        // Intersect the clip shape with the group bounding box
-        Shape commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
-
-        // Transform the new clip shape to pass to children
-        // Note: transforms are right-associative
+        // Transform the new clip to pass to children: scaled exactly, but
+        // still a rectangle, which Java2D clips to far faster than a shape
         int x = getX(), y = getY();
         double scaleX = getScaleX(), scaleY = getScaleY();
-        AffineTransform shapeTransform = new AffineTransform();
-        shapeTransform.scale(1.0 / scaleX, 1.0 / scaleY);
-        shapeTransform.translate(-x, -y);
-        Shape childClipShape = shapeTransform.createTransformedShape(commonClipArea);
+        Rectangle2D childClip = new Rectangle2D.Double((commonClipArea.x - x) / scaleX,
+                (commonClipArea.y - y) / scaleY, commonClipArea.width / scaleX, commonClipArea.height / scaleY);
 
-        // Transform the graphics to draw children
+        // Transform the graphics to draw the children in the clip only
+        Rectangle area = Culling.area(childClip);
         AffineTransform oldTransform = graphics.getTransform();
         graphics.translate(x, y);           // 1. translate the origin
         graphics.scale(scaleX, scaleY);     // 2. scale the graphics
-        for (GraphicalObject child : children) {
-            child.draw(graphics, childClipShape);
+        if (index != null) {
+            for (GraphicalObject child : index.query(area)) {
+                child.draw(graphics, childClip);
+            }
+        } else {
+            for (GraphicalObject child : children) {
+                if (Culling.isVisible(child, area)) {
+                    child.draw(graphics, childClip);
+                }
+            }
         }
 
         // Restore old graphical attributes
@@ -319,6 +144,10 @@ public class ScaledGroup implements Group {
         } else {
             children.add(child);
             child.setGroup(this);
+            aggregates.childAdded(child);
+            if (index != null) {
+                index.add(child);
+            }
             if (child instanceof Group) {
                 Group groupChild = (Group) child;
                 addBehaviors(groupChild.getBehaviorsToAdd());
@@ -344,6 +173,10 @@ public class ScaledGroup implements Group {
                 removeBehavior(behavior);
             }
         }
+        aggregates.childRemoved(child);
+        if (index != null) {
+            index.remove(child);
+        }
         return this;
     }
 
@@ -421,6 +254,9 @@ public class ScaledGroup implements Group {
     public Group bringChildToFront(GraphicalObject child) {
         if (children.remove(child)) {
             children.add(child);
+            if (index != null) {
+                index.bringToFront(child);
+            }
         } else {
             throw new RuntimeException("Object is not in the group");
         }
@@ -428,14 +264,14 @@ public class ScaledGroup implements Group {
     }
 
     public Group resizeToChildren() {
-        int newWidth = 0, newHeight = 0;
-        for (GraphicalObject child : children) {
-            BoundaryRectangle box = child.getBoundingBox();
-            newWidth = Math.max(newWidth, (int) box.getMaxX());
-            newHeight = Math.max(newHeight, (int) box.getMaxY());
+        // kept from the first call on, so later calls only re-measure the
+        // children that moved or resized since
+        if (childrenRight == null) {
+            childrenRight = aggregate(Operation.MAX, child -> (int) child.getBoundingBox().getMaxX());
+            childrenBottom = aggregate(Operation.MAX, child -> (int) child.getBoundingBox().getMaxY());
         }
-        this.setWidth(newWidth);
-        this.setHeight(newHeight);
+        this.setWidth(Math.max(0, childrenRight.evaluateInt()));
+        this.setHeight(Math.max(0, childrenBottom.evaluateInt()));
         return this;
     }
 
@@ -443,6 +279,37 @@ public class ScaledGroup implements Group {
         return new ArrayList<GraphicalObject>(children);
     }
 
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        return (index != null) ? index.childAt(pt, filter) : SpatialIndex.scan(children, pt, filter);
+    }
+
+    /**
+     * Keep the children in a SpatialIndex, so hit tests and culling cost
+     * O(log n) instead of a scan; worth it for a canvas of many objects
+     */
+    public Group setSpatialIndex(boolean on) {
+        if (on && index == null) {
+            index = new SpatialIndex(children);
+        } else if (!on && index != null) {
+            index.dispose();
+            index = null;
+        }
+        return this;
+    }
+
+    // null unless setSpatialIndex(true)
+    public SpatialIndex getSpatialIndex() {
+        return index;
+    }
+
+    public AggregateConstraint aggregate(Operation operation, ToIntFunction<GraphicalObject> measure) {
+        return aggregates.create(operation, measure, children);
+    }
+
+    public Constraint<Integer> childCount() {
+        return aggregates.count(children);
+    }
+
     public Point parentToChild(Point pt) {
         int x = getX(), y = getY();
         double scaleX = getScaleX(), scaleY = getScaleY();
@@ -460,4 +327,14 @@ public class ScaledGroup implements Group {
         int parentY = (int) (pt.y * scaleY + y);
         return new Point(parentX, parentY);
     }
+
+    public void release() {
+        releaseProperties();
+        for (GraphicalObject child : children) {
+            child.release();
+        }
+        if (index != null) {
+            index.dispose();
+        }
+    }
 }
\ No newline at end of file
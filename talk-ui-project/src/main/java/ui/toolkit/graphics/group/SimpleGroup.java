@@ -2,35 +2,38 @@ package ui.toolkit.graphics.group;
 
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Shape;
-import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import ui.toolkit.behavior.Behavior;
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
 import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.object.AlreadyHasGroupRunTimeException;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.property.Property;
 
-public class SimpleGroup implements Group {
+public class SimpleGroup extends SimpleGroupProperties implements Group {
     /**
      * SimpleGroup class: a group of objects at their fixed positions
      */
-    private int x, y, width, height;
+    @Property int x, y, width, height;
     private Group group = null;
     private List<GraphicalObject> children = new ArrayList<>();
+    private final ChildAggregates aggregates = new ChildAggregates();
+    // the children by bounds, if set
+    private SpatialIndex index = null;
+    private AggregateConstraint childrenRight = null, childrenBottom = null;
 
     protected List<Behavior> behaviors = new ArrayList<>();
     private List<Behavior> behaviorsToAdd = new ArrayList<>();
     private List<Behavior> behaviorsToRemove = new ArrayList<>();
 
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Integer> widthConstraint = new NoConstraint<>();
-    private Constraint<Integer> heightConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -45,151 +48,35 @@ public class SimpleGroup implements Group {
         this(0, 0, 200, 200);
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public int getWidth() {
-        if (widthConstraint.isConstrained()) {
-            this.width = widthConstraint.evaluate();
-        }
-        return this.width;
-    }
-
-    public void setWidth(int width) {
-        if (this.width != width) {
-            if (!widthConstraint.isConstrained()) {
-                this.width = width;
-                widthConstraint.notifyValueChange(false);
-            } else if (widthConstraint.hasCycle()) {
-                widthConstraint.setValue(width);
-                widthConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setWidth(Constraint<Integer> constraint) {
-        widthConstraint.replaceWithConstraint(constraint);
-        widthConstraint = constraint;
-        widthConstraint.setValue(this.width);
-        widthConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useWidth() {
-        return this.widthConstraint;
-    }
-
-    public int getHeight() {
-        if (heightConstraint.isConstrained()) {
-            this.height = heightConstraint.evaluate();
-        }
-        return this.height;
-    }
-
-    public void setHeight(int height) {
-        if (this.height != height) {
-            if (!heightConstraint.isConstrained()) {
-                this.height = height;
-                heightConstraint.notifyValueChange(false);
-            } else if (heightConstraint.hasCycle()) {
-                heightConstraint.setValue(height);
-                heightConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setHeight(Constraint<Integer> constraint) {
-        heightConstraint.replaceWithConstraint(constraint);
-        heightConstraint = constraint;
-        heightConstraint.setValue(this.height);
-        heightConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useHeight() {
-        return this.heightConstraint;
-    }
-
     /**
      * Methods defined in the GraphicalObject interface
      */
     public void draw(Graphics2D graphics, Shape clipShape) {
         // Intersect the clip shape with the group bounding box
-        Shape commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
+        Rectangle commonClipArea = getBoundingBox().intersection(clipShape.getBounds());
+        if (commonClipArea.isEmpty()) {
+            return;
+        }
 
-        // Translate the new clip shape to pass to children
+        // Translate the new clip to pass to children; it stays a rectangle,
+        // which Java2D clips to far faster than a general shape
         int x = getX(), y = getY();
-        AffineTransform transform = new AffineTransform();
-        transform.translate(-x, -y);
-        Shape childClipShape = transform.createTransformedShape(commonClipArea);
+        BoundaryRectangle childClip = new BoundaryRectangle(commonClipArea.x - x, commonClipArea.y - y,
+                commonClipArea.width, commonClipArea.height);
 
-        // Translate the origin to draw children
+        // Translate the origin to draw the children in the clip only
+        Rectangle area = Culling.area(childClip);
         graphics.translate(x, y);
-        for (GraphicalObject child : children) {
-            child.draw(graphics, childClipShape);
+        if (index != null) {
+            for (GraphicalObject child : index.query(area)) {
+                child.draw(graphics, childClip);
+            }
+        } else {
+            for (GraphicalObject child : children) {
+                if (Culling.isVisible(child, area)) {
+                    child.draw(graphics, childClip);
+                }
+            }
         }
         graphics.translate(-x, -y);
     }
@@ -233,6 +120,10 @@ public class SimpleGroup implements Group {
         } else {
             children.add(child);
             child.setGroup(this);
+            aggregates.childAdded(child);
+            if (index != null) {
+                index.add(child);
+            }
             if (child instanceof Group) {
                 Group groupChild = (Group) child;
                 addBehaviors(groupChild.getBehaviorsToAdd());
@@ -258,6 +149,10 @@ public class SimpleGroup implements Group {
                 removeBehavior(behavior);
             }
         }
+        aggregates.childRemoved(child);
+        if (index != null) {
+            index.remove(child);
+        }
         return this;
     }
 
@@ -335,6 +230,9 @@ public class SimpleGroup implements Group {
     public Group bringChildToFront(GraphicalObject child) {
         if (children.remove(child)) {
             children.add(child);
+            if (index != null) {
+                index.bringToFront(child);
+            }
         } else {
             throw new RuntimeException("Object is not in the group");
         }
@@ -342,14 +240,14 @@ public class SimpleGroup implements Group {
     }
 
     public Group resizeToChildren() {
-        int newWidth = 0, newHeight = 0;
-        for (GraphicalObject child : children) {
-            BoundaryRectangle box = child.getBoundingBox();
-            newWidth = Math.max(newWidth, (int) box.getMaxX());
-            newHeight = Math.max(newHeight, (int) box.getMaxY());
+        // kept from the first call on, so later calls only re-measure the
+        // children that moved or resized since
+        if (childrenRight == null) {
+            childrenRight = aggregate(Operation.MAX, child -> (int) child.getBoundingBox().getMaxX());
+            childrenBottom = aggregate(Operation.MAX, child -> (int) child.getBoundingBox().getMaxY());
         }
-        this.setWidth(newWidth);
-        this.setHeight(newHeight);
+        this.setWidth(Math.max(0, childrenRight.evaluateInt()));
+        this.setHeight(Math.max(0, childrenBottom.evaluateInt()));
         return this;
     }
 
@@ -357,6 +255,37 @@ public class SimpleGroup implements Group {
         return new ArrayList<GraphicalObject>(children);
     }
 
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        return (index != null) ? index.childAt(pt, filter) : SpatialIndex.scan(children, pt, filter);
+    }
+
+    /**
+     * Keep the children in a SpatialIndex, so hit tests and culling cost
+     * O(log n) instead of a scan; worth it for a canvas of many objects
+     */
+    public Group setSpatialIndex(boolean on) {
+        if (on && index == null) {
+            index = new SpatialIndex(children);
+        } else if (!on && index != null) {
+            index.dispose();
+            index = null;
+        }
+        return this;
+    }
+
+    // null unless setSpatialIndex(true)
+    public SpatialIndex getSpatialIndex() {
+        return index;
+    }
+
+    public AggregateConstraint aggregate(Operation operation, ToIntFunction<GraphicalObject> measure) {
+        return aggregates.create(operation, measure, children);
+    }
+
+    public Constraint<Integer> childCount() {
+        return aggregates.count(children);
+    }
+
     public Point parentToChild(Point pt) {
         int x = getX(), y = getY();
         int childX = pt.x - x;
@@ -370,4 +299,14 @@ public class SimpleGroup implements Group {
         int parentY = pt.y + y;
         return new Point(parentX, parentY);
     }
+
+    public void release() {
+        releaseProperties();
+        for (GraphicalObject child : children) {
+            child.release();
+        }
+        if (index != null) {
+            index.dispose();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,319 @@
+package ui.toolkit.graphics.group;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import ui.toolkit.constraint.TrackedObserver;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.GraphicalObject;
+
+public class SpatialIndex {
+    /**
+     * SpatialIndex class: the children of a group by their bounding boxes,
+     * for hit tests and region queries in O(log n) instead of a scan
+     *
+     * A loose quadtree: each node reaches half its size beyond its square, so
+     * a child goes down to the node of its center until the node is about
+     * its size, even across quadrant boundaries, and a query visits a few
+     * nodes per level. A node splits into four once it holds more than
+     * NODE_CAPACITY children, and the root doubles toward children outside
+     * it. Each child has a TrackedObserver on its getBoundingBox(), so a
+     * child that moves or resizes is only marked; it is re-inserted by the
+     * next query, which costs nothing while nobody asks.
+     *
+     * Results respect the z-order of the group: the group reports children
+     * added on top, at the bottom or brought to front, and every child keeps
+     * an order number in between.
+     */
+    private static final int NODE_CAPACITY = 8;
+    private static final int MIN_NODE_SIZE = 16;
+    private static final int MAX_NODE_SIZE = 1 << 30;
+    private static final int INITIAL_SIZE = 1024;
+    // some objects are hit beside their bounds, e.g. lines within 15 pixels
+    private static final int HIT_SLOP = 16;
+
+    private static final Comparator<Entry> BACK_TO_FRONT = Comparator.comparingLong(entry -> entry.order);
+
+    private final Map<GraphicalObject, Entry> entries = new IdentityHashMap<>();
+    private final List<Entry> moved = new ArrayList<>();
+    private Node root = new Node(0, 0, INITIAL_SIZE);
+    private long top = 0, bottom = 0;
+
+    public SpatialIndex() {}
+
+    /**
+     * Index the children of a group, bottom to top
+     */
+    public SpatialIndex(List<GraphicalObject> children) {
+        for (GraphicalObject child : children) {
+            add(child);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // a child added in front of the others
+    public void add(GraphicalObject child) {
+        insert(child, ++top);
+    }
+
+    // a child added behind the others
+    public void addToBottom(GraphicalObject child) {
+        insert(child, --bottom);
+    }
+
+    public void remove(GraphicalObject child) {
+        Entry entry = entries.remove(child);
+        if (entry != null) {
+            entry.node.entries.remove(entry);
+            entry.observer.dispose();
+            entry.removed = true;
+        }
+    }
+
+    public void bringToFront(GraphicalObject child) {
+        Entry entry = entries.get(child);
+        if (entry != null) {
+            entry.order = ++top;
+        }
+    }
+
+    /**
+     * The front-most child that contains the point and matches the filter,
+     * or null
+     *
+     * @param pt     in the coordinates of the children
+     * @param filter e.g. child -> child instanceof SelectableGraphicalObject
+     */
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        List<Entry> candidates = collect(new Rectangle(pt.x - HIT_SLOP, pt.y - HIT_SLOP,
+                2 * HIT_SLOP + 1, 2 * HIT_SLOP + 1));
+        candidates.sort(BACK_TO_FRONT.reversed());
+        for (Entry entry : candidates) {
+            if (entry.child.contains(pt) && filter.test(entry.child)) {
+                return entry.child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The children whose bounding boxes intersect the area, back to front
+     */
+    public List<GraphicalObject> query(Rectangle area) {
+        List<Entry> found = collect(area);
+        found.sort(BACK_TO_FRONT);
+        List<GraphicalObject> children = new ArrayList<>(found.size());
+        for (Entry entry : found) {
+            children.add(entry.child);
+        }
+        return children;
+    }
+
+    /**
+     * Stop observing the children
+     */
+    public void dispose() {
+        for (Entry entry : entries.values()) {
+            entry.observer.dispose();
+        }
+        entries.clear();
+        moved.clear();
+        root = new Node(0, 0, INITIAL_SIZE);
+    }
+
+    /**
+     * The front-most child that contains the point and matches the filter,
+     * by a scan of a child list from the back, for groups without an index
+     */
+    public static GraphicalObject scan(List<GraphicalObject> children, Point pt, Predicate<GraphicalObject> filter) {
+        for (int idx = children.size() - 1; idx >= 0; --idx) { // front to back
+            GraphicalObject child = children.get(idx);
+            if (child.contains(pt) && filter.test(child)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private void insert(GraphicalObject child, long order) {
+        if (entries.containsKey(child)) {
+            return;
+        }
+        Entry entry = new Entry(child, order);
+        entry.observer = new TrackedObserver<>(child::getBoundingBox, () -> {
+            if (!entry.moved && !entry.removed) {
+                entry.moved = true;
+                moved.add(entry);
+            }
+        });
+        entry.bounds = new Rectangle(entry.observer.evaluate());
+        entries.put(child, entry);
+        place(entry);
+    }
+
+    private List<Entry> collect(Rectangle area) {
+        update();
+        List<Entry> found = new ArrayList<>();
+        collect(root, area, found);
+        return found;
+    }
+
+    private static void collect(Node node, Rectangle area, List<Entry> found) {
+        for (Entry entry : node.entries) {
+            if (intersects(entry.bounds, area)) {
+                found.add(entry);
+            }
+        }
+        if (node.quadrants != null) {
+            for (Node quadrant : node.quadrants) {
+                if (quadrant.intersects(area)) {
+                    collect(quadrant, area, found);
+                }
+            }
+        }
+    }
+
+    // re-insert the children that moved since the last query
+    private void update() {
+        for (Entry entry : moved) {
+            if (entry.removed) {
+                continue;
+            }
+            entry.moved = false;
+            BoundaryRectangle bounds = entry.observer.evaluate();
+            if (!entry.bounds.equals(bounds)) {
+                entry.bounds = new Rectangle(bounds);
+                if (!entry.node.holds(entry.bounds) || entry.node.quadrantFor(entry.bounds) != null) {
+                    entry.node.entries.remove(entry);
+                    place(entry);
+                }
+            }
+        }
+        moved.clear();
+    }
+
+    private void place(Entry entry) {
+        Rectangle bounds = entry.bounds;
+        while (!root.holds(bounds) && root.size < MAX_NODE_SIZE) {
+            grow(bounds);
+        }
+        Node node = root;
+        Node quadrant;
+        while ((quadrant = node.quadrantFor(bounds)) != null) {
+            node = quadrant;
+        }
+        node.add(entry);
+    }
+
+    // double the root toward an area outside it
+    private void grow(Rectangle area) {
+        int size = root.size;
+        int x = (area.x < root.x) ? root.x - size : root.x;
+        int y = (area.y < root.y) ? root.y - size : root.y;
+        Node grown = new Node(x, y, 2 * size);
+        grown.quadrants = new Node[4];
+        for (int i = 0; i < 4; ++i) {
+            int quadrantX = x + (i & 1) * size, quadrantY = y + (i >> 1) * size;
+            grown.quadrants[i] = (quadrantX == root.x && quadrantY == root.y) ? root
+                    : new Node(quadrantX, quadrantY, size);
+        }
+        root = grown;
+    }
+
+    // zero-sized bounds still count, e.g. a horizontal line
+    private static boolean intersects(Rectangle bounds, Rectangle area) {
+        return bounds.x <= area.x + area.width && area.x <= bounds.x + Math.max(0, bounds.width)
+                && bounds.y <= area.y + area.height && area.y <= bounds.y + Math.max(0, bounds.height);
+    }
+
+    private static final class Node {
+        private final int x, y, size;
+        private final List<Entry> entries = new ArrayList<>(0);
+        private Node[] quadrants = null;
+
+        private Node(int x, int y, int size) {
+            this.x = x;
+            this.y = y;
+            this.size = size;
+        }
+
+        // within the loose square, half the size larger on every side
+        private boolean holds(Rectangle bounds) {
+            long margin = size / 2;
+            return bounds.x >= x - margin && bounds.y >= y - margin
+                    && (long) bounds.x + Math.max(0, bounds.width) <= (long) x + size + margin
+                    && (long) bounds.y + Math.max(0, bounds.height) <= (long) y + size + margin;
+        }
+
+        private boolean intersects(Rectangle area) {
+            long margin = size / 2;
+            return area.x <= (long) x + size + margin && x - margin <= (long) area.x + area.width
+                    && area.y <= (long) y + size + margin && y - margin <= (long) area.y + area.height;
+        }
+
+        // the quadrant of the center of the bounds, if split and it holds them
+        private Node quadrantFor(Rectangle bounds) {
+            if (quadrants == null) {
+                return null;
+            }
+            long half = size / 2;
+            long centerX = bounds.x + (long) Math.max(0, bounds.width) / 2;
+            long centerY = bounds.y + (long) Math.max(0, bounds.height) / 2;
+            Node quadrant = quadrants[((centerX >= x + half) ? 1 : 0) + ((centerY >= y + half) ? 2 : 0)];
+            return quadrant.holds(bounds) ? quadrant : null;
+        }
+
+        private void add(Entry entry) {
+            entry.node = this;
+            entries.add(entry);
+            if (quadrants == null && entries.size() > NODE_CAPACITY && size > MIN_NODE_SIZE) {
+                split();
+            }
+        }
+
+        private void split() {
+            int half = size / 2;
+            quadrants = new Node[4];
+            for (int i = 0; i < 4; ++i) {
+                quadrants[i] = new Node(x + (i & 1) * half, y + (i >> 1) * half, half);
+            }
+            List<Entry> straddling = new ArrayList<>();
+            for (Entry entry : entries) {
+                Node quadrant = quadrantFor(entry.bounds);
+                if (quadrant != null) {
+                    // a full quadrant splits again with its next child
+                    entry.node = quadrant;
+                    quadrant.entries.add(entry);
+                } else {
+                    straddling.add(entry);
+                }
+            }
+            entries.clear();
+            entries.addAll(straddling);
+        }
+    }
+
+    private static final class Entry {
+        private final GraphicalObject child;
+        private long order;
+        private TrackedObserver<BoundaryRectangle> observer;
+        private Rectangle bounds;
+        private Node node;
+        private boolean moved = false;
+        private boolean removed = false;
+
+        private Entry(GraphicalObject child, long order) {
+            this.child = child;
+            this.order = order;
+        }
+    }
+}
@@ -1,18 +1,16 @@
 package ui.toolkit.graphics.group.selectable;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.property.Properties;
+import ui.toolkit.property.Property;
 
-public class SelectableSimpleGroup extends SimpleGroup implements SelectableGroup {
+@Properties(superclass = SimpleGroup.class)
+public class SelectableSimpleGroup extends SelectableSimpleGroupProperties implements SelectableGroup {
     /**
      * SelectableSimpleGroup class: a selectable group with objects at their fixed positions
      */
-    private boolean interimSelected;
-    private boolean selected;
-
-    private Constraint<Boolean> interimSelectedConstraint = new NoConstraint<>();
-    private Constraint<Boolean> selectedConstraint = new NoConstraint<>();
+    @Property boolean interimSelected;
+    @Property boolean selected;
 
     /**
      * Constructors
@@ -24,67 +22,4 @@ public class SelectableSimpleGroup extends SimpleGroup implements SelectableGrou
     public SelectableSimpleGroup() {
         super();
     }
-
-    /**
-     * Getters, setters and "users"
-     */
-    public boolean isInterimSelected() {
-        if (interimSelectedConstraint.isConstrained()) {
-            this.interimSelected = interimSelectedConstraint.evaluate();
-        }
-        return this.interimSelected;
-    }
-
-    public void setInterimSelected(boolean interimSelected) {
-        if (this.interimSelected != interimSelected) {
-            if (!interimSelectedConstraint.isConstrained()) {
-                this.interimSelected = interimSelected;
-                interimSelectedConstraint.notifyValueChange(false);
-            } else if (interimSelectedConstraint.hasCycle()) {
-                interimSelectedConstraint.setValue(interimSelected);
-                interimSelectedConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setInterimSelected(Constraint<Boolean> constraint) {
-        interimSelectedConstraint.replaceWithConstraint(constraint);
-        interimSelectedConstraint = constraint;
-        interimSelectedConstraint.setValue(this.interimSelected);
-        interimSelectedConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Boolean> useInterimSelected() {
-        return this.interimSelectedConstraint;
-    }
-
-    public boolean isSelected() {
-        if (selectedConstraint.isConstrained()) {
-            this.selected = selectedConstraint.evaluate();
-        }
-        return this.selected;
-    }
-
-    public void setSelected(boolean selected) {
-        if (this.selected != selected) {
-            if (!selectedConstraint.isConstrained()) {
-                this.selected = selected;
-                selectedConstraint.notifyValueChange(false);
-            } else if (selectedConstraint.hasCycle()) {
-                selectedConstraint.setValue(selected);
-                selectedConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setSelected(Constraint<Boolean> constraint) {
-        selectedConstraint.replaceWithConstraint(constraint);
-        selectedConstraint = constraint;
-        selectedConstraint.setValue(this.selected);
-        selectedConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Boolean> useSelected() {
-        return this.selectedConstraint;
-    }
 }
\ No newline at end of file
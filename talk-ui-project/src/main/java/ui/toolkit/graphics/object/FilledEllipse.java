@@ -5,24 +5,17 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Shape;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.Group;
+import ui.toolkit.property.Property;
 
-public class FilledEllipse implements Rect {
+public class FilledEllipse extends FilledEllipseProperties implements Rect {
     /**
      * FilledEllipse class: filled ellipses
      */
-    private int x, y, width, height;
-    private Color color;
+    @Property int x, y, width, height;
+    @Property Color color;
     private Group group = null;
 
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Integer> widthConstraint = new NoConstraint<>();
-    private Constraint<Integer> heightConstraint = new NoConstraint<>();
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -38,164 +31,6 @@ public class FilledEllipse implements Rect {
         this(0, 0, 10, 10, Color.RED);
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public int getWidth() {
-        if (widthConstraint.isConstrained()) {
-            this.width = widthConstraint.evaluate();
-        }
-        return this.width;
-    }
-
-    public void setWidth(int width) {
-        if (this.width != width) {
-            if (!widthConstraint.isConstrained()) {
-                this.width = width;
-                widthConstraint.notifyValueChange(false);
-            } else if (widthConstraint.hasCycle()) {
-                widthConstraint.setValue(width);
-                widthConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setWidth(Constraint<Integer> constraint) {
-        widthConstraint.replaceWithConstraint(constraint);
-        widthConstraint = constraint;
-        widthConstraint.setValue(this.width);
-        widthConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useWidth() {
-        return this.widthConstraint;
-    }
-
-    public int getHeight() {
-        if (heightConstraint.isConstrained()) {
-            this.height = heightConstraint.evaluate();
-        }
-        return this.height;
-    }
-
-    public void setHeight(int height) {
-        if (this.height != height) {
-            if (!heightConstraint.isConstrained()) {
-                this.height = height;
-                heightConstraint.notifyValueChange(false);
-            } else if (heightConstraint.hasCycle()) {
-                heightConstraint.setValue(height);
-                heightConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setHeight(Constraint<Integer> constraint) {
-        heightConstraint.replaceWithConstraint(constraint);
-        heightConstraint = constraint;
-        heightConstraint.setValue(this.height);
-        heightConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useHeight() {
-        return this.heightConstraint;
-    }
-
-    public Color getColor() {
-        if (colorConstraint.isConstrained()) {
-            this.color = colorConstraint.evaluate();
-        }
-        return this.color;
-    }
-
-    public void setColor(Color color) {
-        if (this.color != color) {
-            if (!colorConstraint.isConstrained()) {
-                this.color = color;
-                colorConstraint.notifyValueChange(false);
-            } else if (colorConstraint.hasCycle()) {
-                colorConstraint.setValue(color);
-                colorConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setColor(Constraint<Color> constraint) {
-        colorConstraint.replaceWithConstraint(constraint);
-        colorConstraint = constraint;
-        colorConstraint.setValue(this.color);
-        colorConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Color> useColor() {
-        return this.colorConstraint;
-    }
-
     /**
      * Methods defined in the GraphicalObject interface
      */
@@ -249,4 +84,8 @@ public class FilledEllipse implements Rect {
     public boolean contains(Point pt) {
         return contains(pt.x, pt.y);
     }
+
+    public void release() {
+        releaseProperties();
+    }
 }
\ No newline at end of file
@@ -16,6 +16,12 @@ public interface GraphicalObject {
     public boolean contains(int x, int y);
     public boolean contains(Point pt);
 
+    // Detach the constraints of this object (and of its children) from the
+    // constraint graph, see Dependency.dispose(); the object is not used again.
+    // An object without constraints of its own has nothing to detach
+    public default void release() {
+    }
+
     // Setup position constraints for widget components
     public void setX(Constraint<Integer> constraint);
     public void setY(Constraint<Integer> constraint);
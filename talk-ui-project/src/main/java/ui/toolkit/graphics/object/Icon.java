@@ -5,22 +5,17 @@ import java.awt.Image;
 import java.awt.Point;
 import java.awt.Shape;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.Group;
+import ui.toolkit.property.Property;
 
-public class Icon implements GraphicalObject {
+public class Icon extends IconProperties implements GraphicalObject {
     /**
      * Icon class: images
      */
-    private Image image;
-    private int x, y;
+    @Property Image image;
+    @Property int x, y;
     private Group group = null;
 
-    private Constraint<Image> imageConstraint = new NoConstraint<>();
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -34,104 +29,6 @@ public class Icon implements GraphicalObject {
         this(null, 0, 0);
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public Image getImage() {
-        if (imageConstraint.isConstrained()) {
-            this.image = imageConstraint.evaluate();
-        }
-        return this.image;
-    }
-
-    public void setImage(Image image) {
-        if (this.image != image) {
-            if (!imageConstraint.isConstrained()) {
-                this.image = image;
-                imageConstraint.notifyValueChange(false);
-            } else if (imageConstraint.hasCycle()) {
-                imageConstraint.setValue(image);
-                imageConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setImage(Constraint<Image> constraint) {
-        imageConstraint.replaceWithConstraint(constraint);
-        imageConstraint = constraint;
-        imageConstraint.setValue(this.image);
-        imageConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Image> useImage() {
-        return this.imageConstraint;
-    }
-
     /**
      * Methods defined in the GraphicalObject interface
      */
@@ -181,4 +78,8 @@ public class Icon implements GraphicalObject {
     public boolean contains(Point pt) {
         return contains(pt.x, pt.y);
     }
+
+    public void release() {
+        releaseProperties();
+    }
 }
\ No newline at end of file
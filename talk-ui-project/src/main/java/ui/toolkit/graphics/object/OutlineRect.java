@@ -5,27 +5,20 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Shape;
+import java.awt.Stroke;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.Group;
+import ui.toolkit.property.Property;
 
-public class OutlineRect implements Rect {
+public class OutlineRect extends OutlineRectProperties implements Rect {
     /**
      * OutlineRect class: outline rectangles
      */
-    private int x, y, width, height;
-    private Color color;
-    private int lineThickness;
+    @Property int x, y, width, height;
+    @Property Color color;
+    @Property int lineThickness;
     private Group group = null;
 
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Integer> widthConstraint = new NoConstraint<>();
-    private Constraint<Integer> heightConstraint = new NoConstraint<>();
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
-    private Constraint<Integer> lineThicknessConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -42,200 +35,13 @@ public class OutlineRect implements Rect {
         this(0, 0, 10, 10, Color.BLACK, 1);
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public int getWidth() {
-        if (widthConstraint.isConstrained()) {
-            this.width = widthConstraint.evaluate();
-        }
-        return this.width;
-    }
-
-    public void setWidth(int width) {
-        if (this.width != width) {
-            if (!widthConstraint.isConstrained()) {
-                this.width = width;
-                widthConstraint.notifyValueChange(false);
-            } else if (widthConstraint.hasCycle()) {
-                widthConstraint.setValue(width);
-                widthConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setWidth(Constraint<Integer> constraint) {
-        widthConstraint.replaceWithConstraint(constraint);
-        widthConstraint = constraint;
-        widthConstraint.setValue(this.width);
-        widthConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useWidth() {
-        return this.widthConstraint;
-    }
-
-    public int getHeight() {
-        if (heightConstraint.isConstrained()) {
-            this.height = heightConstraint.evaluate();
-        }
-        return this.height;
-    }
-
-    public void setHeight(int height) {
-        if (this.height != height) {
-            if (!heightConstraint.isConstrained()) {
-                this.height = height;
-                heightConstraint.notifyValueChange(false);
-            } else if (heightConstraint.hasCycle()) {
-                heightConstraint.setValue(height);
-                heightConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setHeight(Constraint<Integer> constraint) {
-        heightConstraint.replaceWithConstraint(constraint);
-        heightConstraint = constraint;
-        heightConstraint.setValue(this.height);
-        heightConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useHeight() {
-        return this.heightConstraint;
-    }
-
-    public Color getColor() {
-        if (colorConstraint.isConstrained()) {
-            this.color = colorConstraint.evaluate();
-        }
-        return this.color;
-    }
-
-    public void setColor(Color color) {
-        if (this.color != color) {
-            if (!colorConstraint.isConstrained()) {
-                this.color = color;
-                colorConstraint.notifyValueChange(false);
-            } else if (colorConstraint.hasCycle()) {
-                colorConstraint.setValue(color);
-                colorConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setColor(Constraint<Color> constraint) {
-        colorConstraint.replaceWithConstraint(constraint);
-        colorConstraint = constraint;
-        colorConstraint.setValue(this.color);
-        colorConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Color> useColor() {
-        return this.colorConstraint;
-    }
-
-    public int getLineThickness() {
-        if (lineThicknessConstraint.isConstrained()) {
-            this.lineThickness = lineThicknessConstraint.evaluate();
-        }
-        return this.lineThickness;
-    }
-
-    public void setLineThickness(int lineThickness) {
-        if (this.lineThickness != lineThickness) {
-            if (!lineThicknessConstraint.isConstrained()) {
-                this.lineThickness = lineThickness;
-                lineThicknessConstraint.notifyValueChange(false);
-            } else if (lineThicknessConstraint.hasCycle()) {
-                lineThicknessConstraint.setValue(lineThickness);
-                lineThicknessConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setLineThickness(Constraint<Integer> constraint) {
-        lineThicknessConstraint.replaceWithConstraint(constraint);
-        lineThicknessConstraint = constraint;
-        lineThicknessConstraint.setValue(this.lineThickness);
-        lineThicknessConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useLineThickness() {
-        return this.lineThicknessConstraint;
-    }
-
     /**
      * Methods defined in the GraphicalObject interface
      */
     public void draw(Graphics2D graphics, Shape clipShape) {
         Shape oldClip = graphics.getClip();
         graphics.setClip(clipShape);
+        Stroke oldStroke = graphics.getStroke();
 
         int x = getX(), y = getY(), width = getWidth(), height = getHeight();
         int lineThickness = getLineThickness();
@@ -249,6 +55,7 @@ public class OutlineRect implements Rect {
             width - lineThickness,
             height - lineThickness
         );
+        graphics.setStroke(oldStroke);
         graphics.setClip(oldClip);
     }
 
@@ -280,4 +87,8 @@ public class OutlineRect implements Rect {
     public boolean contains(Point pt) {
         return contains(pt.x, pt.y);
     }
+
+    public void release() {
+        releaseProperties();
+    }
 }
\ No newline at end of file
@@ -9,30 +9,23 @@ import java.awt.Shape;
 import java.awt.font.FontRenderContext;
 import java.awt.geom.Rectangle2D;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.Group;
+import ui.toolkit.property.Property;
 
-public class Text implements GraphicalObject {
+public class Text extends TextProperties implements GraphicalObject {
     /**
      * Text class: texts
      */
-    private String text;
-    private int x, y;
-    private Font font;
-    private Color color;
+    @Property String text;
+    @Property int x, y;
+    @Property Font font;
+    @Property Color color;
     private Group group = null;
 
     private FontRenderContext context = new FontRenderContext(null, true, false);
 
     public static final Font DEFAULT_FONT = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
 
-    private Constraint<String> textConstraint = new NoConstraint<>();
-    private Constraint<Integer> xConstraint = new NoConstraint<>();
-    private Constraint<Integer> yConstraint = new NoConstraint<>();
-    private Constraint<Font> fontConstraint = new NoConstraint<>();
-    private Constraint<Color> colorConstraint = new NoConstraint<>();
-
     /**
      * Constructors
      */
@@ -56,164 +49,6 @@ public class Text implements GraphicalObject {
         this("Text");
     }
 
-    /**
-     * Getters, setters and "users"
-     * 
-     * Note: user (e.g. useX) returns the constraint on the variable (X)
-     */    
-    public int getX() {
-        if (xConstraint.isConstrained()) {
-            this.x = xConstraint.evaluate();
-        }
-        return this.x;
-    }
-
-    public void setX(int x) {
-        if (this.x != x) {
-            if (!xConstraint.isConstrained()) {
-                this.x = x;
-                xConstraint.notifyValueChange(false);
-            } else if (xConstraint.hasCycle()) {
-                // if no cycle, set a constrained x is no-op
-                // if cycle, set local value and do multi-way constraint
-                xConstraint.setValue(x);
-                xConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setX(Constraint<Integer> constraint) {
-        // update dependency graph for the new constraint
-        xConstraint.replaceWithConstraint(constraint);
-        xConstraint = constraint;
-        xConstraint.setValue(this.x);
-        xConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useX() {
-        return this.xConstraint;
-    }
-
-    public int getY() {
-        if (yConstraint.isConstrained()) {
-            this.y = yConstraint.evaluate();
-        }
-        return this.y;
-    }
-
-    public void setY(int y) {
-        if (this.y != y) {
-            if (!yConstraint.isConstrained()) {
-                this.y = y;
-                yConstraint.notifyValueChange(false);
-            } else if (yConstraint.hasCycle()) {
-                yConstraint.setValue(y);
-                yConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setY(Constraint<Integer> constraint) {
-        yConstraint.replaceWithConstraint(constraint);
-        yConstraint = constraint;
-        yConstraint.setValue(this.y);
-        yConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Integer> useY() {
-        return this.yConstraint;
-    }
-
-    public String getText() {
-        if (textConstraint.isConstrained()) {
-            this.text = textConstraint.evaluate();
-        }
-        return this.text;
-    }
-
-    public void setText(String text) {
-        if (this.text != text) {
-            if (!textConstraint.isConstrained()) {
-                this.text = text;
-                textConstraint.notifyValueChange(false);
-            } else if (textConstraint.hasCycle()) {
-                textConstraint.setValue(text);
-                textConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setText(Constraint<String> constraint) {
-        textConstraint.replaceWithConstraint(constraint);
-        textConstraint = constraint;
-        textConstraint.setValue(this.text);
-        textConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<String> useText() {
-        return this.textConstraint;
-    }
-
-    public Font getFont() {
-        if (fontConstraint.isConstrained()) {
-            this.font = fontConstraint.evaluate();
-        }
-        return this.font;
-    }
-
-    public void setFont(Font font) {
-        if (this.font != font) {
-            if (!fontConstraint.isConstrained()) {
-                this.font = font;
-                fontConstraint.notifyValueChange(false);
-            } else if (fontConstraint.hasCycle()) {
-                fontConstraint.setValue(font);
-                fontConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setFont(Constraint<Font> constraint) {
-        fontConstraint.replaceWithConstraint(constraint);
-        fontConstraint = constraint;
-        fontConstraint.setValue(this.font);
-        fontConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Font> useFont() {
-        return this.fontConstraint;
-    }
-    
-    public Color getColor() {
-        if (colorConstraint.isConstrained()) {
-            this.color = colorConstraint.evaluate();
-        }
-        return this.color;
-    }
-
-    public void setColor(Color color) {
-        if (this.color != color) {
-            if (!colorConstraint.isConstrained()) {
-                this.color = color;
-                colorConstraint.notifyValueChange(false);
-            } else if (colorConstraint.hasCycle()) {
-                colorConstraint.setValue(color);
-                colorConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setColor(Constraint<Color> constraint) {
-        colorConstraint.replaceWithConstraint(constraint);
-        colorConstraint = constraint;
-        colorConstraint.setValue(this.color);
-        colorConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Color> useColor() {
-        return this.colorConstraint;
-    }
-
     /**
      * Text-specific attributes
      */
@@ -317,4 +152,8 @@ public class Text implements GraphicalObject {
     public boolean contains(Point pt) {
         return contains(pt.x, pt.y);
     }
+
+    public void release() {
+        releaseProperties();
+    }
 }
\ No newline at end of file
@@ -2,19 +2,17 @@ package ui.toolkit.graphics.object.selectable;
 
 import java.awt.Color;
 
-import ui.toolkit.constraint.Constraint;
-import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.object.FilledEllipse;
+import ui.toolkit.property.Properties;
+import ui.toolkit.property.Property;
 
-public class SelectableFilledEllipse extends FilledEllipse implements SelectableGraphicalObject {
+@Properties(superclass = FilledEllipse.class)
+public class SelectableFilledEllipse extends SelectableFilledEllipseProperties implements SelectableGraphicalObject {
     /**
      * SelectableFilledEllipse class: selectable filled ellipses
      */
-    private boolean interimSelected = false;
-    private boolean selected = false;
-
-    private Constraint<Boolean> interimSelectedConstraint = new NoConstraint<>();
-    private Constraint<Boolean> selectedConstraint = new NoConstraint<>();
+    @Property boolean interimSelected = false;
+    @Property boolean selected = false;
 
     /**
      * Constructors
@@ -26,67 +24,4 @@ public class SelectableFilledEllipse extends FilledEllipse implements Selectable
     public SelectableFilledEllipse() {
         super();
     }
-
-    /**
-     * Getters, setters and "users"
-     */
-    public boolean isInterimSelected() {
-        if (interimSelectedConstraint.isConstrained()) {
-            this.interimSelected = interimSelectedConstraint.evaluate();
-        }
-        return this.interimSelected;
-    }
-
-    public void setInterimSelected(boolean interimSelected) {
-        if (this.interimSelected != interimSelected) {
-            if (!interimSelectedConstraint.isConstrained()) {
-                this.interimSelected = interimSelected;
-                interimSelectedConstraint.notifyValueChange(false);
-            } else if (interimSelectedConstraint.hasCycle()) {
-                interimSelectedConstraint.setValue(interimSelected);
-                interimSelectedConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setInterimSelected(Constraint<Boolean> constraint) {
-        interimSelectedConstraint.replaceWithConstraint(constraint);
-        interimSelectedConstraint = constraint;
-        interimSelectedConstraint.setValue(this.interimSelected);
-        interimSelectedConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Boolean> useInterimSelected() {
-        return this.interimSelectedConstraint;
-    }
-
-    public boolean isSelected() {
-        if (selectedConstraint.isConstrained()) {
-            this.selected = selectedConstraint.evaluate();
-        }
-        return this.selected;
-    }
-
-    public void setSelected(boolean selected) {
-        if (this.selected != selected) {
-            if (!selectedConstraint.isConstrained()) {
-                this.selected = selected;
-                selectedConstraint.notifyValueChange(false);
-            } else if (selectedConstraint.hasCycle()) {
-                selectedConstraint.setValue(selected);
-                selectedConstraint.notifyValueChange(false);
-            }
-        }
-    }
-
-    public void setSelected(Constraint<Boolean> constraint) {
-        selectedConstraint.replaceWithConstraint(constraint);
-        selectedConstraint = constraint;
-        selectedConstraint.setValue(this.selected);
-        selectedConstraint.notifyValueChange(true);
-    }
-
-    public Constraint<Boolean> useSelected() {
-        return this.selectedConstraint;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ui.toolkit.property;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Properties annotation: the superclass of the class generated for the
+ * @Property fields of a class, if not Object
+ *
+ *     @Properties(superclass = OutlineRect.class)
+ *     public class SelectableOutlineRect extends SelectableOutlineRectProperties {
+ *
+ * The generated class extends the superclass and has its constructors.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface Properties {
+    Class<?> superclass() default Object.class;
+}
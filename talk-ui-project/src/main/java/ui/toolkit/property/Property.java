@@ -0,0 +1,31 @@
+package ui.toolkit.property;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Property annotation: a constrainable property of a graphical object
+ *
+ * For every field marked @Property in a class C, PropertyProcessor
+ * generates getX(), setX(value), setX(Constraint), useX() and the field
+ * xConstraint into the abstract class CProperties, which C extends:
+ *
+ *     public class OutlineRect extends OutlineRectProperties implements Rect {
+ *         @Property int x, y, width, height;
+ *
+ * The field holds the value and must not be private, so the generated
+ * accessors can reach it. This is a trade-off against the hand-written
+ * accessors, whose fields were private: any class of the package can now
+ * read or write the value directly, bypassing its constraint. Moving the
+ * value into the generated class would instead need C to stop using the
+ * field, e.g. in its constructors and contains(). Outside the package the
+ * accessors remain the only way in. A boolean property is read with isX().
+ * release() of C calls the generated releaseProperties(), which disposes
+ * the constraints.
+ */
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.FIELD)
+public @interface Property {
+}
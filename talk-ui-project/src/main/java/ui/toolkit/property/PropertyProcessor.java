@@ -0,0 +1,333 @@
+package ui.toolkit.property;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+@SupportedAnnotationTypes({ "ui.toolkit.property.Property", "ui.toolkit.property.Properties" })
+public class PropertyProcessor extends AbstractProcessor {
+    /**
+     * PropertyProcessor class: generates the accessors of @Property fields
+     *
+     * For a class C with @Property fields, generates the abstract class
+     * CProperties that C extends. For each field x it has the field
+     * xConstraint and the methods getX() (isX() for a boolean), setX(value),
+     * setX(Constraint) and useX(), the code every graphical object used to
+     * write by hand, reading and writing the field of C directly; only an
+     * unused property goes through NoConstraint, so that a TrackedObserver
+     * reading it does not allocate its constraint. It also
+     * has releaseProperties(), which disposes the constraints of the
+     * properties of C and of its superclasses, and a static initializer
+     * that declares the properties to PropertyTable, with a lambda per
+     * accessor, so that PropertySheet and IntProperty find them without
+     * reflection.
+     *
+     * Run by the second compiler execution of the build (see pom.xml), after
+     * the first has compiled this package.
+     */
+    private static final String PROPERTY = Property.class.getCanonicalName();
+    private static final String PROPERTIES = Properties.class.getCanonicalName();
+    private static final String CONSTRAINT = "ui.toolkit.constraint.Constraint";
+    private static final String NO_CONSTRAINT = "ui.toolkit.constraint.NoConstraint";
+    private static final String TABLE = "ui.toolkit.constraint.PropertyTable";
+    private static final String SUFFIX = "Properties";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Map<TypeElement, List<VariableElement>> owners = new LinkedHashMap<>();
+        for (Element element : round.getElementsAnnotatedWith(Property.class)) {
+            if (element.getKind() != ElementKind.FIELD) {
+                continue;
+            }
+            VariableElement field = (VariableElement) element;
+            if (field.getModifiers().contains(Modifier.PRIVATE) || field.getModifiers().contains(Modifier.STATIC)
+                    || field.getModifiers().contains(Modifier.FINAL)) {
+                error(field, "a @Property field must not be private, static or final");
+                continue;
+            }
+            TypeElement owner = (TypeElement) field.getEnclosingElement();
+            owners.computeIfAbsent(owner, key -> new ArrayList<>()).add(field);
+        }
+        for (Map.Entry<TypeElement, List<VariableElement>> entry : owners.entrySet()) {
+            try {
+                generate(entry.getKey(), entry.getValue());
+            } catch (IOException e) {
+                error(entry.getKey(), "cannot write " + entry.getKey().getSimpleName() + SUFFIX + ": " + e);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement owner, List<VariableElement> fields) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(owner).getQualifiedName().toString();
+        String ownerName = owner.getSimpleName().toString();
+        String className = ownerName + SUFFIX;
+        TypeElement superclass = superclassOf(owner);
+        String superName = superclass.getQualifiedName().toString();
+        boolean chained = hasProperties(superclass);
+
+        StringBuilder out = new StringBuilder();
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("// generated by ").append(PropertyProcessor.class.getName())
+                .append(" from the @Property fields of ").append(ownerName).append(", do not edit\n");
+        out.append("@SuppressWarnings(\"unchecked\")\n");
+        out.append("public abstract class ").append(className);
+        if (!superName.equals(Object.class.getName())) {
+            out.append(" extends ").append(superName);
+        }
+        out.append(" {\n");
+        for (VariableElement field : fields) {
+            String name = field.getSimpleName().toString();
+            out.append("    private ").append(constraintType(field)).append(' ').append(name)
+                    .append("Constraint = ").append(NO_CONSTRAINT).append(".unused();\n");
+        }
+
+        out.append("\n    static {\n");
+        out.append("        ").append(TABLE).append(".declare(").append(ownerName).append(".class");
+        for (VariableElement field : fields) {
+            out.append(",\n");
+            appendDeclaration(out, ownerName, className, field);
+        }
+        out.append(");\n    }\n");
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(superclass.getEnclosedElements())) {
+            if (!constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                appendConstructor(out, className, constructor);
+            }
+        }
+        for (VariableElement field : fields) {
+            appendAccessors(out, ownerName, field);
+        }
+
+        out.append("\n    // dispose the constraints of the properties, see GraphicalObject.release()\n");
+        out.append("    protected void releaseProperties() {\n");
+        if (chained) {
+            out.append("        super.releaseProperties();\n");
+        }
+        for (VariableElement field : fields) {
+            out.append("        ").append(field.getSimpleName()).append("Constraint.dispose();\n");
+        }
+        out.append("    }\n}\n");
+
+        try (Writer writer = processingEnv.getFiler()
+                .createSourceFile(packageName + "." + className, owner).openWriter()) {
+            writer.write(out.toString());
+        }
+    }
+
+    private void appendDeclaration(StringBuilder out, String ownerName, String className, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = capitalize(name);
+        TypeMirror type = field.asType();
+        String self = "((" + ownerName + ") owner)";
+        String getter = self + "." + getterName(field) + "()";
+        out.append("            ").append(TABLE).append(".property(\"").append(beanName(capitalized)).append("\", ")
+                .append(erasure(type)).append(".class,\n");
+        out.append("                owner -> ").append(getter).append(",\n");
+        out.append("                ").append(type.getKind() == TypeKind.INT ? "owner -> " + getter : "null")
+                .append(",\n");
+        out.append("                (owner, value) -> ").append(self).append(".set").append(capitalized)
+                .append("((").append(boxed(type)).append(") value),\n");
+        out.append("                owner -> ((").append(className).append(") owner).").append(name)
+                .append("Constraint,\n");
+        out.append("                owner -> ").append(self).append(".use").append(capitalized).append("(),\n");
+        out.append("                (owner, constraint) -> ").append(self).append(".set").append(capitalized)
+                .append("((").append(constraintType(field)).append(") constraint))");
+    }
+
+    private void appendConstructor(StringBuilder out, String className, ExecutableElement constructor) {
+        List<? extends VariableElement> parameters = constructor.getParameters();
+        StringBuilder declared = new StringBuilder();
+        StringBuilder passed = new StringBuilder();
+        for (int i = 0; i < parameters.size(); ++i) {
+            if (i > 0) {
+                declared.append(", ");
+                passed.append(", ");
+            }
+            String type = parameters.get(i).asType().toString();
+            if (constructor.isVarArgs() && i == parameters.size() - 1) {
+                type = type.substring(0, type.length() - 2) + "...";
+            }
+            declared.append(type).append(' ').append(parameters.get(i).getSimpleName());
+            passed.append(parameters.get(i).getSimpleName());
+        }
+        out.append("\n    protected ").append(className).append('(').append(declared).append(')');
+        if (!constructor.getThrownTypes().isEmpty()) {
+            out.append(" throws ");
+            for (int i = 0; i < constructor.getThrownTypes().size(); ++i) {
+                out.append(i > 0 ? ", " : "").append(constructor.getThrownTypes().get(i));
+            }
+        }
+        out.append(" {\n        super(").append(passed).append(");\n    }\n");
+    }
+
+    private void appendAccessors(StringBuilder out, String ownerName, VariableElement field) {
+        String name = field.getSimpleName().toString();
+        String capitalized = capitalize(name);
+        String type = field.asType().toString();
+        String constraint = name + "Constraint";
+        String self = "((" + ownerName + ") this)";
+
+        out.append("\n    public ").append(type).append(' ').append(getterName(field)).append("() {\n");
+        out.append("        if (").append(CONSTRAINT).append(".isCapturing()) {\n");
+        out.append("            ").append(constraint).append(" = ").append(NO_CONSTRAINT).append(".track(this, ")
+                .append(constraint).append(");\n");
+        out.append("        }\n");
+        out.append("        if (").append(constraint).append(".isConstrained()) {\n");
+        out.append("            ").append(self).append('.').append(name).append(" = ")
+                .append(evaluation(field.asType(), constraint)).append(";\n");
+        out.append("        }\n");
+        out.append("        return ").append(self).append('.').append(name).append(";\n");
+        out.append("    }\n");
+
+        out.append("\n    public void set").append(capitalized).append('(').append(type).append(' ').append(name)
+                .append(") {\n");
+        out.append("        if (").append(self).append('.').append(name).append(" != ").append(name).append(") {\n");
+        out.append("            if (!").append(constraint).append(".isConstrained()) {\n");
+        out.append("                ").append(self).append('.').append(name).append(" = ").append(name)
+                .append(";\n");
+        out.append("                ").append(NO_CONSTRAINT).append(".changed(this, ").append(constraint)
+                .append(");\n");
+        out.append("            } else if (").append(constraint).append(".hasCycle()) {\n");
+        out.append("                // if no cycle, set a constrained ").append(name).append(" is no-op\n");
+        out.append("                // if cycle, set local value and do multi-way constraint\n");
+        out.append("                ").append(constraint).append(".setValue(").append(name).append(");\n");
+        out.append("                ").append(constraint).append(".notifyValueChange(false);\n");
+        out.append("            }\n");
+        out.append("        }\n");
+        out.append("    }\n");
+
+        out.append("\n    public void set").append(capitalized).append('(').append(constraintType(field))
+                .append(" constraint) {\n");
+        out.append("        // update dependency graph for the new constraint\n");
+        out.append("        ").append(NO_CONSTRAINT).append(".replace(this, ").append(constraint)
+                .append(", constraint);\n");
+        out.append("        ").append(constraint).append(" = constraint;\n");
+        out.append("        ").append(constraint).append(".setValue(").append(self).append('.').append(name)
+                .append(");\n");
+        out.append("        ").append(constraint).append(".notifyValueChange(true);\n");
+        out.append("    }\n");
+
+        out.append("\n    public ").append(constraintType(field)).append(" use").append(capitalized).append("() {\n");
+        out.append("        if (").append(NO_CONSTRAINT).append(".isUnused(").append(constraint).append(")) {\n");
+        out.append("            ").append(constraint).append(" = ").append(NO_CONSTRAINT).append(".use(this, ")
+                .append(constraint).append(");\n");
+        out.append("        }\n");
+        out.append("        return this.").append(constraint).append(";\n");
+        out.append("    }\n");
+    }
+
+    // evaluated without boxing where the constraint classes allow it
+    private static String evaluation(TypeMirror type, String constraint) {
+        switch (type.getKind()) {
+        case INT:
+            return "ui.toolkit.constraint.IntConstraint.evaluateInt(" + constraint + ")";
+        case DOUBLE:
+            return "ui.toolkit.constraint.DoubleConstraint.evaluateDouble(" + constraint + ")";
+        case BOOLEAN:
+            return "ui.toolkit.constraint.BooleanConstraint.evaluateBoolean(" + constraint + ")";
+        default:
+            return constraint + ".evaluate()";
+        }
+    }
+
+    /**
+     * The superclass named by @Properties, or Object
+     */
+    private TypeElement superclassOf(TypeElement owner) {
+        for (AnnotationMirror annotation : owner.getAnnotationMirrors()) {
+            if (!annotation.getAnnotationType().toString().equals(PROPERTIES)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+                    : annotation.getElementValues().entrySet()) {
+                if (value.getKey().getSimpleName().contentEquals("superclass")) {
+                    return (TypeElement) ((DeclaredType) value.getValue().getValue()).asElement();
+                }
+            }
+        }
+        return processingEnv.getElementUtils().getTypeElement(Object.class.getName());
+    }
+
+    // whether a class generated for a superclass has releaseProperties() too
+    private boolean hasProperties(TypeElement type) {
+        for (TypeElement current = type; current != null; current = superclassOf(current)) {
+            for (VariableElement field : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+                    if (annotation.getAnnotationType().toString().equals(PROPERTY)) {
+                        return true;
+                    }
+                }
+            }
+            if (current.getQualifiedName().contentEquals(Object.class.getName())) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private String constraintType(VariableElement field) {
+        return CONSTRAINT + "<" + boxed(field.asType()) + ">";
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass(processingEnv.getTypeUtils().getPrimitiveType(
+                    type.getKind())).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return type.getKind().isPrimitive() ? type.toString()
+                : processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private static String getterName(VariableElement field) {
+        String prefix = (field.asType().getKind() == TypeKind.BOOLEAN) ? "is" : "get";
+        return prefix + capitalize(field.getSimpleName().toString());
+    }
+
+    // the name java.beans.Introspector gives the property: getNRows() is "NRows"
+    private static String beanName(String capitalized) {
+        if (capitalized.length() > 1 && Character.isUpperCase(capitalized.charAt(1))) {
+            return capitalized;
+        }
+        return Character.toLowerCase(capitalized.charAt(0)) + capitalized.substring(1);
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
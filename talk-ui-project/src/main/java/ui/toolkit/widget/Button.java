@@ -4,7 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 
-import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -41,8 +41,8 @@ public class Button extends SelectableFilledRect {
     private void setupAlignment(SelectableFilledRect box, GraphicalObject label) {
         String labelType = label.getClass().getSimpleName();
 
-        label.setX(new Constraint<Integer>(box.useX()) {
-            public Integer getValue() {
+        label.setX(new IntConstraint(box.useX()) {
+            public int getIntValue() {
                 return box.getX();
             }
         });
@@ -50,8 +50,8 @@ public class Button extends SelectableFilledRect {
         switch (labelType) {
             case "Text": {
                 Text textLabel = (Text) label;
-                textLabel.setY(new Constraint<Integer>(box.useY()) {
-                    public Integer getValue() {
+                textLabel.setY(new IntConstraint(box.useY(), textLabel.useFont()) {
+                    public int getIntValue() {
                         return box.getY() + textLabel.getAscent();
                     }
                 });
@@ -60,26 +60,26 @@ public class Button extends SelectableFilledRect {
             case "Line": {
                 Line lineLabel = (Line) label;
                 lineLabel.setInvariant(true);
-                lineLabel.setX2(new Constraint<Integer>(lineLabel.useX1()) {
-                    public Integer getValue() {
+                lineLabel.setX2(new IntConstraint(lineLabel.useX1()) {
+                    public int getIntValue() {
                         return lineLabel.getX1() + lineLabel.getDx();
                     }
                 });
-                lineLabel.setY2(new Constraint<Integer>(lineLabel.useY1()) {
-                    public Integer getValue() {
+                lineLabel.setY2(new IntConstraint(lineLabel.useY1()) {
+                    public int getIntValue() {
                         return lineLabel.getY1() + lineLabel.getDy();
                     }
                 });
-                lineLabel.setY(new Constraint<Integer>(box.useY()) {
-                    public Integer getValue() {
+                lineLabel.setY(new IntConstraint(box.useY(), lineLabel.useLineThickness()) {
+                    public int getIntValue() {
                         return box.getY() + lineLabel.getLineThickness();
                     }
                 });
                 break;
             }
             default: {
-                label.setY(new Constraint<Integer>(box.useY()) {
-                    public Integer getValue() {
+                label.setY(new IntConstraint(box.useY()) {
+                    public int getIntValue() {
                         return box.getY();
                     }
                 });
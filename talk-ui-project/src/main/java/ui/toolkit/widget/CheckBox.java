@@ -4,7 +4,7 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Shape;
 
-import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.object.BoundaryRectangle;
 import ui.toolkit.graphics.object.GraphicalObject;
@@ -41,20 +41,20 @@ public class CheckBox extends SelectableOutlineRect {
     }
 
     private void setupAlignment(SelectableOutlineRect option, Text indicator, GraphicalObject label) {
-        indicator.setX(new Constraint<Integer>(option.useX()) {
-            public Integer getValue() {
+        indicator.setX(new IntConstraint(option.useX(), option.useWidth(), indicator.useText(), indicator.useFont()) {
+            public int getIntValue() {
                 return option.getX() + (option.getWidth() - indicator.getWidth()) / 2;
             }
         });
 
-        indicator.setY(new Constraint<Integer>(option.useY()) {
-            public Integer getValue() {
+        indicator.setY(new IntConstraint(option.useY(), option.useHeight(), indicator.useFont()) {
+            public int getIntValue() {
                 return option.getY() + (option.getHeight() - indicator.getHeight()) / 2 + indicator.getAscent();
             }
         });
 
-        label.setX(new Constraint<Integer>(option.useX()) {
-            public Integer getValue() {
+        label.setX(new IntConstraint(option.useX(), option.useWidth()) {
+            public int getIntValue() {
                 return option.getX() + option.getWidth() * 2;
             }
         });
@@ -64,8 +64,8 @@ public class CheckBox extends SelectableOutlineRect {
         switch (labelType) {
             case "Text": {
                 Text textLabel = (Text) label;
-                textLabel.setY(new Constraint<Integer>(option.useY()) {
-                    public Integer getValue() {
+                textLabel.setY(new IntConstraint(option.useY(), textLabel.useFont()) {
+                    public int getIntValue() {
                         return option.getY() + textLabel.getAscent();
                     }
                 });
@@ -74,25 +74,25 @@ public class CheckBox extends SelectableOutlineRect {
             case "Line": {
                 Line lineLabel = (Line) label;
                 lineLabel.setInvariant(true);
-                lineLabel.setX2(new Constraint<Integer>(lineLabel.useX1()) {
-                    public Integer getValue() {
+                lineLabel.setX2(new IntConstraint(lineLabel.useX1()) {
+                    public int getIntValue() {
                         return lineLabel.getX1() + lineLabel.getDx();
                     }
                 });
-                lineLabel.setY2(new Constraint<Integer>(lineLabel.useY1()) {
-                    public Integer getValue() {
+                lineLabel.setY2(new IntConstraint(lineLabel.useY1()) {
+                    public int getIntValue() {
                         return lineLabel.getY1() + lineLabel.getDy();
                     }
                 });
-                lineLabel.setY(new Constraint<Integer>(option.useY()) {
-                    public Integer getValue() {
+                lineLabel.setY(new IntConstraint(option.useY(), lineLabel.useLineThickness()) {
+                    public int getIntValue() {
                         return option.getY() + lineLabel.getLineThickness();
                     }
                 });
             }
             default: {
-                label.setY(new Constraint<Integer>(option.useY()) {
-                    public Integer getValue() {
+                label.setY(new IntConstraint(option.useY()) {
+                    public int getIntValue() {
                         return option.getY();
                     }
                 });
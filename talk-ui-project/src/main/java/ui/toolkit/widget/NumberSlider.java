@@ -6,6 +6,7 @@ import ui.toolkit.behavior.BehaviorEvent;
 import ui.toolkit.behavior.ChoiceBehavior;
 import ui.toolkit.behavior.MoveBehavior;
 import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.IntConstraint;
 import ui.toolkit.constraint.SetupConstraint;
 import ui.toolkit.graphics.group.SimpleGroup;
 import ui.toolkit.graphics.object.FilledEllipse;
@@ -92,23 +93,23 @@ public class NumberSlider extends Widget<Integer> {
 
         // Set up a bunch of constraints
         // 1. slider should not leave the bar
-        slider.setY(new Constraint<Integer>(bar.useY()) {
-            public Integer getValue() {
+        slider.setY(new IntConstraint(bar.useY(), slider.useHeight()) {
+            public int getIntValue() {
                 return bar.getY() - slider.getHeight() / 2;
             }
         });
 
         // 2. slider position should align with current value
-        slider.setX(new Constraint<Integer>(this.useValue()) {
-            public Integer getValue() {
+        slider.setX(new IntConstraint(this.useValue(), bar.useX(), bar.useWidth(), slider.useWidth()) {
+            public int getIntValue() {
                 int currentValue = getThis().getValue();
                 double proportion = (double) (currentValue - minValue) / (maxValue - minValue);
                 proportion = Math.min(1.0, Math.max(0.0, proportion));
                 return bar.getX() + (int) (bar.getWidth() * proportion) - slider.getWidth() / 2;
             }
         });
-        this.setValue(new Constraint<Integer>(slider.useX()) {
-            public Integer getValue() {
+        this.setValue(new IntConstraint(slider.useX(), slider.useWidth(), bar.useX(), bar.useWidth()) {
+            public int getIntValue() {
                 int currentX = slider.getX() + slider.getWidth() / 2;
                 double proportion = (double) (currentX - bar.getX()) / bar.getWidth();
                 proportion = Math.min(1.0, Math.max(0.0, proportion));
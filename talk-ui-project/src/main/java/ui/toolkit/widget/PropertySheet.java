@@ -9,6 +9,7 @@ import javax.swing.*;
 import javax.swing.event.*;
 
 import ui.toolkit.behavior.InteractiveWindowGroup;
+import ui.toolkit.constraint.PropertyTable;
 
 /**
  * A component filled with editors for all editable properties of an object.
@@ -24,7 +25,8 @@ public class PropertySheet extends JPanel {
      * Constructs a property sheet that shows the editable properties of a given
      * object.
      * 
-     * @param object the object whose properties are being edited
+     * @param object      the object whose properties are being edited
+     * @param parentFrame the window to redraw after an edit, or null
      */
     public PropertySheet(Object bean, InteractiveWindowGroup parentFrame) {
         this.parentFrame = parentFrame;
@@ -55,8 +57,10 @@ public class PropertySheet extends JPanel {
                 }
             }
 
-            parentFrame.getCanvas().updateUI();
-            parentFrame.getCanvas().repaint();
+            if (parentFrame != null) {
+                parentFrame.getCanvas().updateUI();
+                parentFrame.getCanvas().repaint();
+            }
         } catch (IntrospectionException exception) {
             exception.printStackTrace();
         }
@@ -66,6 +70,10 @@ public class PropertySheet extends JPanel {
      * Gets the property editor for a given property, and wires it so that it
      * updates the given object.
      * 
+     * The value is read and written through the PropertyTable of the class
+     * when it has the property, and through the descriptor's methods
+     * otherwise.
+     * 
      * @param bean       the object whose properties are being edited
      * @param descriptor the descriptor of the property to be edited
      * @return a property editor that edits the property with the given descriptor
@@ -90,7 +98,10 @@ public class PropertySheet extends JPanel {
                 return null;
             }
 
-            Object value = getter.invoke(bean, new Object[] {});
+            final PropertyTable.Property property = PropertyTable.of(bean.getClass()).get(descriptor.getName());
+            final boolean fast = property != null && property.isWritable()
+                    && property.getType() == descriptor.getPropertyType();
+            Object value = fast ? property.get(bean) : getter.invoke(bean, new Object[] {});
             editor.setValue(value);
             editor.addPropertyChangeListener(new PropertyChangeListener() {
                 public void propertyChange(PropertyChangeEvent event) {
@@ -99,8 +110,14 @@ public class PropertySheet extends JPanel {
                             System.out.println("trying to invoke setter method " + setter.getName() + "...");
                         }
 
-                        setter.invoke(bean, new Object[] { editor.getValue() });
-                        parentFrame.redraw();
+                        if (fast) {
+                            property.set(bean, editor.getValue());
+                        } else {
+                            setter.invoke(bean, new Object[] { editor.getValue() });
+                        }
+                        if (parentFrame != null) {
+                            parentFrame.requestFrame();
+                        }
                         if (DEBUG) {
                             System.out.println("set invoked with new value " + editor.getValue());
                         }
@@ -108,6 +125,8 @@ public class PropertySheet extends JPanel {
                         exception.printStackTrace();
                     } catch (InvocationTargetException exception) {
                         exception.printStackTrace();
+                    } catch (RuntimeException exception) {
+                        exception.printStackTrace();
                     }
                 }
             });
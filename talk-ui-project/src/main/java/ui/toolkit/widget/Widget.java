@@ -4,8 +4,11 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Shape;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 
 import ui.toolkit.behavior.Behavior;
+import ui.toolkit.constraint.AggregateConstraint;
 import ui.toolkit.constraint.Constraint;
 import ui.toolkit.constraint.NoConstraint;
 import ui.toolkit.graphics.group.Group;
@@ -18,7 +21,7 @@ public class Widget<T> implements Group {
     protected Group widget;
 
     protected T value = null;
-    protected Constraint<T> valueConstraint = new NoConstraint<>();
+    protected Constraint<T> valueConstraint = NoConstraint.unused();
 
     public static final int NO_LAYOUT = -1;
     public static final int HORIZONTAL_LAYOUT = LayoutGroup.HORIZONTAL;
@@ -39,6 +42,9 @@ public class Widget<T> implements Group {
      * Getter, setter and "user" for value
      */
     public T getValue() {
+        if (Constraint.isCapturing()) {
+            useValue().track();
+        }
         if (valueConstraint.isConstrained()) {
             this.value = valueConstraint.evaluate();
         }
@@ -67,6 +73,9 @@ public class Widget<T> implements Group {
     }
 
     public Constraint<T> useValue() {
+        if (NoConstraint.isUnused(valueConstraint)) {
+            valueConstraint = new NoConstraint<>();
+        }
         return this.valueConstraint;
     }
 
@@ -97,6 +106,11 @@ public class Widget<T> implements Group {
         return this;
     }
 
+    public Widget<T> deleteChild(GraphicalObject child) {
+        widget.deleteChild(child);
+        return this;
+    }
+
     @Override
     public Group addChildToTop(GraphicalObject child) throws AlreadyHasGroupRunTimeException {
         return null;
@@ -147,6 +161,19 @@ public class Widget<T> implements Group {
         return widget.getChildren();
     }
 
+    public GraphicalObject childAt(Point pt, Predicate<GraphicalObject> filter) {
+        return widget.childAt(pt, filter);
+    }
+
+    public AggregateConstraint aggregate(AggregateConstraint.Operation operation,
+            ToIntFunction<GraphicalObject> measure) {
+        return widget.aggregate(operation, measure);
+    }
+
+    public Constraint<Integer> childCount() {
+        return widget.childCount();
+    }
+
     public Point parentToChild(Point pt) {
         return widget.parentToChild(pt);
     }
@@ -209,4 +236,9 @@ public class Widget<T> implements Group {
     public void setY(Constraint<Integer> constraint) {
         widget.setY(constraint);
     }
+
+    public void release() {
+        valueConstraint.dispose();
+        widget.release();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,117 @@
+package ui.toolkit;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.TrackedObserver;
+import ui.toolkit.graphics.group.LayoutGroup;
+import ui.toolkit.graphics.group.ScaledGroup;
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.Ellipse;
+import ui.toolkit.graphics.object.FilledEllipse;
+import ui.toolkit.graphics.object.FilledRect;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.Icon;
+import ui.toolkit.graphics.object.Line;
+import ui.toolkit.graphics.object.OutlineRect;
+import ui.toolkit.graphics.object.Text;
+import ui.toolkit.graphics.object.selectable.SelectableOutlineRect;
+import ui.toolkit.graphics.object.selectable.SelectableText;
+
+/**
+ * Measures the retained heap per graphical object, with the property
+ * constraints left unused (the common case), observed by a TrackedObserver
+ * on its getBoundingBox() as in a SpatialIndex (observer included), and
+ * with every useX() called, which is what every object used to allocate up
+ * front.
+ *
+ * Run with: java -Xmx2g ui.toolkit.MemoryFootprintBenchmark [objectsPerType]
+ */
+public class MemoryFootprintBenchmark {
+    private enum Slots { UNUSED, OBSERVED, ALL_USED }
+
+    public static void main(String[] args) throws Exception {
+        int count = (args.length > 0) ? Integer.parseInt(args[0]) : 200000;
+
+        Map<String, Supplier<GraphicalObject>> types = new LinkedHashMap<>();
+        types.put("OutlineRect", OutlineRect::new);
+        types.put("FilledRect", FilledRect::new);
+        types.put("Ellipse", Ellipse::new);
+        types.put("FilledEllipse", FilledEllipse::new);
+        types.put("Line", Line::new);
+        types.put("Text", Text::new);
+        types.put("Icon", Icon::new);
+        types.put("SelectableOutlineRect", SelectableOutlineRect::new);
+        types.put("SelectableText", SelectableText::new);
+        types.put("SimpleGroup", SimpleGroup::new);
+        types.put("ScaledGroup", ScaledGroup::new);
+        types.put("LayoutGroup", LayoutGroup::new);
+
+        System.out.println(String.format("%-22s %14s %14s %14s", "type", "unused (B)", "observed (B)",
+                "all used (B)"));
+        for (Map.Entry<String, Supplier<GraphicalObject>> type : types.entrySet()) {
+            System.out.println(String.format("%-22s %14.1f %14.1f %14.1f", type.getKey(),
+                    bytesPerObject(type.getValue(), count, Slots.UNUSED),
+                    bytesPerObject(type.getValue(), count, Slots.OBSERVED),
+                    bytesPerObject(type.getValue(), count, Slots.ALL_USED)));
+        }
+    }
+
+    private static double bytesPerObject(Supplier<GraphicalObject> factory, int count, Slots slots)
+            throws Exception {
+        // warm up the class, its users and the allocation path
+        useSlots(factory.get(), slots);
+
+        long before = usedHeap();
+        List<Object> objects = new ArrayList<>(count);
+        long listSize = usedHeap() - before;
+        for (int i = 0; i < count; ++i) {
+            objects.add(useSlots(factory.get(), slots));
+        }
+        long after = usedHeap();
+        if (objects.size() != count) {
+            throw new IllegalStateException();
+        }
+        return (double) (after - before - listSize) / count;
+    }
+
+    // what keeps the object alive
+    private static Object useSlots(GraphicalObject object, Slots slots) throws Exception {
+        if (slots == Slots.OBSERVED) {
+            TrackedObserver<BoundaryRectangle> observer = new TrackedObserver<>(object::getBoundingBox, () -> {});
+            observer.evaluate();
+            return observer;
+        }
+        if (slots == Slots.ALL_USED) {
+            for (Method method : object.getClass().getMethods()) {
+                if (method.getName().startsWith("use") && method.getParameterCount() == 0
+                        && Constraint.class.isAssignableFrom(method.getReturnType())) {
+                    method.invoke(object);
+                }
+            }
+        }
+        return object;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // repeat until a full collection no longer frees anything
+        for (int i = 0; i < 10; ++i) {
+            System.gc();
+            Thread.sleep(20);
+            long now = runtime.totalMemory() - runtime.freeMemory();
+            if (now >= used) {
+                return now;
+            }
+            used = now;
+        }
+        return used;
+    }
+}
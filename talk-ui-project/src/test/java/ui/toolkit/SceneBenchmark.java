@@ -0,0 +1,218 @@
+package ui.toolkit;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import ui.talk.InteractionOutcome;
+import ui.toolkit.behavior.BehaviorDispatcher;
+import ui.toolkit.behavior.BehaviorEvent;
+import ui.toolkit.graphics.group.DamageTracker;
+import ui.toolkit.graphics.group.Group;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.selectable.SelectableOutlineRect;
+
+/**
+ * End-to-end frame times of synthetic scenes (SceneGenerator) under a
+ * scripted mix of drags, selections and voice edits, without a display
+ *
+ * Each frame dispatches one synthetic BehaviorEvent through a
+ * BehaviorDispatcher, as InteractiveWindowGroup does, or applies one voice
+ * InteractionOutcome, and then redraws the window into an offscreen image.
+ * Reports frame time percentiles, bytes allocated per frame and the
+ * garbage collections during the run. With -Dscene.damage=true only the
+ * damaged areas are redrawn, as with damage tracking in the window.
+ *
+ * Run with: java -Xmx4g -Djava.awt.headless=true ui.toolkit.SceneBenchmark
+ *           [objects,objects,...] [frames]
+ */
+public class SceneBenchmark {
+    private static final int WINDOW_WIDTH = 1280;
+    private static final int WINDOW_HEIGHT = 800;
+    private static final int DRAG_STEPS = 20;
+    private static final String[] COLORS = { "red", "green", "blue", "black" };
+
+    private final SceneGenerator scene;
+    private final BehaviorDispatcher dispatcher;
+    private final BufferedImage buffer = new BufferedImage(WINDOW_WIDTH, WINDOW_HEIGHT, BufferedImage.TYPE_INT_RGB);
+    private final BoundaryRectangle window = new BoundaryRectangle(0, 0, WINDOW_WIDTH, WINDOW_HEIGHT);
+    private final Random random = new Random(42);
+    private final DamageTracker damage;
+
+    private long[] frameNanos;
+    private int frames = 0;
+
+    public static void main(String[] args) {
+        int[] sizes = Arrays.stream(((args.length > 0) ? args[0] : "1000,10000,100000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        int frameCount = (args.length > 1) ? Integer.parseInt(args[1]) : 300;
+
+        System.out.println(String.format("%9s %9s %8s %7s %7s %7s %7s %7s %11s %5s %7s", "objects", "setup ms",
+                "frames", "p50 ms", "p90 ms", "p99 ms", "max ms", "mean ms", "alloc KB/f", "GCs", "GC ms"));
+        for (int size : sizes) {
+            long start = System.nanoTime();
+            SceneBenchmark benchmark = new SceneBenchmark(size);
+            double setupMillis = (System.nanoTime() - start) / 1e6;
+            // warm up with the same script, then measure
+            benchmark.run(Math.max(20, frameCount / 5));
+            benchmark.report(setupMillis, frameCount);
+        }
+    }
+
+    public SceneBenchmark(int objects) {
+        this.scene = new SceneGenerator(objects);
+        this.dispatcher = scene.getDispatcher();
+        redraw();
+        if (Boolean.getBoolean("scene.damage")) {
+            damage = new DamageTracker();
+            damage.track(scene.getRoot());
+            redraw();
+        } else {
+            damage = null;
+        }
+    }
+
+    /**
+     * Replay the script until the given number of frames has been drawn
+     */
+    private void run(int frameCount) {
+        frameNanos = new long[frameCount];
+        frames = 0;
+        while (frames < frameCount) {
+            int gesture = random.nextInt(10);
+            if (gesture < 5) {
+                drag();
+            } else if (gesture < 8) {
+                select();
+            } else {
+                voiceEdit();
+            }
+        }
+    }
+
+    private void report(double setupMillis, int frameCount) {
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long collections = 0, collectionMillis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            collections -= collector.getCollectionCount();
+            collectionMillis -= collector.getCollectionTime();
+        }
+        long allocated = -allocatedBytes();
+
+        run(frameCount);
+
+        allocated += allocatedBytes();
+        for (GarbageCollectorMXBean collector : collectors) {
+            collections += collector.getCollectionCount();
+            collectionMillis += collector.getCollectionTime();
+        }
+        long[] sorted = frameNanos.clone();
+        Arrays.sort(sorted);
+        System.out.println(String.format("%9d %9.0f %8d %7.2f %7.2f %7.2f %7.2f %7.2f %11.1f %5d %7d",
+                scene.getObjectCount(), setupMillis, frameCount, percentile(sorted, 50), percentile(sorted, 90),
+                percentile(sorted, 99), sorted[sorted.length - 1] / 1e6, Arrays.stream(sorted).average().orElse(0) / 1e6,
+                allocated / 1024.0 / frameCount, collections, collectionMillis));
+    }
+
+    private static double percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    // bytes allocated by this thread so far, where the JVM can tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Gestures: press on a visible item, move it and release; click an item;
+     * set the width or color of the first item of a row by voice
+     */
+    private void drag() {
+        Point from = windowPosition(visibleItem());
+        int dx = random.nextInt(81) - 40, dy = random.nextInt(81) - 40;
+        frame(event(BehaviorEvent.MOUSE_DOWN_ID, from.x, from.y));
+        for (int step = 1; step <= DRAG_STEPS; ++step) {
+            frame(event(BehaviorEvent.MOUSE_DRAG_ID, from.x + dx * step / DRAG_STEPS, from.y + dy * step / DRAG_STEPS));
+        }
+        frame(event(BehaviorEvent.MOUSE_UP_ID, from.x + dx, from.y + dy));
+    }
+
+    private void select() {
+        Point at = windowPosition(visibleItem());
+        frame(event(BehaviorEvent.MOUSE_DOWN_ID, at.x, at.y));
+        frame(event(BehaviorEvent.MOUSE_UP_ID, at.x, at.y));
+    }
+
+    private void voiceEdit() {
+        List<SelectableOutlineRect> heads = scene.getRowHeads();
+        SelectableOutlineRect target = heads.get(random.nextInt(heads.size()));
+        InteractionOutcome outcome = random.nextBoolean()
+                ? new InteractionOutcome(target, "width", Integer.toString(8 + random.nextInt(10)))
+                : new InteractionOutcome(target, "color", COLORS[random.nextInt(COLORS.length)]);
+        long start = System.nanoTime();
+        outcome.apply();
+        redraw();
+        record(System.nanoTime() - start);
+    }
+
+    private void frame(BehaviorEvent event) {
+        long start = System.nanoTime();
+        dispatcher.dispatch(event);
+        redraw();
+        record(System.nanoTime() - start);
+    }
+
+    private void record(long nanos) {
+        if (frames < frameNanos.length) {
+            frameNanos[frames++] = nanos;
+        }
+    }
+
+    // as InteractiveWindowGroup.redraw()
+    private void redraw() {
+        Graphics2D graphics = buffer.createGraphics();
+        if (damage != null) {
+            damage.redraw(graphics, window, Color.WHITE, Collections.singletonList(scene.getRoot()));
+        } else {
+            graphics.setColor(Color.WHITE);
+            graphics.fill(window);
+            scene.getRoot().draw(graphics, window);
+        }
+        graphics.dispose();
+    }
+
+    private static BehaviorEvent event(int id, int x, int y) {
+        return new BehaviorEvent(BehaviorEvent.NO_MODIFIER, BehaviorEvent.LEFT_MOUSE_KEY, id, x, y);
+    }
+
+    // one of the items of the pages that start inside the window
+    private SelectableOutlineRect visibleItem() {
+        int perPage = SceneGenerator.ROWS_PER_PAGE * SceneGenerator.ITEMS_PER_ROW;
+        int visiblePages = Math.min(scene.getPages().size(), 5 * SceneGenerator.PAGES_PER_LINE);
+        List<SelectableOutlineRect> items = scene.getItems();
+        return items.get(Math.min(items.size() - 1, random.nextInt(visiblePages * perPage)));
+    }
+
+    // the center of an object in window coordinates
+    private static Point windowPosition(GraphicalObject object) {
+        BoundaryRectangle box = object.getBoundingBox();
+        Point point = new Point(box.x + box.width / 2, box.y + box.height / 2);
+        for (Group group = object.getGroup(); group != null; group = group.getGroup()) {
+            point = group.childToParent(point);
+        }
+        return point;
+    }
+}
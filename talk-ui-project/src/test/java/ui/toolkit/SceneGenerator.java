@@ -0,0 +1,122 @@
+package ui.toolkit;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+import ui.toolkit.behavior.Behavior;
+import ui.toolkit.behavior.BehaviorDispatcher;
+import ui.toolkit.behavior.ChoiceBehavior;
+import ui.toolkit.behavior.MoveBehavior;
+import ui.toolkit.constraint.FormConstraint;
+import ui.toolkit.constraint.IntProperty;
+import ui.toolkit.graphics.group.LayoutGroup;
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.selectable.SelectableOutlineRect;
+import ui.toolkit.widget.Button;
+import ui.toolkit.widget.ButtonPanel;
+import ui.toolkit.widget.Widget;
+
+/**
+ * Builds synthetic scenes of a given number of objects from the toolkit
+ * classes, for SceneBenchmark
+ *
+ * The scene is a grid of pages on a root SimpleGroup whose MoveBehavior
+ * drags them. A page is a vertical LayoutGroup of rows, a row a horizontal
+ * LayoutGroup of selectable rectangles with a ChoiceBehavior, and each
+ * rectangle takes its width from the previous one in the row, so a row is
+ * a constrained chain. Every fifth page ends with a ButtonPanel widget
+ * instead of a row. Only the top-left pages fit in the window.
+ */
+public class SceneGenerator {
+    public static final int ROWS_PER_PAGE = 10;
+    public static final int ITEMS_PER_ROW = 10;
+    public static final int PAGES_PER_LINE = 8;
+    private static final int PAGE_WIDTH = 170;
+    private static final int PAGE_HEIGHT = 150;
+
+    private final SimpleGroup root;
+    private final BehaviorDispatcher dispatcher = new BehaviorDispatcher();
+    private final List<SelectableOutlineRect> items = new ArrayList<>();
+    private final List<SelectableOutlineRect> rowHeads = new ArrayList<>();
+    private final List<LayoutGroup> pages = new ArrayList<>();
+    private int buttons = 0;
+
+    /**
+     * @param objects about how many leaf objects the scene has
+     */
+    public SceneGenerator(int objects) {
+        int pageCount = Math.max(1, objects / (ROWS_PER_PAGE * ITEMS_PER_ROW));
+        int lines = (pageCount + PAGES_PER_LINE - 1) / PAGES_PER_LINE;
+        root = new SimpleGroup(0, 0, PAGES_PER_LINE * PAGE_WIDTH, lines * PAGE_HEIGHT);
+        root.addBehavior(new MoveBehavior());
+        for (int p = 0; p < pageCount; ++p) {
+            LayoutGroup page = new LayoutGroup((p % PAGES_PER_LINE) * PAGE_WIDTH, (p / PAGES_PER_LINE) * PAGE_HEIGHT,
+                    PAGE_WIDTH - 10, PAGE_HEIGHT - 10, LayoutGroup.VERTICAL, 2);
+            for (int r = 0; r < ROWS_PER_PAGE; ++r) {
+                page.addChild((p % 5 == 4 && r == ROWS_PER_PAGE - 1) ? buttonPanel() : row());
+            }
+            root.addChild(page);
+            pages.add(page);
+        }
+        // behaviors of a group without a parent wait to be added to a window
+        for (Behavior behavior : root.getBehaviorsToAdd()) {
+            dispatcher.add(behavior);
+        }
+        root.clearBehaviorsToAdd();
+    }
+
+    private LayoutGroup row() {
+        LayoutGroup row = new LayoutGroup(0, 0, PAGE_WIDTH - 10, 12, LayoutGroup.HORIZONTAL, 2);
+        row.addBehavior(new ChoiceBehavior(ChoiceBehavior.MULTIPLE, false));
+        SelectableOutlineRect previous = null;
+        for (int i = 0; i < ITEMS_PER_ROW; ++i) {
+            SelectableOutlineRect item = new SelectableOutlineRect(0, 0, 14, 10, Color.BLACK, 1);
+            if (previous == null) {
+                rowHeads.add(item);
+            } else {
+                item.setWidth(FormConstraint.copy(IntProperty.of(previous, "width")));
+            }
+            row.addChild(item);
+            items.add(item);
+            previous = item;
+        }
+        return row;
+    }
+
+    private Widget<?> buttonPanel() {
+        ButtonPanel panel = new ButtonPanel(0, 0, true, ButtonPanel.SINGLE, Widget.HORIZONTAL_LAYOUT, 4);
+        for (int i = 0; i < 4; ++i) {
+            panel.addChild(new Button("b" + i));
+            buttons++;
+        }
+        return panel;
+    }
+
+    public SimpleGroup getRoot() {
+        return root;
+    }
+
+    public BehaviorDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    // the selectable rectangles, in creation order
+    public List<SelectableOutlineRect> getItems() {
+        return items;
+    }
+
+    // the first rectangle of each row, whose width the rest of the row copies
+    public List<SelectableOutlineRect> getRowHeads() {
+        return rowHeads;
+    }
+
+    public List<LayoutGroup> getPages() {
+        return pages;
+    }
+
+    // rectangles and buttons
+    public int getObjectCount() {
+        return items.size() + buttons;
+    }
+}
@@ -0,0 +1,110 @@
+package ui.toolkit.behavior;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.swing.SwingUtilities;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class FrameTimerTest {
+    private static final int DELAY = 16;
+
+    private final AtomicBoolean requested = new AtomicBoolean();
+    private final AtomicInteger frames = new AtomicInteger();
+    private final FrameTimer timer = new FrameTimer(DELAY, () -> {
+        if (!requested.getAndSet(false)) {
+            return false;
+        }
+        frames.incrementAndGet();
+        return true;
+    });
+
+    // requested and drawn as by InteractiveWindowGroup, on the EDT
+    private final FrameStats stats = new FrameStats();
+    private final FrameTimer[] window = new FrameTimer[1];
+
+    {
+        window[0] = new FrameTimer(DELAY, () -> {
+            if (!window[0].isRequested()) {
+                return false;
+            }
+            window[0].drawn();
+            stats.drawn(0);
+            return true;
+        });
+    }
+
+    @After
+    public void stopTimer() {
+        timer.stop();
+        window[0].stop();
+    }
+
+    private void requestFrames(int count) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            for (int i = 0; i < count; ++i) {
+                stats.requested();
+                window[0].request();
+            }
+        });
+    }
+
+    private void request() {
+        requested.set(true);
+        timer.start();
+    }
+
+    @Test
+    public void drawsAtMostOneFramePerDelay() throws InterruptedException {
+        Random random = new Random(1);
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; ++i) {
+            request();
+            // bursts of requests, with idle gaps that stop the timer
+            Thread.sleep((i % 10 == 9) ? DELAY + random.nextInt(3 * DELAY) : random.nextInt(DELAY / 2));
+        }
+        Thread.sleep(3 * DELAY);
+        long elapsedMillis = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("no frame drawn", frames.get() > 0);
+        assertTrue(frames.get() + " frames in " + elapsedMillis + " ms",
+                frames.get() <= elapsedMillis / DELAY + 1);
+    }
+
+    @Test
+    public void stopsAfterAnIdleTick() throws InterruptedException {
+        request();
+        Thread.sleep(5 * DELAY);
+        assertTrue(frames.get() == 1);
+        assertFalse(timer.isRunning());
+
+        request();
+        Thread.sleep(5 * DELAY);
+        assertTrue(frames.get() == 2);
+        assertFalse(timer.isRunning());
+    }
+
+    @Test
+    public void requestsBeforeAFrameAreDrawnOnce() throws Exception {
+        requestFrames(10);
+        Thread.sleep(5 * DELAY);
+        assertEquals(1, stats.getFrameCount());
+        assertEquals(10, stats.getRequestCount());
+        assertEquals(9, stats.getCoalescedCount());
+        assertFalse(window[0].isRequested());
+        assertFalse(window[0].isRunning());
+
+        // a later burst is another frame
+        requestFrames(3);
+        Thread.sleep(5 * DELAY);
+        assertEquals(2, stats.getFrameCount());
+        assertEquals(11, stats.getCoalescedCount());
+    }
+}
@@ -0,0 +1,175 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ui.toolkit.constraint.AggregateConstraint.Operation;
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class AggregateConstraintTest {
+    private final List<OutlineRect> terms = new ArrayList<>();
+    private int measured = 0;
+
+    private int measure(OutlineRect rect) {
+        this.measured++;
+        return rect.getX();
+    }
+
+    private OutlineRect add(AggregateConstraint aggregate, int x) {
+        OutlineRect rect = new OutlineRect(x, 0, 10, 10, Color.BLACK, 1);
+        this.terms.add(rect);
+        aggregate.add(rect, () -> measure(rect));
+        return rect;
+    }
+
+    // the aggregate of the current terms, scanning all of them
+    private int rescan(Operation operation) {
+        if (this.terms.isEmpty()) {
+            return 0;
+        }
+        int result = (operation == Operation.MIN) ? Integer.MAX_VALUE
+                : (operation == Operation.MAX) ? Integer.MIN_VALUE : 0;
+        for (OutlineRect rect : this.terms) {
+            switch (operation) {
+            case SUM:
+                result += rect.getX();
+                break;
+            case MAX:
+                result = Math.max(result, rect.getX());
+                break;
+            case MIN:
+                result = Math.min(result, rect.getX());
+                break;
+            case COUNT:
+                result++;
+                break;
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void matchesARescanUnderRandomEdits() {
+        for (Operation operation : Operation.values()) {
+            this.terms.clear();
+            Random random = new Random(operation.ordinal());
+            AggregateConstraint aggregate = new AggregateConstraint(operation);
+            assertEquals(0, aggregate.evaluateInt());
+            for (int step = 0; step < 3000; ++step) {
+                int edit = random.nextInt(10);
+                if (this.terms.isEmpty() || edit < 4) {
+                    add(aggregate, random.nextInt(2001) - 1000);
+                } else if (edit < 6) {
+                    // any position, so the last slot moves into its place
+                    aggregate.remove(this.terms.remove(random.nextInt(this.terms.size())));
+                } else {
+                    this.terms.get(random.nextInt(this.terms.size())).setX(random.nextInt(2001) - 1000);
+                }
+                assertEquals(this.terms.size(), aggregate.size());
+                // several edits queue up between evaluations
+                if (random.nextInt(3) == 0) {
+                    assertEquals(operation + " at step " + step, rescan(operation), aggregate.evaluateInt());
+                }
+            }
+            assertEquals(rescan(operation), aggregate.evaluateInt());
+            aggregate.clear();
+            this.terms.clear();
+            assertEquals(0, aggregate.size());
+            assertEquals(0, aggregate.evaluateInt());
+        }
+    }
+
+    @Test
+    public void maximumAndMinimumFollowRemovals() {
+        AggregateConstraint max = new AggregateConstraint(Operation.MAX);
+        AggregateConstraint min = new AggregateConstraint(Operation.MIN);
+        int[] xs = { 5, -3, 12, 7, 12, 0, -8, 9 };
+        List<OutlineRect> rects = new ArrayList<>();
+        for (int x : xs) {
+            OutlineRect rect = new OutlineRect(x, 0, 10, 10, Color.BLACK, 1);
+            rects.add(rect);
+            max.add(rect, rect::getX);
+            min.add(rect, rect::getX);
+        }
+        assertEquals(12, max.evaluateInt());
+        assertEquals(-8, min.evaluateInt());
+
+        // one of two maxima, then the other; the first slot moves the last in
+        max.remove(rects.get(2));
+        assertEquals(12, max.evaluateInt());
+        max.remove(rects.get(4));
+        assertEquals(9, max.evaluateInt());
+        max.remove(rects.get(0));
+        assertEquals(9, max.evaluateInt());
+        rects.get(7).setX(-20);
+        assertEquals(7, max.evaluateInt());
+
+        min.remove(rects.get(6));
+        assertEquals(-20, min.evaluateInt());
+        rects.get(7).setX(100);
+        assertEquals(-3, min.evaluateInt());
+        assertFalse(min.contains(rects.get(6)));
+        assertTrue(min.contains(rects.get(7)));
+    }
+
+    @Test
+    public void reMeasuresOnlyTheChangedTerms() {
+        AggregateConstraint sum = new AggregateConstraint(Operation.SUM);
+        for (int i = 0; i < 100; ++i) {
+            add(sum, i);
+        }
+        assertEquals(4950, sum.evaluateInt());
+        assertEquals(100, this.measured);
+
+        this.terms.get(10).setX(110);
+        this.terms.get(20).setX(120);
+        assertTrue(sum.isOutOfDate());
+        assertEquals(5150, sum.evaluateInt());
+        assertEquals(102, this.measured);
+
+        // adding and removing measure no other term
+        add(sum, 1000);
+        sum.remove(this.terms.remove(0));
+        assertEquals(6150, sum.evaluateInt());
+        assertEquals(103, this.measured);
+
+        // a removed term is not measured again
+        OutlineRect removed = this.terms.remove(5);
+        sum.remove(removed);
+        removed.setX(-500);
+        assertEquals(6150 - 6, sum.evaluateInt());
+        assertEquals(103, this.measured);
+    }
+
+    @Test
+    public void countIgnoresTheMeasure() {
+        AggregateConstraint count = new AggregateConstraint(Operation.COUNT);
+        Object a = new Object();
+        Object b = new Object();
+        count.add(a, null).add(b, null).add(a, null);
+        assertEquals(2, count.evaluateInt());
+        count.remove(a);
+        assertEquals(1, count.evaluateInt());
+    }
+
+    @Test
+    public void disposedAggregatesIgnoreNewTerms() {
+        AggregateConstraint sum = new AggregateConstraint(Operation.SUM);
+        OutlineRect rect = add(sum, 4);
+        assertEquals(4, sum.evaluateInt());
+        sum.dispose();
+        assertTrue(sum.isDisposed());
+        add(sum, 6);
+        assertEquals(0, sum.size());
+        rect.setX(9);
+        assertFalse(sum.contains(rect));
+    }
+}
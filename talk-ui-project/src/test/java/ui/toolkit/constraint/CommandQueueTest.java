@@ -0,0 +1,167 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CommandQueueTest {
+    private int wakeUps = 0;
+    private final CommandQueue queue = new CommandQueue(() -> true, () -> wakeUps++);
+
+    @Test
+    public void multipleProducersAreDrainedInBatchesOnTheOwner() throws Exception {
+        int producers = 8;
+        int posts = 5000;
+        int batch = 64;
+        ExecutorService owner = Executors.newSingleThreadExecutor();
+        Thread ownerThread = owner.submit(Thread::currentThread).get();
+        // only touched by the owner thread
+        List<List<Integer>> received = new ArrayList<>();
+        for (int i = 0; i < producers; ++i) {
+            received.add(new ArrayList<>());
+        }
+        AtomicInteger largestBatch = new AtomicInteger();
+        AtomicInteger wrongThread = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers * posts);
+        CommandQueue[] shared = new CommandQueue[1];
+        shared[0] = new CommandQueue(() -> Thread.currentThread() == ownerThread,
+                () -> owner.execute(() -> largestBatch.accumulateAndGet(shared[0].drain(batch), Math::max)));
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < producers; ++i) {
+            int producer = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < posts; ++j) {
+                    int value = j;
+                    shared[0].post(() -> {
+                        if (Thread.currentThread() != ownerThread || !ConstraintTransaction.isActive()) {
+                            wrongThread.incrementAndGet();
+                        }
+                        received.get(producer).add(value);
+                        done.countDown();
+                    });
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue("every command runs", done.await(30, TimeUnit.SECONDS));
+        // the last drain may still be finishing
+        assertEquals(Integer.valueOf(0), owner.submit(() -> shared[0].drain()).get());
+        owner.shutdown();
+
+        assertEquals(0, wrongThread.get());
+        assertTrue(largestBatch.get() <= batch);
+        assertTrue(shared[0].isEmpty());
+        for (List<Integer> values : received) {
+            assertEquals(posts, values.size());
+            // in the order each producer posted them
+            for (int j = 0; j < posts; ++j) {
+                assertEquals(j, (int) values.get(j));
+            }
+        }
+    }
+
+    @Test
+    public void drainOfAtMostSomeReschedulesTheRest() {
+        List<Integer> run = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            int value = i;
+            queue.post(() -> run.add(value));
+        }
+        // only the first post after a drain wakes the owner up
+        assertEquals(1, wakeUps);
+
+        assertEquals(4, queue.drain(4));
+        assertEquals(2, wakeUps);
+        assertEquals(4, queue.drain(4));
+        assertEquals(3, wakeUps);
+        assertEquals(2, queue.drain(4));
+        assertEquals(3, wakeUps);
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.drain(4));
+
+        queue.post(() -> run.add(10));
+        assertEquals(4, wakeUps);
+        assertEquals(1, queue.drain());
+        assertEquals(11, run.size());
+        for (int i = 0; i < run.size(); ++i) {
+            assertEquals(i, (int) run.get(i));
+        }
+    }
+
+    @Test
+    public void aFailingCommandDoesNotDropTheBatch() {
+        List<String> run = new ArrayList<>();
+        queue.post(() -> run.add("before"));
+        queue.post(() -> {
+            throw new IllegalStateException("command");
+        });
+        queue.post(() -> run.add("after"));
+        assertEquals(3, queue.drain());
+        assertEquals(2, run.size());
+        assertFalse(ConstraintTransaction.isActive());
+    }
+
+    @Test
+    public void submitOnTheOwnerRunsAtOnce() {
+        CompletableFuture<Integer> result = queue.submit(() -> 42);
+        // join() would never return if it were posted
+        assertEquals(42, (int) result.join());
+        assertTrue(queue.isEmpty());
+        assertEquals(0, wakeUps);
+
+        IllegalStateException failure = new IllegalStateException("submitted");
+        CompletableFuture<Object> failed = queue.submit(() -> {
+            throw failure;
+        });
+        try {
+            failed.join();
+            fail("completed exceptionally");
+        } catch (CompletionException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    @Test
+    public void submitFromAnotherThreadWaitsForTheDrain() throws Exception {
+        Thread ownerThread = Thread.currentThread();
+        CommandQueue owned = new CommandQueue(() -> Thread.currentThread() == ownerThread, () -> wakeUps++);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<CompletableFuture<String>> submitted = CompletableFuture.supplyAsync(
+                    () -> owned.submit(() -> Thread.currentThread() == ownerThread ? "owner" : "other"), other);
+            CompletableFuture<String> result = submitted.get(10, TimeUnit.SECONDS);
+            assertFalse(result.isDone());
+            assertEquals(1, wakeUps);
+            assertEquals(1, owned.drain());
+            assertEquals("owner", result.join());
+        } finally {
+            other.shutdown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class ConstraintSnapshotTest {
+    // the same scene each time, unconstrained
+    private static List<GraphicalObject> scene() {
+        List<GraphicalObject> objects = new ArrayList<>();
+        objects.add(new OutlineRect(10, 20, 100, 50, Color.RED, 1));
+        objects.add(new OutlineRect(0, 0, 30, 30, Color.BLUE, 1));
+        objects.add(new OutlineRect(0, 0, 40, 10, Color.GREEN, 1));
+        objects.add(new SimpleGroup(0, 0, 200, 200));
+        return objects;
+    }
+
+    private static IntProperty property(List<GraphicalObject> objects, int object, String name) {
+        return IntProperty.of(objects.get(object), name);
+    }
+
+    private static void constrain(List<GraphicalObject> objects) {
+        IntProperty.of(objects.get(1), "x").set(FormConstraint.offset(property(objects, 0, "x"), 15));
+        IntProperty.of(objects.get(1), "y").set(
+                FormConstraint.centerOn(property(objects, 0, "y"), property(objects, 0, "height"),
+                        property(objects, 1, "height")));
+        IntProperty.of(objects.get(2), "width").set(FormConstraint.proportional(property(objects, 0, "width"), 0.5, 3));
+        IntProperty.of(objects.get(2), "x").set(FormConstraint.copy(property(objects, 1, "x")));
+        IntProperty.of(objects.get(3), "height").set(
+                FormConstraint.sum(property(objects, 0, "height"), property(objects, 1, "height"),
+                        property(objects, 2, "height")));
+        IntProperty.of(objects.get(3), "width").set(
+                FormConstraint.max(property(objects, 0, "width"), property(objects, 2, "width")));
+        IntProperty.of(objects.get(3), "y").set(
+                FormConstraint.min(property(objects, 1, "y"), property(objects, 2, "x")));
+    }
+
+    private static byte[] write(List<GraphicalObject> objects, int expected) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        assertEquals(expected, ConstraintSnapshot.write(objects, bytes));
+        return bytes.toByteArray();
+    }
+
+    // every constrainable int property of every object
+    private static List<Integer> values(List<GraphicalObject> objects) {
+        List<Integer> values = new ArrayList<>();
+        for (GraphicalObject object : objects) {
+            for (String name : IntProperty.namesOf(object.getClass())) {
+                values.add(IntProperty.of(object, name).get());
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void restoresTheConstraintsOnARebuiltScene() throws IOException {
+        List<GraphicalObject> original = scene();
+        constrain(original);
+        byte[] snapshot = write(original, 7);
+
+        List<GraphicalObject> rebuilt = scene();
+        List<FormConstraint> installed = ConstraintSnapshot.read(rebuilt, new ByteArrayInputStream(snapshot));
+        assertEquals(7, installed.size());
+        assertEquals(values(original), values(rebuilt));
+
+        // still constrained, not just copied values
+        for (List<GraphicalObject> objects : Arrays.asList(original, rebuilt)) {
+            ((OutlineRect) objects.get(0)).setX(100);
+            ((OutlineRect) objects.get(0)).setHeight(80);
+            ((OutlineRect) objects.get(0)).setWidth(60);
+        }
+        assertEquals(values(original), values(rebuilt));
+        assertEquals(115, ((OutlineRect) rebuilt.get(2)).getX());
+        assertEquals(33, ((OutlineRect) rebuilt.get(2)).getWidth());
+
+        // and written again the same way
+        assertTrue(Arrays.equals(snapshot, write(rebuilt, 7)));
+    }
+
+    @Test
+    public void skipsConstraintsWithTheirOwnCode() throws IOException {
+        List<GraphicalObject> objects = scene();
+        OutlineRect first = (OutlineRect) objects.get(0);
+        ((OutlineRect) objects.get(1)).setX(TrackedConstraint.of(() -> first.getX() * 2));
+        IntProperty.of(objects.get(2), "x").set(FormConstraint.copy(property(objects, 0, "y")));
+        List<GraphicalObject> rebuilt = scene();
+        ConstraintSnapshot.read(rebuilt, new ByteArrayInputStream(write(objects, 1)));
+        assertEquals(20, ((OutlineRect) rebuilt.get(2)).getX());
+        assertEquals(0, ((OutlineRect) rebuilt.get(1)).getX());
+    }
+
+    private static void assertCorrupt(byte[] snapshot, List<GraphicalObject> objects) {
+        try {
+            ConstraintSnapshot.read(objects, new ByteArrayInputStream(snapshot));
+            fail("read a corrupt snapshot");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void rejectsCorruptSnapshots() throws IOException {
+        // one COPY: 1.x = 0.x, with "x" the only name
+        List<GraphicalObject> objects = scene();
+        IntProperty.of(objects.get(1), "x").set(FormConstraint.copy(property(objects, 0, "x")));
+        byte[] snapshot = write(objects, 1);
+        // magic, version, one name, object count, constraint count
+        int start = 4 + 1 + 1 + (2 + 1) + 1 + 1;
+        assertEquals(start + 6, snapshot.length);
+        ConstraintSnapshot.read(scene(), new ByteArrayInputStream(snapshot));
+
+        String[] parts = { "target object", "target name", "form", "source count", "source object", "source name" };
+        int[] bad = { 4, 1, 7, 2, 9, 5 };
+        for (int i = 0; i < parts.length; ++i) {
+            byte[] corrupt = snapshot.clone();
+            corrupt[start + i] = (byte) bad[i];
+            assertCorrupt(corrupt, scene());
+        }
+
+        // truncated, another format, or another number of objects
+        assertCorrupt(Arrays.copyOf(snapshot, snapshot.length - 1), scene());
+        byte[] magic = snapshot.clone();
+        magic[0] = 0;
+        assertCorrupt(magic, scene());
+        assertCorrupt(snapshot, scene().subList(0, 3));
+
+        // a name the object does not have
+        byte[] name = snapshot.clone();
+        name[4 + 1 + 1 + 2] = 'q';
+        assertCorrupt(name, scene());
+    }
+}
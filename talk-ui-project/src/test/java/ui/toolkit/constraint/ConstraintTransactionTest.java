@@ -0,0 +1,125 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class ConstraintTransactionTest {
+    private final OutlineRect rect = new OutlineRect(10, 20, 30, 40, Color.RED, 1);
+    private int calls = 0;
+    private final TrackedObserver<Rectangle> observer = new TrackedObserver<>(rect::getBoundingBox, () -> calls++);
+
+    private final NoConstraint<Integer> source = new NoConstraint<>();
+    private final Constraint<Integer> twice = new Constraint<Integer>(source) {
+        @Override
+        public Integer getValue() {
+            return 2 * source.evaluate();
+        }
+    };
+
+    {
+        this.source.setValue(1);
+        this.observer.evaluate();
+        this.twice.evaluate();
+    }
+
+    private void set(int value) {
+        this.source.setValue(value);
+        this.source.notifyValueChange(false);
+    }
+
+    @Test
+    public void propagatesOnceWhenCommitted() {
+        ConstraintTransaction.run(() -> {
+            assertTrue(ConstraintTransaction.isActive());
+            rect.setX(11);
+            rect.setY(21);
+            rect.setWidth(31);
+            set(5);
+            // neither the observer nor the constraint hears about it yet
+            assertEquals(0, calls);
+            assertFalse(observer.isOutOfDate());
+            assertFalse(twice.isOutOfDate());
+        });
+        assertFalse(ConstraintTransaction.isActive());
+        assertEquals(1, calls);
+        assertTrue(observer.isOutOfDate());
+        assertEquals(new Rectangle(11, 21, 31, 40), observer.evaluate());
+        assertEquals(10, (int) twice.evaluate());
+    }
+
+    @Test
+    public void defersMarkOutOfDate() {
+        int[] invalidated = { 0 };
+        InvalidationListener listener = dependency -> {
+            if (dependency == twice) {
+                invalidated[0]++;
+            }
+        };
+        Dependency.addInvalidationListener(listener);
+        try {
+            ConstraintTransaction.run(() -> {
+                twice.markOutOfDate();
+                observer.markOutOfDate();
+                assertFalse(twice.isOutOfDate());
+                assertEquals(0, invalidated[0]);
+                assertEquals(0, calls);
+            });
+        } finally {
+            Dependency.removeInvalidationListener(listener);
+        }
+        assertTrue(twice.isOutOfDate());
+        assertEquals(1, invalidated[0]);
+        assertEquals(1, calls);
+        assertEquals(2, (int) twice.evaluate());
+    }
+
+    @Test
+    public void onlyTheOutermostTransactionCommits() {
+        ConstraintTransaction.run(() -> {
+            ConstraintTransaction.run(() -> {
+                rect.setX(12);
+                set(3);
+            });
+            assertTrue(ConstraintTransaction.isActive());
+            assertEquals(0, calls);
+            assertFalse(twice.isOutOfDate());
+            rect.setY(22);
+        });
+        assertEquals(1, calls);
+        assertEquals(new Rectangle(12, 22, 30, 40), observer.evaluate());
+        assertEquals(6, (int) twice.evaluate());
+    }
+
+    @Test
+    public void propagatesWhenTheBodyThrows() {
+        RuntimeException failure = new RuntimeException("body");
+        try {
+            ConstraintTransaction.run(() -> {
+                rect.setX(13);
+                set(4);
+                throw failure;
+            });
+            fail("the exception is not swallowed");
+        } catch (RuntimeException e) {
+            assertSame(failure, e);
+        }
+        assertFalse(ConstraintTransaction.isActive());
+        assertEquals(1, calls);
+        assertEquals(13, observer.evaluate().x);
+        assertEquals(8, (int) twice.evaluate());
+
+        // later changes propagate immediately again
+        rect.setX(14);
+        assertEquals(2, calls);
+    }
+}
@@ -0,0 +1,192 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CycleIndexTest {
+    private static IntConstraint node(String name, Dependency<?>... inputs) {
+        return new IntConstraint(name, inputs) {
+            @Override
+            public int getIntValue() {
+                return 0;
+            }
+        };
+    }
+
+    private static Edge connect(Dependency<?> start, Dependency<?> end) {
+        Edge edge = new Edge(start, end);
+        start.addOutEdge(edge);
+        end.addInEdge(edge);
+        return edge;
+    }
+
+    private static void disconnect(Edge edge) {
+        edge.getStart().removeOutEdge(edge);
+        edge.getEnd().removeInEdge(edge);
+    }
+
+    @Test
+    public void acyclicGraphsHaveNoCycle() {
+        IntConstraint a = node("a");
+        IntConstraint b = node("b", a);
+        IntConstraint c = node("c", a);
+        IntConstraint d = node("d", b, c);
+        IntConstraint e = node("e", d);
+        for (IntConstraint node : new IntConstraint[] { e, d, c, b, a }) {
+            assertFalse(node.toString(), node.hasCycle());
+        }
+        assertFalse(b.isInCycleWith(c));
+        assertFalse(a.isInCycleWith(a));
+    }
+
+    @Test
+    public void findsEachComponent() {
+        IntConstraint a = node("a");
+        IntConstraint b = node("b", a);
+        connect(b, a);
+        // a second cycle, reached from the first by one edge
+        IntConstraint c = node("c", b);
+        IntConstraint d = node("d", c);
+        IntConstraint e = node("e", d);
+        Edge closing = connect(e, c);
+        IntConstraint f = node("f");
+        connect(f, f);
+
+        // from the second cycle first, which cannot reach the first
+        assertTrue(e.isInCycleWith(c));
+        assertTrue(d.isInCycleWith(e));
+        assertTrue(a.isInCycleWith(b));
+        assertFalse(b.isInCycleWith(c));
+        assertTrue(f.hasCycle());
+        assertFalse(f.isInCycleWith(a));
+
+        disconnect(closing);
+        assertFalse(c.hasCycle());
+        assertFalse(e.hasCycle());
+        assertTrue(a.isInCycleWith(b));
+    }
+
+    @Test
+    public void edgesThatCannotChangeAComponentKeepTheIndex() {
+        IntConstraint a = node("a");
+        IntConstraint b = node("b", a);
+        connect(b, a);
+        assertTrue(a.isInCycleWith(b));
+
+        // a new constraint reading the cycle, a new successor and a new input
+        IntConstraint reader = node("reader", a, b);
+        IntConstraint sink = node("sink");
+        connect(b, sink);
+        IntConstraint source = node("source");
+        connect(source, a);
+        assertTrue(CycleIndex.isIndexed(a));
+        assertTrue(CycleIndex.isIndexed(b));
+        assertFalse(reader.hasCycle());
+        assertFalse(sink.hasCycle());
+
+        // removing edges outside of a cycle
+        disconnect(reader.getInEdges().get(0));
+        reader.dispose();
+        assertTrue(CycleIndex.isIndexed(a));
+        assertTrue(a.isInCycleWith(b));
+
+        // an edge from a successor back to an input closes a new cycle
+        Edge closing = connect(sink, source);
+        assertFalse(CycleIndex.isIndexed(a));
+        assertTrue(a.isInCycleWith(sink));
+        assertTrue(source.isInCycleWith(b));
+
+        // and removing one inside a cycle may split it
+        disconnect(closing);
+        assertFalse(CycleIndex.isIndexed(a));
+        assertFalse(sink.hasCycle());
+        assertFalse(a.isInCycleWith(source));
+        assertTrue(a.isInCycleWith(b));
+    }
+
+    @Test
+    public void multiWayConstraintIsEvaluatedOnceAroundTheCycle() {
+        IntConstraint[] temperature = new IntConstraint[2];
+        int[] evaluations = new int[2];
+        temperature[0] = new IntConstraint("celsius") {
+            @Override
+            public int getIntValue() {
+                evaluations[0]++;
+                return (temperature[1].evaluateInt() - 32) * 5 / 9;
+            }
+        };
+        temperature[1] = new IntConstraint("fahrenheit", temperature[0]) {
+            @Override
+            public int getIntValue() {
+                evaluations[1]++;
+                return temperature[0].evaluateInt() * 9 / 5 + 32;
+            }
+        };
+        connect(temperature[1], temperature[0]);
+        IntConstraint celsius = temperature[0];
+        IntConstraint fahrenheit = temperature[1];
+        assertTrue(celsius.isInCycleWith(fahrenheit));
+
+        // both out of date: each member is evaluated once, reading the other
+        celsius.setIntValue(100);
+        fahrenheit.setIntValue(212);
+        assertEquals(212, fahrenheit.evaluateInt());
+        assertEquals(100, celsius.evaluateInt());
+        assertEquals(1, evaluations[0]);
+        assertEquals(1, evaluations[1]);
+
+        // set from either side, as Widget.setValue() does for a cycle
+        celsius.setIntValue(10);
+        celsius.notifyValueChange(false);
+        assertFalse(celsius.isOutOfDate());
+        assertEquals(50, fahrenheit.evaluateInt());
+        assertEquals(10, celsius.evaluateInt());
+        assertEquals(1, evaluations[0]);
+        assertEquals(2, evaluations[1]);
+
+        fahrenheit.setIntValue(-40);
+        fahrenheit.notifyValueChange(false);
+        assertEquals(-40, celsius.evaluateInt());
+        assertEquals(-40, fahrenheit.evaluateInt());
+        assertEquals(2, evaluations[0]);
+        assertEquals(2, evaluations[1]);
+    }
+
+    @Test
+    public void conflictingCycleIsReportedOnce() {
+        IntConstraint[] pair = new IntConstraint[2];
+        int[] evaluations = new int[2];
+        pair[0] = new IntConstraint("a") {
+            @Override
+            public int getIntValue() {
+                evaluations[0]++;
+                return pair[1].evaluateInt() + 1;
+            }
+        };
+        pair[1] = new IntConstraint("b", pair[0]) {
+            @Override
+            public int getIntValue() {
+                evaluations[1]++;
+                return pair[0].evaluateInt() + 1;
+            }
+        };
+        connect(pair[1], pair[0]);
+
+        ConstraintProfiler.enable();
+        try {
+            // b computes from the current value of a, which then conflicts
+            assertEquals(0, pair[0].evaluateInt());
+            assertEquals(1, pair[1].evaluateInt());
+            assertEquals(1, ConstraintProfiler.getStats(pair[0]).getConflicts());
+        } finally {
+            ConstraintProfiler.disable();
+            ConstraintProfiler.reset();
+        }
+        assertEquals(1, evaluations[0]);
+        assertEquals(1, evaluations[1]);
+        assertFalse(pair[0].isOutOfDate());
+    }
+}
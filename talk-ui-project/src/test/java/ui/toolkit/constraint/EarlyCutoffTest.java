@@ -0,0 +1,158 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class EarlyCutoffTest {
+    private final NoConstraint<Integer> source = new NoConstraint<>();
+    private final int[] evaluations = new int[3];
+
+    {
+        this.source.setValue(2);
+    }
+
+    private void set(int value) {
+        this.source.setValue(value);
+        this.source.notifyValueChange(false);
+    }
+
+    @Test
+    public void unchangedValueStopsPropagation() {
+        IntConstraint parity = new IntConstraint(this.source) {
+            @Override
+            public int getIntValue() {
+                evaluations[0]++;
+                return IntConstraint.evaluateInt(source) % 2;
+            }
+        };
+        IntConstraint tens = new IntConstraint(parity) {
+            @Override
+            public int getIntValue() {
+                evaluations[1]++;
+                return 10 * parity.evaluateInt();
+            }
+        };
+        IntConstraint hundreds = new IntConstraint(tens) {
+            @Override
+            public int getIntValue() {
+                evaluations[2]++;
+                return 10 * tens.evaluateInt();
+            }
+        };
+        assertEquals(0, hundreds.evaluateInt());
+        assertEquals(1, evaluations[2]);
+        int cutoffs = parity.getCutoffCount();
+        long saved = parity.getSavedEvaluations();
+
+        set(4);
+        assertEquals(0, hundreds.evaluateInt());
+        assertEquals(2, evaluations[0]);
+        assertEquals(1, evaluations[1]);
+        assertEquals(1, evaluations[2]);
+        assertEquals(cutoffs + 1, parity.getCutoffCount());
+        // both successors skipped, the second through the first
+        assertEquals(saved + 2, parity.getSavedEvaluations());
+
+        set(5);
+        assertEquals(100, hundreds.evaluateInt());
+        assertEquals(2, evaluations[2]);
+        assertEquals(saved + 2, parity.getSavedEvaluations());
+    }
+
+    @Test
+    public void successorsWithOtherPendingInputsAreNotSaved() {
+        IntConstraint parity = new IntConstraint(this.source) {
+            @Override
+            public int getIntValue() {
+                return IntConstraint.evaluateInt(source) % 2;
+            }
+        };
+        IntConstraint sum = new IntConstraint(parity, this.source) {
+            @Override
+            public int getIntValue() {
+                evaluations[0]++;
+                return parity.evaluateInt() + IntConstraint.evaluateInt(source);
+            }
+        };
+        assertEquals(2, sum.evaluateInt());
+        int cutoffs = parity.getCutoffCount();
+        long saved = parity.getSavedEvaluations();
+
+        set(4);
+        assertEquals(4, sum.evaluateInt());
+        assertEquals(2, evaluations[0]);
+        assertEquals(cutoffs + 1, parity.getCutoffCount());
+        assertEquals(saved, parity.getSavedEvaluations());
+    }
+
+    @Test
+    public void primitiveConstraintsUseTheEquivalence() {
+        IntConstraint rounded = new IntConstraint(this.source) {
+            @Override
+            public int getIntValue() {
+                return IntConstraint.evaluateInt(source);
+            }
+        };
+        // values in the same block of ten are equivalent
+        rounded.setEquivalence((oldValue, newValue) -> oldValue / 10 == newValue / 10);
+        assertEquals(2, rounded.evaluateInt());
+        set(7);
+        assertEquals(2, rounded.evaluateInt());
+        assertEquals(1, rounded.getCutoffCount());
+        set(12);
+        assertEquals(12, rounded.evaluateInt());
+
+        DoubleConstraint half = new DoubleConstraint(this.source) {
+            @Override
+            public double getDoubleValue() {
+                return IntConstraint.evaluateInt(source) / 2.0;
+            }
+        };
+        half.setEquivalence(Equivalence.tolerance(1.0));
+        assertEquals(6.0, half.evaluateDouble(), 0.0);
+        set(13);
+        assertEquals(6.0, half.evaluateDouble(), 0.0);
+        set(16);
+        assertEquals(8.0, half.evaluateDouble(), 0.0);
+
+        BooleanConstraint never = new BooleanConstraint(this.source) {
+            @Override
+            public boolean getBooleanValue() {
+                return IntConstraint.evaluateInt(source) > 20;
+            }
+        };
+        never.setEquivalence((oldValue, newValue) -> true);
+        assertEquals(false, never.evaluateBoolean());
+        set(30);
+        assertEquals(false, never.evaluateBoolean());
+    }
+
+    @Test
+    public void referencesAreComparedByDefault() {
+        Constraint<String> name = new Constraint<String>(this.source) {
+            @Override
+            public String getValue() {
+                return new String("node");
+            }
+        };
+        Constraint<Integer> length = new Constraint<Integer>(name) {
+            @Override
+            public Integer getValue() {
+                evaluations[0]++;
+                return name.evaluate().length();
+            }
+        };
+        assertEquals(Equivalence.IDENTITY, name.getEquivalence());
+        assertEquals(4, (int) length.evaluate());
+        set(3);
+        length.evaluate();
+        assertEquals(2, evaluations[0]);
+
+        name.setEquivalence(Equivalence.EQUALS);
+        set(4);
+        length.evaluate();
+        assertEquals(2, evaluations[0]);
+        assertEquals(1, name.getSavedEvaluations());
+    }
+}
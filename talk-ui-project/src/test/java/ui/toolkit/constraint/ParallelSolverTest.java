@@ -0,0 +1,172 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ParallelSolverTest {
+    private static final int GROUPS = 40;
+    private static final int SOURCES = 3;
+    private static final int NODES = 20;
+
+    // a hash of its inputs, counting its evaluations from any thread
+    private static final class Node extends IntConstraint {
+        private final List<Dependency<Integer>> inputs;
+        private final int id;
+        private final boolean slow;
+        private final AtomicInteger evaluations = new AtomicInteger();
+
+        private Node(int id, boolean slow, List<Dependency<Integer>> inputs) {
+            super(inputs.toArray(new Dependency<?>[0]));
+            this.inputs = inputs;
+            this.id = id;
+            this.slow = slow;
+        }
+
+        @Override
+        public int getIntValue() {
+            this.evaluations.incrementAndGet();
+            if (this.slow) {
+                // long enough for another task to reach it at the same time
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            int value = this.id;
+            for (Dependency<Integer> input : this.inputs) {
+                value = 31 * value + IntConstraint.evaluateInt(input);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * The same random graph each time: groups of nodes over their own
+     * sources, each with new constraints reading a common new input
+     */
+    private static final class Graph {
+        private final List<NoConstraint<Integer>> sources = new ArrayList<>();
+        private final List<Node> nodes = new ArrayList<>();
+        // new in each group, read by two more new ones on different sides
+        private final List<Node> fresh = new ArrayList<>();
+
+        private Graph(long seed) {
+            Random random = new Random(seed);
+            for (int group = 0; group < GROUPS; ++group) {
+                List<Dependency<Integer>> members = new ArrayList<>();
+                for (int i = 0; i < SOURCES; ++i) {
+                    NoConstraint<Integer> source = new NoConstraint<>();
+                    source.setValue(random.nextInt(100));
+                    this.sources.add(source);
+                    members.add(source);
+                }
+                for (int i = 0; i < NODES; ++i) {
+                    List<Dependency<Integer>> inputs = new ArrayList<>();
+                    for (int k = 1 + random.nextInt(3); k > 0; --k) {
+                        inputs.add(members.get(random.nextInt(members.size())));
+                    }
+                    Node node = node(false, inputs);
+                    members.add(node);
+                }
+                for (int i = SOURCES; i < members.size(); ++i) {
+                    ((Node) members.get(i)).evaluateInt();
+                }
+
+                Node shared = node(true, single(members.get(0)));
+                Node left = node(false, single(shared));
+                Node right = node(false, single(shared));
+                this.fresh.add(node(false, pair(left, members.get(SOURCES))));
+                this.fresh.add(node(false, pair(right, members.get(SOURCES + 1))));
+            }
+        }
+
+        private Node node(boolean slow, List<Dependency<Integer>> inputs) {
+            Node node = new Node(this.nodes.size(), slow, inputs);
+            this.nodes.add(node);
+            return node;
+        }
+
+        private static List<Dependency<Integer>> single(Dependency<Integer> input) {
+            List<Dependency<Integer>> inputs = new ArrayList<>();
+            inputs.add(input);
+            return inputs;
+        }
+
+        private static List<Dependency<Integer>> pair(Dependency<Integer> first, Dependency<Integer> second) {
+            List<Dependency<Integer>> inputs = single(first);
+            inputs.add(second);
+            return inputs;
+        }
+
+        // install the new constraints, as setX(constraint) does
+        private void install() {
+            for (Node node : this.fresh) {
+                node.notifyValueChange(true);
+            }
+        }
+
+        private void edit(Random random, int edits) {
+            for (int i = 0; i < edits; ++i) {
+                NoConstraint<Integer> source = this.sources.get(random.nextInt(this.sources.size()));
+                source.setValue(random.nextInt(100));
+                source.notifyValueChange(false);
+            }
+        }
+
+        private void evaluate() {
+            for (Node node : this.nodes) {
+                node.evaluateInt();
+            }
+        }
+    }
+
+    @Test
+    public void parallelResultsMatchSequentialOnes() {
+        Graph sequential = new Graph(42);
+        Graph parallel = new Graph(42);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ParallelSolver solver = new ParallelSolver(pool);
+        solver.setSequentialThreshold(1);
+        try {
+            for (int round = 0; round < 20; ++round) {
+                if (round == 0) {
+                    sequential.install();
+                } else {
+                    sequential.edit(new Random(round), 1 + round * 3);
+                }
+                sequential.evaluate();
+
+                solver.attach();
+                if (round == 0) {
+                    parallel.install();
+                } else {
+                    parallel.edit(new Random(round), 1 + round * 3);
+                }
+                solver.solve();
+                solver.detach();
+
+                for (int i = 0; i < parallel.nodes.size(); ++i) {
+                    Node node = parallel.nodes.get(i);
+                    Node expected = sequential.nodes.get(i);
+                    assertFalse("round " + round + " node " + i, node.isOutOfDate());
+                    assertEquals("round " + round + " node " + i, expected.intValue, node.intValue);
+                    // evaluated by one task only, and no more than needed
+                    assertEquals("round " + round + " node " + i,
+                            expected.evaluations.get(), node.evaluations.get());
+                }
+            }
+        } finally {
+            solver.detach();
+            pool.shutdown();
+        }
+    }
+}
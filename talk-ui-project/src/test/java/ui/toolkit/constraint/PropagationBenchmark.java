@@ -0,0 +1,141 @@
+package ui.toolkit.constraint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compares out-of-date propagation in Dependency against the previous
+ * recursive implementation on chain, fan-out and diamond graphs.
+ *
+ * Run with: java ui.toolkit.constraint.PropagationBenchmark [maxNodes]
+ * (a larger thread stack is NOT given to the recursive version on purpose)
+ */
+public class PropagationBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    public static void main(String[] args) {
+        int maxNodes = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+        System.out.println(String.format("%-8s %9s %14s %14s", "shape", "nodes", "worklist (ms)", "recursive (ms)"));
+        for (int nodes = 10000; nodes <= maxNodes; nodes *= 10) {
+            for (String shape : new String[] { "chain", "fan-out", "diamond" }) {
+                List<Dependency<?>> graph = build(shape, nodes);
+                List<LegacyNode> legacyGraph = buildLegacy(shape, nodes);
+                System.out.println(String.format("%-8s %9d %14s %14s", shape, nodes,
+                        measure(graph), measureLegacy(legacyGraph)));
+            }
+        }
+    }
+
+    /**
+     * Graph shapes: node 0 is always the source of the propagation
+     */
+    private static List<Dependency<?>> build(String shape, int nodes) {
+        Dependency<?>[] graph = new Dependency<?>[nodes];
+        int[][] sources = new int[nodes][];
+        graph[0] = new NoConstraint<Integer>();
+        sources[0] = new int[0];
+        for (int i = 1; i < nodes; ++i) {
+            graph[i] = new NoConstraint<Integer>();
+            sources[i] = sources(shape, i);
+        }
+        Dependency.connectAll(graph, sources, true);
+        return Arrays.asList(graph);
+    }
+
+    private static List<LegacyNode> buildLegacy(String shape, int nodes) {
+        List<LegacyNode> graph = new ArrayList<>(nodes);
+        graph.add(new LegacyNode());
+        for (int i = 1; i < nodes; ++i) {
+            graph.add(new LegacyNode());
+            for (int source : sources(shape, i)) {
+                graph.get(source).outEdges.add(graph.get(i));
+            }
+        }
+        return graph;
+    }
+
+    // chain: i-1 -> i; fan-out: 0 -> i; diamond: stacked diamonds a -> b, c -> d
+    private static int[] sources(String shape, int i) {
+        switch (shape) {
+            case "chain":
+                return new int[] { i - 1 };
+            case "fan-out":
+                return new int[] { 0 };
+            case "diamond":
+                return (i % 3 == 0) ? new int[] { i - 2, i - 1 } : new int[] { (i - 1) / 3 * 3 };
+            default:
+                throw new RuntimeException("Not supported graph shape");
+        }
+    }
+
+    private static String measure(List<Dependency<?>> graph) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+            for (Dependency<?> node : graph) {
+                node.setOutOfDate(false);
+            }
+            long start = System.nanoTime();
+            graph.get(0).notifyValueChange(false);
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return String.format("%.3f", best / 1e6);
+    }
+
+    private static String measureLegacy(List<LegacyNode> graph) {
+        long best = Long.MAX_VALUE;
+        try {
+            for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; ++round) {
+                for (LegacyNode node : graph) {
+                    node.outOfDate = false;
+                    node.visited = false;
+                }
+                long start = System.nanoTime();
+                graph.get(0).notifyValueChange(false);
+                long elapsed = System.nanoTime() - start;
+                if (round >= WARMUP_ROUNDS) {
+                    best = Math.min(best, elapsed);
+                }
+            }
+        } catch (StackOverflowError e) {
+            return "stack overflow";
+        }
+        return String.format("%.3f", best / 1e6);
+    }
+
+    /**
+     * LegacyNode: the recursive visited-flag propagation replaced by the worklist
+     */
+    private static class LegacyNode {
+        private boolean outOfDate = false;
+        private boolean visited = false;
+        private List<LegacyNode> outEdges = new ArrayList<>();
+
+        public void notifyValueChange(boolean selfOutOfDate) {
+            this.visited = true;
+            this.outOfDate = selfOutOfDate;
+            for (LegacyNode end : this.outEdges) {
+                end.markOutOfDate();
+            }
+            this.visited = false;
+        }
+
+        public void markOutOfDate() {
+            if (this.visited) {
+                return;
+            }
+            this.visited = true;
+            if (!this.outOfDate) {
+                this.outOfDate = true;
+                for (LegacyNode end : this.outEdges) {
+                    end.markOutOfDate();
+                }
+            }
+            this.visited = false;
+        }
+    }
+}
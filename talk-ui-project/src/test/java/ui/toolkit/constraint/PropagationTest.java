@@ -0,0 +1,184 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PropagationTest {
+    // the largest input plus an offset, counting its evaluations
+    private static final class Node extends IntConstraint {
+        private final int offset;
+        private int evaluations = 0;
+
+        private Node(int offset, Dependency<?>... inputs) {
+            super(inputs);
+            this.offset = offset;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int getIntValue() {
+            this.evaluations++;
+            int value = Integer.MIN_VALUE;
+            for (int i = 0; i < getInDegree(); ++i) {
+                value = Math.max(value, IntConstraint.evaluateInt((Dependency<Integer>) getInEdge(i).getStart()));
+            }
+            return value + this.offset;
+        }
+    }
+
+    private final NoConstraint<Integer> source = new NoConstraint<>();
+    private final List<Node> nodes = new ArrayList<>();
+
+    {
+        this.source.setValue(0);
+    }
+
+    private Node node(int offset, Dependency<?>... inputs) {
+        Node node = new Node(offset, inputs);
+        this.nodes.add(node);
+        return node;
+    }
+
+    // how many times each dependency was marked out-of-date by the change
+    private static Map<Dependency<?>, Integer> marks(Runnable change) {
+        Map<Dependency<?>, Integer> marks = new IdentityHashMap<>();
+        InvalidationListener listener = dependency -> marks.merge(dependency, 1, Integer::sum);
+        Dependency.addInvalidationListener(listener);
+        try {
+            change.run();
+        } finally {
+            Dependency.removeInvalidationListener(listener);
+        }
+        return marks;
+    }
+
+    private Map<Dependency<?>, Integer> set(NoConstraint<Integer> input, int value) {
+        return marks(() -> {
+            input.setValue(value);
+            input.notifyValueChange(false);
+        });
+    }
+
+    private void assertMarkedOnce(Map<Dependency<?>, Integer> marks) {
+        assertEquals(this.nodes.size(), marks.size());
+        for (Node node : this.nodes) {
+            assertEquals(Integer.valueOf(1), marks.get(node));
+            assertTrue(node.isOutOfDate());
+        }
+    }
+
+    private void assertEvaluated(int times) {
+        for (Node node : this.nodes) {
+            assertEquals(times, node.evaluations);
+            assertFalse(node.isOutOfDate());
+        }
+    }
+
+    @Test
+    public void diamondsAreMarkedAndEvaluatedOnce() {
+        // stacked diamonds: top -> left, right -> bottom, each bottom the next top
+        int diamonds = 200;
+        Dependency<?> top = this.source;
+        List<Node> bottoms = new ArrayList<>();
+        for (int i = 0; i < diamonds; ++i) {
+            Node left = node(1, top);
+            Node right = node(2, top);
+            Node bottom = node(0, left, right);
+            bottoms.add(bottom);
+            top = bottom;
+        }
+        assertEquals(2 * diamonds, bottoms.get(diamonds - 1).evaluateInt());
+        assertEvaluated(1);
+
+        assertMarkedOnce(set(this.source, 5));
+        // lazily, from the last bottom: shared inputs are refreshed once
+        assertEquals(5 + 2 * diamonds, bottoms.get(diamonds - 1).evaluateInt());
+        assertEvaluated(2);
+        for (int i = 0; i < diamonds; ++i) {
+            assertEquals(5 + 2 * (i + 1), bottoms.get(i).evaluateInt());
+        }
+    }
+
+    @Test
+    public void deepChainsAreMarkedWithoutRecursion() {
+        int depth = 100000;
+        Dependency<?> previous = this.source;
+        for (int i = 0; i < depth; ++i) {
+            previous = node(1, previous);
+        }
+        // front to back, as a recursive refresh this deep would overflow too
+        for (Node node : this.nodes) {
+            node.evaluateInt();
+        }
+        assertEquals(depth, this.nodes.get(depth - 1).evaluateInt());
+
+        assertMarkedOnce(set(this.source, 7));
+        for (Node node : this.nodes) {
+            node.evaluateInt();
+        }
+        assertEvaluated(2);
+        for (int i = 0; i < depth; ++i) {
+            assertEquals(7 + i + 1, this.nodes.get(i).intValue);
+        }
+    }
+
+    @Test
+    public void cyclesAreMarkedOnceAroundTheCycle() {
+        // source -> ring[0] -> ... -> ring[9] -> ring[0], ring[9] -> tail
+        int size = 10;
+        Node first = node(0, this.source);
+        Node previous = first;
+        for (int i = 1; i < size; ++i) {
+            previous = node(0, previous);
+        }
+        Edge back = new Edge(previous, first);
+        previous.addOutEdge(back);
+        first.addInEdge(back);
+        Node tail = node(1, previous);
+        assertTrue(first.isInCycleWith(previous));
+        assertFalse(tail.hasCycle());
+
+        // consistent values, so that evaluating around the cycle keeps them
+        for (Node node : this.nodes) {
+            node.setIntValue(3);
+        }
+        assertEquals(4, tail.evaluateInt());
+        assertEvaluated(1);
+
+        // an input change that leaves the cycle as it is: only the member
+        // reading it is re-computed, the others are cut off
+        assertMarkedOnce(set(this.source, 2));
+        assertEquals(4, tail.evaluateInt());
+        for (Node node : this.nodes) {
+            assertEquals((node == first) ? 2 : 1, node.evaluations);
+            assertFalse(node.isOutOfDate());
+        }
+
+        // a member set directly, as Widget.setValue() does for a cycle: the
+        // others are marked once and follow it
+        Map<Dependency<?>, Integer> marks = marks(() -> {
+            first.setIntValue(8);
+            first.notifyValueChange(false);
+        });
+        assertFalse(marks.containsKey(first));
+        assertFalse(first.isOutOfDate());
+        for (Node node : this.nodes) {
+            if (node != first) {
+                assertEquals(Integer.valueOf(1), marks.get(node));
+            }
+        }
+        assertEquals(9, tail.evaluateInt());
+        assertEvaluated(2);
+        for (Node node : this.nodes) {
+            assertEquals((node == tail) ? 9 : 8, node.intValue);
+        }
+    }
+}
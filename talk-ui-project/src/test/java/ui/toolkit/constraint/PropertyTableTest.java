@@ -0,0 +1,162 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.group.LayoutGroup;
+import ui.toolkit.graphics.object.OutlineRect;
+import ui.toolkit.graphics.object.selectable.SelectableOutlineRect;
+
+public class PropertyTableTest {
+    private static List<String> names(PropertyTable table) {
+        List<String> names = new ArrayList<>();
+        for (PropertyTable.Property property : table.getProperties()) {
+            names.add(property.getName());
+        }
+        return names;
+    }
+
+    // the properties the Introspector finds, as PropertySheet lists them
+    private static List<String> introspected(Class<?> type) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() != null && !descriptor.getName().equals("class")) {
+                names.add(descriptor.getName());
+            }
+        }
+        return names;
+    }
+
+    @Test
+    public void listsTheBeanProperties() throws Exception {
+        for (Class<?> type : new Class<?>[] { OutlineRect.class, SelectableOutlineRect.class, LayoutGroup.class }) {
+            assertEquals(introspected(type), names(PropertyTable.of(type)));
+        }
+        assertSame(PropertyTable.of(OutlineRect.class), PropertyTable.of(OutlineRect.class));
+        assertNull(PropertyTable.of(OutlineRect.class).get("nothing"));
+    }
+
+    @Test
+    public void getsAndSetsDeclaredProperties() {
+        OutlineRect rect = new OutlineRect(1, 2, 3, 4, Color.RED, 5);
+        PropertyTable table = PropertyTable.of(OutlineRect.class);
+        String[] ints = { "x", "y", "width", "height", "lineThickness" };
+        for (int i = 0; i < ints.length; ++i) {
+            PropertyTable.Property property = table.get(ints[i]);
+            assertSame(int.class, property.getType());
+            assertTrue(property.isWritable());
+            assertTrue(property.isConstrainable());
+            assertEquals(i + 1, property.getInt(rect));
+            assertEquals(i + 1, property.get(rect));
+            property.set(rect, 10 * (i + 1));
+            assertEquals(10 * (i + 1), property.getInt(rect));
+        }
+        assertEquals(10, rect.getX());
+        assertEquals(50, rect.getLineThickness());
+
+        PropertyTable.Property color = table.get("color");
+        assertSame(Color.class, color.getType());
+        color.set(rect, Color.BLUE);
+        assertEquals(Color.BLUE, rect.getColor());
+        try {
+            color.getInt(rect);
+            fail("not an int property");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void reachesTheConstraintsOfDeclaredProperties() {
+        OutlineRect rect = new OutlineRect();
+        OutlineRect other = new OutlineRect(7, 0, 10, 10, Color.BLACK, 1);
+        PropertyTable.Property x = PropertyTable.of(OutlineRect.class).get("x");
+
+        assertTrue(NoConstraint.isUnused(x.getConstraint(rect)));
+        Constraint<?> used = x.use(rect);
+        assertFalse(NoConstraint.isUnused(used));
+        assertSame(used, x.getConstraint(rect));
+        assertSame(used, x.use(rect));
+
+        Constraint<Integer> follow = TrackedConstraint.of(() -> other.getX() + 1);
+        x.setConstraint(rect, follow);
+        assertSame(follow, x.getConstraint(rect));
+        assertEquals(8, x.getInt(rect));
+        other.setX(20);
+        assertEquals(21, rect.getX());
+    }
+
+    @Test
+    public void inheritsTheDeclaredPropertiesOfSuperclasses() {
+        SelectableOutlineRect rect = new SelectableOutlineRect(1, 2, 3, 4, Color.RED, 1);
+        PropertyTable table = PropertyTable.of(SelectableOutlineRect.class);
+        assertSame(PropertyTable.of(OutlineRect.class).get("x"), table.get("x"));
+        assertEquals(1, table.get("x").getInt(rect));
+
+        PropertyTable.Property selected = table.get("selected");
+        assertSame(boolean.class, selected.getType());
+        assertTrue(selected.isConstrainable());
+        selected.set(rect, true);
+        assertTrue(rect.isSelected());
+        assertEquals(true, selected.get(rect));
+    }
+
+    @Test
+    public void looksUpHandWrittenAccessorsReflectively() {
+        LayoutGroup group = new LayoutGroup(0, 0, 100, 100, LayoutGroup.HORIZONTAL, 5);
+        PropertyTable.Property layout = PropertyTable.of(LayoutGroup.class).get("layout");
+        assertTrue(layout.isWritable());
+        assertTrue(layout.isConstrainable());
+        assertEquals(LayoutGroup.HORIZONTAL, layout.getInt(group));
+        layout.set(group, LayoutGroup.VERTICAL);
+        assertEquals(LayoutGroup.VERTICAL, group.getLayout());
+
+        assertTrue(NoConstraint.isUnused(layout.getConstraint(group)));
+        Constraint<?> used = layout.use(group);
+        assertSame(used, layout.getConstraint(group));
+        Constraint<Integer> grid = TrackedConstraint.of(() -> LayoutGroup.GRID);
+        layout.setConstraint(group, grid);
+        assertEquals(LayoutGroup.GRID, group.getLayout());
+
+        // a checked setter still checks through the table
+        try {
+            PropertyTable.of(LayoutGroup.class).get("layout").set(new LayoutGroup(), 99);
+            fail("unsupported layout");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void readOnlyPropertiesCannotBeSetOrConstrained() {
+        PropertyTable.Property bounds = PropertyTable.of(OutlineRect.class).get("boundingBox");
+        OutlineRect rect = new OutlineRect(1, 2, 3, 4, Color.RED, 1);
+        assertFalse(bounds.isWritable());
+        assertFalse(bounds.isConstrainable());
+        assertEquals(rect.getBoundingBox(), bounds.get(rect));
+        try {
+            bounds.set(rect, null);
+            fail("read-only");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            bounds.use(rect);
+            fail("not constrainable");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}
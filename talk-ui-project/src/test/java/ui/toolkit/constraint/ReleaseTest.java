@@ -0,0 +1,99 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.group.SimpleGroup;
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class ReleaseTest {
+    private final OutlineRect leader = new OutlineRect(10, 20, 30, 40, Color.RED, 1);
+
+    private Dependency<?> x(OutlineRect rect) {
+        return PropertyTable.of(OutlineRect.class).get("x").getConstraint(rect);
+    }
+
+    @Test
+    public void releaseDetachesEdges() {
+        OutlineRect follower = new OutlineRect();
+        follower.setX(TrackedConstraint.of(() -> leader.getX() + 5));
+        assertEquals(15, follower.getX());
+        Dependency<?> followerX = x(follower);
+        assertEquals(1, x(leader).getOutDegree());
+        assertEquals(1, followerX.getInDegree());
+
+        follower.release();
+        assertEquals(0, x(leader).getOutDegree());
+        assertEquals(0, followerX.getInDegree());
+        // keeps its last value, and no longer follows
+        leader.setX(50);
+        assertEquals(15, follower.getX());
+    }
+
+    @Test
+    public void deleteChildRemovesAndReleasesIt() {
+        SimpleGroup group = new SimpleGroup(0, 0, 100, 100);
+        OutlineRect child = new OutlineRect();
+        group.addChild(child);
+        child.setWidth(TrackedConstraint.of(() -> leader.getWidth() * 2));
+        assertEquals(60, child.getWidth());
+        Dependency<?> width = PropertyTable.of(OutlineRect.class).get("width").getConstraint(leader);
+        assertEquals(1, width.getOutDegree());
+
+        group.deleteChild(child);
+        assertFalse(group.getChildren().contains(child));
+        assertNull(child.getGroup());
+        assertEquals(0, width.getOutDegree());
+    }
+
+    @Test
+    public void weakEdgesToCollectedDependenciesArePruned() throws InterruptedException {
+        NoConstraint<Integer> source = new NoConstraint<>();
+        source.setValue(1);
+        Constraint<Integer> kept;
+        WeakReference<Dependency<?>> dropped;
+        boolean weak = Dependency.hasWeakEdges();
+        Dependency.setWeakEdges(true);
+        try {
+            kept = follow(source);
+            dropped = new WeakReference<>(follow(source));
+        } finally {
+            Dependency.setWeakEdges(weak);
+        }
+        assertEquals(2, source.getOutDegree());
+
+        for (int i = 0; i < 50 && dropped.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(dropped.get());
+        // still counted until the next propagation through the source
+        assertEquals(2, source.getOutDegree());
+
+        source.setValue(2);
+        source.notifyValueChange(false);
+        assertEquals(1, source.getOutDegree());
+        assertSame(kept, source.getOutEdge(0).getEnd());
+        assertTrue(kept.isOutOfDate());
+        assertEquals(3, (int) kept.evaluate());
+    }
+
+    private static Constraint<Integer> follow(NoConstraint<Integer> source) {
+        Constraint<Integer> follower = new Constraint<Integer>(source) {
+            @Override
+            public Integer getValue() {
+                return source.evaluate() + 1;
+            }
+        };
+        follower.evaluate();
+        return follower;
+    }
+}
@@ -0,0 +1,103 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TrackedConstraintTest {
+    private static NoConstraint<Integer> input(int value) {
+        NoConstraint<Integer> input = new NoConstraint<>();
+        input.setValue(value);
+        return input;
+    }
+
+    private static void set(NoConstraint<Integer> input, int value) {
+        input.setValue(value);
+        input.notifyValueChange(false);
+    }
+
+    private static int read(Dependency<Integer> input) {
+        input.track();
+        return input.evaluate();
+    }
+
+    // the inputs of a dependency, asserting that none has two edges
+    private static Set<Dependency<?>> inputsOf(Dependency<?> dependency) {
+        Set<Dependency<?>> inputs = new HashSet<>();
+        for (Edge edge : dependency.getInEdges()) {
+            assertTrue("one edge per input", inputs.add(edge.getStart()));
+            assertTrue(edge.getStart().getOutEdges().contains(edge));
+        }
+        return inputs;
+    }
+
+    @Test
+    public void repeatedReadsGetOneEdge() {
+        List<NoConstraint<Integer>> inputs = new ArrayList<>();
+        for (int i = 0; i < 2000; ++i) {
+            inputs.add(input(i));
+        }
+        TrackedConstraint<Integer> sum = TrackedConstraint.of(() -> {
+            int total = 0;
+            for (int pass = 0; pass < 3; ++pass) {
+                for (NoConstraint<Integer> input : inputs) {
+                    total += read(input);
+                }
+            }
+            return total;
+        });
+        assertEquals(3 * 1999 * 1000, (int) sum.evaluate());
+        assertEquals(new HashSet<>(inputs), inputsOf(sum));
+
+        set(inputs.get(7), 1007);
+        assertEquals(3 * (1999 * 1000 + 1000), (int) sum.evaluate());
+        assertEquals(inputs.size(), sum.getInEdges().size());
+    }
+
+    @Test
+    public void edgesFollowTheBranchTaken() {
+        NoConstraint<Integer> flag = input(1);
+        NoConstraint<Integer> first = input(10);
+        NoConstraint<Integer> second = input(20);
+        TrackedConstraint<Integer> choice = TrackedConstraint.of(
+                () -> (read(flag) != 0) ? read(first) + read(first) : read(second));
+        assertEquals(20, (int) choice.evaluate());
+        assertEquals(new HashSet<>(Arrays.asList(flag, first)), inputsOf(choice));
+
+        set(flag, 0);
+        assertEquals(20, (int) choice.evaluate());
+        assertEquals(new HashSet<>(Arrays.asList(flag, second)), inputsOf(choice));
+        assertEquals(0, first.getOutEdges().size());
+
+        // no longer an input
+        set(first, 11);
+        assertFalse(choice.isOutOfDate());
+        set(second, 21);
+        assertEquals(21, (int) choice.evaluate());
+    }
+
+    @Test
+    public void nestedCapturesKeepTheirOwnReads() {
+        NoConstraint<Integer> shared = input(3);
+        NoConstraint<Integer> other = input(4);
+        TrackedConstraint<Integer> inner = TrackedConstraint.of(() -> read(shared) * read(other));
+        // shared is read before and after inner captures it as well
+        TrackedConstraint<Integer> outer = TrackedConstraint.of(() -> read(shared) + read(inner) + read(shared));
+        assertEquals(18, (int) outer.evaluate());
+        assertEquals(new HashSet<>(Arrays.asList(shared, other)), inputsOf(inner));
+        assertEquals(new HashSet<>(Arrays.asList(shared, inner)), inputsOf(outer));
+
+        set(shared, 5);
+        assertEquals(30, (int) outer.evaluate());
+        assertEquals(2, outer.getInEdges().size());
+        assertEquals(2, inner.getInEdges().size());
+    }
+}
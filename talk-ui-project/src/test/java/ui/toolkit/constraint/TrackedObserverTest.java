@@ -0,0 +1,95 @@
+package ui.toolkit.constraint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class TrackedObserverTest {
+    private final PropertyTable table = PropertyTable.of(OutlineRect.class);
+    private final OutlineRect rect = new OutlineRect(10, 20, 30, 40, Color.RED, 1);
+    private int calls = 0;
+    private final TrackedObserver<Rectangle> observer = new TrackedObserver<>(rect::getBoundingBox, () -> calls++);
+
+    private boolean isUnused(String name) {
+        return NoConstraint.isUnused(table.get(name).getConstraint(rect));
+    }
+
+    @Test
+    public void watchesUnusedPropertiesWithoutConstraints() {
+        assertEquals(new Rectangle(10, 20, 30, 40), observer.evaluate());
+        assertTrue(isUnused("x"));
+        assertTrue(isUnused("width"));
+        assertTrue(isUnused("lineThickness"));
+
+        rect.setX(15);
+        assertEquals(1, calls);
+        // once until evaluated again
+        rect.setWidth(35);
+        assertEquals(1, calls);
+        assertEquals(new Rectangle(15, 20, 35, 40), observer.evaluate());
+        rect.setY(25);
+        assertEquals(2, calls);
+        assertEquals(new Rectangle(15, 25, 35, 40), observer.evaluate());
+
+        // an unused property it does not read is not watched
+        rect.setColor(Color.BLUE);
+        assertEquals(2, calls);
+        assertTrue(isUnused("x"));
+    }
+
+    @Test
+    public void followsPropertiesThatGetConstraintsLater() {
+        observer.evaluate();
+        rect.useX();
+        assertFalse(isUnused("x"));
+        rect.setX(50);
+        assertEquals(1, calls);
+        assertEquals(50, observer.evaluate().x);
+
+        OutlineRect other = new OutlineRect(0, 0, 100, 10, Color.BLACK, 1);
+        rect.setWidth(TrackedConstraint.of(() -> other.getWidth() / 2));
+        assertEquals(2, calls);
+        assertEquals(50, observer.evaluate().width);
+        other.setWidth(60);
+        assertEquals(3, calls);
+        assertEquals(30, observer.evaluate().width);
+    }
+
+    @Test
+    public void notifiesEveryObserverOfAnObject() {
+        int[] others = { 0 };
+        TrackedObserver<Integer> other = new TrackedObserver<>(rect::getX, () -> others[0]++);
+        observer.evaluate();
+        other.evaluate();
+        rect.setX(11);
+        assertEquals(1, calls);
+        assertEquals(1, others[0]);
+
+        other.dispose();
+        observer.evaluate();
+        rect.setX(12);
+        assertEquals(2, calls);
+        assertEquals(1, others[0]);
+
+        observer.dispose();
+        rect.setX(13);
+        assertEquals(2, calls);
+    }
+
+    @Test
+    public void otherTrackedConstraintsStillUseConstraints() {
+        OutlineRect follower = new OutlineRect();
+        follower.setX(TrackedConstraint.of(() -> rect.getX() + 5));
+        assertEquals(15, follower.getX());
+        assertFalse(isUnused("x"));
+        rect.setX(20);
+        assertEquals(25, follower.getX());
+    }
+}
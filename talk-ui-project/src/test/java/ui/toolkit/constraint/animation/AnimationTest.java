@@ -0,0 +1,52 @@
+package ui.toolkit.constraint.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AnimationTest {
+    private static final long MILLIS = 1000000L;
+
+    private int wakeUps = 0;
+    private final FrameClock clock = new FrameClock(() -> wakeUps++);
+    private final long origin = System.nanoTime();
+
+    @Test
+    public void tweenStartedAfterIdleGapStartsAtFirstFrame() {
+        Tween first = new Tween(clock, 0, 100, 100);
+        first.start();
+        assertTrue(clock.tick(origin + 20 * MILLIS));
+        assertEquals(0, first.evaluateInt());
+        assertTrue(clock.tick(origin + 70 * MILLIS));
+        assertEquals(50, first.evaluateInt());
+        assertFalse(clock.tick(origin + 120 * MILLIS));
+        assertEquals(100, first.evaluateInt());
+
+        // idle for 10 s: the clock is not ticked and keeps its last time
+        Tween second = new Tween(clock, 0, 100, 100);
+        second.start();
+        assertEquals(2, wakeUps);
+        assertTrue(clock.tick(origin + 10100 * MILLIS));
+        assertEquals(0, second.evaluateInt());
+        assertTrue(clock.tick(origin + 10125 * MILLIS));
+        assertEquals(25, second.evaluateInt());
+        assertFalse(clock.tick(origin + 10200 * MILLIS));
+        assertEquals(100, second.evaluateInt());
+    }
+
+    @Test
+    public void tweenStartedWhileClockRunsStartsAtCurrentFrame() {
+        Tween first = new Tween(clock, 0, 100, 1000);
+        first.start();
+        clock.tick(origin + 20 * MILLIS);
+        clock.tick(origin + 100 * MILLIS);
+
+        Tween second = new Tween(clock, 0, 100, 100);
+        second.start();
+        assertEquals(1, wakeUps);
+        clock.tick(origin + 150 * MILLIS);
+        assertEquals(50, second.evaluateInt());
+    }
+}
@@ -0,0 +1,177 @@
+package ui.toolkit.constraint.linear;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static ui.toolkit.constraint.linear.LinearExpression.of;
+
+import org.junit.Test;
+
+public class LinearSolverTest {
+    private static final double DELTA = 1.0e-6;
+
+    private final LinearSolver solver = new LinearSolver();
+    private final Variable left = new Variable("left");
+    private final Variable width = new Variable("width");
+    private final Variable right = new Variable("right");
+
+    // right = left + width inside [0, 500], width preferably 100, left dragged
+    private void addBox() {
+        solver.addConstraint(of(right).equalTo(of(left).plus(width)));
+        solver.addConstraint(of(left).greaterOrEqual(0));
+        solver.addConstraint(of(right).lessOrEqual(500));
+        solver.addConstraint(of(width).equalTo(100).withStrength(Strength.MEDIUM));
+        solver.addConstraint(of(width).greaterOrEqual(20));
+        solver.addEditVariable(left, Strength.STRONG);
+    }
+
+    @Test
+    public void requiredConstraintOverridesWeakOne() {
+        solver.addConstraint(of(width).equalTo(100).withStrength(Strength.WEAK));
+        solver.addConstraint(of(width).lessOrEqual(50));
+        solver.updateVariables();
+        assertEquals(50, width.getSolution(), DELTA);
+    }
+
+    @Test
+    public void strongerConstraintWinsOverWeakerOne() {
+        solver.addConstraint(of(width).equalTo(40).withStrength(Strength.WEAK));
+        solver.addConstraint(of(width).equalTo(100).withStrength(Strength.STRONG));
+        solver.updateVariables();
+        assertEquals(100, width.getSolution(), DELTA);
+
+        // a strong constraint outweighs any number of medium ones
+        solver.addConstraint(of(width).equalTo(70).withStrength(Strength.MEDIUM));
+        solver.addConstraint(of(width).equalTo(70).withStrength(Strength.MEDIUM));
+        solver.updateVariables();
+        assertEquals(100, width.getSolution(), DELTA);
+    }
+
+    @Test
+    public void inequalitiesBoundTheSuggestedValue() {
+        addBox();
+        // the strong edit shrinks the medium width down to the required 20
+        solver.suggestValue(left, 450);
+        solver.updateVariables();
+        assertEquals(450, left.getSolution(), DELTA);
+        assertEquals(50, width.getSolution(), DELTA);
+        assertEquals(500, right.getSolution(), DELTA);
+
+        solver.suggestValue(left, 495);
+        solver.updateVariables();
+        assertEquals(480, left.getSolution(), DELTA);
+        assertEquals(20, width.getSolution(), DELTA);
+        assertEquals(500, right.getSolution(), DELTA);
+
+        solver.suggestValue(left, -30);
+        solver.updateVariables();
+        assertEquals(0, left.getSolution(), DELTA);
+        assertEquals(100, right.getSolution(), DELTA);
+    }
+
+    @Test
+    public void suggestValueResolvesEveryTime() {
+        addBox();
+        double[] suggested = { 50, 200, 399, 0, 120 };
+        for (double value : suggested) {
+            solver.suggestValue(left, value);
+            solver.updateVariables();
+            assertEquals(value, left.getSolution(), DELTA);
+            assertEquals(value + 100, right.getSolution(), DELTA);
+        }
+        // nothing changes when the same value is suggested again
+        solver.suggestValue(left, 120);
+        assertEquals(0, solver.updateVariables());
+    }
+
+    @Test
+    public void dragKeepsAChainInOrder() {
+        int n = 50;
+        Variable[] x = new Variable[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = new Variable("x" + i);
+            solver.addConstraint(of(x[i]).equalTo(i * 30).withStrength(Strength.WEAK));
+            if (i > 0) {
+                solver.addConstraint(of(x[i]).greaterOrEqual(of(x[i - 1]).plus(25)));
+            }
+        }
+        solver.addEditVariable(x[0], Strength.STRONG);
+        for (int step = 0; step < 100; ++step) {
+            double value = (step * 37) % 600;
+            solver.suggestValue(x[0], value);
+            solver.updateVariables();
+            assertEquals(value, x[0].getSolution(), DELTA);
+            for (int i = 1; i < n; ++i) {
+                assertTrue(x[i].getSolution() >= x[i - 1].getSolution() + 25 - DELTA);
+                // no box moves further than the chain requires
+                assertEquals(Math.max(i * 30, value + i * 25), x[i].getSolution(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void removedConstraintNoLongerApplies() {
+        addBox();
+        solver.suggestValue(left, 50);
+        LinearConstraint pin = of(left).equalTo(300);
+        solver.addConstraint(pin);
+        solver.updateVariables();
+        assertTrue(solver.hasConstraint(pin));
+        assertEquals(300, left.getSolution(), DELTA);
+
+        solver.removeConstraint(pin);
+        solver.updateVariables();
+        assertFalse(solver.hasConstraint(pin));
+        assertEquals(50, left.getSolution(), DELTA);
+        assertEquals(150, right.getSolution(), DELTA);
+
+        try {
+            solver.removeConstraint(pin);
+            fail("removed twice");
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void unsatisfiableConstraintLeavesSolverAsBefore() {
+        addBox();
+        solver.suggestValue(left, 200);
+        solver.updateVariables();
+
+        LinearConstraint impossible = of(left).plus(width).greaterOrEqual(of(right).plus(10));
+        try {
+            solver.addConstraint(impossible);
+            fail("contradicts right = left + width");
+        } catch (UnsatisfiableConstraintRunTimeException e) {
+            // expected
+        }
+        assertFalse(solver.hasConstraint(impossible));
+        solver.updateVariables();
+        assertEquals(200, left.getSolution(), DELTA);
+        assertEquals(300, right.getSolution(), DELTA);
+
+        // the rebuilt tableau still follows suggestions and honors the bounds
+        solver.suggestValue(left, 495);
+        solver.updateVariables();
+        assertEquals(480, left.getSolution(), DELTA);
+        assertEquals(20, width.getSolution(), DELTA);
+        assertEquals(500, right.getSolution(), DELTA);
+    }
+
+    @Test
+    public void unsatisfiableBoundIsRejected() {
+        addBox();
+        try {
+            solver.addConstraint(of(left).lessOrEqual(-10));
+            fail("contradicts left >= 0");
+        } catch (UnsatisfiableConstraintRunTimeException e) {
+            // expected
+        }
+        solver.suggestValue(left, 10);
+        solver.updateVariables();
+        assertEquals(10, left.getSolution(), DELTA);
+        assertEquals(110, right.getSolution(), DELTA);
+    }
+}
@@ -0,0 +1,87 @@
+package ui.toolkit.graphics.group;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.lang.ref.WeakReference;
+import java.util.function.ToIntFunction;
+
+import org.junit.Test;
+
+import ui.toolkit.constraint.AggregateConstraint;
+import ui.toolkit.constraint.AggregateConstraint.Operation;
+import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.TrackedObserver;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class ChildAggregatesTest {
+    private final SimpleGroup group = new SimpleGroup(0, 0, 200, 200);
+    private final OutlineRect first = new OutlineRect(0, 0, 10, 20, Color.BLACK, 1);
+    private final OutlineRect second = new OutlineRect(0, 30, 10, 40, Color.BLACK, 1);
+
+    @Test
+    public void followsTheChildren() {
+        group.addChild(first);
+        AggregateConstraint height = group.aggregate(Operation.SUM, child -> child.getBoundingBox().height);
+        AggregateConstraint count = group.aggregate(Operation.COUNT, null);
+        assertEquals(20, height.evaluateInt());
+        group.addChild(second);
+        assertEquals(60, height.evaluateInt());
+        assertEquals(2, count.evaluateInt());
+        second.setHeight(50);
+        assertEquals(70, height.evaluateInt());
+        group.removeChild(first);
+        assertEquals(50, height.evaluateInt());
+        assertEquals(1, count.evaluateInt());
+    }
+
+    @Test
+    public void countsTheChildrenWithOneCounter() {
+        Constraint<Integer> count = group.childCount();
+        assertSame(count, group.childCount());
+        int[] calls = { 0 };
+        TrackedObserver<Integer> observer = new TrackedObserver<>(() -> {
+            count.track();
+            return count.evaluate();
+        }, () -> calls[0]++);
+        assertEquals(0, (int) observer.evaluate());
+        group.addChild(first);
+        assertEquals(1, calls[0]);
+        // once until evaluated again
+        group.addChild(second);
+        assertEquals(1, calls[0]);
+        assertEquals(2, (int) observer.evaluate());
+        // removing a child the group does not have changes nothing
+        group.removeChild(new OutlineRect());
+        assertEquals(1, calls[0]);
+        assertEquals(2, (int) observer.evaluate());
+        group.removeChild(first);
+        assertEquals(2, calls[0]);
+        assertEquals(1, (int) observer.evaluate());
+    }
+
+    @Test
+    public void dropsDisposedAggregatesWhenChildrenAreRemoved() throws InterruptedException {
+        group.addChildren(first, second);
+        WeakReference<ToIntFunction<GraphicalObject>> measure = disposedAggregate();
+        // only removals follow, which must release the measure as well
+        group.removeChild(first);
+        for (int i = 0; i < 50 && measure.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(measure.get());
+    }
+
+    private WeakReference<ToIntFunction<GraphicalObject>> disposedAggregate() {
+        int[] offset = { 1 };
+        ToIntFunction<GraphicalObject> measure = child -> child.getBoundingBox().width + offset[0];
+        AggregateConstraint aggregate = group.aggregate(Operation.MAX, measure);
+        assertEquals(11, aggregate.evaluateInt());
+        aggregate.dispose();
+        return new WeakReference<>(measure);
+    }
+}
@@ -0,0 +1,148 @@
+package ui.toolkit.graphics.group;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.FilledEllipse;
+import ui.toolkit.graphics.object.FilledRect;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.Line;
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class DamageTrackerTest {
+    private static final int WIDTH = 320;
+    private static final int HEIGHT = 240;
+    private static final Rectangle WINDOW = new Rectangle(0, 0, WIDTH, HEIGHT);
+
+    private final List<GraphicalObject> objects = new ArrayList<>();
+    private final DamageTracker tracker = new DamageTracker();
+    // kept between redraws, as the window buffer is
+    private final BufferedImage buffer = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+    private final OutlineRect frame = new OutlineRect(10, 10, 60, 40, Color.RED, 3);
+    private final FilledEllipse ball = new FilledEllipse(100, 20, 30, 30, Color.BLUE);
+    private final Line line = new Line(0, 200, 300, 150, Color.BLACK, 2);
+    private final SimpleGroup group = new SimpleGroup(150, 80, 120, 120);
+    private final FilledRect inside = new FilledRect(10, 10, 40, 20, Color.GREEN);
+    private final LayoutGroup column = new LayoutGroup(60, 0, 50, 100, LayoutGroup.VERTICAL, 4);
+
+    {
+        Graphics2D graphics = buffer.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, WIDTH, HEIGHT);
+        graphics.dispose();
+
+        group.addChild(inside);
+        group.addChild(column);
+        column.addChild(new FilledRect(0, 0, 30, 10, Color.ORANGE));
+        column.addChild(new FilledRect(0, 0, 20, 10, Color.MAGENTA));
+        for (GraphicalObject object : new GraphicalObject[] { frame, ball, line, group }) {
+            objects.add(object);
+            tracker.track(object);
+        }
+    }
+
+    private static Graphics2D graphics(BufferedImage image) {
+        Graphics2D graphics = image.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+        return graphics;
+    }
+
+    private int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+    }
+
+    private List<Rectangle> redrawDamage() {
+        Graphics2D graphics = graphics(this.buffer);
+        try {
+            return tracker.redraw(graphics, WINDOW, Color.WHITE, objects);
+        } finally {
+            graphics.dispose();
+        }
+    }
+
+    private int[] redrawAll() {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = graphics(image);
+        BoundaryRectangle clip = new BoundaryRectangle(WINDOW);
+        graphics.setColor(Color.WHITE);
+        graphics.fill(clip);
+        for (GraphicalObject object : objects) {
+            object.draw(graphics, clip);
+        }
+        graphics.dispose();
+        return pixels(image);
+    }
+
+    private void assertSameAsFullRedraw() {
+        List<Rectangle> drawn = redrawDamage();
+        assertFalse(tracker.hasDamage());
+        assertArrayEquals(redrawAll(), pixels(this.buffer));
+        for (Rectangle area : drawn) {
+            assertTrue(WINDOW.contains(area));
+        }
+    }
+
+    @Test
+    public void damagedRedrawMatchesFullRedraw() {
+        assertSameAsFullRedraw();
+        assertTrue(redrawDamage().isEmpty());
+
+        frame.moveTo(40, 30);
+        assertSameAsFullRedraw();
+
+        ball.setColor(Color.CYAN);
+        ball.setWidth(50);
+        assertSameAsFullRedraw();
+
+        line.setX2(100);
+        assertSameAsFullRedraw();
+
+        // nested children, in group coordinates
+        inside.moveTo(0, 70);
+        assertSameAsFullRedraw();
+        group.moveTo(120, 60);
+        assertSameAsFullRedraw();
+
+        // a layout moves the other children when one is added or removed
+        column.addChild(new FilledRect(0, 0, 40, 25, Color.PINK));
+        assertSameAsFullRedraw();
+        column.removeChild(column.getChildren().get(0));
+        assertSameAsFullRedraw();
+        group.deleteChild(inside);
+        assertSameAsFullRedraw();
+
+        // a new top-level object, and one going away
+        OutlineRect late = new OutlineRect(200, 5, 50, 30, Color.DARK_GRAY, 1);
+        objects.add(late);
+        tracker.track(late);
+        assertSameAsFullRedraw();
+        tracker.untrack(ball);
+        objects.remove(ball);
+        assertSameAsFullRedraw();
+    }
+
+    @Test
+    public void onlyChangedAreasAreDrawn() {
+        redrawDamage();
+        frame.moveTo(12, 10);
+        List<Rectangle> drawn = redrawDamage();
+        assertEquals(1, drawn.size());
+        // the old and new bounds of the frame, padded
+        assertTrue(drawn.get(0).width < 100);
+        assertTrue(drawn.get(0).height < 60);
+    }
+}
@@ -0,0 +1,204 @@
+package ui.toolkit.graphics.group;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import ui.toolkit.constraint.NoConstraint;
+import ui.toolkit.constraint.PropertyTable;
+import ui.toolkit.graphics.object.BoundaryRectangle;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.Line;
+import ui.toolkit.graphics.object.OutlineRect;
+import ui.toolkit.graphics.object.Text;
+
+public class LayoutGroupTest {
+    private final Random random = new Random(25);
+    private final Graphics2D graphics = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB).createGraphics();
+    private final BoundaryRectangle clip = new BoundaryRectangle(0, 0, 400, 400);
+
+    private GraphicalObject randomChild() {
+        switch (random.nextInt(4)) {
+        case 0:
+            // below the origin: a bounding box at negative fractional
+            // coordinates is truncated toward zero, and moves by one pixel
+            return new Text("t" + random.nextInt(1000), 0, 20);
+        case 1:
+            // horizontal, so its relaxed bounding box has integer coordinates
+            return new Line(0, 0, 1 + random.nextInt(30), 0, Color.BLACK, 2);
+        default:
+            return new OutlineRect(0, 0, 5 + random.nextInt(20), 5 + random.nextInt(20), Color.RED, 1);
+        }
+    }
+
+    // the positions of the uncached layout, computed from scratch
+    private static List<Point> fullLayout(LayoutGroup group) {
+        List<GraphicalObject> children = group.getChildren();
+        int layout = group.getLayout(), offset = group.getOffset();
+        int nRows = group.getNRows(), nColumns = group.getNColumns();
+        int count = (layout == LayoutGroup.GRID) ? Math.min(children.size(), nRows * nColumns) : children.size();
+        int[] rowHeight = new int[Math.max(nRows, 0)], columnWidth = new int[Math.max(nColumns, 0)];
+        if (layout == LayoutGroup.GRID) {
+            for (int idx = 0; idx < count; ++idx) {
+                Rectangle box = children.get(idx).getBoundingBox();
+                rowHeight[idx / nColumns] = Math.max(rowHeight[idx / nColumns], box.height);
+                columnWidth[idx % nColumns] = Math.max(columnWidth[idx % nColumns], box.width);
+            }
+        }
+        List<Point> positions = new ArrayList<>();
+        int x = 0, y = 0;
+        for (int idx = 0; idx < count; ++idx) {
+            Rectangle box = children.get(idx).getBoundingBox();
+            positions.add(new Point(x, y));
+            if (layout == LayoutGroup.HORIZONTAL) {
+                x += box.width + offset;
+            } else if (layout == LayoutGroup.VERTICAL) {
+                y += box.height + offset;
+            } else if ((idx + 1) % nColumns != 0) {
+                x += columnWidth[idx % nColumns] + offset;
+            } else {
+                x = 0;
+                y += rowHeight[idx / nColumns] + offset;
+            }
+        }
+        return positions;
+    }
+
+    private void assertLaidOut(LayoutGroup group) {
+        group.draw(graphics, clip);
+        List<Point> expected = fullLayout(group);
+        for (int idx = 0; idx < expected.size(); ++idx) {
+            assertEquals(expected.get(idx), group.getChildren().get(idx).getBoundingBox().getLocation());
+        }
+    }
+
+    @Test
+    public void cachedLayoutMatchesFullLayout() {
+        for (int trial = 0; trial < 50; ++trial) {
+            LayoutGroup group = new LayoutGroup(5, 5, 300, 300, random.nextInt(3), random.nextInt(5), 4, 3);
+            for (int i = 0; i < 6; ++i) {
+                group.addChild(randomChild());
+            }
+            for (int step = 0; step < 200; ++step) {
+                List<GraphicalObject> children = group.getChildren();
+                GraphicalObject pick = children.get(random.nextInt(children.size()));
+                switch (random.nextInt(9)) {
+                case 0:
+                    if (random.nextBoolean()) {
+                        group.addChild(randomChild());
+                    } else {
+                        group.addChildToTop(randomChild());
+                    }
+                    break;
+                case 1:
+                    if (children.size() > 2) {
+                        group.removeChild(pick);
+                    }
+                    break;
+                case 2:
+                    group.bringChildToFront(pick);
+                    break;
+                case 3:
+                case 4:
+                    resize(pick);
+                    break;
+                case 5:
+                    group.setOffset(random.nextInt(6));
+                    break;
+                case 6:
+                    if (random.nextInt(4) == 0) {
+                        group.setLayout(random.nextInt(3));
+                    } else {
+                        group.setNColumns(1 + random.nextInt(4));
+                    }
+                    break;
+                default:
+                    group.moveTo(random.nextInt(50), random.nextInt(50));
+                    break;
+                }
+                // several changes may be laid out at once
+                if (random.nextInt(3) > 0) {
+                    assertLaidOut(group);
+                }
+            }
+            group.release();
+        }
+    }
+
+    private void resize(GraphicalObject child) {
+        if (child instanceof OutlineRect) {
+            OutlineRect rect = (OutlineRect) child;
+            if (random.nextBoolean()) {
+                rect.setWidth(5 + random.nextInt(30));
+            } else {
+                rect.setHeight(5 + random.nextInt(30));
+            }
+        } else if (child instanceof Text) {
+            ((Text) child).setText("text" + random.nextInt(100000));
+        } else {
+            Line line = (Line) child;
+            line.setX2(line.getX1() + 1 + random.nextInt(40));
+        }
+    }
+
+    private static int[] pixels(LayoutGroup group, Rectangle clip) {
+        BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        group.draw(graphics, new BoundaryRectangle(clip));
+        graphics.dispose();
+        return image.getRGB(0, 0, 400, 400, null, 0, 400);
+    }
+
+    @Test
+    public void indexedGroupDrawsAsGroupWithout() {
+        for (int trial = 0; trial < 20; ++trial) {
+            LayoutGroup group = new LayoutGroup(5, 5, 390, 390, random.nextInt(3), random.nextInt(5), 5, 4);
+            for (int i = 0; i < 40; ++i) {
+                group.addChild(randomChild());
+            }
+            for (int query = 0; query < 10; ++query) {
+                resize(group.getChildren().get(random.nextInt(40)));
+                Rectangle clip = new Rectangle(random.nextInt(300), random.nextInt(300), 1 + random.nextInt(200),
+                        1 + random.nextInt(200));
+                group.setSpatialIndex(false);
+                int[] scanned = pixels(group, clip);
+                group.setSpatialIndex(true);
+                assertArrayEquals(scanned, pixels(group, clip));
+            }
+            group.release();
+        }
+    }
+
+    @Test
+    public void layoutDoesNotAllocateConstraintsOfChildPositions() {
+        LayoutGroup group = new LayoutGroup(0, 0, 300, 300, LayoutGroup.HORIZONTAL, 5);
+        List<OutlineRect> children = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            OutlineRect child = new OutlineRect(0, 0, 10 + i, 10, Color.RED, 1);
+            children.add(child);
+            group.addChild(child);
+        }
+        assertLaidOut(group);
+        children.get(0).setWidth(40);
+        assertLaidOut(group);
+
+        PropertyTable table = PropertyTable.of(OutlineRect.class);
+        for (OutlineRect child : children) {
+            assertTrue(NoConstraint.isUnused(table.get("x").getConstraint(child)));
+            assertTrue(NoConstraint.isUnused(table.get("y").getConstraint(child)));
+            assertTrue(NoConstraint.isUnused(table.get("color").getConstraint(child)));
+        }
+        group.release();
+    }
+}
@@ -0,0 +1,171 @@
+package ui.toolkit.graphics.group;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.awt.Color;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.object.FilledEllipse;
+import ui.toolkit.graphics.object.FilledRect;
+import ui.toolkit.graphics.object.GraphicalObject;
+import ui.toolkit.graphics.object.Line;
+
+public class SpatialIndexTest {
+    private static final int ROUNDS = 40;
+    private static final int CHANGES = 50;
+    private static final int QUERIES = 200;
+
+    private final Random random = new Random(23);
+
+    private GraphicalObject randomObject(int range) {
+        int x = random.nextInt(range), y = random.nextInt(range);
+        switch (random.nextInt(3)) {
+        case 0:
+            return new Line(x, y, x + random.nextInt(200) - 100, y + random.nextInt(200) - 100, Color.BLACK, 2);
+        case 1:
+            return new FilledEllipse(x, y, 1 + random.nextInt(80), 1 + random.nextInt(80), Color.RED);
+        default:
+            return new FilledRect(x, y, 1 + random.nextInt(80), 1 + random.nextInt(80), Color.BLUE);
+        }
+    }
+
+    // the index is compared against a list in z-order, scanned front to back
+    @Test
+    public void matchesScanOfChildrenInZOrder() {
+        List<GraphicalObject> children = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            children.add(randomObject(2000));
+        }
+        SpatialIndex index = new SpatialIndex(children);
+
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int change = 0; change < CHANGES; ++change) {
+                change(index, children);
+            }
+            assertEquals(children.size(), index.size());
+            for (int query = 0; query < QUERIES; ++query) {
+                checkPoint(index, children, randomPoint(), child -> true);
+                checkPoint(index, children, randomPoint(), child -> child instanceof FilledRect);
+            }
+            // also where the children are, e.g. those moved out of the initial root
+            for (int query = 0; query < 20 && !children.isEmpty(); ++query) {
+                Rectangle bounds = children.get(random.nextInt(children.size())).getBoundingBox();
+                checkPoint(index, children, new Point(bounds.x + bounds.width / 2, bounds.y + bounds.height / 2),
+                        child -> true);
+            }
+            for (int query = 0; query < 20; ++query) {
+                Point corner = randomPoint();
+                Rectangle area = new Rectangle(corner.x, corner.y, random.nextInt(600), random.nextInt(600));
+                assertEquals(scan(children, area), index.query(area));
+            }
+        }
+        index.dispose();
+        assertEquals(0, index.size());
+    }
+
+    private void change(SpatialIndex index, List<GraphicalObject> children) {
+        GraphicalObject child = children.isEmpty() ? null : children.get(random.nextInt(children.size()));
+        switch ((child == null) ? 0 : random.nextInt(7)) {
+        case 0: {
+            GraphicalObject added = randomObject(2000);
+            children.add(added);
+            index.add(added);
+            break;
+        }
+        case 1: {
+            GraphicalObject added = randomObject(2000);
+            children.add(0, added);
+            index.addToBottom(added);
+            break;
+        }
+        case 2:
+            children.remove(child);
+            index.remove(child);
+            break;
+        case 3:
+            children.remove(child);
+            children.add(child);
+            index.bringToFront(child);
+            break;
+        case 4:
+            // far outside the root, which grows toward it
+            child.moveTo(random.nextInt(200000) - 100000, random.nextInt(200000) - 100000);
+            break;
+        case 5:
+            if (child instanceof FilledRect) {
+                ((FilledRect) child).setWidth(1 + random.nextInt(400));
+            }
+            break;
+        default:
+            child.moveTo(random.nextInt(2000), random.nextInt(2000));
+            break;
+        }
+    }
+
+    private Point randomPoint() {
+        return new Point(random.nextInt(2400) - 200, random.nextInt(2400) - 200);
+    }
+
+    private static void checkPoint(SpatialIndex index, List<GraphicalObject> children, Point pt,
+            Predicate<GraphicalObject> filter) {
+        assertSame(SpatialIndex.scan(children, pt, filter), index.childAt(pt, filter));
+    }
+
+    // as the index: closed rectangles, so zero-sized bounds still intersect
+    private static List<GraphicalObject> scan(List<GraphicalObject> children, Rectangle area) {
+        List<GraphicalObject> found = new ArrayList<>();
+        for (GraphicalObject child : children) {
+            Rectangle bounds = child.getBoundingBox();
+            if (bounds.x <= area.x + area.width && area.x <= bounds.x + Math.max(0, bounds.width)
+                    && bounds.y <= area.y + area.height && area.y <= bounds.y + Math.max(0, bounds.height)) {
+                found.add(child);
+            }
+        }
+        return found;
+    }
+
+    @Test
+    public void groupWithIndexHitsAsGroupWithout() {
+        SimpleGroup indexed = new SimpleGroup(0, 0, 2000, 2000);
+        indexed.setSpatialIndex(true);
+        List<GraphicalObject> children = new ArrayList<>();
+        for (int i = 0; i < 300; ++i) {
+            GraphicalObject child = randomObject(2000);
+            indexed.addChild(child);
+            children.add(child);
+        }
+        for (int round = 0; round < ROUNDS; ++round) {
+            for (int change = 0; change < CHANGES; ++change) {
+                GraphicalObject child = children.get(random.nextInt(children.size()));
+                switch (random.nextInt(4)) {
+                case 0:
+                    indexed.bringChildToFront(child);
+                    break;
+                case 1:
+                    indexed.removeChild(child);
+                    children.remove(child);
+                    GraphicalObject added = randomObject(2000);
+                    indexed.addChild(added);
+                    children.add(added);
+                    break;
+                default:
+                    child.moveTo(random.nextInt(2000), random.nextInt(2000));
+                    break;
+                }
+            }
+            List<GraphicalObject> inZOrder = indexed.getChildren();
+            for (int query = 0; query < QUERIES; ++query) {
+                Point pt = randomPoint();
+                assertSame(SpatialIndex.scan(inZOrder, pt, child -> true), indexed.childAt(pt, child -> true));
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package ui.toolkit.property;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.junit.Test;
+
+import ui.toolkit.constraint.Constraint;
+import ui.toolkit.constraint.PropertyTable;
+import ui.toolkit.constraint.TrackedConstraint;
+
+public class PropertyProcessorTest {
+    private static final String BOX = "package box;\n"
+            + "import ui.toolkit.property.Property;\n"
+            + "public class Box extends BoxProperties {\n"
+            + "    @Property int size;\n"
+            + "    @Property boolean open;\n"
+            + "    @Property String label = \"box\";\n"
+            + "    public Box(int size) { this.size = size; }\n"
+            + "    public void release() { releaseProperties(); }\n"
+            + "}\n";
+    private static final String CRATE = "package box;\n"
+            + "import ui.toolkit.property.Properties;\n"
+            + "import ui.toolkit.property.Property;\n"
+            + "@Properties(superclass = Box.class)\n"
+            + "public class Crate extends CrateProperties {\n"
+            + "    @Property int depth;\n"
+            + "    public Crate(int size) { super(size); }\n"
+            + "}\n";
+
+    private final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    private Path out;
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///box/" + name + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    // compiles with the processor against the toolkit classes
+    private boolean compile(JavaFileObject... sources) throws Exception {
+        out = Files.createTempDirectory("processor");
+        Path generated = Files.createDirectory(out.resolve("generated"));
+        String classPath = new File(Property.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator
+                + new File(PropertyTable.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics,
+                Arrays.asList("-classpath", classPath, "-d", out.toString(), "-s", generated.toString()), null,
+                Arrays.asList(sources));
+        task.setProcessors(Collections.singletonList(new PropertyProcessor()));
+        return task.call();
+    }
+
+    private String generated(String name) throws IOException {
+        return new String(Files.readAllBytes(out.resolve("generated/box/" + name + ".java")), StandardCharsets.UTF_8);
+    }
+
+    private List<String> errors() {
+        List<String> errors = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                errors.add(diagnostic.getMessage(null));
+            }
+        }
+        return errors;
+    }
+
+    @Test
+    public void generatesWorkingAccessors() throws Exception {
+        assertTrue(errors().toString(), compile(source("Box", BOX), source("Crate", CRATE)));
+        try (URLClassLoader loader = new URLClassLoader(new URL[] { out.toUri().toURL() },
+                getClass().getClassLoader())) {
+            Class<?> box = loader.loadClass("box.Box");
+            Object instance = box.getConstructor(int.class).newInstance(3);
+            assertEquals(3, box.getMethod("getSize").invoke(instance));
+            box.getMethod("setSize", int.class).invoke(instance, 4);
+            assertEquals(4, box.getMethod("getSize").invoke(instance));
+            assertEquals(false, box.getMethod("isOpen").invoke(instance));
+            assertEquals("box", box.getMethod("getLabel").invoke(instance));
+
+            Constraint<Integer> twice = TrackedConstraint.of(() -> 2 * 21);
+            box.getMethod("setSize", Constraint.class).invoke(instance, twice);
+            assertEquals(42, box.getMethod("getSize").invoke(instance));
+            assertEquals(twice, box.getMethod("useSize").invoke(instance));
+
+            // declared to the table, so found without reflection
+            PropertyTable table = PropertyTable.of(box);
+            assertEquals(42, table.get("size").getInt(instance));
+            table.get("open").set(instance, true);
+            assertEquals(true, box.getMethod("isOpen").invoke(instance));
+            assertTrue(table.get("label").isConstrainable());
+
+            Class<?> crate = loader.loadClass("box.Crate");
+            Object child = crate.getConstructor(int.class).newInstance(5);
+            PropertyTable crateTable = PropertyTable.of(crate);
+            assertEquals(5, crateTable.get("size").getInt(child));
+            crateTable.get("depth").set(child, 7);
+            assertEquals(7, crate.getMethod("getDepth").invoke(child));
+        }
+
+        Method release = Class.forName("box.BoxProperties", false,
+                new URLClassLoader(new URL[] { out.toUri().toURL() }, getClass().getClassLoader()))
+                .getDeclaredMethod("releaseProperties");
+        assertTrue(Modifier.isProtected(release.getModifiers()));
+        assertFalse(generated("BoxProperties").contains("super.releaseProperties()"));
+        assertTrue(generated("CrateProperties").contains("super.releaseProperties()"));
+        assertTrue(generated("CrateProperties").contains("public abstract class CrateProperties extends box.Box"));
+    }
+
+    @Test
+    public void rejectsPrivateStaticAndFinalFields() throws Exception {
+        String code = "package box;\n"
+                + "import ui.toolkit.property.Property;\n"
+                + "public class Bad {\n"
+                + "    @Property private int a;\n"
+                + "    @Property static int b;\n"
+                + "    @Property final int c = 0;\n"
+                + "}\n";
+        assertFalse(compile(source("Bad", code)));
+        List<String> errors = errors();
+        assertEquals(errors.toString(), 3, errors.size());
+        for (String error : errors) {
+            assertTrue(error, error.contains("must not be private, static or final"));
+        }
+    }
+}
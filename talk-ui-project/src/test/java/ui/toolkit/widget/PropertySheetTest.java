@@ -0,0 +1,71 @@
+package ui.toolkit.widget;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JLabel;
+
+import org.junit.Test;
+
+import ui.toolkit.graphics.object.OutlineRect;
+
+public class PropertySheetTest {
+    private final OutlineRect rect = new OutlineRect(10, 20, 30, 40, Color.RED, 1);
+
+    private static PropertyDescriptor descriptor(String name) throws Exception {
+        for (PropertyDescriptor descriptor : Introspector.getBeanInfo(OutlineRect.class).getPropertyDescriptors()) {
+            if (descriptor.getName().equals(name)) {
+                return descriptor;
+            }
+        }
+        throw new AssertionError(name);
+    }
+
+    @Test
+    public void listsEveryEditablePropertyOfOutlineRect() throws Exception {
+        List<String> expected = new ArrayList<>();
+        for (PropertyDescriptor descriptor : Introspector.getBeanInfo(OutlineRect.class).getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() != null && descriptor.getWriteMethod() != null
+                    && PropertyEditorManager.findEditor(descriptor.getPropertyType()) != null) {
+                expected.add(descriptor.getName());
+            }
+        }
+        assertTrue(expected.contains("x"));
+        assertTrue(expected.contains("lineThickness"));
+
+        PropertySheet sheet = new PropertySheet(rect, null);
+        List<String> listed = new ArrayList<>();
+        for (Component component : sheet.getComponents()) {
+            if (component instanceof JLabel) {
+                listed.add(((JLabel) component).getText());
+            }
+        }
+        assertEquals(expected, listed);
+        assertEquals(2 * expected.size(), sheet.getComponentCount());
+    }
+
+    @Test
+    public void editorsReadAndWriteTheProperty() throws Exception {
+        PropertySheet sheet = new PropertySheet(rect, null);
+        PropertyEditor x = sheet.getEditor(rect, descriptor("x"));
+        assertNotNull(x);
+        assertEquals(10, x.getValue());
+        x.setAsText("42");
+        assertEquals(42, rect.getX());
+
+        PropertyEditor thickness = sheet.getEditor(rect, descriptor("lineThickness"));
+        assertEquals(1, thickness.getValue());
+        thickness.setValue(3);
+        assertEquals(3, rect.getLineThickness());
+    }
+}